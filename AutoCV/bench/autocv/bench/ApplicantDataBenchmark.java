@@ -0,0 +1,171 @@
+package autocv.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import autocv.data.Address;
+import autocv.data.Applicant;
+import autocv.data.SchoolYear;
+import autocv.io.DataCipher;
+import autocv.parser.ApplicantInfoParser;
+
+/**
+ * Benchmarks the startup cost of reading the applicant
+ * data encrypted at rest against the plaintext path,
+ * along with the one-time key derivation and the cost
+ * of encrypting a save
+ *
+ * The benchmarks within this source folder require the
+ * JMH user library, along with JMH annotation processing
+ * enabled for the project
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ApplicantDataBenchmark {
+
+	/** Temporary app data directory */
+	private Path appDataDir;
+
+	/** Plaintext config file */
+	private Path plainFile;
+
+	/** Encrypted config file */
+	private Path encryptedFile;
+
+	/** Cipher holding the cached session key */
+	private DataCipher cipher;
+
+	/** Applicant read and written by each benchmark */
+	private Applicant applicant;
+
+	/**
+	 * Writes the plaintext and encrypted config
+	 * files to a temporary app data directory
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		appDataDir = Files.createTempDirectory( "autocv-bench" );
+		cipher = DataCipher.open( appDataDir );
+		applicant = sampleApplicant();
+
+		plainFile = appDataDir.resolve( "plain.info" );
+		encryptedFile = appDataDir.resolve( "encrypted.info" );
+		Files.write( plainFile, ApplicantInfoParser.encode( applicant ) );
+		Files.write( encryptedFile, cipher.encrypt(
+				ApplicantInfoParser.encode( applicant ) ) );
+	}
+
+	/**
+	 * Removes the temporary app data directory
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		try( Stream<Path> files = Files.walk( appDataDir ) ) {
+			files.sorted( Comparator.reverseOrder() ).
+				forEach( f -> f.toFile().delete() );
+		}
+	}
+
+	/**
+	 * Reads the plaintext config file
+	 *
+	 * @return parsed Applicant
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Benchmark
+	public Applicant loadPlaintext() throws IOException {
+		return ApplicantInfoParser.read( plainFile );
+	}
+
+	/**
+	 * Reads and authenticates the encrypted config
+	 * file with the cached session key
+	 *
+	 * @return parsed Applicant
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Benchmark
+	public Applicant loadEncrypted() throws IOException {
+		try( InputStream in = cipher.decrypt( Files.newInputStream(
+				encryptedFile ) ) ) {
+			return ApplicantInfoParser.read( in );
+		}
+	}
+
+	/**
+	 * Encodes a save without encryption
+	 *
+	 * @return plaintext file contents
+	 */
+	@Benchmark
+	public byte[] encodePlaintext() {
+		return ApplicantInfoParser.encode( applicant );
+	}
+
+	/**
+	 * Encodes and encrypts a save with the cached
+	 * session key
+	 *
+	 * @return encrypted file contents
+	 */
+	@Benchmark
+	public byte[] encodeEncrypted() {
+		return cipher.encrypt( ApplicantInfoParser.encode( applicant ) );
+	}
+
+	/**
+	 * Derives the session key, as done once during
+	 * UI initialization
+	 *
+	 * @return cipher holding the derived key
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Benchmark
+	@BenchmarkMode( Mode.SingleShotTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public DataCipher deriveKey() throws IOException {
+		return DataCipher.open( appDataDir );
+	}
+
+	/**
+	 * Constructs the Applicant used by the
+	 * benchmarks
+	 *
+	 * @return sample Applicant
+	 */
+	static Applicant sampleApplicant() {
+		return new Applicant( "Jane Doe", "Q", "jane.doe@example.com",
+				"github.com/janedoe", "linkedin.com/in/janedoe",
+				"(555) 555-0100", SchoolYear.JUNIOR, true,
+				new Address( "100 Main Street", "Raleigh, NC 27607", "Room 204" ),
+				new Address( "42 Elm Street", "Durham, NC 27701", "P.O. Box 17" ) );
+	}
+}
@@ -0,0 +1,49 @@
+package autocv.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks twice, first single-threaded and
+ * then with a thread per available processor, with the
+ * GC profiler reporting the allocation rate of every
+ * benchmark
+ * 
+ * Any JMH command line options are applied to both runs;
+ * for example, to run only the render path benchmarks:
+ * 
+ * <pre>
+ * java autocv.bench.BenchmarkMain RenderPathBenchmark
+ * </pre>
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class BenchmarkMain {
+	
+	/** Utility class is not instantiable */
+	private BenchmarkMain() {}
+	
+	/**
+	 * Runs the single-threaded and multi-threaded
+	 * benchmark runs
+	 * 
+	 * @param  args JMH command line options
+	 * @throws Exception upon an invalid option, or
+	 * 		   a failed benchmark
+	 */
+	public static void main( String[] args ) throws Exception {
+		CommandLineOptions cli = new CommandLineOptions( args );
+		int processors = Runtime.getRuntime().availableProcessors();
+		
+		for( int threads : new int[] { 1, processors } ) {
+			Options opts = new OptionsBuilder().parent( cli ).
+					threads( threads ).addProfiler( GCProfiler.class ).
+					build();
+			new Runner( opts ).run();
+		}
+	}
+}
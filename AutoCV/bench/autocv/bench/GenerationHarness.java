@@ -0,0 +1,632 @@
+package autocv.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import autocv.data.Address;
+import autocv.data.Applicant;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.data.JobSeason;
+import autocv.data.JobType;
+import autocv.io.DirectorySink;
+import autocv.io.OutputSink;
+import autocv.io.ZipSink;
+import autocv.log.Logger;
+import autocv.render.CoverLetterGenerator;
+import autocv.render.GenerationJob;
+import autocv.render.GenerationJob.Stage;
+import autocv.render.GenerationQueue;
+import autocv.render.OutputFormat;
+
+/**
+ * Drives the full generation path - from the company
+ * and job credentials of each letter to the bytes of
+ * its PDF - for a number of letters through the
+ * generation queue, with the stub renderer standing
+ * in for Chrome, and reports the throughput and the
+ * p50/p95/p99 latency of each stage
+ *
+ * <pre>
+ * java autocv.bench.GenerationHarness --letters 10000
+ *     --concurrency 4 --delay 5 --failure-rate 0.01 --seed 42
+ * </pre>
+ *
+ * The QUEUE latency is the time a letter waited for a
+ * generation thread, and TOTAL the time from submission
+ * to completion
+ *
+ * With --soak, the letters are generated repeatedly for
+ * the given number of --rounds through the same queue,
+ * sampling the open file descriptors, live threads,
+ * child processes, and heap after GC between rounds;
+ * the harness exits with status 1 if any of them grew
+ * after the first round, which warms up the program.
+ * With --spawn, every render also runs a child process.
+ * With --batch, the letters are submitted as a single
+ * batch, rendered together in groups where the renderer
+ * is process-based. With --zip, the letters are written
+ * into a single ZIP archive rather than a file each.
+ * With --format text or markdown, the letters are
+ * produced as text, without the renderer. With
+ * --interactive, the given number of single letters
+ * are requested a tenth of a second apart while the
+ * letters are generating, as the client would request
+ * them during a batch, and their latency is reported
+ * separately
+ *
+ * The events logged during the run, such as a failed
+ * letter, are written to the logs directory of the
+ * temporary working directory, removed afterwards
+ *
+ * <pre>
+ * java autocv.bench.GenerationHarness --soak --spawn
+ *     --letters 10000 --rounds 20
+ * </pre>
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class GenerationHarness {
+
+	/** Rows of the latency report */
+	private static final String[] ROWS = {
+			"BUILD", "WRITE", "RENDER", "QUEUE", "TOTAL" };
+
+	/** Index of the QUEUE row */
+	private static final int QUEUE = 3;
+
+	/** Index of the TOTAL row */
+	private static final int TOTAL = 4;
+
+	/** Company names cycled through the letters */
+	private static final String[] COMPANIES = {
+			"Initech", "Globex", "Hooli", "Vandelay Industries",
+			"Pied Piper", "Massive Dynamic", "Soylent", "Umbrella" };
+
+	/**
+	 * Open file descriptors tolerated above the warmed
+	 * up sample, covering descriptors the JDK opens
+	 * lazily, such as those of its jar files
+	 */
+	private static final long FD_SLACK = 4;
+
+	/** Heap growth tolerated above the warmed up sample */
+	private static final long HEAP_SLACK = 16L << 20;
+
+	/** Utility class is not instantiable */
+	private GenerationHarness() {}
+
+	/**
+	 * Runs the harness with the given options
+	 *
+	 * @param  args harness options
+	 * @throws Exception upon an invalid option, or a
+	 * 		   failure outside of the rendered letters
+	 */
+	public static void main( String[] args ) throws Exception {
+		int letters = 1000;
+		int concurrency = 2;
+		long delay = 0;
+		double failureRate = 0;
+		long seed = 42;
+		boolean soak = false;
+		int rounds = 20;
+		boolean spawn = false;
+		boolean batch = false;
+		boolean zip = false;
+		OutputFormat format = OutputFormat.PDF;
+		int interactive = 0;
+
+		for( int i = 0; i < args.length; i++ ) {
+			String option = args[ i ];
+			switch( option ) {
+			case "--soak":
+				soak = true;
+				continue;
+			case "--spawn":
+				spawn = true;
+				continue;
+			case "--batch":
+				batch = true;
+				continue;
+			case "--zip":
+				zip = true;
+				continue;
+			default:
+				break;
+			}
+			if( ++i == args.length ) {
+				throw new IllegalArgumentException( "Missing value: " + option );
+			}
+			switch( option ) {
+			case "--letters":
+				letters = Integer.parseInt( args[ i ] );
+				break;
+			case "--concurrency":
+				concurrency = Integer.parseInt( args[ i ] );
+				break;
+			case "--delay":
+				delay = Long.parseLong( args[ i ] );
+				break;
+			case "--failure-rate":
+				failureRate = Double.parseDouble( args[ i ] );
+				break;
+			case "--seed":
+				seed = Long.parseLong( args[ i ] );
+				break;
+			case "--rounds":
+				rounds = Integer.parseInt( args[ i ] );
+				break;
+			case "--format":
+				format = OutputFormat.valueOf( args[ i ].toUpperCase( Locale.ROOT ) );
+				break;
+			case "--interactive":
+				interactive = Integer.parseInt( args[ i ] );
+				break;
+			default:
+				throw new IllegalArgumentException( "Unknown option: " + option );
+			}
+		}
+
+		System.out.printf( Locale.ROOT, "%d letters, %d threads, %d ms render "
+				+ "delay, %.2f%% failure rate%n", soak ? letters * rounds : letters,
+				concurrency, delay, failureRate * 100 );
+
+		Path workDir = Files.createTempDirectory( "autocv-harness" );
+		Logger.configure( workDir.resolve( "logs" ) );
+		boolean flat = true;
+		try( GenerationQueue queue = new GenerationQueue( new CoverLetterGenerator(
+				new StubPdfRenderer( delay, failureRate, seed, spawn ) ),
+				concurrency, Runnable::run ) ) {
+
+			if( soak ) {
+				flat = soak( queue, letters, rounds, batch, zip, format, workDir );
+			}
+			else if( interactive > 0 ) {
+				generateDuring( queue, letters, batch, zip, format, interactive, workDir );
+			}
+			else {
+				generate( queue, letters, batch, zip, format, workDir ).report();
+			}
+		} finally {
+			Logger.shutdown();
+			deleteTree( workDir );
+		}
+		if( !flat ) {
+			System.exit( 1 );
+		}
+	}
+
+	/**
+	 * Generates the given number of letters for each
+	 * round, sampling the resources of the process
+	 * after every round
+	 *
+	 * @param  queue   generation queue
+	 * @param  letters number of letters per round
+	 * @param  rounds  number of rounds
+	 * @param  batch   whether the letters are submitted
+	 * 				   as a single batch
+	 * @param  zip	   whether the letters are written
+	 * 				   into a single ZIP archive
+	 * @param  format  format of the letters
+	 * @param  workDir directory receiving the HTML and
+	 * 				   PDF of every letter
+	 * @return true if no resource grew after the
+	 * 		   first round
+	 * @throws Exception upon an interrupted run
+	 */
+	static boolean soak( GenerationQueue queue, int letters, int rounds,
+			boolean batch, boolean zip, OutputFormat format, Path workDir )
+			throws Exception {
+
+		System.out.printf( Locale.ROOT, "%-6s %10s %10s %6s %8s %9s %9s%n",
+				"round", "letters/s", "p99 (us)", "fds", "threads",
+				"children", "heap (KB)" );
+
+		Sample baseline = null;
+		Sample sample = null;
+		for( int r = 1; r <= rounds; r++ ) {
+			Round round = generate( queue, letters, batch, zip, format, workDir );
+			sample = Sample.take();
+			if( baseline == null ) {
+				baseline = sample;
+			}
+			System.out.printf( Locale.ROOT, "%-6d %10.1f %10.1f %6d %8d %9d %9d%n",
+					r, round.throughput(), round.percentile( TOTAL, 99 ) / 1e3,
+					sample.fds, sample.threads, sample.children, sample.heap >> 10 );
+		}
+
+		boolean flat = true;
+		flat &= check( "open file descriptors", baseline.fds,
+				sample.fds, FD_SLACK );
+		flat &= check( "live threads", baseline.threads, sample.threads, 0 );
+		flat &= check( "child processes", baseline.children,
+				sample.children, 0 );
+		flat &= check( "heap after GC", baseline.heap, sample.heap,
+				Math.max( HEAP_SLACK, baseline.heap / 4 ) );
+		System.out.println( flat ? "Resources flat" : "Resources grew" );
+		return flat;
+	}
+
+	/**
+	 * Reports whether a sampled resource grew beyond
+	 * the given slack
+	 *
+	 * @param  resource name of the resource
+	 * @param  before	warmed up sample
+	 * @param  after	final sample
+	 * @param  slack	growth tolerated
+	 * @return true if the resource did not grow
+	 * 		   beyond the slack
+	 */
+	private static boolean check( String resource, long before, long after,
+			long slack ) {
+		if( before < 0 || after <= before + slack ) {
+			return true;
+		}
+		System.out.printf( Locale.ROOT, "LEAK: %s grew from %d to %d%n",
+				resource, before, after );
+		return false;
+	}
+
+	/**
+	 * Generates the given number of letters through the
+	 * given queue, waiting for every letter to finish
+	 *
+	 * @param  queue   generation queue
+	 * @param  letters number of letters
+	 * @param  batch   whether the letters are submitted
+	 * 				   as a single batch
+	 * @param  zip	   whether the letters are written
+	 * 				   into a single ZIP archive
+	 * @param  format  format of the letters
+	 * @param  workDir directory receiving the HTML and
+	 * 				   PDF of every letter
+	 * @return latencies of the letters
+	 * @throws IOException if the archive could not be
+	 * 		   written
+	 */
+	static Round generate( GenerationQueue queue, int letters, boolean batch,
+			boolean zip, OutputFormat format, Path workDir ) throws IOException {
+		Applicant applicant = ApplicantDataBenchmark.sampleApplicant();
+		JobCredentials jobCred = new JobCredentials( JobType.INTERNSHIP,
+				JobSeason.SUMMER, "2021" );
+
+		Round round = new Round( letters );
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[ letters ];
+
+		long start = System.nanoTime();
+		Path archive = workDir.resolve( "letters.zip" );
+		OutputSink sink = zip ? new ZipSink( archive ) : new DirectorySink( workDir );
+		List<GenerationJob> jobs = new ArrayList<>( letters );
+		for( int i = 0; i < letters; i++ ) {
+			Company company = new Company( COMPANIES[ i % COMPANIES.length ],
+					new Address( ( 100 + i ) + " Main Street", "Austin, TX 78744" ) );
+			jobs.add( new GenerationJob( applicant, company, jobCred,
+					"Software Engineering Intern", workDir, sink,
+					"letter_" + i + format.getExtension(), format ) );
+		}
+
+		List<CompletableFuture<GenerationJob>> submitted = batch ?
+				queue.submitBatch( jobs ) : null;
+		for( int i = 0; i < letters; i++ ) {
+			int row = i;
+			long queued = batch ? start : System.nanoTime();
+			CompletableFuture<GenerationJob> future = batch ?
+					submitted.get( i ) : queue.submit( jobs.get( i ) );
+			futures[ i ] = future.whenComplete( ( done, ex ) ->
+				round.record( row, done, ex, System.nanoTime() - queued ) );
+		}
+		CompletableFuture.allOf( futures ).exceptionally( ex -> null ).join();
+		if( zip ) {
+			sink.close();
+			round.pdfBytes.addAndGet( Files.size( archive ) );
+		}
+		round.nanos = System.nanoTime() - start;
+		Files.deleteIfExists( archive );
+		return round;
+	}
+
+	/**
+	 * Generates the given number of letters while single
+	 * letters are requested alongside them, reporting the
+	 * latencies of both
+	 *
+	 * @param  queue	   generation queue
+	 * @param  letters	   number of letters
+	 * @param  batch	   whether the letters are submitted
+	 * 					   as a single batch
+	 * @param  zip		   whether the letters are written
+	 * 					   into a single ZIP archive
+	 * @param  format	   format of the letters
+	 * @param  interactive number of single letters
+	 * @param  workDir	   directory receiving the HTML and
+	 * 					   PDF of every letter
+	 * @throws Exception upon an interrupted run
+	 */
+	static void generateDuring( GenerationQueue queue, int letters, boolean batch,
+			boolean zip, OutputFormat format, int interactive, Path workDir )
+			throws Exception {
+
+		CompletableFuture<Round> background = CompletableFuture.supplyAsync( () -> {
+			try {
+				return generate( queue, letters, batch, zip, format, workDir );
+			} catch( IOException ex ) {
+				throw new UncheckedIOException( ex );
+			}
+		});
+		Round requested = interactive( queue, interactive, format,
+				Files.createDirectory( workDir.resolve( "interactive" ) ) );
+		background.join().report();
+		System.out.println( "Interactive letters:" );
+		requested.report();
+	}
+
+	/**
+	 * Requests the given number of single letters a tenth
+	 * of a second apart, as the client would while other
+	 * letters are generating, waiting for every letter to
+	 * finish
+	 *
+	 * @param  queue   generation queue
+	 * @param  letters number of letters
+	 * @param  format  format of the letters
+	 * @param  workDir directory receiving the letters
+	 * @return latencies of the letters
+	 * @throws InterruptedException if interrupted between
+	 * 		   requests
+	 */
+	static Round interactive( GenerationQueue queue, int letters, OutputFormat format,
+			Path workDir ) throws InterruptedException {
+		Applicant applicant = ApplicantDataBenchmark.sampleApplicant();
+		JobCredentials jobCred = new JobCredentials( JobType.INTERNSHIP,
+				JobSeason.SUMMER, "2021" );
+		OutputSink sink = new DirectorySink( workDir );
+
+		Round round = new Round( letters );
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[ letters ];
+		long start = System.nanoTime();
+		for( int i = 0; i < letters; i++ ) {
+			Thread.sleep( 100 );
+			int row = i;
+			long queued = System.nanoTime();
+			futures[ i ] = queue.submit( new GenerationJob( applicant,
+					new Company( COMPANIES[ i % COMPANIES.length ],
+							new Address( "1 Main Street", "Austin, TX 78744" ) ),
+					jobCred, "Software Engineering Intern", workDir, sink,
+					"requested_" + i + format.getExtension(), format ) ).whenComplete(
+				( done, ex ) -> round.record( row, done, ex, System.nanoTime() - queued ) );
+		}
+		CompletableFuture.allOf( futures ).exceptionally( ex -> null ).join();
+		round.nanos = System.nanoTime() - start;
+		return round;
+	}
+
+	/**
+	 * Computes the nearest-rank percentile of the
+	 * given sorted samples
+	 *
+	 * @param  sorted	  sorted samples
+	 * @param  percentile percentile, between 0 and 100
+	 * @return percentile value, or 0 without samples
+	 */
+	static long percentile( long[] sorted, double percentile ) {
+		if( sorted.length == 0 ) {
+			return 0;
+		}
+		int rank = (int) Math.ceil( percentile / 100 * sorted.length );
+		return sorted[ Math.max( 0, Math.min( sorted.length, rank ) - 1 ) ];
+	}
+
+	/**
+	 * Removes the given directory and everything
+	 * within it
+	 *
+	 * @param  dir directory
+	 * @throws IOException upon runtime I/O exception
+	 */
+	static void deleteTree( Path dir ) throws IOException {
+		try( Stream<Path> files = Files.walk( dir ) ) {
+			for( Path file : ( Iterable<Path> ) files.sorted(
+					Comparator.reverseOrder() )::iterator ) {
+				Files.deleteIfExists( file );
+			}
+		}
+	}
+
+	/**
+	 * Latencies of a single run of letters through the
+	 * generation queue
+	 *
+	 * @since 1.1
+	 */
+	static final class Round {
+
+		/** Latency of each row of each letter, -1 if failed */
+		private final long[][] latencies;
+
+		/** Number of letters generated */
+		private final AtomicInteger completed = new AtomicInteger();
+
+		/** Number of letters failed */
+		private final AtomicInteger failed = new AtomicInteger();
+
+		/** Total size of the generated PDFs */
+		private final AtomicLong pdfBytes = new AtomicLong();
+
+		/** Duration of the run, in nanoseconds */
+		private long nanos;
+
+		/**
+		 * Default constructor, initializing the
+		 * latencies of the given number of letters
+		 *
+		 * @param letters number of letters
+		 */
+		Round( int letters ) {
+			latencies = new long[ ROWS.length ][ letters ];
+		}
+
+		/**
+		 * Records a finished letter, reading back and
+		 * removing its file; a letter written into the
+		 * archive is counted with the archive instead
+		 *
+		 * @param row	letter number
+		 * @param job	generated job, or null if failed
+		 * @param ex	failure of the letter, or null
+		 * @param total time from submission to completion
+		 */
+		void record( int row, GenerationJob job, Throwable ex, long total ) {
+			latencies[ TOTAL ][ row ] = -1;
+			if( ex != null ) {
+				failed.incrementAndGet();
+				return;
+			}
+			try {
+				if( !( job.getSink() instanceof ZipSink ) ) {
+					Path file = Paths.get( job.getOutput() );
+					pdfBytes.addAndGet( Files.readAllBytes( file ).length );
+					Files.delete( file );
+				}
+			} catch( IOException ioe ) {
+				failed.incrementAndGet();
+				return;
+			}
+
+			long stages = 0;
+			for( Stage stage : Stage.values() ) {
+				long stageNanos = job.getTiming( stage );
+				latencies[ stage.ordinal() ][ row ] = stageNanos;
+				stages += stageNanos;
+			}
+			latencies[ QUEUE ][ row ] = total - stages;
+			latencies[ TOTAL ][ row ] = total;
+			completed.incrementAndGet();
+		}
+
+		/**
+		 * Computes the throughput of the run
+		 *
+		 * @return letters generated per second
+		 */
+		double throughput() {
+			return completed.get() / ( nanos / 1e9 );
+		}
+
+		/**
+		 * Computes the nearest-rank percentile of the
+		 * given row over the letters generated
+		 *
+		 * @param  row		  row of the latency report
+		 * @param  percentile percentile, between 0 and 100
+		 * @return latency in nanoseconds
+		 */
+		long percentile( int row, double percentile ) {
+			long[] samples = new long[ latencies[ row ].length ];
+			int count = 0;
+			for( int i = 0; i < samples.length; i++ ) {
+				if( latencies[ TOTAL ][ i ] >= 0 ) {
+					samples[ count++ ] = latencies[ row ][ i ];
+				}
+			}
+			samples = Arrays.copyOf( samples, count );
+			Arrays.sort( samples );
+			return GenerationHarness.percentile( samples, percentile );
+		}
+
+		/**
+		 * Prints the throughput and the latency
+		 * percentiles of every stage
+		 */
+		void report() {
+			System.out.printf( Locale.ROOT, "%d completed, %d failed, %d output bytes "
+					+ "in %.3f s: %.1f letters/s%n", completed.get(), failed.get(),
+					pdfBytes.get(), nanos / 1e9, throughput() );
+			System.out.printf( Locale.ROOT, "%-8s %12s %12s %12s%n", "stage",
+					"p50 (us)", "p95 (us)", "p99 (us)" );
+
+			for( int r = 0; r < ROWS.length; r++ ) {
+				System.out.printf( Locale.ROOT, "%-8s %12.1f %12.1f %12.1f%n",
+						ROWS[ r ], percentile( r, 50 ) / 1e3,
+						percentile( r, 95 ) / 1e3, percentile( r, 99 ) / 1e3 );
+			}
+		}
+	}
+
+	/**
+	 * Resources held by the process at a point in time
+	 *
+	 * @since 1.1
+	 */
+	static final class Sample {
+
+		/** Open file descriptors, or -1 if unavailable */
+		final long fds;
+
+		/** Live threads */
+		final long threads;
+
+		/** Live child processes */
+		final long children;
+
+		/** Heap used after a full GC, in bytes */
+		final long heap;
+
+		/**
+		 * Default constructor, initializing every
+		 * sampled resource
+		 */
+		private Sample( long fds, long threads, long children, long heap ) {
+			this.fds = fds;
+			this.threads = threads;
+			this.children = children;
+			this.heap = heap;
+		}
+
+		/**
+		 * Samples the resources of the current process,
+		 * collecting garbage first so that the heap holds
+		 * only reachable objects
+		 *
+		 * @return resource sample
+		 * @throws InterruptedException if interrupted while
+		 * 		   waiting for the collection
+		 */
+		static Sample take() throws InterruptedException {
+			for( int i = 0; i < 3; i++ ) {
+				System.gc();
+				Thread.sleep( 50 );
+			}
+
+			long fds = -1;
+			if( ManagementFactory.getOperatingSystemMXBean()
+					instanceof UnixOperatingSystemMXBean unix ) {
+				fds = unix.getOpenFileDescriptorCount();
+			}
+			return new Sample( fds,
+					ManagementFactory.getThreadMXBean().getThreadCount(),
+					ProcessHandle.current().descendants().filter(
+							ProcessHandle::isAlive ).count(),
+					ManagementFactory.getMemoryMXBean().
+							getHeapMemoryUsage().getUsed() );
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package autocv.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import autocv.data.Address;
+import autocv.data.Applicant;
+import autocv.data.ApplicantProfileStore;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.data.JobSeason;
+import autocv.data.JobType;
+import autocv.html.CoverLetterFieldResolver;
+import autocv.html.CoverLetterHTMLBuilder;
+import autocv.html.CoverLetterTemplate;
+import autocv.io.DataCipher;
+import autocv.parser.ApplicantInfoParser;
+import autocv.parser.CoverLetterField;
+import autocv.parser.CoverLetterFieldMap;
+
+/**
+ * Benchmarks every step of the cover letter render path:
+ * building the letter HTML, parsing the applicant info
+ * loaded at startup, traversing the field map, and the
+ * construction and comparison of the data classes
+ * 
+ * Run through BenchmarkMain, which runs the suite both
+ * single-threaded and with a thread per processor, and
+ * reports the allocation rate of each benchmark through
+ * the GC profiler; a change to the render path should
+ * be accompanied by the numbers of both runs before and
+ * after the change
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RenderPathBenchmark {
+	
+	/** Date format of the cover letter */
+	private static final String DATE_FORMAT = "MMMMMMMMM dd, YYYY";
+	
+	/** Temporary app data directory */
+	private Path appDataDir;
+	
+	/** Store reading the config file of the directory */
+	private ApplicantProfileStore store;
+	
+	/** Lines of the applicant config file */
+	private List<String> configLines;
+	
+	/** Applicant of every letter */
+	private Applicant applicant;
+	
+	/** Equal, but distinct, copy of the applicant */
+	private Applicant applicantCopy;
+	
+	/** Company of every letter */
+	private Company company;
+	
+	/** Job credentials of every letter */
+	private JobCredentials jobCred;
+	
+	/**
+	 * Writes the config file of the sample applicant
+	 * to a temporary app data directory, and compiles
+	 * the base cover letter
+	 * 
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		applicant = ApplicantDataBenchmark.sampleApplicant();
+		applicantCopy = ApplicantDataBenchmark.sampleApplicant();
+		company = sampleCompany();
+		jobCred = new JobCredentials( JobType.INTERNSHIP,
+				JobSeason.SUMMER, "2021" );
+		
+		appDataDir = Files.createTempDirectory( "autocv-bench" );
+		DataCipher cipher = DataCipher.open( appDataDir );
+		Path config = appDataDir.resolve( "config.info" );
+		Files.write( config, cipher.encrypt( ApplicantInfoParser.
+				encode( applicant ) ) );
+		store = new ApplicantProfileStore( config,
+				appDataDir.resolve( "profiles" ), cipher );
+		
+		configLines = ApplicantInfoParser.format( applicant );
+		
+		CoverLetterTemplate.base();
+	}
+	
+	/**
+	 * Removes the temporary app data directory
+	 * 
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		try( Stream<Path> files = Files.walk( appDataDir ) ) {
+			files.sorted( Comparator.reverseOrder() ).
+				forEach( f -> f.toFile().delete() );
+		}
+	}
+	
+	/**
+	 * Builds the lines of a complete cover letter,
+	 * as done for every generated letter
+	 * 
+	 * @return built letter
+	 * @throws Exception upon runtime I/O exception
+	 */
+	@Benchmark
+	public CoverLetterHTMLBuilder buildLetter() throws Exception {
+		CoverLetterHTMLBuilder builder = new CoverLetterHTMLBuilder(
+				applicant, company, jobCred, "Software Engineering Intern" );
+		builder.build();
+		return builder;
+	}
+	
+	/**
+	 * Renders a complete cover letter from the compiled
+	 * template, without splitting it into lines
+	 * 
+	 * @return rendered letter
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Benchmark
+	public String renderTemplate() throws IOException {
+		return CoverLetterTemplate.base().render( new CoverLetterFieldResolver(
+				applicant, company, jobCred, "Software Engineering Intern" ) );
+	}
+	
+	/**
+	 * Parses the lines of a config file
+	 * 
+	 * @return parsed Applicant
+	 * @throws IOException upon a malformed config file
+	 */
+	@Benchmark
+	public Applicant parseApplicantInfo() throws IOException {
+		return ApplicantInfoParser.parse( configLines );
+	}
+	
+	/**
+	 * Loads every profile from disk, as done by
+	 * loadApplicantInfo during UI initialization
+	 * 
+	 * @return active Applicant
+	 * @throws IOException upon runtime I/O exception
+	 */
+	@Benchmark
+	public Applicant loadApplicantInfo() throws IOException {
+		store.load();
+		return store.getDiskApplicant( store.getActiveFile() );
+	}
+	
+	/**
+	 * Traverses the field map from the first field
+	 * until a field repeats, as done when compiling
+	 * the cover letter template
+	 * 
+	 * @return number of fields visited
+	 */
+	@Benchmark
+	public int traverseFieldMap() {
+		CoverLetterFieldMap clfMap = new CoverLetterFieldMap();
+		Set<CoverLetterField> visited = new HashSet<>();
+		CoverLetterField field = CoverLetterField.INITIAL_FIRST_NAME;
+		while( field != null && visited.add( field ) ) {
+			field = clfMap.get( field );
+		}
+		return visited.size();
+	}
+	
+	/**
+	 * Constructs an Applicant, including splitting
+	 * the name and constructing both addresses
+	 * 
+	 * @return constructed Applicant
+	 */
+	@Benchmark
+	public Applicant constructApplicant() {
+		return ApplicantDataBenchmark.sampleApplicant();
+	}
+	
+	/**
+	 * Compares two equal, but distinct, Applicants
+	 * 
+	 * @return true
+	 */
+	@Benchmark
+	public boolean applicantEquals() {
+		return applicant.equals( applicantCopy );
+	}
+	
+	/**
+	 * Formats the date of a letter
+	 * 
+	 * @return formatted date
+	 */
+	@Benchmark
+	public String formatDate() {
+		return new SimpleDateFormat( DATE_FORMAT ).format( new Date() );
+	}
+	
+	/**
+	 * Constructs the Company used by the benchmarks
+	 * 
+	 * @return sample Company
+	 */
+	static Company sampleCompany() {
+		return new Company( "Initech", new Address(
+				"4120 Freidrich Lane", "Austin, TX 78744" ) );
+	}
+}
@@ -0,0 +1,144 @@
+package autocv.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import autocv.html.BatchDocument;
+import autocv.render.PdfRenderer;
+
+/**
+ * Deterministic stand-in for Chrome, so that the
+ * generation path may be driven on any machine; each
+ * render sleeps for a fixed delay and then writes a
+ * minimal PDF of a blank page per letter, or fails
+ * with the configured rate; optionally, each render
+ * also runs a short-lived child process, exercising
+ * the process handling of a real renderer, and the
+ * letters of a batch are then rendered together
+ * 
+ * Whether a render fails depends only on the seed and
+ * the number of renders before it, so that two runs
+ * with the same seed fail the same renders
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class StubPdfRenderer implements PdfRenderer {
+	
+	/** Duration of each render, in milliseconds */
+	private final long delayMillis;
+	
+	/** Fraction of renders which fail */
+	private final double failureRate;
+	
+	/** Seed deciding which renders fail */
+	private final long seed;
+	
+	/** Whether each render runs a child process */
+	private final boolean spawn;
+	
+	/** Number of renders started */
+	private final AtomicLong renders;
+	
+	/**
+	 * Default constructor, initializing the delay
+	 * and failure rate of each render
+	 * 
+	 * @param delayMillis duration of each render,
+	 * 					  in milliseconds
+	 * @param failureRate fraction of renders which
+	 * 					  fail, between 0 and 1
+	 * @param seed		  seed deciding which renders
+	 * 					  fail
+	 * @param spawn		  whether each render runs a
+	 * 					  child process
+	 */
+	public StubPdfRenderer( long delayMillis, double failureRate, long seed,
+			boolean spawn ) {
+		this.delayMillis = delayMillis;
+		this.failureRate = failureRate;
+		this.seed = seed;
+		this.spawn = spawn;
+		renders = new AtomicLong();
+	}
+	
+	@Override
+	public void render( Path htmlFile, Path pdfFile )
+		throws IOException, InterruptedException {
+		
+		long n = renders.getAndIncrement();
+		if( !Files.exists( htmlFile ) ) {
+			throw new IOException( "Missing HTML file: " + htmlFile );
+		}
+		if( spawn ) {
+			int exit = new ProcessBuilder( "true" ).
+					redirectInput( ProcessBuilder.Redirect.INHERIT ).
+					redirectOutput( ProcessBuilder.Redirect.DISCARD ).
+					redirectError( ProcessBuilder.Redirect.DISCARD ).
+					start().waitFor();
+			if( exit != 0 ) {
+				throw new IOException( "Child process exited with code " + exit );
+			}
+		}
+		if( delayMillis > 0 ) {
+			Thread.sleep( delayMillis );
+		}
+		if( new SplittableRandom( seed + n ).nextDouble() < failureRate ) {
+			throw new IOException( "Simulated render failure #" + n );
+		}
+		
+		// A batch document renders a page per letter
+		String html = Files.readString( htmlFile );
+		int pages = 1;
+		for( int at = html.indexOf( BatchDocument.PAGE_BREAK ); at >= 0;
+				at = html.indexOf( BatchDocument.PAGE_BREAK, at + 1 ) ) {
+			pages++;
+		}
+		Files.write( pdfFile, pdf( pages ) );
+	}
+	
+	/**
+	 * Renders start a child process only with spawn,
+	 * so that batches are combined only then
+	 */
+	@Override
+	public boolean isProcessBased() {
+		return spawn;
+	}
+	
+	/**
+	 * Writes a minimal PDF of the given number of
+	 * blank pages
+	 * 
+	 * @param  pages number of pages
+	 * @return contents of the PDF
+	 */
+	static byte[] pdf( int pages ) {
+		StringBuilder kids = new StringBuilder();
+		StringBuilder objects = new StringBuilder();
+		for( int i = 0; i < pages; i++ ) {
+			kids.append( i + 3 ).append( " 0 R " );
+			objects.append( i + 3 ).append( " 0 obj << /Type /Page /Parent 2 0 R "
+					+ "/MediaBox [0 0 612 792] >> endobj\n" );
+		}
+		return ( "%PDF-1.4\n"
+				+ "1 0 obj << /Type /Catalog /Pages 2 0 R >> endobj\n"
+				+ "2 0 obj << /Type /Pages /Kids [" + kids + "] /Count " + pages
+				+ " >> endobj\n" + objects
+				+ "trailer << /Root 1 0 R >>\n"
+				+ "%%EOF\n" ).getBytes( StandardCharsets.US_ASCII );
+	}
+	
+	/**
+	 * Retrieves the number of renders started
+	 * 
+	 * @return render count
+	 */
+	public long getRenderCount() {
+		return renders.get();
+	}
+}
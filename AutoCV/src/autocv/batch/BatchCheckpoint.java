@@ -0,0 +1,427 @@
+package autocv.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import autocv.data.Applicant;
+import autocv.data.JobCredentials;
+import autocv.io.OutputPathTemplate;
+import autocv.io.OutputSink;
+import autocv.log.Logger;
+import autocv.parser.ApplicantInfoParser;
+import autocv.render.OutputFormat;
+
+/**
+ * Checkpoint journal of a batch, recording the row, the
+ * location within its sink, and the digest of every
+ * letter of the batch generated so far, so that a batch
+ * interrupted by a crash may be resumed rather than
+ * generated again from its first row
+ *
+ * <pre>
+ * AutoCV-Checkpoint 2 &lt;digest of the batch file&gt; &lt;digest of the inputs&gt;
+ * &lt;row&gt; &lt;digest of the letter&gt; &lt;location&gt;
+ * </pre>
+ *
+ * Records are synced to disk in groups of GROUP_RECORDS,
+ * or once GROUP_MILLIS have passed since the last sync,
+ * rather than upon every letter; a crash loses at most
+ * the records of a single group, whose letters are then
+ * generated again. A torn record at the end of the file
+ * is discarded when the checkpoint is reopened
+ *
+ * A checkpoint of a different batch file, or of the same
+ * batch file generated from different inputs, as told by
+ * their digests, is discarded, so that no letter naming
+ * an earlier applicant, job, format, or name is salvaged;
+ * the checkpoint of a finished batch is deleted
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class BatchCheckpoint implements Closeable {
+	
+	/** Suffix of a checkpoint beside its batch output */
+	public static final String SUFFIX = ".checkpoint";
+	
+	/** Records written between syncs at most */
+	public static final int GROUP_RECORDS = 64;
+	
+	/** Milliseconds between syncs at most, while letters complete */
+	public static final long GROUP_MILLIS = 1000;
+	
+	/** Header of every checkpoint, before the batch digests */
+	private static final String HEADER = "AutoCV-Checkpoint 2 ";
+	
+	/** Logger of the resumed and discarded checkpoints */
+	private static final Logger LOG = Logger.get( BatchCheckpoint.class );
+	
+	/**
+	 * Letter of a batch recorded within a checkpoint
+	 *
+	 * @since 1.1
+	 */
+	public static final class Record {
+		
+		/** Number of the row of the letter, from 1 */
+		private final int row;
+		
+		/** Digest of the contents of the letter */
+		private final String digest;
+		
+		/** Location of the letter within its sink */
+		private final String location;
+		
+		/**
+		 * Default constructor, initializing the record
+		 *
+		 * @param row	   number of the row of the letter
+		 * @param digest   digest of the letter
+		 * @param location location of the letter
+		 */
+		Record( int row, String digest, String location ) {
+			this.row = row;
+			this.digest = digest;
+			this.location = location;
+		}
+		
+		public int getRow() {
+			return row;
+		}
+		
+		public String getDigest() {
+			return digest;
+		}
+		
+		public String getLocation() {
+			return location;
+		}
+	}
+	
+	/** Checkpoint file */
+	private final Path file;
+	
+	/** Header of the checkpoint, naming the batch */
+	private final String header;
+	
+	/** Record of each generated letter, by row */
+	private final Map<Integer, Record> records;
+	
+	/** Records not yet synced */
+	private final StringBuilder pending;
+	
+	/** Number of records not yet synced */
+	private int pendingRecords;
+	
+	/** Time of the last sync, in nanoseconds */
+	private long lastSync;
+	
+	/** Channel appending to the checkpoint file */
+	private FileChannel channel;
+	
+	/**
+	 * Default constructor, initializing the checkpoint
+	 * file and the header naming its batch
+	 *
+	 * @param file	 checkpoint file
+	 * @param header header naming the batch
+	 */
+	private BatchCheckpoint( Path file, String header ) {
+		this.file = file;
+		this.header = header;
+		records = new TreeMap<>();
+		pending = new StringBuilder();
+	}
+	
+	/**
+	 * Opens the checkpoint of the given batch, reading
+	 * the records of any earlier run of the same batch
+	 * generated from the same inputs
+	 *
+	 * @param  file			checkpoint file
+	 * @param  batchDigest	digest of the batch file, as
+	 * 						by OutputSink.digest
+	 * @param  inputsDigest digest of the inputs of the
+	 * 						letters, as by inputs
+	 * @return open checkpoint
+	 * @throws IOException if the checkpoint could not be
+	 * 		   read or written
+	 */
+	public static BatchCheckpoint open( Path file, String batchDigest,
+			String inputsDigest ) throws IOException {
+		
+		BatchCheckpoint checkpoint = new BatchCheckpoint( file,
+				HEADER + batchDigest + " " + inputsDigest );
+		if( Files.exists( file ) ) {
+			checkpoint.read();
+		}
+		checkpoint.rewrite();
+		return checkpoint;
+	}
+	
+	/**
+	 * Computes the digest of every input of the letters
+	 * of a batch besides the batch file itself: the
+	 * applicant, the job credentials, the job title taken
+	 * by rows without one, the output format, and the name
+	 * template, along with the date where the template
+	 * names letters by it
+	 *
+	 * @param  applicant applicant of the letters
+	 * @param  jobCred	 job credentials of the letters
+	 * @param  jobTitle	 job title of the rows without one
+	 * @param  format	 output format of the letters
+	 * @param  template	 template naming the letters
+	 * @param  date		 date of generation
+	 * @return SHA-256 digest, as lower case hex
+	 */
+	public static String inputs( Applicant applicant, JobCredentials jobCred,
+			String jobTitle, OutputFormat format, OutputPathTemplate template,
+			LocalDate date ) {
+		
+		String inputs = String.join( "\n",
+				OutputSink.digest( ApplicantInfoParser.encode( applicant ) ),
+				jobCred.getJobType().name(), jobCred.getJobSeason().name(),
+				jobCred.getYear(), Objects.toString( jobTitle, "" ),
+				format.name(), template.toString(),
+				template.isDated() ? date.toString() : "" );
+		return OutputSink.digest( inputs.getBytes( StandardCharsets.UTF_8 ) );
+	}
+	
+	/**
+	 * Reads the records of the checkpoint file, if it
+	 * names the same batch; a torn or malformed record
+	 * ends the file
+	 *
+	 * @throws IOException if the file could not be read
+	 */
+	private void read() throws IOException {
+		String text = new String( Files.readAllBytes( file ), StandardCharsets.UTF_8 );
+		int end = text.indexOf( '\n' );
+		if( end < 0 || !text.substring( 0, end ).equals( header ) ) {
+			if( !text.isEmpty() ) {
+				LOG.info( "Checkpoint discarded", "file", file );
+			}
+			return;
+		}
+		
+		// Only records ended by a line break are whole
+		for( int start = end + 1; ( end = text.indexOf( '\n', start ) ) >= 0; start = end + 1 ) {
+			String[] fields = text.substring( start, end ).split( " ", 3 );
+			try {
+				int row = Integer.parseInt( fields[ 0 ] );
+				records.put( row, new Record( row, fields[ 1 ], fields[ 2 ] ) );
+			} catch( RuntimeException ex ) {
+				LOG.warn( "Checkpoint record malformed", "file", file, "offset", start );
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Replaces the checkpoint file with the header and
+	 * the current records, and opens it for appending
+	 *
+	 * @throws IOException if the file could not be written
+	 */
+	private void rewrite() throws IOException {
+		if( channel != null ) {
+			channel.close();
+		}
+		StringBuilder text = new StringBuilder( header ).append( '\n' );
+		for( Record record : records.values() ) {
+			append( text, record );
+		}
+		
+		Path temp = file.resolveSibling( file.getFileName() + ".tmp" );
+		try( FileChannel ch = FileChannel.open( temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) ) {
+			writeFully( ch, text );
+			ch.force( true );
+		}
+		Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE );
+		channel = FileChannel.open( file, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND );
+		lastSync = System.nanoTime();
+	}
+	
+	/**
+	 * Keeps only the records of the earlier run whose
+	 * letters are verified by the given test, such as by
+	 * comparing the digest of each letter still within
+	 * its sink; the letters of every other row are
+	 * generated again
+	 *
+	 * @param  verified test of each recorded letter
+	 * @return number of records kept
+	 * @throws IOException if the checkpoint could not be
+	 * 		   written
+	 */
+	public synchronized int retain( Predicate<Record> verified ) throws IOException {
+		int before = records.size();
+		Iterator<Record> it = records.values().iterator();
+		while( it.hasNext() ) {
+			if( !verified.test( it.next() ) ) {
+				it.remove();
+			}
+		}
+		if( records.size() < before ) {
+			rewrite();
+		}
+		return records.size();
+	}
+	
+	/**
+	 * Retrieves the recorded letters, as of the earlier
+	 * run and every letter since
+	 *
+	 * @return record of each generated letter, by row
+	 */
+	public synchronized Map<Integer, Record> getRecords() {
+		return Collections.unmodifiableMap( new TreeMap<>( records ) );
+	}
+	
+	/**
+	 * Tells whether the letter of the given row has
+	 * already been generated
+	 *
+	 * @param  row number of the row, from 1
+	 * @return true if the row need not be generated
+	 */
+	public synchronized boolean isComplete( int row ) {
+		return records.containsKey( row );
+	}
+	
+	/**
+	 * Records the generated letter of the given row;
+	 * the record is synced along with its group
+	 *
+	 * @param  row		number of the row, from 1
+	 * @param  digest	digest of the letter
+	 * @param  location location of the letter within
+	 * 					its sink, without line breaks
+	 * @throws ClosedChannelException if the checkpoint has
+	 * 		   been closed or finished
+	 * @throws IOException if the group could not be synced
+	 */
+	public synchronized void complete( int row, String digest, String location )
+			throws IOException {
+		
+		ensureOpen();
+		Record record = new Record( row, digest, location );
+		records.put( row, record );
+		append( pending, record );
+		if( ++pendingRecords >= GROUP_RECORDS
+				|| System.nanoTime() - lastSync >= GROUP_MILLIS * 1_000_000 ) {
+			sync();
+		}
+	}
+	
+	/**
+	 * Writes and syncs every pending record
+	 *
+	 * @throws ClosedChannelException if the checkpoint has
+	 * 		   been closed or finished
+	 * @throws IOException if the records could not be
+	 * 		   written
+	 */
+	public synchronized void sync() throws IOException {
+		ensureOpen();
+		if( pendingRecords > 0 ) {
+			writeFully( channel, pending );
+			channel.force( false );
+			pending.setLength( 0 );
+			pendingRecords = 0;
+		}
+		lastSync = System.nanoTime();
+	}
+	
+	/**
+	 * Syncs the pending records and closes the
+	 * checkpoint, leaving it for a later run
+	 *
+	 * @throws IOException if the records could not be
+	 * 		   written
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if( channel == null ) {
+			return;
+		}
+		try {
+			sync();
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+	
+	/**
+	 * Closes and deletes the checkpoint of a finished
+	 * batch
+	 *
+	 * @throws IOException if the checkpoint could not
+	 * 		   be deleted
+	 */
+	public synchronized void finish() throws IOException {
+		if( channel != null ) {
+			channel.close();
+			channel = null;
+		}
+		Files.deleteIfExists( file );
+	}
+	
+	/**
+	 * Ensures the checkpoint has been neither closed nor
+	 * finished, so that no record is silently lost
+	 *
+	 * @throws ClosedChannelException if the checkpoint has
+	 * 		   been closed or finished
+	 */
+	private void ensureOpen() throws ClosedChannelException {
+		if( channel == null ) {
+			throw new ClosedChannelException();
+		}
+	}
+	
+	/**
+	 * Appends the line of the given record
+	 *
+	 * @param text	 text receiving the line
+	 * @param record record to append
+	 */
+	private static void append( StringBuilder text, Record record ) {
+		text.append( record.row ).append( ' ' ).append( record.digest ).
+			append( ' ' ).append( record.location ).append( '\n' );
+	}
+	
+	/**
+	 * Writes the whole of the given text to a channel
+	 *
+	 * @param  ch	channel to write
+	 * @param  text text to write
+	 * @throws IOException if the text could not be written
+	 */
+	private static void writeFully( FileChannel ch, CharSequence text ) throws IOException {
+		ByteBuffer buf = StandardCharsets.UTF_8.encode( text.toString() );
+		while( buf.hasRemaining() ) {
+			ch.write( buf );
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package autocv.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import autocv.data.Address;
+import autocv.data.Company;
+
+/**
+ * Reader of batch files: CSV files holding a letter per
+ * row, after a header row naming the columns
+ * 
+ * <pre>
+ * company,street_address,city_state_zip,job_title
+ * Initech,4120 Freidrich Lane,"Austin, TX 78744",Software Intern
+ * </pre>
+ * 
+ * The columns may appear in any order; the job title
+ * column may be omitted or left empty, in which case
+ * the letter takes the job title of the main panel.
+ * Fields holding commas, quotes, or line breaks are
+ * quoted, with each quote within doubled
+ * 
+ * Batch files may instead be JSON files, holding an
+ * array of objects keyed by the same column names, an
+ * object holding such an array under "jobs", or a
+ * single object for a single letter
+ * 
+ * <pre>
+ * [{"company": "Initech", "street_address": "4120 Freidrich Lane",
+ *   "city_state_zip": "Austin, TX 78744"}]
+ * </pre>
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class BatchFile {
+	
+	/** Column holding the company name */
+	public static final String COMPANY_COLUMN = "company";
+	
+	/** Column holding the company street address */
+	public static final String STREET_COLUMN = "street_address";
+	
+	/** Column holding the company city/state/zip */
+	public static final String CSZ_COLUMN = "city_state_zip";
+	
+	/** Optional column holding the job title */
+	public static final String TITLE_COLUMN = "job_title";
+	
+	/** Member of a JSON batch object holding its jobs */
+	public static final String JOBS_MEMBER = "jobs";
+	
+	/** Private constructor; static methods only */
+	private BatchFile() {}
+	
+	/**
+	 * Reads every row of the given batch file; blank
+	 * rows are skipped. A file named with the .json
+	 * extension is read as JSON, any other as CSV
+	 * 
+	 * @param  file batch file
+	 * @return rows of the batch, in file order
+	 * @throws IOException if the file could not be read,
+	 * 		   or lacks a required column or value
+	 */
+	public static List<BatchRow> read( Path file ) throws IOException {
+		String name = file.getFileName().toString();
+		String text = new String( Files.readAllBytes( file ), StandardCharsets.UTF_8 );
+		if( name.toLowerCase( Locale.ROOT ).endsWith( ".json" ) ) {
+			return parseJson( text, name );
+		}
+		return parse( text, name );
+	}
+	
+	/**
+	 * Parses every row of the given batch file contents
+	 * 
+	 * @param  csv	  contents of a batch file
+	 * @param  source name of the batch, for errors
+	 * @return rows of the batch, in file order
+	 * @throws IOException if the contents lack a required
+	 * 		   column or value
+	 */
+	public static List<BatchRow> parse( String csv, String source )
+			throws IOException {
+		
+		List<List<String>> records = records( csv );
+		if( records.isEmpty() ) {
+			throw new IOException( source + ": missing header row" );
+		}
+		
+		List<String> header = new ArrayList<>();
+		for( String name : records.get( 0 ) ) {
+			header.add( name.trim().toLowerCase( Locale.ROOT ) );
+		}
+		int company = column( header, COMPANY_COLUMN, source );
+		int street = column( header, STREET_COLUMN, source );
+		int csz = column( header, CSZ_COLUMN, source );
+		int title = header.indexOf( TITLE_COLUMN );
+		
+		List<BatchRow> rows = new ArrayList<>( records.size() - 1 );
+		for( int r = 1; r < records.size(); r++ ) {
+			List<String> record = records.get( r );
+			if( record.size() == 1 && record.get( 0 ).trim().isEmpty() ) {
+				continue;
+			}
+			
+			String name = value( record, company );
+			if( name.isEmpty() ) {
+				throw new IOException( source + ": row " + r + " has no company" );
+			}
+			rows.add( new BatchRow( r, new Company( name, new Address(
+					value( record, street ), value( record, csz ) ) ),
+					value( record, title ) ) );
+		}
+		return rows;
+	}
+	
+	/**
+	 * Parses every job of the given JSON batch file
+	 * contents; each job is numbered as a row, from 1
+	 * 
+	 * @param  json	  contents of a JSON batch file
+	 * @param  source name of the batch, for errors
+	 * @return rows of the batch, in file order
+	 * @throws IOException if the contents are not valid
+	 * 		   JSON, or a job lacks a company
+	 */
+	public static List<BatchRow> parseJson( String json, String source )
+			throws IOException {
+		
+		Object document;
+		try {
+			document = JsonReader.read( json );
+		} catch( IOException ex ) {
+			throw new IOException( source + ": " + ex.getMessage(), ex );
+		}
+		if( document instanceof Map && ( ( Map<?, ?> ) document ).get( JOBS_MEMBER ) instanceof List ) {
+			document = ( ( Map<?, ?> ) document ).get( JOBS_MEMBER );
+		}
+		List<?> jobs = document instanceof List ? ( List<?> ) document : List.of( document );
+		
+		List<BatchRow> rows = new ArrayList<>( jobs.size() );
+		for( int r = 1; r <= jobs.size(); r++ ) {
+			if( !( jobs.get( r - 1 ) instanceof Map ) ) {
+				throw new IOException( source + ": job " + r + " is not an object" );
+			}
+			Map<?, ?> job = ( Map<?, ?> ) jobs.get( r - 1 );
+			String name = member( job, COMPANY_COLUMN );
+			if( name.isEmpty() ) {
+				throw new IOException( source + ": job " + r + " has no company" );
+			}
+			rows.add( new BatchRow( r, new Company( name, new Address(
+					member( job, STREET_COLUMN ), member( job, CSZ_COLUMN ) ) ),
+					member( job, TITLE_COLUMN ) ) );
+		}
+		return rows;
+	}
+	
+	/**
+	 * Splits the given CSV contents into records of
+	 * fields, honoring quoted fields
+	 * 
+	 * @param  csv CSV contents
+	 * @return fields of each record
+	 */
+	static List<List<String>> records( String csv ) {
+		List<List<String>> records = new ArrayList<>();
+		List<String> record = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		
+		int start = csv.startsWith( "\uFEFF" ) ? 1 : 0;
+		for( int i = start; i < csv.length(); i++ ) {
+			char c = csv.charAt( i );
+			if( quoted ) {
+				if( c != '"' ) {
+					field.append( c );
+				}
+				else if( i + 1 < csv.length() && csv.charAt( i + 1 ) == '"' ) {
+					field.append( '"' );
+					i++;
+				}
+				else {
+					quoted = false;
+				}
+			}
+			else if( c == '"' ) {
+				quoted = true;
+			}
+			else if( c == ',' ) {
+				record.add( field.toString() );
+				field.setLength( 0 );
+			}
+			else if( c == '\n' || c == '\r' ) {
+				if( c == '\r' && i + 1 < csv.length() && csv.charAt( i + 1 ) == '\n' ) {
+					i++;
+				}
+				record.add( field.toString() );
+				field.setLength( 0 );
+				records.add( record );
+				record = new ArrayList<>();
+			}
+			else {
+				field.append( c );
+			}
+		}
+		if( field.length() > 0 || !record.isEmpty() ) {
+			record.add( field.toString() );
+			records.add( record );
+		}
+		return records;
+	}
+	
+	/**
+	 * Locates a required column within the header
+	 * 
+	 * @param  header column names, lower case
+	 * @param  name	  required column name
+	 * @param  source name of the batch, for errors
+	 * @return column index
+	 * @throws IOException if the column is absent
+	 */
+	private static int column( List<String> header, String name,
+			String source ) throws IOException {
+		int index = header.indexOf( name );
+		if( index < 0 ) {
+			throw new IOException( source + ": missing column " + name );
+		}
+		return index;
+	}
+	
+	/**
+	 * Retrieves a trimmed member of a JSON job, matching
+	 * its name regardless of case
+	 * 
+	 * @param  job	members of the job
+	 * @param  name column name of the member
+	 * @return member value, or empty if absent or null
+	 */
+	private static String member( Map<?, ?> job, String name ) {
+		for( Map.Entry<?, ?> entry : job.entrySet() ) {
+			if( name.equalsIgnoreCase( entry.getKey().toString().trim() )
+					&& entry.getValue() != null ) {
+				return entry.getValue().toString().trim();
+			}
+		}
+		return "";
+	}
+	
+	/**
+	 * Retrieves a trimmed field of a record
+	 * 
+	 * @param  record fields of the record
+	 * @param  index  column index, or -1
+	 * @return field value, or empty if absent
+	 */
+	private static String value( List<String> record, int index ) {
+		return index < 0 || index >= record.size() ? "" :
+			record.get( index ).trim();
+	}
+}
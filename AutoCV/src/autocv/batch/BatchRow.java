@@ -0,0 +1,64 @@
+package autocv.batch;
+
+import autocv.data.Company;
+
+/**
+ * A single letter of a batch, as read from a row of
+ * a batch file: the company of the letter, and the
+ * job title of the letter, if given by the row
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class BatchRow {
+	
+	/** Number of the row within the batch, from 1 */
+	private final int row;
+	
+	/** Company of the letter */
+	private final Company company;
+	
+	/** Job title of the letter, or empty if not given */
+	private final String jobTitle;
+	
+	/**
+	 * Default constructor, initializing the row number,
+	 * company, and job title of the letter
+	 * 
+	 * @param row	   number of the row, from 1
+	 * @param company  company of the letter
+	 * @param jobTitle job title of the letter, or
+	 * 				   empty if not given
+	 */
+	public BatchRow( int row, Company company, String jobTitle ) {
+		this.row = row;
+		this.company = company;
+		this.jobTitle = jobTitle;
+	}
+	
+	/**
+	 * Retrieves the number of the row within the
+	 * batch, counting from 1 after the header
+	 * 
+	 * @return row number
+	 */
+	public int getRow() {
+		return row;
+	}
+	
+	public Company getCompany() {
+		return company;
+	}
+	
+	/**
+	 * Retrieves the job title of the letter, falling
+	 * back to the given title if the row gives none
+	 * 
+	 * @param  fallback job title used if the row
+	 * 		   gives none
+	 * @return job title of the letter
+	 */
+	public String getJobTitle( String fallback ) {
+		return jobTitle.isEmpty() ? fallback : jobTitle;
+	}
+}
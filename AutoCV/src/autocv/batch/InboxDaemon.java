@@ -0,0 +1,641 @@
+package autocv.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import autocv.io.DirectorySink;
+import autocv.io.OutputPathTemplate;
+import autocv.io.OutputSink;
+import autocv.log.Logger;
+import autocv.render.GenerationJob;
+import autocv.render.GenerationQueue;
+
+/**
+ * Daemon generating the letters of every batch file
+ * dropped into an inbox directory, without the user
+ * interface; the directory is watched for new files,
+ * so that each batch is generated as soon as it has
+ * been written, rather than upon the next scan
+ *
+ * <li><b>inbox</b> - receives the batch files, CSV or
+ * JSON as read by BatchFile</li>
+ * <li><b>outbox</b> - holds a directory per batch, into
+ * which the batch file is moved once claimed, and which
+ * receives every letter of the batch</li>
+ * <li><b>dead-letter</b> - receives each batch file which
+ * could not be read, or of which any letter failed,
+ * along with a report of every failure</li>
+ *
+ * A batch file is only claimed once its size and
+ * modification time have held for SETTLE_MILLIS, so that
+ * a file still being copied into the inbox is not read
+ * part way; hidden files and files of other extensions
+ * are ignored, such that a writer may write a hidden
+ * file and rename it once complete
+ *
+ * Each letter of a batch is recorded within the
+ * checkpoint of its outbox directory as it is generated;
+ * a batch left unfinished when the daemon was stopped is
+ * resumed upon the next run, generating only the rows
+ * not yet recorded
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class InboxDaemon implements Closeable {
+	
+	/** Directory receiving the batch files */
+	public static final String INBOX_DIR = "inbox";
+	
+	/** Directory receiving the letters of each batch */
+	public static final String OUTBOX_DIR = "outbox";
+	
+	/** Directory receiving the failed batch files */
+	public static final String DEAD_LETTER_DIR = "dead-letter";
+	
+	/** Suffix of the report beside a failed batch file */
+	public static final String ERROR_SUFFIX = ".error.txt";
+	
+	/**
+	 * Checkpoint within the outbox directory of each
+	 * batch, present until the batch has finished
+	 */
+	public static final String CHECKPOINT_FILE = ".checkpoint";
+	
+	/**
+	 * Milliseconds for which a batch file must remain
+	 * unchanged before it is claimed; also the period of
+	 * the checks of the unclaimed files
+	 */
+	public static final long SETTLE_MILLIS = 500;
+	
+	/** Logger of the claimed and failed batches */
+	private static final Logger LOG = Logger.get( InboxDaemon.class );
+	
+	/**
+	 * Factory of the generation job of each letter of a
+	 * batch dropped into the inbox
+	 */
+	@FunctionalInterface
+	public interface JobFactory {
+		
+		/**
+		 * Creates the generation job of a single letter
+		 *
+		 * @param  row	 row of the letter
+		 * @param  index index of the letter within the batch
+		 * @param  rows	 letters of the batch
+		 * @param  sink	 sink receiving the letters of the batch
+		 * @return generation job of the letter
+		 */
+		GenerationJob create( BatchRow row, int index, int rows, OutputSink sink );
+	}
+	
+	/** Directory receiving the batch files */
+	private final Path inbox;
+	
+	/** Directory receiving the letters of each batch */
+	private final Path outbox;
+	
+	/** Directory receiving the failed batch files */
+	private final Path deadLetter;
+	
+	/** Queue generating the letters of each batch */
+	private final GenerationQueue queue;
+	
+	/** Factory of the job of each letter */
+	private final JobFactory factory;
+	
+	/**
+	 * Computes the digest of the inputs of the letters
+	 * besides each batch file, as by BatchCheckpoint.inputs
+	 */
+	private final Supplier<String> inputs;
+	
+	/** Records each generated letter */
+	private final Consumer<GenerationJob> recorder;
+	
+	/**
+	 * Size and modification time of each unclaimed batch
+	 * file as last observed, and the time of observation
+	 */
+	private final Map<Path, long[]> unclaimed;
+	
+	/** Checkpoint of every unfinished batch */
+	private final Set<BatchCheckpoint> checkpoints;
+	
+	/** Whether the daemon is still running */
+	private volatile boolean running;
+	
+	/** Thread watching the inbox, once running */
+	private volatile Thread runner;
+	
+	/**
+	 * Default constructor, initializing the directories
+	 * within the given root, and the queue generating
+	 * the letters of each batch
+	 *
+	 * @param root	   directory holding the inbox, outbox,
+	 * 				   and dead-letter directories
+	 * @param queue	   queue generating the letters, whose
+	 * 				   state is published on any thread
+	 * @param factory  factory of the job of each letter
+	 * @param inputs   computes the digest of the inputs
+	 * 				   of the letters besides each batch
+	 * 				   file, keying the checkpoint of
+	 * 				   each batch
+	 * @param recorder records each generated letter
+	 */
+	public InboxDaemon( Path root, GenerationQueue queue, JobFactory factory,
+			Supplier<String> inputs, Consumer<GenerationJob> recorder ) {
+		this.inbox = root.resolve( INBOX_DIR );
+		this.outbox = root.resolve( OUTBOX_DIR );
+		this.deadLetter = root.resolve( DEAD_LETTER_DIR );
+		this.queue = queue;
+		this.factory = factory;
+		this.inputs = inputs;
+		this.recorder = recorder;
+		unclaimed = new HashMap<>();
+		checkpoints = ConcurrentHashMap.newKeySet();
+		running = true;
+	}
+	
+	/**
+	 * Watches the inbox until closed, generating every
+	 * batch dropped into it; the batches of the outbox
+	 * left unfinished by an earlier run are resumed
+	 * first, then the files already within the inbox are
+	 * generated
+	 *
+	 * The daemon is no longer running once this returns
+	 * or throws, so that closing it afterwards, as from
+	 * a shutdown hook, never waits on the returned thread
+	 *
+	 * @throws IOException if the directories could not
+	 * 		   be created, or the inbox could not be watched
+	 */
+	public void run() throws IOException {
+		runner = Thread.currentThread();
+		try {
+			watch();
+		} finally {
+			runner = null;
+		}
+	}
+	
+	/**
+	 * Watches the inbox until closed, as by run
+	 *
+	 * @throws IOException if the directories could not
+	 * 		   be created, or the inbox could not be watched
+	 */
+	private void watch() throws IOException {
+		Files.createDirectories( inbox );
+		Files.createDirectories( outbox );
+		Files.createDirectories( deadLetter );
+		resumeOutbox();
+		
+		try( WatchService watcher = inbox.getFileSystem().newWatchService() ) {
+			inbox.register( watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY );
+			LOG.info( "Inbox watched", "dir", inbox );
+			scan();
+			
+			while( running ) {
+				WatchKey key = watcher.poll( SETTLE_MILLIS, TimeUnit.MILLISECONDS );
+				if( key != null ) {
+					for( WatchEvent<?> event : key.pollEvents() ) {
+						
+						// Events were lost; rescan the whole inbox
+						if( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+							scan();
+						}
+						else {
+							observe( inbox.resolve( ( Path ) event.context() ) );
+						}
+					}
+					if( !key.reset() ) {
+						throw new IOException( "Inbox no longer accessible: " + inbox );
+					}
+				}
+				claimSettled();
+			}
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+		}
+		LOG.info( "Inbox closed", "dir", inbox );
+	}
+	
+	/**
+	 * Observes every batch file currently within the
+	 * inbox
+	 *
+	 * @throws IOException if the inbox could not be listed
+	 */
+	private void scan() throws IOException {
+		try( DirectoryStream<Path> files = Files.newDirectoryStream( inbox ) ) {
+			for( Path file : files ) {
+				observe( file );
+			}
+		}
+	}
+	
+	/**
+	 * Records the current size and modification time of
+	 * the given file, if a batch file; a file whose size
+	 * or modification time has changed is observed anew
+	 *
+	 * @param file file within the inbox
+	 */
+	private void observe( Path file ) {
+		if( !isBatchFile( file ) ) {
+			return;
+		}
+		try {
+			BasicFileAttributes attrs = Files.readAttributes( file, BasicFileAttributes.class );
+			if( !attrs.isRegularFile() ) {
+				return;
+			}
+			long[] last = unclaimed.get( file );
+			if( last == null || last[ 0 ] != attrs.size()
+					|| last[ 1 ] != attrs.lastModifiedTime().toMillis() ) {
+				unclaimed.put( file, new long[] { attrs.size(),
+						attrs.lastModifiedTime().toMillis(), System.nanoTime() } );
+			}
+		} catch( IOException ex ) {
+			
+			// Removed or renamed before it could be read
+			unclaimed.remove( file );
+		}
+	}
+	
+	/**
+	 * Claims every unclaimed batch file which has not
+	 * changed for SETTLE_MILLIS
+	 */
+	private void claimSettled() {
+		for( Path file : new ArrayList<>( unclaimed.keySet() ) ) {
+			observe( file );
+		}
+		long settled = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos( SETTLE_MILLIS );
+		Iterator<Map.Entry<Path, long[]>> it = unclaimed.entrySet().iterator();
+		while( it.hasNext() ) {
+			Map.Entry<Path, long[]> entry = it.next();
+			if( entry.getValue()[ 2 ] - settled <= 0 ) {
+				it.remove();
+				claim( entry.getKey() );
+			}
+		}
+	}
+	
+	/**
+	 * Claims the given batch file, moving it into a
+	 * directory of its own within the outbox, and queues
+	 * every letter of the batch; the checkpoint of the
+	 * batch is created first, marking the batch as
+	 * unfinished should the daemon be stopped
+	 *
+	 * @param file batch file within the inbox
+	 */
+	private void claim( Path file ) {
+		String name = file.getFileName().toString();
+		Path batchDir;
+		Path claimed;
+		try {
+			batchDir = createUnique( outbox, name.replaceFirst( "\\.[^.]*$", "" ) );
+			Files.createFile( batchDir.resolve( CHECKPOINT_FILE ) );
+			claimed = Files.move( file, batchDir.resolve( name ),
+					StandardCopyOption.ATOMIC_MOVE );
+		} catch( IOException ex ) {
+			LOG.warn( "Inbox file unclaimable", ex, "file", file );
+			return;
+		}
+		generate( batchDir, claimed );
+	}
+	
+	/**
+	 * Resumes every batch of the outbox left unfinished
+	 * by an earlier run, as told by its checkpoint
+	 *
+	 * @throws IOException if the outbox could not be listed
+	 */
+	private void resumeOutbox() throws IOException {
+		try( DirectoryStream<Path> dirs = Files.newDirectoryStream( outbox,
+				dir -> Files.exists( dir.resolve( CHECKPOINT_FILE ) ) ) ) {
+			for( Path batchDir : dirs ) {
+				Path claimed = null;
+				try( DirectoryStream<Path> files = Files.newDirectoryStream( batchDir,
+						InboxDaemon::isBatchFile ) ) {
+					for( Path file : files ) {
+						claimed = file;
+					}
+				}
+				
+				// Stopped before the batch file was claimed,
+				// which remains within the inbox
+				if( claimed == null ) {
+					discard( batchDir );
+					continue;
+				}
+				LOG.info( "Outbox batch resumed", "dir", batchDir );
+				generate( batchDir, claimed );
+			}
+		}
+	}
+	
+	/**
+	 * Queues every letter of a claimed batch not already
+	 * recorded within its checkpoint; each recorded letter
+	 * is first verified against its digest, so that a
+	 * letter cut off by a crash is generated again, and a
+	 * checkpoint left by a run with different inputs, such
+	 * as another profile or output format, is discarded. A
+	 * batch file which could not be read is moved to the
+	 * dead-letter directory
+	 *
+	 * @param batchDir outbox directory of the batch
+	 * @param claimed  claimed batch file
+	 */
+	private void generate( Path batchDir, Path claimed ) {
+		String name = claimed.getFileName().toString();
+		List<BatchRow> rows;
+		BatchCheckpoint checkpoint;
+		try {
+			rows = BatchFile.read( claimed );
+			checkpoint = BatchCheckpoint.open( batchDir.resolve( CHECKPOINT_FILE ),
+					OutputSink.digest( Files.readAllBytes( claimed ) ), inputs.get() );
+			checkpoint.retain( record -> verify( batchDir, record ) );
+			sweep( batchDir, claimed, checkpoint );
+		} catch( IOException ex ) {
+			LOG.warn( "Inbox file unreadable", ex, "file", name );
+			fail( claimed, ex.getMessage() );
+			discard( batchDir );
+			return;
+		}
+		checkpoints.add( checkpoint );
+		
+		OutputSink sink = new DirectorySink( batchDir );
+		List<BatchRow> pending = new ArrayList<>( rows.size() );
+		List<GenerationJob> jobs = new ArrayList<>( rows.size() );
+		for( int i = 0; i < rows.size(); i++ ) {
+			if( !checkpoint.isComplete( rows.get( i ).getRow() ) ) {
+				pending.add( rows.get( i ) );
+				jobs.add( factory.create( rows.get( i ), i, rows.size(), sink ) );
+			}
+		}
+		
+		// Record and checkpoint each letter as it is
+		// generated, and finish the batch once every
+		// letter has either failed or been recorded
+		List<CompletableFuture<GenerationJob>> futures = queue.submitBatch( jobs );
+		CompletableFuture<?>[] recorded = new CompletableFuture<?>[ futures.size() ];
+		for( int i = 0; i < futures.size(); i++ ) {
+			int row = pending.get( i ).getRow();
+			recorded[ i ] = futures.get( i ).thenAccept( job -> {
+				recorder.accept( job );
+				try {
+					checkpoint.complete( row, job.getOutputDigest(), batchDir.relativize(
+							Paths.get( job.getOutput() ) ).toString().replace( '\\', '/' ) );
+				} catch( IOException ex ) {
+					LOG.warn( "Checkpoint not written", ex, "row", row );
+				}
+			});
+		}
+		CompletableFuture.allOf( recorded ).
+			whenComplete( ( v, ex ) -> finish( claimed, checkpoint, pending, jobs ) );
+		LOG.info( "Inbox file claimed", "file", name, "letters", jobs.size(),
+				"skipped", rows.size() - jobs.size(), "outbox", batchDir );
+	}
+	
+	/**
+	 * Completes a finished batch, deleting its checkpoint;
+	 * the batch file of a batch of which any letter failed
+	 * is moved to the dead-letter directory, with a report
+	 * naming the row and failure of each failed letter
+	 *
+	 * @param claimed	 claimed batch file
+	 * @param checkpoint checkpoint of the batch
+	 * @param rows		 row of each job
+	 * @param jobs		 job of each queued row
+	 */
+	private void finish( Path claimed, BatchCheckpoint checkpoint,
+			List<BatchRow> rows, List<GenerationJob> jobs ) {
+		
+		checkpoints.remove( checkpoint );
+		try {
+			checkpoint.finish();
+		} catch( IOException ex ) {
+			LOG.warn( "Checkpoint not removed", ex, "file", claimed );
+		}
+		
+		StringBuilder report = new StringBuilder();
+		int failed = 0;
+		for( int i = 0; i < jobs.size(); i++ ) {
+			Throwable error = jobs.get( i ).getError();
+			if( error != null ) {
+				failed++;
+				report.append( "row " ).append( rows.get( i ).getRow() ).append( ": " ).
+					append( error ).append( System.lineSeparator() );
+			}
+		}
+		if( failed == 0 ) {
+			LOG.info( "Inbox batch generated", "file", claimed, "letters", jobs.size() );
+			return;
+		}
+		LOG.warn( "Inbox batch failed", "file", claimed, "letters", jobs.size(),
+				"failed", failed );
+		fail( claimed, report.toString() );
+	}
+	
+	/**
+	 * Verifies a letter recorded within the checkpoint of
+	 * a batch; a letter whose contents no longer match its
+	 * digest, as when cut off by a crash, is removed, so
+	 * that the letter generated again takes its name
+	 *
+	 * @param  batchDir outbox directory of the batch
+	 * @param  record	recorded letter
+	 * @return true if the letter is whole
+	 */
+	private static boolean verify( Path batchDir, BatchCheckpoint.Record record ) {
+		Path letter = batchDir.resolve( record.getLocation() );
+		try {
+			if( Files.isRegularFile( letter ) && OutputSink.digest( Files.
+					readAllBytes( letter ) ).equals( record.getDigest() ) ) {
+				return true;
+			}
+			Files.deleteIfExists( letter );
+		} catch( IOException ex ) {
+			LOG.warn( "Outbox letter unverifiable", ex, "file", letter );
+		}
+		return false;
+	}
+	
+	/**
+	 * Removes every letter of a resumed batch which is
+	 * not recorded within its checkpoint, having been
+	 * written after the last sync of the checkpoint, so
+	 * that the letter generated again takes its name
+	 *
+	 * @param  batchDir	  outbox directory of the batch
+	 * @param  claimed	  claimed batch file
+	 * @param  checkpoint checkpoint of the batch
+	 * @throws IOException if the directory could not be
+	 * 		   listed
+	 */
+	private static void sweep( Path batchDir, Path claimed,
+			BatchCheckpoint checkpoint ) throws IOException {
+		
+		Set<String> recorded = new HashSet<>();
+		for( BatchCheckpoint.Record record : checkpoint.getRecords().values() ) {
+			recorded.add( record.getLocation() );
+		}
+		try( Stream<Path> files = Files.walk( batchDir ) ) {
+			for( Path file : ( Iterable<Path> ) files::iterator ) {
+				String location = batchDir.relativize( file ).toString().replace( '\\', '/' );
+				if( Files.isRegularFile( file ) && !file.equals( claimed )
+						&& !location.startsWith( CHECKPOINT_FILE )
+						&& !recorded.contains( location ) ) {
+					Files.delete( file );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes the checkpoint of a batch which could not be
+	 * generated, along with its outbox directory if empty
+	 *
+	 * @param batchDir outbox directory of the batch
+	 */
+	private static void discard( Path batchDir ) {
+		try {
+			Files.deleteIfExists( batchDir.resolve( CHECKPOINT_FILE ) );
+			try( DirectoryStream<Path> files = Files.newDirectoryStream( batchDir ) ) {
+				if( files.iterator().hasNext() ) {
+					return;
+				}
+			}
+			Files.delete( batchDir );
+		} catch( IOException ex ) {
+			LOG.warn( "Outbox directory not removed", ex, "dir", batchDir );
+		}
+	}
+	
+	/**
+	 * Tells whether the given file is a batch file: a CSV
+	 * or JSON file, not hidden
+	 *
+	 * @param  file file within the inbox or outbox
+	 * @return true if a batch file
+	 */
+	private static boolean isBatchFile( Path file ) {
+		String name = file.getFileName().toString().toLowerCase( Locale.ROOT );
+		return !name.startsWith( "." ) && ( name.endsWith( ".csv" ) || name.endsWith( ".json" ) );
+	}
+	
+	/**
+	 * Moves the given batch file to the dead-letter
+	 * directory, writing the given report beside it
+	 *
+	 * @param file	 batch file
+	 * @param report description of each failure
+	 */
+	private synchronized void fail( Path file, String report ) {
+		try {
+			Path failed = deadLetter.resolve( file.getFileName() );
+			for( int n = 2; Files.exists( failed ) || Files.exists(
+					failed.resolveSibling( failed.getFileName() + ERROR_SUFFIX ) ); n++ ) {
+				failed = deadLetter.resolve( OutputPathTemplate.suffix(
+						file.getFileName().toString(), n ) );
+			}
+			Files.write( failed.resolveSibling( failed.getFileName() + ERROR_SUFFIX ),
+					report.getBytes( StandardCharsets.UTF_8 ) );
+			Files.move( file, failed );
+		} catch( IOException ex ) {
+			LOG.error( "Dead letter not written", ex, "file", file );
+		}
+	}
+	
+	/**
+	 * Creates a directory of the given name within the
+	 * given parent, suffixing the name until a name not
+	 * yet taken is found
+	 *
+	 * @param  parent parent directory
+	 * @param  name	  directory name
+	 * @return created directory
+	 * @throws IOException if the directory could not be
+	 * 		   created
+	 */
+	private static Path createUnique( Path parent, String name ) throws IOException {
+		for( int n = 1; ; n++ ) {
+			Path dir = parent.resolve( n == 1 ? name : name + " (" + n + ")" );
+			try {
+				return Files.createDirectory( dir );
+			} catch( FileAlreadyExistsException ex ) {
+				// Taken by an earlier batch; try the next suffix
+			}
+		}
+	}
+	
+	/**
+	 * Syncs the checkpoint of every unfinished batch, so
+	 * that no generated letter is generated again upon
+	 * resuming; called once the generation queue has
+	 * been closed
+	 */
+	public void sync() {
+		for( BatchCheckpoint checkpoint : checkpoints ) {
+			try {
+				checkpoint.sync();
+			} catch( IOException ex ) {
+				LOG.warn( "Checkpoint not synced", ex );
+			}
+		}
+	}
+	
+	/**
+	 * Stops watching the inbox, waiting for the batch
+	 * being claimed, if any; the letters already queued
+	 * continue generating
+	 */
+	@Override
+	public void close() {
+		running = false;
+		Thread t = runner;
+		if( t != null && t != Thread.currentThread() ) {
+			try {
+				t.join();
+			} catch( InterruptedException ex ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package autocv.batch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal reader of JSON documents, as written by the
+ * tools producing batch files; objects are read as maps
+ * in document order, arrays as lists, numbers as their
+ * text, and true, false, and null as Boolean and null
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class JsonReader {
+	
+	/** Document being read */
+	private final String json;
+	
+	/** Offset of the next character to read */
+	private int pos;
+	
+	/**
+	 * Default constructor, initializing the document
+	 *
+	 * @param json JSON document
+	 */
+	private JsonReader( String json ) {
+		this.json = json;
+		this.pos = json.startsWith( "\uFEFF" ) ? 1 : 0;
+	}
+	
+	/**
+	 * Reads the single value of the given document
+	 *
+	 * @param  json JSON document
+	 * @return value of the document
+	 * @throws IOException if the document is not valid
+	 * 		   JSON, naming the offset of the error
+	 */
+	static Object read( String json ) throws IOException {
+		JsonReader reader = new JsonReader( json );
+		Object value = reader.value();
+		reader.skipWhitespace();
+		if( reader.pos < json.length() ) {
+			throw reader.error( "trailing content" );
+		}
+		return value;
+	}
+	
+	/**
+	 * Reads the value at the current offset
+	 *
+	 * @return value read
+	 * @throws IOException upon invalid JSON
+	 */
+	private Object value() throws IOException {
+		skipWhitespace();
+		if( pos >= json.length() ) {
+			throw error( "unexpected end" );
+		}
+		char c = json.charAt( pos );
+		switch( c ) {
+		case '{':
+			return object();
+		case '[':
+			return array();
+		case '"':
+			return string();
+		case 't':
+			return literal( "true", Boolean.TRUE );
+		case 'f':
+			return literal( "false", Boolean.FALSE );
+		case 'n':
+			return literal( "null", null );
+		default:
+			if( c == '-' || ( c >= '0' && c <= '9' ) ) {
+				return number();
+			}
+			throw error( "unexpected '" + c + "'" );
+		}
+	}
+	
+	/**
+	 * Reads the object at the current offset
+	 *
+	 * @return members of the object, in document order
+	 * @throws IOException upon invalid JSON
+	 */
+	private Map<String, Object> object() throws IOException {
+		Map<String, Object> members = new LinkedHashMap<>();
+		pos++;
+		skipWhitespace();
+		if( peek( '}' ) ) {
+			return members;
+		}
+		while( true ) {
+			skipWhitespace();
+			if( pos >= json.length() || json.charAt( pos ) != '"' ) {
+				throw error( "expected member name" );
+			}
+			String name = string();
+			skipWhitespace();
+			expect( ':' );
+			members.put( name, value() );
+			skipWhitespace();
+			if( peek( '}' ) ) {
+				return members;
+			}
+			expect( ',' );
+		}
+	}
+	
+	/**
+	 * Reads the array at the current offset
+	 *
+	 * @return elements of the array
+	 * @throws IOException upon invalid JSON
+	 */
+	private List<Object> array() throws IOException {
+		List<Object> elements = new ArrayList<>();
+		pos++;
+		skipWhitespace();
+		if( peek( ']' ) ) {
+			return elements;
+		}
+		while( true ) {
+			elements.add( value() );
+			skipWhitespace();
+			if( peek( ']' ) ) {
+				return elements;
+			}
+			expect( ',' );
+		}
+	}
+	
+	/**
+	 * Reads the string at the current offset, decoding
+	 * its escapes
+	 *
+	 * @return contents of the string
+	 * @throws IOException upon invalid JSON
+	 */
+	private String string() throws IOException {
+		StringBuilder out = new StringBuilder();
+		pos++;
+		while( pos < json.length() ) {
+			char c = json.charAt( pos++ );
+			if( c == '"' ) {
+				return out.toString();
+			}
+			if( c != '\\' ) {
+				out.append( c );
+				continue;
+			}
+			if( pos >= json.length() ) {
+				break;
+			}
+			char escape = json.charAt( pos++ );
+			switch( escape ) {
+			case '"':
+			case '\\':
+			case '/':
+				out.append( escape );
+				break;
+			case 'b':
+				out.append( '\b' );
+				break;
+			case 'f':
+				out.append( '\f' );
+				break;
+			case 'n':
+				out.append( '\n' );
+				break;
+			case 'r':
+				out.append( '\r' );
+				break;
+			case 't':
+				out.append( '\t' );
+				break;
+			case 'u':
+				if( pos + 4 > json.length() ) {
+					throw error( "truncated escape" );
+				}
+				try {
+					out.append( ( char ) Integer.parseInt( json.substring( pos, pos + 4 ), 16 ) );
+				} catch( NumberFormatException ex ) {
+					throw error( "invalid escape" );
+				}
+				pos += 4;
+				break;
+			default:
+				throw error( "invalid escape" );
+			}
+		}
+		throw error( "unterminated string" );
+	}
+	
+	/**
+	 * Reads the number at the current offset
+	 *
+	 * @return text of the number
+	 * @throws IOException upon invalid JSON
+	 */
+	private String number() throws IOException {
+		int start = pos;
+		while( pos < json.length() && "+-0123456789.eE".indexOf( json.charAt( pos ) ) >= 0 ) {
+			pos++;
+		}
+		String number = json.substring( start, pos );
+		try {
+			Double.parseDouble( number );
+		} catch( NumberFormatException ex ) {
+			pos = start;
+			throw error( "invalid number" );
+		}
+		return number;
+	}
+	
+	/**
+	 * Reads the given literal at the current offset
+	 *
+	 * @param  text	 text of the literal
+	 * @param  value value of the literal
+	 * @return value of the literal
+	 * @throws IOException if the literal is absent
+	 */
+	private Object literal( String text, Object value ) throws IOException {
+		if( !json.startsWith( text, pos ) ) {
+			throw error( "unexpected '" + json.charAt( pos ) + "'" );
+		}
+		pos += text.length();
+		return value;
+	}
+	
+	/**
+	 * Consumes the given character if it is next
+	 *
+	 * @param  c expected character
+	 * @return true if consumed
+	 */
+	private boolean peek( char c ) {
+		if( pos < json.length() && json.charAt( pos ) == c ) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Consumes the given character, which must be next
+	 *
+	 * @param  c expected character
+	 * @throws IOException if the character is not next
+	 */
+	private void expect( char c ) throws IOException {
+		if( !peek( c ) ) {
+			throw error( "expected '" + c + "'" );
+		}
+	}
+	
+	/** Skips any whitespace at the current offset */
+	private void skipWhitespace() {
+		while( pos < json.length() && " \t\r\n".indexOf( json.charAt( pos ) ) >= 0 ) {
+			pos++;
+		}
+	}
+	
+	/**
+	 * Describes an error at the current offset
+	 *
+	 * @param  message description of the error
+	 * @return exception naming the offset
+	 */
+	private IOException error( String message ) {
+		return new IOException( "invalid JSON at offset " + pos + ": " + message );
+	}
+}
@@ -0,0 +1,319 @@
+package autocv.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import autocv.io.DataCipher;
+import autocv.parser.ApplicantInfoParser;
+
+/**
+ * Store containing every applicant profile known to
+ * the program; the primary profile is kept in the
+ * config file, while any further profiles are kept
+ * as individual files within the profiles directory
+ *
+ * All profiles are parsed once when the store is
+ * loaded and are kept in memory afterwards, so that
+ * switching the active profile requires no I/O
+ *
+ * Profile files are encrypted at rest with the data
+ * cipher of the session; plaintext profile files are
+ * only read while the cipher migrates the data, and are
+ * encrypted in place as they are loaded
+ *
+ * Each profile tracks two Applicants - the disk
+ * Applicant, as stored on its file, and the saved
+ * Applicant, as modified programatically for the
+ * current session
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class ApplicantProfileStore {
+
+	/** File extension of every profile file */
+	public static final String PROFILE_EXTENSION = ".info";
+
+	/** Suffix of a profile file being written in its place */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	/** Path to the primary (config) profile file */
+	private final Path primaryFile;
+
+	/** Directory containing all secondary profile files */
+	private final Path profilesDir;
+
+	/** Cipher decrypting the profile files */
+	private final DataCipher cipher;
+
+	/**
+	 * Applicants as stored on disk, keyed by the
+	 * path to their profile file, in load order
+	 */
+	private final Map<Path, Applicant> diskProfiles;
+
+	/**
+	 * Applicants as saved for the current session,
+	 * keyed by the path to their profile file; a
+	 * profile without an entry uses its disk Applicant
+	 */
+	private final Map<Path, Applicant> savedProfiles;
+
+	/** Path to the file of the active profile */
+	private Path activeFile;
+
+	/**
+	 * Default constructor, initializing the paths to
+	 * the primary profile file and the profiles
+	 * directory; no profiles are read until the
+	 * store is loaded
+	 *
+	 * @param primaryFile primary profile file
+	 * @param profilesDir secondary profiles directory
+	 * @param cipher	  cipher decrypting the profiles
+	 */
+	public ApplicantProfileStore( Path primaryFile, Path profilesDir,
+			DataCipher cipher ) {
+		this.primaryFile = primaryFile;
+		this.profilesDir = profilesDir;
+		this.cipher = cipher;
+
+		diskProfiles = new LinkedHashMap<>();
+		savedProfiles = new HashMap<>();
+	}
+
+	/**
+	 * Parses every profile file into memory; the
+	 * primary profile, if present, becomes the
+	 * active profile. Temporary profile files left
+	 * by a crash while writing are removed
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public synchronized void load() throws IOException {
+		diskProfiles.clear();
+		savedProfiles.clear();
+		activeFile = null;
+
+		Files.deleteIfExists( primaryFile.resolveSibling(
+				primaryFile.getFileName() + TEMP_SUFFIX ) );
+		if( Files.isDirectory( profilesDir ) ) {
+			try( DirectoryStream<Path> dir = Files.newDirectoryStream(
+					profilesDir, "*" + PROFILE_EXTENSION + TEMP_SUFFIX ) ) {
+				for( Path file : dir ) {
+					Files.deleteIfExists( file );
+				}
+			}
+		}
+
+		if( Files.exists( primaryFile ) ) {
+			diskProfiles.put( primaryFile, read( primaryFile ) );
+			activeFile = primaryFile;
+		}
+
+		if( Files.isDirectory( profilesDir ) ) {
+
+			// Sort the profile files so the order of
+			// the switcher is stable across launches
+			List<Path> files = new ArrayList<>();
+			try( DirectoryStream<Path> dir = Files.newDirectoryStream(
+					profilesDir, "*" + PROFILE_EXTENSION ) ) {
+				for( Path file : dir ) {
+					files.add( file );
+				}
+			}
+			Collections.sort( files );
+
+			for( Path file : files ) {
+				diskProfiles.put( file, read( file ) );
+				if( activeFile == null ) {
+					activeFile = file;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Encodes the given Applicant as the encrypted
+	 * contents of a profile file
+	 *
+	 * @param  app Applicant to encode
+	 * @return encrypted profile file contents
+	 */
+	public byte[] encode( Applicant app ) {
+		return cipher.encrypt( ApplicantInfoParser.encode( app ) );
+	}
+
+	/**
+	 * Decrypts and parses the given profile file; a
+	 * plaintext file, only accepted while the cipher
+	 * migrates the data, is encrypted in place, and a
+	 * failed rewrite removes its temporary file
+	 *
+	 * @param  file profile file
+	 * @return Applicant stored within the file
+	 * @throws IOException upon runtime I/O exception,
+	 * 		   or the file fails authentication
+	 */
+	private Applicant read( Path file ) throws IOException {
+		byte[] contents = Files.readAllBytes( file );
+		byte[] plain = cipher.decrypt( contents );
+		if( !DataCipher.isEncrypted( contents ) ) {
+			Path temp = file.resolveSibling( file.getFileName() + TEMP_SUFFIX );
+			try {
+				try( FileChannel ch = FileChannel.open( temp, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+					ByteBuffer buf = ByteBuffer.wrap( cipher.encrypt( plain ) );
+					while( buf.hasRemaining() ) {
+						ch.write( buf );
+					}
+					ch.force( true );
+				}
+				Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE );
+			} catch( IOException ex ) {
+				Files.deleteIfExists( temp );
+				throw ex;
+			}
+		}
+		return ApplicantInfoParser.read( new ByteArrayInputStream( plain ) );
+	}
+
+	/**
+	 * Determines if the store contains no profiles;
+	 * used during UI initialization to determine if
+	 * the config applicant info panel must be shown
+	 *
+	 * @return true if no profiles are stored
+	 */
+	public synchronized boolean isEmpty() {
+		return diskProfiles.isEmpty();
+	}
+
+	/**
+	 * Retrieves the files of all stored profiles,
+	 * in the order they were loaded
+	 *
+	 * @return list of profile files
+	 */
+	public synchronized List<Path> getProfileFiles() {
+		return new ArrayList<>( diskProfiles.keySet() );
+	}
+
+	/**
+	 * Retrieves the file of the active profile
+	 *
+	 * @return active profile file, or null if
+	 * 		   the store is empty
+	 */
+	public synchronized Path getActiveFile() {
+		return activeFile;
+	}
+
+	/**
+	 * Retrieves the disk Applicant of the
+	 * given profile
+	 *
+	 * @param  file profile file
+	 * @return disk Applicant of the profile
+	 */
+	public synchronized Applicant getDiskApplicant( Path file ) {
+		return diskProfiles.get( file );
+	}
+
+	/**
+	 * Retrieves the saved Applicant of the given
+	 * profile, falling back to the disk Applicant
+	 * if the profile has not been modified during
+	 * the current session
+	 *
+	 * @param  file profile file
+	 * @return saved Applicant of the profile
+	 */
+	public synchronized Applicant getSavedApplicant( Path file ) {
+		Applicant saved = savedProfiles.get( file );
+		return saved == null ? diskProfiles.get( file ) : saved;
+	}
+
+	/**
+	 * Stores the saved Applicant of the given profile
+	 * for the remainder of the session
+	 *
+	 * @param file profile file
+	 * @param app  saved Applicant
+	 */
+	public synchronized void setSavedApplicant( Path file, Applicant app ) {
+		savedProfiles.put( file, app );
+	}
+
+	/**
+	 * Replaces the disk Applicant of the given
+	 * profile; the caller is responsible for
+	 * committing the Applicant to the file
+	 *
+	 * @param file profile file
+	 * @param app  disk Applicant
+	 */
+	public synchronized void setDiskApplicant( Path file, Applicant app ) {
+		diskProfiles.put( file, app );
+	}
+
+	/**
+	 * Switches the active profile to the given
+	 * profile
+	 *
+	 * @param  file profile file
+	 * @throws IllegalArgumentException if the profile
+	 * 		   is not contained within the store
+	 */
+	public synchronized void setActiveFile( Path file ) {
+		if( !diskProfiles.containsKey( file ) ) {
+			throw new IllegalArgumentException( "Unknown profile: " + file );
+		}
+		activeFile = file;
+	}
+
+	/**
+	 * Resolves the file for a new profile of the given
+	 * Applicant; the first profile is always stored in
+	 * the primary file, while subsequent profiles are
+	 * named after the Applicant within the profiles
+	 * directory
+	 *
+	 * @param  app Applicant of the new profile
+	 * @return unused profile file
+	 */
+	public synchronized Path newProfileFile( Applicant app ) {
+		if( diskProfiles.isEmpty() && !Files.exists( primaryFile ) ) {
+			return primaryFile;
+		}
+
+		// Reduce the name to characters which are
+		// valid within a file name on every platform
+		String base = app.getName().trim().
+				replaceAll( "[^A-Za-z0-9]+", "_" );
+		if( base.isEmpty() ) {
+			base = "profile";
+		}
+
+		Path file = profilesDir.resolve( base + PROFILE_EXTENSION );
+		for( int i = 2; diskProfiles.containsKey( file ) ||
+				Files.exists( file ); i++ ) {
+			file = profilesDir.resolve( base + "_" + i + PROFILE_EXTENSION );
+		}
+		return file;
+	}
+}
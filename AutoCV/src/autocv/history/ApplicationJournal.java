@@ -0,0 +1,682 @@
+package autocv.history;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.data.JobType;
+import autocv.io.DataCipher;
+import autocv.log.Logger;
+
+/**
+ * Append-only journal of every generated cover letter;
+ * records are appended to numbered segment files within
+ * the history directory, and are indexed in memory by
+ * company, date, and job type
+ *
+ * Appends update the indexes immediately and hand the
+ * record to a dedicated writer Thread, which drains all
+ * pending records and writes them as a single batch;
+ * callers never wait on disk
+ *
+ * Each record is encrypted individually with the data
+ * cipher of the session, so that records may still be
+ * appended to a segment without rewriting it; segments
+ * of plaintext records are encrypted when read while the
+ * cipher migrates the data
+ *
+ * Once enough full segments accumulate, the writer merges
+ * them into a single compacted segment named after the
+ * range of segments it replaces, so that a compaction
+ * interrupted by a crash is resolved on the next load;
+ * compacted segments are never merged again, so that
+ * every record is rewritten once at most
+ *
+ * A record torn by a crash at the end of the active
+ * segment is truncated when the journal is opened, so
+ * that the next record does not continue its line
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class ApplicationJournal implements AutoCloseable {
+
+	/** Logger of failed reads and writes of the journal */
+	private static final Logger LOG = Logger.get( ApplicationJournal.class );
+
+	/** Number of records written to a segment before rolling */
+	private static final int SEGMENT_RECORDS = 1024;
+
+	/** Number of full, uncompacted segments which triggers a compaction */
+	private static final int COMPACTION_THRESHOLD = 8;
+
+	/** Prefix of every segment file name */
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	/** Extension of every segment file name */
+	private static final String SEGMENT_EXTENSION = ".log";
+
+	/** Suffix of a segment being written in place of another */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	/**
+	 * Marker record queued upon closing the journal,
+	 * signalling the writer Thread to stop once every
+	 * record ahead of it has been written
+	 */
+	private static final ApplicationRecord SHUTDOWN = new ApplicationRecord(
+			0, null, null, null, null, null, null, null, null, null );
+
+	/** Directory containing the segment files */
+	private final Path historyDir;
+
+	/** Cipher sealing each record */
+	private final DataCipher cipher;
+
+	/** Records indexed by lower-case company name */
+	private final Map<String, List<ApplicationRecord>> byCompany;
+
+	/** Records indexed by generation date */
+	private final NavigableMap<LocalDate, List<ApplicationRecord>> byDate;
+
+	/** Records indexed by job type */
+	private final Map<JobType, List<ApplicationRecord>> byJobType;
+
+	/** Records awaiting the writer Thread */
+	private final BlockingQueue<ApplicationRecord> pending;
+
+	/** Sealed segments, ordered by their first sequence number */
+	private final List<Segment> sealed;
+
+	/** Thread writing and compacting the segments */
+	private Thread writer;
+
+	/** Writer of the segment currently appended to */
+	private BufferedWriter activeWriter;
+
+	/** Sequence number of the active segment */
+	private long activeSequence;
+
+	/** Number of records within the active segment */
+	private int activeRecords;
+
+	/** Determines if the journal has been closed */
+	private volatile boolean closed;
+
+	/**
+	 * Default constructor, initializing the history
+	 * directory and the indexes; no records are read
+	 * until the journal is opened
+	 *
+	 * @param historyDir directory of the segment files
+	 * @param cipher	 cipher sealing each record
+	 */
+	public ApplicationJournal( Path historyDir, DataCipher cipher ) {
+		this.historyDir = historyDir;
+		this.cipher = cipher;
+
+		byCompany = new HashMap<>();
+		byDate = new TreeMap<>();
+		byJobType = new EnumMap<>( JobType.class );
+		pending = new LinkedBlockingQueue<>();
+		sealed = new ArrayList<>();
+	}
+
+	/**
+	 * Reads every segment into the indexes and starts
+	 * the writer Thread; segments made redundant by an
+	 * interrupted compaction are removed, as are the
+	 * temporary segments left by a crash while writing
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public void open() throws IOException {
+		Files.createDirectories( historyDir );
+
+		try( DirectoryStream<Path> dir = Files.newDirectoryStream( historyDir,
+				SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION + TEMP_SUFFIX ) ) {
+			for( Path file : dir ) {
+				LOG.info( "Removing stale temporary segment", "file", file.getFileName() );
+				Files.deleteIfExists( file );
+			}
+		}
+
+		List<Segment> segments = new ArrayList<>();
+		try( DirectoryStream<Path> dir = Files.newDirectoryStream(
+				historyDir, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION ) ) {
+			for( Path file : dir ) {
+				Segment seg = Segment.parse( file );
+				if( seg != null ) {
+					segments.add( seg );
+				}
+			}
+		}
+
+		// Order by first sequence, widest range first, so
+		// that any segment covered by a compacted segment
+		// immediately follows it
+		segments.sort( ( a, b ) -> a.first != b.first ?
+				Long.compare( a.first, b.first ) :
+				Long.compare( b.last, a.last ) );
+
+		long lastSequence = 0;
+		for( Segment seg : segments ) {
+			if( seg.last <= lastSequence ) {
+				Files.deleteIfExists( seg.file );
+				continue;
+			}
+			readSegment( seg.file );
+			sealed.add( seg );
+			lastSequence = seg.last;
+		}
+
+		// The newest plain segment remains active if
+		// it has room for further records
+		activeSequence = lastSequence + 1;
+		if( !sealed.isEmpty() ) {
+			Segment newest = sealed.get( sealed.size() - 1 );
+			if( newest.first == newest.last ) {
+				truncateTorn( newest.file );
+			}
+			int records = countLines( newest.file );
+			if( newest.first == newest.last && records < SEGMENT_RECORDS ) {
+				sealed.remove( sealed.size() - 1 );
+				activeSequence = newest.first;
+				activeRecords = records;
+			}
+		}
+
+		writer = new Thread( this::runWriter, "autocv-history-writer" );
+		writer.setDaemon( true );
+		writer.start();
+	}
+
+	/**
+	 * Appends the given record to the journal; the
+	 * record is indexed immediately and written to
+	 * disk asynchronously
+	 *
+	 * @param record record to append
+	 */
+	public void append( ApplicationRecord record ) {
+		if( closed ) {
+			throw new IllegalStateException( "Journal is closed" );
+		}
+		index( record );
+		pending.add( record );
+	}
+
+	/**
+	 * Determines if a letter has already been generated
+	 * for the given company with the given job season,
+	 * year, and type
+	 *
+	 * @param  company company of the letter
+	 * @param  jobCred job credentials of the letter
+	 * @return true if a matching letter exists
+	 */
+	public synchronized boolean hasApplied( Company company,
+			JobCredentials jobCred ) {
+
+		List<ApplicationRecord> records = byCompany.get(
+				companyKey( company.getName() ) );
+		if( records == null ) {
+			return false;
+		}
+		for( ApplicationRecord record : records ) {
+			if( record.getJobSeason() == jobCred.getJobSeason() &&
+					record.getJobType() == jobCred.getJobType() &&
+					record.getJobYear().equals( jobCred.getYear() ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Retrieves every record for the given company,
+	 * ignoring the case of the company name
+	 *
+	 * @param  companyName company name
+	 * @return records in the order they were appended
+	 */
+	public synchronized List<ApplicationRecord> findByCompany( String companyName ) {
+		return copyOf( byCompany.get( companyKey( companyName ) ) );
+	}
+
+	/**
+	 * Retrieves every record generated within the
+	 * given range of dates, inclusive
+	 *
+	 * @param  from first date of the range
+	 * @param  to	last date of the range
+	 * @return records ordered by date
+	 */
+	public synchronized List<ApplicationRecord> findByDate( LocalDate from,
+			LocalDate to ) {
+
+		List<ApplicationRecord> found = new ArrayList<>();
+		for( List<ApplicationRecord> day : byDate.subMap( from, true,
+				to, true ).values() ) {
+			found.addAll( day );
+		}
+		return found;
+	}
+
+	/**
+	 * Retrieves every record of the given job type
+	 *
+	 * @param  jobType job type
+	 * @return records in the order they were appended
+	 */
+	public synchronized List<ApplicationRecord> findByJobType( JobType jobType ) {
+		return copyOf( byJobType.get( jobType ) );
+	}
+
+	/**
+	 * Writes every pending record and stops the
+	 * writer Thread; if interrupted while waiting on
+	 * the writer Thread, the interrupt is restored
+	 */
+	@Override
+	public void close() {
+		if( closed ) {
+			return;
+		}
+		closed = true;
+		if( writer != null ) {
+			pending.add( SHUTDOWN );
+			try {
+				writer.join();
+			} catch( InterruptedException ex ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Adds the given record to each of the indexes
+	 *
+	 * @param record record to index
+	 */
+	private synchronized void index( ApplicationRecord record ) {
+		byCompany.computeIfAbsent( companyKey( record.getCompanyName() ),
+				k -> new ArrayList<>() ).add( record );
+		byDate.computeIfAbsent( record.getDate(),
+				k -> new ArrayList<>() ).add( record );
+		byJobType.computeIfAbsent( record.getJobType(),
+				k -> new ArrayList<>() ).add( record );
+	}
+
+	/**
+	 * Writer Thread routine; blocks until at least one
+	 * record is pending, then writes every pending
+	 * record as a single batch, until the shutdown
+	 * marker is received
+	 */
+	private void runWriter() {
+		List<ApplicationRecord> batch = new ArrayList<>();
+		boolean running = true;
+
+		while( running ) {
+			try {
+				batch.add( pending.take() );
+			} catch( InterruptedException ex ) {
+				running = false;
+			}
+			pending.drainTo( batch );
+
+			// Records queued alongside the marker
+			// are still written
+			if( batch.remove( SHUTDOWN ) ) {
+				running = false;
+			}
+
+			if( !batch.isEmpty() ) {
+				try {
+					writeBatch( batch );
+				} catch( IOException ex ) {
+					LOG.error( "Unable to write application records", ex,
+							"records", batch.size() );
+				}
+				batch.clear();
+			}
+		}
+
+		try {
+			if( activeWriter != null ) {
+				activeWriter.close();
+			}
+		} catch( IOException ex ) {
+			LOG.warn( "Unable to close journal segment", ex );
+		}
+	}
+
+	/**
+	 * Appends the given batch of records to the active
+	 * segment, rolling to a new segment as each fills;
+	 * the segment is flushed once per batch
+	 *
+	 * @param  batch records to write
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void writeBatch( List<ApplicationRecord> batch )
+		throws IOException {
+
+		for( ApplicationRecord record : batch ) {
+			if( activeWriter == null ) {
+				activeWriter = Files.newBufferedWriter(
+						segmentFile( activeSequence, activeSequence ),
+						StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND );
+			}
+
+			activeWriter.write( cipher.sealLine( record.toJournalLine() ) );
+			activeWriter.newLine();
+
+			if( ++activeRecords >= SEGMENT_RECORDS ) {
+				rollSegment();
+			}
+		}
+
+		if( activeWriter != null ) {
+			activeWriter.flush();
+		}
+	}
+
+	/**
+	 * Seals the active segment, begins a new segment,
+	 * and compacts the sealed segments if enough
+	 * have accumulated
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void rollSegment() throws IOException {
+		activeWriter.close();
+		activeWriter = null;
+
+		sealed.add( new Segment( segmentFile( activeSequence,
+				activeSequence ), activeSequence, activeSequence ) );
+		activeSequence++;
+		activeRecords = 0;
+
+		if( sealed.size() - firstPlain() >= COMPACTION_THRESHOLD ) {
+			compact();
+		}
+	}
+
+	/**
+	 * Finds the first sealed segment not yet compacted;
+	 * every segment after it is also plain, as each
+	 * compaction merges every plain segment before it
+	 *
+	 * @return index of the first plain sealed segment
+	 */
+	private int firstPlain() {
+		int index = sealed.size();
+		while( index > 0 && sealed.get( index - 1 ).first
+				== sealed.get( index - 1 ).last ) {
+			index--;
+		}
+		return index;
+	}
+
+	/**
+	 * Merges every plain sealed segment into a single
+	 * segment spanning their sequence numbers; the
+	 * merged segment is moved into place before the
+	 * segments it replaces are deleted, and earlier
+	 * compacted segments are left as they are; a failed
+	 * merge removes its temporary segment
+	 *
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void compact() throws IOException {
+		List<Segment> plain = sealed.subList( firstPlain(), sealed.size() );
+		long first = plain.get( 0 ).first;
+		long last = plain.get( plain.size() - 1 ).last;
+
+		Path merged = segmentFile( first, last );
+		Path temp = merged.resolveSibling( merged.getFileName() + TEMP_SUFFIX );
+
+		try {
+			try( BufferedWriter out = Files.newBufferedWriter( temp,
+					StandardCharsets.UTF_8 ) ) {
+				for( Segment seg : plain ) {
+					try( BufferedReader in = Files.newBufferedReader( seg.file,
+							StandardCharsets.UTF_8 ) ) {
+						String line;
+						while( ( line = in.readLine() ) != null ) {
+							out.write( line );
+							out.newLine();
+						}
+					}
+				}
+			}
+			Files.move( temp, merged, StandardCopyOption.ATOMIC_MOVE );
+		} catch( IOException ex ) {
+			Files.deleteIfExists( temp );
+			throw ex;
+		}
+
+		for( Segment seg : plain ) {
+			if( !seg.file.equals( merged ) ) {
+				Files.deleteIfExists( seg.file );
+			}
+		}
+		plain.clear();
+		sealed.add( new Segment( merged, first, last ) );
+	}
+
+	/**
+	 * Reads and indexes every well-formed record
+	 * within the given segment; records failing
+	 * authentication are skipped. Plaintext records,
+	 * only accepted while the cipher migrates the data,
+	 * are encrypted by replacing the segment
+	 *
+	 * @param  file segment file
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void readSegment( Path file ) throws IOException {
+		List<String> lines = new ArrayList<>();
+		boolean plain = false;
+		try( BufferedReader in = Files.newBufferedReader( file,
+				StandardCharsets.UTF_8 ) ) {
+			String line;
+			while( ( line = in.readLine() ) != null ) {
+				ApplicationRecord record;
+				try {
+					record = ApplicationRecord.fromJournalLine(
+							cipher.openLine( line ) );
+				} catch( IOException ex ) {
+					LOG.warn( "Skipping unreadable application record", ex,
+							"segment", file.getFileName() );
+					lines.add( line );
+					continue;
+				}
+				if( record != null ) {
+					index( record );
+				}
+				if( DataCipher.isSealed( line ) ) {
+					lines.add( line );
+				}
+				else if( record != null ) {
+					lines.add( cipher.sealLine( line ) );
+					plain = true;
+				}
+			}
+		}
+		if( plain ) {
+			Path temp = file.resolveSibling( file.getFileName() + TEMP_SUFFIX );
+			try {
+				try( BufferedWriter out = Files.newBufferedWriter( temp,
+						StandardCharsets.UTF_8 ) ) {
+					for( String line : lines ) {
+						out.write( line );
+						out.newLine();
+					}
+				}
+				Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE );
+			} catch( IOException ex ) {
+				Files.deleteIfExists( temp );
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Truncates the given segment after its last line
+	 * break, removing a record torn by a crash
+	 *
+	 * @param  file segment file
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static void truncateTorn( Path file ) throws IOException {
+		byte[] bytes = Files.readAllBytes( file );
+		int end = bytes.length;
+		while( end > 0 && bytes[ end - 1 ] != '\n' ) {
+			end--;
+		}
+		if( end < bytes.length ) {
+			LOG.warn( "Truncating torn application record",
+					"segment", file.getFileName(), "bytes", bytes.length - end );
+			try( FileChannel ch = FileChannel.open( file, StandardOpenOption.WRITE ) ) {
+				ch.truncate( end );
+				ch.force( true );
+			}
+		}
+	}
+
+	/**
+	 * Counts the lines within the given file
+	 *
+	 * @param  file file to count
+	 * @return number of lines
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static int countLines( Path file ) throws IOException {
+		int count = 0;
+		try( BufferedReader in = Files.newBufferedReader( file,
+				StandardCharsets.UTF_8 ) ) {
+			while( in.readLine() != null ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Resolves the file of the segment spanning the
+	 * given sequence numbers
+	 *
+	 * @param  first first sequence number
+	 * @param  last	 last sequence number
+	 * @return segment file
+	 */
+	private Path segmentFile( long first, long last ) {
+		String name = first == last ? String.format( "%08d", first ) :
+			String.format( "%08d-%08d", first, last );
+		return historyDir.resolve( SEGMENT_PREFIX + name + SEGMENT_EXTENSION );
+	}
+
+	/**
+	 * Normalizes a company name for use as an
+	 * index key
+	 *
+	 * @param  companyName company name
+	 * @return index key
+	 */
+	private static String companyKey( String companyName ) {
+		return companyName.trim().toLowerCase( Locale.ROOT );
+	}
+
+	/**
+	 * Copies the given index entry
+	 *
+	 * @param  records index entry, possibly null
+	 * @return copy of the entry
+	 */
+	private static List<ApplicationRecord> copyOf( List<ApplicationRecord> records ) {
+		return records == null ? Collections.emptyList() :
+			new ArrayList<>( records );
+	}
+
+	/**
+	 * Segment file along with the range of sequence
+	 * numbers it spans
+	 */
+	private static final class Segment {
+
+		/** Segment file */
+		private final Path file;
+
+		/** First sequence number spanned */
+		private final long first;
+
+		/** Last sequence number spanned */
+		private final long last;
+
+		/**
+		 * Default constructor, initializing the
+		 * segment file and range
+		 *
+		 * @param file	segment file
+		 * @param first first sequence number
+		 * @param last	last sequence number
+		 */
+		private Segment( Path file, long first, long last ) {
+			this.file = file;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * Parses the range of a segment from its
+		 * file name
+		 *
+		 * @param  file segment file
+		 * @return segment, or null if the file name
+		 * 		   is not a valid segment name
+		 */
+		private static Segment parse( Path file ) {
+			String name = file.getFileName().toString();
+			String range = name.substring( SEGMENT_PREFIX.length(),
+					name.length() - SEGMENT_EXTENSION.length() );
+			try {
+				int dash = range.indexOf( '-' );
+				if( dash < 0 ) {
+					long seq = Long.parseLong( range );
+					return new Segment( file, seq, seq );
+				}
+				return new Segment( file, Long.parseLong( range.
+						substring( 0, dash ) ), Long.parseLong(
+						range.substring( dash + 1 ) ) );
+			} catch( NumberFormatException ex ) {
+				return null;
+			}
+		}
+	}
+}
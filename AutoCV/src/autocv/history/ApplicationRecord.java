@@ -0,0 +1,296 @@
+package autocv.history;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import autocv.data.JobSeason;
+import autocv.data.JobType;
+
+/**
+ * Record of a single generated cover letter, as
+ * stored within the application history journal;
+ * contains the applicant, company, job, and output
+ * data of the letter along with the time it was
+ * generated
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class ApplicationRecord {
+
+	/** Separator between the fields of a journal line */
+	private static final char SEPARATOR = '\t';
+
+	/** Number of fields within a journal line */
+	private static final int FIELD_COUNT = 10;
+
+	/** Generation time, in epoch milliseconds */
+	private final long timestamp;
+
+	/** Name of the applicant of the letter */
+	private final String applicantName;
+
+	/** Name of the company of the letter */
+	private final String companyName;
+
+	/** Street address of the company */
+	private final String companyStreetAddress;
+
+	/** City/state/zip info of the company */
+	private final String companyCityStateZip;
+
+	/** Job title of the letter */
+	private final String jobTitle;
+
+	/** Job type of the letter */
+	private final JobType jobType;
+
+	/** Job season of hire of the letter */
+	private final JobSeason jobSeason;
+
+	/** Job year of hire of the letter */
+	private final String jobYear;
+
+	/** Path at which the letter was written */
+	private final String outputPath;
+
+	/**
+	 * Default constructor, initializing all state
+	 * associated with the record
+	 *
+	 * @param timestamp			   generation time in
+	 * 							   epoch milliseconds
+	 * @param applicantName		   applicant name
+	 * @param companyName		   company name
+	 * @param companyStreetAddress company street address
+	 * @param companyCityStateZip  company city/state/zip
+	 * @param jobTitle			   job title
+	 * @param jobType			   job type
+	 * @param jobSeason			   job season of hire
+	 * @param jobYear			   job year of hire
+	 * @param outputPath		   output path of the letter
+	 */
+	public ApplicationRecord( long timestamp, String applicantName,
+			String companyName, String companyStreetAddress,
+			String companyCityStateZip, String jobTitle,
+			JobType jobType, JobSeason jobSeason, String jobYear,
+			String outputPath ) {
+
+		this.timestamp = timestamp;
+		this.applicantName = applicantName;
+		this.companyName = companyName;
+		this.companyStreetAddress = companyStreetAddress;
+		this.companyCityStateZip = companyCityStateZip;
+		this.jobTitle = jobTitle;
+		this.jobType = jobType;
+		this.jobSeason = jobSeason;
+		this.jobYear = jobYear;
+		this.outputPath = outputPath;
+	}
+
+	/**
+	 * Retrieves the generation time
+	 *
+	 * @return generation time in epoch milliseconds
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Retrieves the generation date in the
+	 * system time zone
+	 *
+	 * @return generation date
+	 */
+	public LocalDate getDate() {
+		return Instant.ofEpochMilli( timestamp ).
+				atZone( ZoneId.systemDefault() ).toLocalDate();
+	}
+
+	/**
+	 * Retrieves the applicant name
+	 *
+	 * @return applicant name
+	 */
+	public String getApplicantName() {
+		return applicantName;
+	}
+
+	/**
+	 * Retrieves the company name
+	 *
+	 * @return company name
+	 */
+	public String getCompanyName() {
+		return companyName;
+	}
+
+	/**
+	 * Retrieves the company street address
+	 *
+	 * @return company street address
+	 */
+	public String getCompanyStreetAddress() {
+		return companyStreetAddress;
+	}
+
+	/**
+	 * Retrieves the company city/state/zip info
+	 *
+	 * @return company city/state/zip info
+	 */
+	public String getCompanyCityStateZip() {
+		return companyCityStateZip;
+	}
+
+	/**
+	 * Retrieves the job title
+	 *
+	 * @return job title
+	 */
+	public String getJobTitle() {
+		return jobTitle;
+	}
+
+	/**
+	 * Retrieves the job type
+	 *
+	 * @return job type
+	 */
+	public JobType getJobType() {
+		return jobType;
+	}
+
+	/**
+	 * Retrieves the job season of hire
+	 *
+	 * @return job season
+	 */
+	public JobSeason getJobSeason() {
+		return jobSeason;
+	}
+
+	/**
+	 * Retrieves the job year of hire
+	 *
+	 * @return job year
+	 */
+	public String getJobYear() {
+		return jobYear;
+	}
+
+	/**
+	 * Retrieves the output path of the letter
+	 *
+	 * @return output path
+	 */
+	public String getOutputPath() {
+		return outputPath;
+	}
+
+	/**
+	 * Formats the record as a single journal line;
+	 * fields are separated by tabs, and any tab,
+	 * line break, or backslash within a field is
+	 * escaped
+	 *
+	 * @return journal line, without a line terminator
+	 */
+	public String toJournalLine() {
+		StringBuilder line = new StringBuilder( 128 );
+		line.append( timestamp );
+		appendField( line, applicantName );
+		appendField( line, companyName );
+		appendField( line, companyStreetAddress );
+		appendField( line, companyCityStateZip );
+		appendField( line, jobTitle );
+		appendField( line, jobType.name() );
+		appendField( line, jobSeason.name() );
+		appendField( line, jobYear );
+		appendField( line, outputPath );
+		return line.toString();
+	}
+
+	/**
+	 * Parses a record from a single journal line
+	 *
+	 * @param  line journal line
+	 * @return parsed record, or null if the line is
+	 * 		   malformed (i.e. torn by a crash mid-write)
+	 */
+	public static ApplicationRecord fromJournalLine( String line ) {
+		String[] fields = new String[ FIELD_COUNT ];
+		StringBuilder field = new StringBuilder();
+		int count = 0;
+
+		for( int i = 0; i < line.length(); i++ ) {
+			char c = line.charAt( i );
+			if( c == SEPARATOR ) {
+				if( count == FIELD_COUNT - 1 ) {
+					return null;
+				}
+				fields[ count++ ] = field.toString();
+				field.setLength( 0 );
+			}
+			else if( c == '\\' && i + 1 < line.length() ) {
+				char e = line.charAt( ++i );
+				field.append( e == 't' ? '\t' : e == 'n' ? '\n' :
+					e == 'r' ? '\r' : e );
+			}
+			else {
+				field.append( c );
+			}
+		}
+		fields[ count++ ] = field.toString();
+
+		if( count != FIELD_COUNT ) {
+			return null;
+		}
+
+		try {
+			return new ApplicationRecord( Long.parseLong( fields[ 0 ] ),
+				fields[ 1 ], fields[ 2 ], fields[ 3 ], fields[ 4 ],
+				fields[ 5 ], JobType.valueOf( fields[ 6 ] ),
+				JobSeason.valueOf( fields[ 7 ] ), fields[ 8 ],
+				fields[ 9 ] );
+		} catch( IllegalArgumentException ex ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Appends an escaped field, preceded by the
+	 * field separator, to the given line
+	 *
+	 * @param line	line under construction
+	 * @param value field value; null is written as
+	 * 				an empty field
+	 */
+	private static void appendField( StringBuilder line, String value ) {
+		line.append( SEPARATOR );
+		if( value == null ) {
+			return;
+		}
+		for( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt( i );
+			switch( c ) {
+				case '\t' :
+					line.append( "\\t" );
+					break;
+				case '\n' :
+					line.append( "\\n" );
+					break;
+				case '\r' :
+					line.append( "\\r" );
+					break;
+				case '\\' :
+					line.append( "\\\\" );
+					break;
+				default :
+					line.append( c );
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package autocv.html;
+
+import java.util.List;
+
+/**
+ * Combines the HTML of several rendered cover letters into
+ * a single document, printing each letter upon its own
+ * page, so that a batch of letters is converted to PDF by
+ * a single call to the renderer
+ *
+ * The head of the first letter, holding the inlined style
+ * sheet and typefaces, is shared by every letter, as the
+ * head is identical for each; the body of each letter is
+ * placed within a division carrying the attributes of the
+ * body, separated from the next by a page break
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class BatchDocument {
+	
+	/** Element separating two letters of the document */
+	public static final String PAGE_BREAK =
+			"<div style=\"break-before: page\"></div>";
+	
+	/** Private constructor; static methods only */
+	private BatchDocument() {}
+	
+	/**
+	 * Combines the given cover letters into a single
+	 * document
+	 *
+	 * @param  letters rendered HTML of each letter
+	 * @return combined document
+	 * @throws IllegalArgumentException if a letter has
+	 * 		   no body element
+	 */
+	public static String combine( List<String> letters ) {
+		String first = letters.get( 0 );
+		int head = bodyStart( first );
+		
+		StringBuilder doc = new StringBuilder( first.length() +
+				letters.size() * ( first.length() - head ) );
+		doc.append( first, 0, head ).append( "<body>\n" );
+		for( int i = 0; i < letters.size(); i++ ) {
+			if( i > 0 ) {
+				doc.append( PAGE_BREAK ).append( '\n' );
+			}
+			
+			// The body tag of the letter becomes the tag of
+			// its division, keeping the class of the page
+			String letter = letters.get( i );
+			int start = bodyStart( letter );
+			int content = letter.indexOf( '>', start ) + 1;
+			int end = letter.lastIndexOf( "</body>" );
+			doc.append( "<div" ).append( letter, start + 5, content ).
+				append( letter, content, end ).append( "</div>\n" );
+		}
+		return doc.append( "</body>\n</html>\n" ).toString();
+	}
+	
+	/**
+	 * Locates the body tag of the given letter
+	 *
+	 * @param  letter rendered HTML of a letter
+	 * @return offset of the body tag
+	 * @throws IllegalArgumentException if the letter
+	 * 		   has no body element
+	 */
+	private static int bodyStart( String letter ) {
+		int start = letter.indexOf( "<body" );
+		if( start < 0 || letter.lastIndexOf( "</body>" ) < start ) {
+			throw new IllegalArgumentException( "Letter has no body element" );
+		}
+		return start;
+	}
+}
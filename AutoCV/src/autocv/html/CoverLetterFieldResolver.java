@@ -0,0 +1,136 @@
+package autocv.html;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import autocv.data.Applicant;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.parser.CoverLetterField;
+
+/**
+ * Resolves the value exchanged for each field of the
+ * cover letter from the applicant, company, job
+ * credentials, and job title of a single letter; shared
+ * by every renderer of the cover letter template, so
+ * that each renders identical values
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class CoverLetterFieldResolver {
+	
+	/**
+	 * Date format accounting for the longest month
+	 * name (September) and printing double-digit
+	 * date numbers
+	 * 
+	 * EX: September 05, 1996
+	 */
+	private static final String DATE_FORMAT = "MMMMMMMMM dd, YYYY";
+	
+	/** Reference applicant */
+	private final Applicant applicant;
+	
+	/** Reference company */
+	private final Company company;
+	
+	/** Reference job credentials */
+	private final JobCredentials jobCred;
+	
+	/** Reference job title */
+	private final String jobTitle;
+	
+	/** Date of the letter, formatted once per letter */
+	private final String date;
+	
+	/**
+	 * Default constructor, initializing the reference
+	 * applicant, company, job credentials, and job
+	 * title, dating the letter with the current date
+	 * 
+	 * @param applicant reference applicant
+	 * @param company	reference company
+	 * @param jobCred	reference job credentials
+	 * @param jobTitle	reference job title
+	 */
+	public CoverLetterFieldResolver( Applicant applicant,
+			Company company, JobCredentials jobCred,
+			String jobTitle ) {
+		
+		this.applicant = applicant;
+		this.company = company;
+		this.jobCred = jobCred;
+		this.jobTitle = jobTitle;
+		this.date = new SimpleDateFormat( DATE_FORMAT ).format( new Date() );
+	}
+	
+	/**
+	 * Resolves the value exchanged for the given field
+	 * 
+	 * @param  field cover letter field
+	 * @return value of the field
+	 */
+	public String resolve( CoverLetterField field ) {
+		switch( field ) {
+			case INITIAL_FIRST_NAME :
+			case SIG_FIRST_NAME :
+			case FIRST_NAME :
+				return applicant.getFirstName();
+			case SIG_MIDDLE_INITIAL :
+			case MIDDLE_INITIAL :
+				String mi = applicant.getMiddleInitial();
+				return mi == null ? "" : " " + mi + ".";
+			case INITIAL_LAST_NAME :
+			case SIG_LAST_NAME :
+			case LAST_NAME :
+				return " " + applicant.getLastName();
+			case EMAIL :
+				return applicant.getEmail();
+			case PRESENT_ADDRESS_1 :
+				return applicant.getPresentAddress().getStreetAddress();
+			case PRESENT_ADDRESS_2 :
+				return applicant.getPresentAddress().getCityStateZip();
+			case PRESENT_ADDRESS_3 :
+				return applicant.getPresentAddress().getPOBoxRoom();
+			case PERMANENT_ADDRESS_1 :
+				return applicant.getPermanentAddress().getStreetAddress();
+			case PERMANENT_ADDRESS_2 :
+				return applicant.getPermanentAddress().getCityStateZip();
+			case PERMANENT_ADDRESS_3 :
+				return applicant.getPermanentAddress().getPOBoxRoom();
+			case GITHUB_LINK :
+				return applicant.getGitHubLink();
+			case LINKEDIN_LINK :
+				return applicant.getLinkedInLink();
+			case PHONE_NUMBER :
+				return applicant.getPhone();
+			case DATE :
+				return date;
+			case INITIAL_COMPANY_NAME :
+			case LAST_COMPANY_NAME :
+				return company.getName();
+			case COMPANY_ADDRESS_1 :
+				return company.getAddress().getStreetAddress();
+			case COMPANY_ADDRESS_2 :
+				return company.getAddress().getCityStateZip();
+			case IS_RISING :
+				return applicant.isRising() ? " rising" : "";
+			case SCHOOL_YEAR :
+				return " " + applicant.getSchoolYear().
+					toString().toLowerCase();
+			case JOB_TITLE :
+				return jobTitle;
+			case JOB_SEASON :
+				return " " + jobCred.getJobSeason().
+					toString().toLowerCase();
+			case JOB_YEAR :
+				return " " + jobCred.getYear();
+			case JOB_TYPE :
+				return jobCred.getJobType().
+					toString().toLowerCase();
+			default :
+				throw new IllegalArgumentException( "Invalid field: " + field );
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package autocv.html;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import autocv.io.ClasspathResources;
+import autocv.parser.CoverLetterField;
+import autocv.parser.CoverLetterFieldMap;
+import autocv.ui.AutoCVPaths;
+
+/**
+ * Compiled form of the base cover letter HTML file; the
+ * file is split once into its static text segments and
+ * the slots between them, each slot holding a single
+ * field of the letter, so that a letter is rendered by
+ * concatenation alone rather than by searching the base
+ * file for every field
+ * 
+ * The slots are located by traversing the field map from
+ * the INITIAL_FIRST_NAME field, in the same order in which
+ * the fields appear within the base file
+ * 
+ * A rendered letter consists of segment 0, slot 0,
+ * segment 1, slot 1, and so on, ending with the final
+ * segment
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class CoverLetterTemplate {
+	
+	/** Compiled base cover letter, compiled upon first use */
+	private static volatile CoverLetterTemplate base;
+	
+	/** Static text segments; one more than the slots */
+	private final String[] segments;
+	
+	/** Field held by each slot */
+	private final CoverLetterField[] slots;
+	
+	/** Combined length of the static text segments */
+	private final int staticLength;
+	
+	/**
+	 * Default constructor, initializing the compiled
+	 * segments and slots
+	 * 
+	 * @param segments static text segments
+	 * @param slots	   field held by each slot
+	 */
+	CoverLetterTemplate( String[] segments,
+			CoverLetterField[] slots ) {
+		this.segments = segments;
+		this.slots = slots;
+		
+		int length = 0;
+		for( String segment : segments ) {
+			length += segment.length();
+		}
+		this.staticLength = length;
+	}
+	
+	/**
+	 * Retrieves the compiled base cover letter HTML
+	 * file, compiling the file upon first use; the
+	 * style sheet and typefaces are inlined beforehand,
+	 * so that every rendered letter is self-contained
+	 * 
+	 * @return compiled base cover letter
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public static CoverLetterTemplate base() throws IOException {
+		CoverLetterTemplate template = base;
+		if( template == null ) {
+			synchronized( CoverLetterTemplate.class ) {
+				if( ( template = base ) == null ) {
+					base = template = compile( SelfContainedHtml.inline(
+							ClasspathResources.text( AutoCVPaths.HTML_BASE_PATH ) ) );
+				}
+			}
+		}
+		return template;
+	}
+	
+	/**
+	 * Compiles the given cover letter HTML; fields are
+	 * located in field map order, each after the field
+	 * preceding it, and traversal ends at the first
+	 * field not found
+	 * 
+	 * @param  html cover letter HTML
+	 * @return compiled template
+	 */
+	public static CoverLetterTemplate compile( String html ) {
+		CoverLetterFieldMap clfMap = new CoverLetterFieldMap();
+		List<String> segments = new ArrayList<>();
+		List<CoverLetterField> slots = new ArrayList<>();
+		
+		int pos = 0;
+		CoverLetterField field = CoverLetterField.INITIAL_FIRST_NAME;
+		while( field != null ) {
+			int at = html.indexOf( field.toString(), pos );
+			if( at < 0 ) {
+				break;
+			}
+			segments.add( html.substring( pos, at ) );
+			slots.add( field );
+			pos = at + field.toString().length();
+			
+			// The last name of the closing maps back
+			// to the already located EMAIL field
+			field = clfMap.get( field );
+			if( slots.contains( field ) ) {
+				field = null;
+			}
+		}
+		segments.add( html.substring( pos ) );
+		
+		return new CoverLetterTemplate( segments.toArray( new String[ 0 ] ),
+				slots.toArray( new CoverLetterField[ 0 ] ) );
+	}
+	
+	/**
+	 * Number of slots within the template
+	 * 
+	 * @return slot count
+	 */
+	public int slotCount() {
+		return slots.length;
+	}
+	
+	/**
+	 * Retrieves the field held by the given slot
+	 * 
+	 * @param  slot slot index
+	 * @return field of the slot
+	 */
+	public CoverLetterField slot( int slot ) {
+		return slots[ slot ];
+	}
+	
+	/**
+	 * Retrieves the static text preceding the given
+	 * slot; the final segment follows the last slot
+	 * 
+	 * @param  segment segment index, up to and
+	 * 		   including the slot count
+	 * @return static text
+	 */
+	public String segment( int segment ) {
+		return segments[ segment ];
+	}
+	
+	/**
+	 * Renders the template, exchanging each slot with
+	 * the value of its field
+	 * 
+	 * @param  values value of each field
+	 * @return rendered text
+	 */
+	public String render( Function<CoverLetterField, String> values ) {
+		StringBuilder out = new StringBuilder( staticLength +
+				slots.length * 32 );
+		for( int i = 0; i < slots.length; i++ ) {
+			out.append( segments[ i ] ).append( values.apply( slots[ i ] ) );
+		}
+		return out.append( segments[ slots.length ] ).toString();
+	}
+	
+	/**
+	 * Renders the template with the values resolved
+	 * for a single letter
+	 * 
+	 * @param  resolver field resolver of the letter
+	 * @return rendered text
+	 */
+	public String render( CoverLetterFieldResolver resolver ) {
+		return render( resolver::resolve );
+	}
+}
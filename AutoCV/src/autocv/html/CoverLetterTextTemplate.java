@@ -0,0 +1,503 @@
+package autocv.html;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+import autocv.io.ClasspathResources;
+import autocv.parser.CoverLetterField;
+import autocv.ui.AutoCVPaths;
+
+/**
+ * Plain text or Markdown form of the base cover letter,
+ * for pasting into the cover letter field of an
+ * application portal; the base cover letter HTML file is
+ * converted once into text, keeping every field slot of
+ * the compiled template, so that a letter is produced by
+ * concatenation alone, without a renderer
+ *
+ * The conversion follows the layout of the base file:
+ * <li>each paragraph begins a line, and a paragraph whose
+ * class ends with -pad, a spacer division, or a rule
+ * begins a new block, separated by a blank line</li>
+ * <li>the credential columns of the header, and the email
+ * beside the applicant name, are separated by a bar,
+ * omitting any column left empty</li>
+ * <li>the handwritten signature is omitted, as the typed
+ * name beneath it remains</li>
+ * <li>in Markdown, bold text and the applicant name are
+ * emphasized, rules are kept, the lines of a block are
+ * joined by hard line breaks, and every value is
+ * escaped</li>
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class CoverLetterTextTemplate {
+	
+	/** Marks a slot within the converted text, followed by its field */
+	private static final char SLOT = '\uE000';
+	
+	/** Code of the first field following a slot marker */
+	private static final char FIELD = '\uE100';
+	
+	/** Separates two credential columns within the converted text */
+	private static final char COLUMN = '\uE001';
+	
+	/** Closing mark of a span whose contents are omitted */
+	private static final String SKIPPED = "\uE002";
+	
+	/** Characters escaped within Markdown text */
+	private static final String MARKDOWN_SPECIAL = "\\`*_[]<>#";
+	
+	/** Plain text cover letter, compiled upon first use */
+	private static volatile CoverLetterTextTemplate plainText;
+	
+	/** Markdown cover letter, compiled upon first use */
+	private static volatile CoverLetterTextTemplate markdown;
+	
+	/** Converted text and field slots */
+	private final CoverLetterTemplate template;
+	
+	/** Whether the text is Markdown */
+	private final boolean isMarkdown;
+	
+	/**
+	 * Default constructor, initializing the converted
+	 * template
+	 *
+	 * @param template	 converted text and field slots
+	 * @param isMarkdown whether the text is Markdown
+	 */
+	private CoverLetterTextTemplate( CoverLetterTemplate template,
+			boolean isMarkdown ) {
+		this.template = template;
+		this.isMarkdown = isMarkdown;
+	}
+	
+	/**
+	 * Retrieves the plain text cover letter, converting
+	 * the base file upon first use
+	 *
+	 * @return plain text cover letter
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public static CoverLetterTextTemplate plainText() throws IOException {
+		CoverLetterTextTemplate template = plainText;
+		if( template == null ) {
+			synchronized( CoverLetterTextTemplate.class ) {
+				if( ( template = plainText ) == null ) {
+					plainText = template = compile( ClasspathResources.text(
+							AutoCVPaths.HTML_BASE_PATH ), false );
+				}
+			}
+		}
+		return template;
+	}
+	
+	/**
+	 * Retrieves the Markdown cover letter, converting
+	 * the base file upon first use
+	 *
+	 * @return Markdown cover letter
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public static CoverLetterTextTemplate markdown() throws IOException {
+		CoverLetterTextTemplate template = markdown;
+		if( template == null ) {
+			synchronized( CoverLetterTextTemplate.class ) {
+				if( ( template = markdown ) == null ) {
+					markdown = template = compile( ClasspathResources.text(
+							AutoCVPaths.HTML_BASE_PATH ), true );
+				}
+			}
+		}
+		return template;
+	}
+	
+	/**
+	 * Converts the given cover letter HTML into text;
+	 * the fields are first located as by the compiled
+	 * template, and each slot replaced by a marker which
+	 * the conversion carries through unchanged
+	 *
+	 * @param  html		  cover letter HTML
+	 * @param  isMarkdown whether to convert to Markdown
+	 * @return converted template
+	 */
+	public static CoverLetterTextTemplate compile( String html,
+			boolean isMarkdown ) {
+		
+		CoverLetterTemplate source = CoverLetterTemplate.compile( html );
+		String marked = source.render( field -> new String(
+				new char[] { SLOT, ( char ) ( FIELD + field.ordinal() ) } ) );
+		String text = convert( marked, isMarkdown );
+		
+		// Split the converted text back into segments
+		// and slots; slots within omitted elements are
+		// simply absent
+		List<String> segments = new ArrayList<>();
+		List<CoverLetterField> slots = new ArrayList<>();
+		int pos = 0;
+		for( int at = text.indexOf( SLOT ); at >= 0; at = text.indexOf( SLOT, pos ) ) {
+			segments.add( text.substring( pos, at ) );
+			slots.add( CoverLetterField.values()[ text.charAt( at + 1 ) - FIELD ] );
+			pos = at + 2;
+		}
+		segments.add( text.substring( pos ) );
+		
+		return new CoverLetterTextTemplate( new CoverLetterTemplate(
+				segments.toArray( new String[ 0 ] ),
+				slots.toArray( new CoverLetterField[ 0 ] ) ), isMarkdown );
+	}
+	
+	/**
+	 * Renders the letter, exchanging each slot with the
+	 * value of its field, escaped within Markdown; a field
+	 * without a value, such as an absent PO box, is left
+	 * empty
+	 *
+	 * @param  values value of each field
+	 * @return text of the letter
+	 */
+	public String render( Function<CoverLetterField, String> values ) {
+		return tidy( template.render( field -> {
+			String value = values.apply( field );
+			if( value == null ) {
+				return "";
+			}
+			return isMarkdown ? escape( value ) : value;
+		}) );
+	}
+	
+	/**
+	 * Renders the letter with the values resolved for a
+	 * single letter
+	 *
+	 * @param  resolver field resolver of the letter
+	 * @return text of the letter
+	 */
+	public String render( CoverLetterFieldResolver resolver ) {
+		return render( resolver::resolve );
+	}
+	
+	/**
+	 * Whether the text of the letter is Markdown
+	 *
+	 * @return true for Markdown, false for plain text
+	 */
+	public boolean isMarkdown() {
+		return isMarkdown;
+	}
+	
+	/**
+	 * Converts the body of the given HTML into text,
+	 * collapsing whitespace as a browser would
+	 *
+	 * @param  html		  cover letter HTML, with marked slots
+	 * @param  isMarkdown whether to convert to Markdown
+	 * @return converted text, with marked slots and columns
+	 */
+	private static String convert( String html, boolean isMarkdown ) {
+		StringBuilder out = new StringBuilder( html.length() / 2 );
+		Deque<String> spans = new ArrayDeque<>();
+		boolean space = false;
+		int skipped = 0;
+		
+		int body = html.indexOf( "<body" );
+		int i = body < 0 ? 0 : html.indexOf( '>', body ) + 1;
+		while( i < html.length() ) {
+			char c = html.charAt( i );
+			if( c == '<' ) {
+				int end = html.indexOf( '>', i );
+				if( end < 0 ) {
+					break;
+				}
+				String tag = html.substring( i + 1, end );
+				i = end + 1;
+				
+				boolean closing = tag.startsWith( "/" );
+				String name = tag.substring( closing ? 1 : 0 ).split( "[\\s/]", 2 )[ 0 ];
+				String cls = closing ? "" : className( tag );
+				switch( name ) {
+				case "p":
+					newLine( out );
+					if( !closing && cls.endsWith( "-pad" ) ) {
+						blankLine( out );
+					}
+					space = false;
+					break;
+				case "div":
+					if( !closing && cls.endsWith( "-spacer" ) ) {
+						blankLine( out );
+						space = false;
+					}
+					break;
+				case "br":
+					newLine( out );
+					space = false;
+					break;
+				case "hr":
+					blankLine( out );
+					if( isMarkdown ) {
+						out.append( "---\n" );
+						blankLine( out );
+					}
+					space = false;
+					break;
+				case "span":
+					if( closing ) {
+						String mark = spans.isEmpty() ? "" : spans.pop();
+						if( mark.equals( SKIPPED ) ) {
+							skipped--;
+						} else if( skipped == 0 && !mark.isEmpty() ) {
+							out.append( mark );
+						}
+						break;
+					}
+					if( skipped > 0 || cls.contains( "signature" ) ) {
+						spans.push( SKIPPED );
+						skipped++;
+						break;
+					}
+					if( cls.contains( "credential" ) || cls.contains( "email" ) ) {
+						if( !atLineStart( out ) ) {
+							out.append( COLUMN );
+						}
+						space = false;
+					}
+					String mark = isMarkdown && ( cls.contains( "bold" ) ||
+							cls.contains( "app-name" ) ) ? "**" : "";
+					if( !mark.isEmpty() ) {
+						if( space && !atLineStart( out ) ) {
+							out.append( ' ' );
+						}
+						space = false;
+					}
+					out.append( mark );
+					spans.push( mark );
+					break;
+				default:
+					break;
+				}
+				continue;
+			}
+			
+			i++;
+			if( skipped > 0 ) {
+				continue;
+			}
+			if( Character.isWhitespace( c ) ) {
+				space = true;
+				continue;
+			}
+			if( space && !atLineStart( out ) ) {
+				out.append( ' ' );
+			}
+			space = false;
+			
+			if( c == '&' ) {
+				int semi = html.indexOf( ';', i );
+				String entity = semi < 0 ? null : entity( html.substring( i, semi ) );
+				if( entity != null ) {
+					out.append( isMarkdown ? escape( entity ) : entity );
+					i = semi + 1;
+					continue;
+				}
+			}
+			if( c == SLOT ) {
+				out.append( c ).append( html.charAt( i++ ) );
+			} else if( isMarkdown && MARKDOWN_SPECIAL.indexOf( c ) >= 0 ) {
+				out.append( '\\' ).append( c );
+			} else {
+				out.append( c );
+			}
+		}
+		return out.toString();
+	}
+	
+	/**
+	 * Tidies the rendered text of a letter; empty columns
+	 * are dropped, runs of spaces left by empty values are
+	 * collapsed, and runs of blank lines reduced to one,
+	 * after which the lines of each Markdown block are
+	 * joined by hard line breaks
+	 *
+	 * @param  raw rendered text, with marked columns
+	 * @return text of the letter
+	 */
+	private String tidy( String raw ) {
+		List<String> lines = new ArrayList<>();
+		for( String line : raw.split( "\n", -1 ) ) {
+			if( line.indexOf( COLUMN ) >= 0 ) {
+				StringBuilder joined = new StringBuilder( line.length() + 8 );
+				for( String column : line.split( String.valueOf( COLUMN ) ) ) {
+					column = collapse( column );
+					if( column.isEmpty() ) {
+						continue;
+					}
+					if( joined.length() > 0 ) {
+						joined.append( " | " );
+					}
+					joined.append( column );
+				}
+				line = joined.toString();
+			} else {
+				line = collapse( line );
+			}
+			
+			boolean blank = line.isEmpty();
+			if( blank && ( lines.isEmpty() || lines.get( lines.size() - 1 ).isEmpty() ) ) {
+				continue;
+			}
+			lines.add( line );
+		}
+		while( !lines.isEmpty() && lines.get( lines.size() - 1 ).isEmpty() ) {
+			lines.remove( lines.size() - 1 );
+		}
+		
+		StringBuilder text = new StringBuilder( raw.length() );
+		for( int i = 0; i < lines.size(); i++ ) {
+			text.append( lines.get( i ) );
+			if( isMarkdown && !lines.get( i ).isEmpty() && i + 1 < lines.size() &&
+					!lines.get( i + 1 ).isEmpty() ) {
+				text.append( "  " );
+			}
+			text.append( '\n' );
+		}
+		return text.toString();
+	}
+	
+	/**
+	 * Collapses every run of spaces within the given line
+	 * to a single space, and trims the line
+	 *
+	 * @param  line line of text
+	 * @return collapsed line
+	 */
+	private static String collapse( String line ) {
+		StringBuilder out = new StringBuilder( line.length() );
+		boolean space = false;
+		for( int i = 0; i < line.length(); i++ ) {
+			char c = line.charAt( i );
+			if( c == ' ' ) {
+				space = true;
+				continue;
+			}
+			if( space && out.length() > 0 ) {
+				out.append( ' ' );
+			}
+			space = false;
+			out.append( c );
+		}
+		return out.toString();
+	}
+	
+	/**
+	 * Escapes every Markdown character of the given value
+	 *
+	 * @param  value value of a field
+	 * @return escaped value
+	 */
+	private static String escape( String value ) {
+		StringBuilder out = null;
+		for( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt( i );
+			if( MARKDOWN_SPECIAL.indexOf( c ) >= 0 ) {
+				if( out == null ) {
+					out = new StringBuilder( value.length() + 8 ).append( value, 0, i );
+				}
+				out.append( '\\' );
+			}
+			if( out != null ) {
+				out.append( c );
+			}
+		}
+		return out == null ? value : out.toString();
+	}
+	
+	/**
+	 * Decodes a named or numeric character entity
+	 *
+	 * @param  name name of the entity, without its
+	 * 		   ampersand and semicolon
+	 * @return decoded character, or null if unknown
+	 */
+	private static String entity( String name ) {
+		switch( name ) {
+		case "amp":  return "&";
+		case "lt":	 return "<";
+		case "gt":	 return ">";
+		case "quot": return "\"";
+		case "apos": return "'";
+		case "nbsp": return " ";
+		default:
+			break;
+		}
+		try {
+			if( name.startsWith( "#x" ) || name.startsWith( "#X" ) ) {
+				return new String( Character.toChars( Integer.parseInt( name.substring( 2 ), 16 ) ) );
+			}
+			if( name.startsWith( "#" ) ) {
+				return new String( Character.toChars( Integer.parseInt( name.substring( 1 ) ) ) );
+			}
+		} catch( IllegalArgumentException ex ) {
+			// Not an entity; the ampersand is kept
+		}
+		return null;
+	}
+	
+	/**
+	 * Retrieves the class attribute of the given tag
+	 *
+	 * @param  tag contents of the tag, without brackets
+	 * @return class attribute, or empty if absent
+	 */
+	private static String className( String tag ) {
+		int at = tag.indexOf( "class=\"" );
+		if( at < 0 ) {
+			return "";
+		}
+		int start = at + 7;
+		return tag.substring( start, tag.indexOf( '"', start ) );
+	}
+	
+	/**
+	 * Ends the current line, unless already at the start
+	 * of a line
+	 *
+	 * @param out converted text
+	 */
+	private static void newLine( StringBuilder out ) {
+		if( !atLineStart( out ) ) {
+			out.append( '\n' );
+		}
+	}
+	
+	/**
+	 * Ends the current block with a blank line, unless
+	 * at the start of the text or after a blank line
+	 *
+	 * @param out converted text
+	 */
+	private static void blankLine( StringBuilder out ) {
+		newLine( out );
+		int n = out.length();
+		if( n > 0 && ( n < 2 || out.charAt( n - 2 ) != '\n' ) ) {
+			out.append( '\n' );
+		}
+	}
+	
+	/**
+	 * Whether the converted text is at the start of a line
+	 *
+	 * @param  out converted text
+	 * @return true if empty or ending with a newline
+	 */
+	private static boolean atLineStart( StringBuilder out ) {
+		return out.length() == 0 || out.charAt( out.length() - 1 ) == '\n';
+	}
+}
@@ -0,0 +1,270 @@
+package autocv.html;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import autocv.io.ClasspathResources;
+import autocv.io.ResourceManifest;
+import autocv.io.ResourceManifest.Kind;
+import autocv.ui.AutoCVPaths;
+
+/**
+ * Materializes the base cover letter HTML as a single
+ * self-contained document: the linked cover letter
+ * style sheet is inlined, and every bundled typeface
+ * named by the style sheet is embedded as a data URI,
+ * so that rendering a letter resolves no other file
+ * and requires no network
+ * 
+ * Any typeface the style sheet imports remotely, such
+ * as a family not yet bundled, is imported ahead of
+ * the embedded typefaces, as an import must precede
+ * every other rule; a bundled face of the same family,
+ * weight, and style is declared later, and so takes
+ * precedence, while an offline host falls back to the
+ * next family named by the style sheet
+ * 
+ * Each embedded typeface is declared with the weight
+ * and style read from the font, so that the several
+ * faces bundled for a family, such as its regular and
+ * bold faces, are each used for the text they match
+ * 
+ * The embedded typefaces are encoded once and cached
+ * for the session
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class SelfContainedHtml {
+	
+	/** Link to the cover letter style sheet */
+	private static final Pattern STYLE_LINK = Pattern.compile(
+			"<link\\s[^>]*href=\"cvstyle\\.css\"[^>]*>" );
+	
+	/** Import rule of the style sheet */
+	private static final Pattern IMPORT_RULE = Pattern.compile( "@import\\s[^;]*;\\s*" );
+	
+	/** Platform id of the Windows Unicode names */
+	private static final int WINDOWS_PLATFORM = 3;
+	
+	/** Platform id of the Macintosh Roman names */
+	private static final int MAC_PLATFORM = 1;
+	
+	/** Name id of the font family within the name table */
+	private static final int FAMILY_NAME_ID = 1;
+	
+	/** Tag of the name table */
+	private static final int NAME_TABLE = 0x6E616D65;		// 'name'
+	
+	/** Tag of the OS/2 table, holding the weight and style */
+	private static final int OS2_TABLE = 0x4F532F32;		// 'OS/2'
+	
+	/** Weight of a font without an OS/2 table */
+	private static final int NORMAL_WEIGHT = 400;
+	
+	/** Inlined style sheet, built upon first use */
+	private static volatile String styleBlock;
+	
+	/** Utility class is not instantiable */
+	private SelfContainedHtml() {}
+	
+	/**
+	 * Replaces the style sheet link within the given
+	 * cover letter HTML with the inlined style sheet
+	 * and its embedded typefaces
+	 * 
+	 * @param  html cover letter HTML linking cvstyle.css
+	 * @return self-contained cover letter HTML
+	 * @throws IOException if the style sheet or a
+	 * 		   typeface cannot be read
+	 */
+	public static String inline( String html ) throws IOException {
+		Matcher link = STYLE_LINK.matcher( html );
+		if( !link.find() ) {
+			return html;
+		}
+		return html.substring( 0, link.start() ) + styleBlock() +
+				html.substring( link.end() );
+	}
+	
+	/**
+	 * Retrieves the inlined style sheet, building it
+	 * upon first use
+	 * 
+	 * @return style element holding the embedded
+	 * 		   typefaces and the cover letter style sheet
+	 * @throws IOException if the style sheet or a
+	 * 		   typeface cannot be read
+	 */
+	public static String styleBlock() throws IOException {
+		String block = styleBlock;
+		if( block == null ) {
+			synchronized( SelfContainedHtml.class ) {
+				if( ( block = styleBlock ) == null ) {
+					styleBlock = block = buildStyleBlock();
+				}
+			}
+		}
+		return block;
+	}
+	
+	/**
+	 * Builds the style element; only the typefaces
+	 * whose family the style sheet names are embedded,
+	 * as every embedded byte is copied into each letter
+	 * 
+	 * @return style element
+	 * @throws IOException if the style sheet or a
+	 * 		   typeface cannot be read
+	 */
+	private static String buildStyleBlock() throws IOException {
+		String css = ClasspathResources.text( AutoCVPaths.HTML_STYLE_PATH );
+		StringBuilder block = new StringBuilder( "<style type=\"text/css\">\n" );
+		
+		// Imports are moved ahead of the embedded typefaces
+		Matcher imports = IMPORT_RULE.matcher( css );
+		while( imports.find() ) {
+			block.append( imports.group().trim() ).append( '\n' );
+		}
+		css = imports.replaceAll( "" );
+		
+		ResourceManifest manifest = ResourceManifest.load(
+				AutoCVPaths.RESOURCE_MANIFEST_PATH );
+		for( String fontPath : manifest.get( Kind.FONT ) ) {
+			byte[] font = ClasspathResources.bytes( fontPath );
+			String family = familyName( font );
+			if( family == null || !css.contains( "\"" + family + "\"" ) ) {
+				continue;
+			}
+			
+			boolean trueType = fontPath.toLowerCase( Locale.ROOT ).endsWith( ".ttf" );
+			block.append( "@font-face {\n\tfont-family: \"" ).append( family ).
+				append( "\";\n\tfont-weight: " ).append( weight( font ) ).
+				append( ";\n\tfont-style: " ).append( isItalic( font ) ?
+				"italic" : "normal" ).append( ";\n\tsrc: url(data:font/" ).append(
+				trueType ? "ttf" : "otf" ).append( ";base64," ).append(
+				Base64.getEncoder().encodeToString( font ) ).append( ") format(\"" ).
+				append( trueType ? "truetype" : "opentype" ).append( "\");\n}\n" );
+		}
+		
+		return block.append( css ).append( "\n</style>" ).toString();
+	}
+	
+	/**
+	 * Reads the family name from the name table of the
+	 * given OpenType or TrueType font, preferring the
+	 * Windows Unicode name; the regular, bold, and italic
+	 * faces of a family share the name
+	 * 
+	 * @param  font font file contents
+	 * @return family name, or null if the font has none
+	 */
+	static String familyName( byte[] font ) {
+		return name( font, FAMILY_NAME_ID );
+	}
+	
+	/**
+	 * Reads the weight class from the OS/2 table of the
+	 * given font
+	 * 
+	 * @param  font font file contents
+	 * @return weight, from 100 to 900
+	 */
+	static int weight( byte[] font ) {
+		try {
+			int table = table( font, OS2_TABLE );
+			if( table >= 0 ) {
+				int weight = ByteBuffer.wrap( font ).getShort( table + 4 ) & 0xFFFF;
+				if( weight >= 100 && weight <= 900 ) {
+					return weight;
+				}
+			}
+		} catch( IndexOutOfBoundsException ex ) {
+			// A truncated font is taken as normal
+		}
+		return NORMAL_WEIGHT;
+	}
+	
+	/**
+	 * Tells whether the given font is italic, as by the
+	 * selection flags of its OS/2 table
+	 * 
+	 * @param  font font file contents
+	 * @return true if the font is italic
+	 */
+	static boolean isItalic( byte[] font ) {
+		try {
+			int table = table( font, OS2_TABLE );
+			return table >= 0 && ( ByteBuffer.wrap( font ).getShort( table + 62 ) & 1 ) != 0;
+		} catch( IndexOutOfBoundsException ex ) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Finds the offset of the table of the given tag
+	 * 
+	 * @param  font font file contents
+	 * @param  tag	table tag
+	 * @return offset of the table, or -1 if absent
+	 */
+	private static int table( byte[] font, int tag ) {
+		ByteBuffer buf = ByteBuffer.wrap( font );
+		int tables = buf.getShort( 4 ) & 0xFFFF;
+		for( int t = 0; t < tables; t++ ) {
+			int record = 12 + 16 * t;
+			if( buf.getInt( record ) == tag ) {
+				return buf.getInt( record + 8 );
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Reads the given name from the name table of the
+	 * given font, preferring the Windows Unicode name
+	 * 
+	 * @param  font	  font file contents
+	 * @param  nameId id of the name
+	 * @return name, or null if the font has none
+	 */
+	private static String name( byte[] font, int nameId ) {
+		try {
+			ByteBuffer buf = ByteBuffer.wrap( font );
+			int table = table( font, NAME_TABLE );
+			if( table >= 0 ) {
+				int count = buf.getShort( table + 2 ) & 0xFFFF;
+				int strings = table + ( buf.getShort( table + 4 ) & 0xFFFF );
+				
+				String mac = null;
+				for( int n = 0; n < count; n++ ) {
+					int entry = table + 6 + 12 * n;
+					int platform = buf.getShort( entry ) & 0xFFFF;
+					if( ( buf.getShort( entry + 6 ) & 0xFFFF ) != nameId ) {
+						continue;
+					}
+					int length = buf.getShort( entry + 8 ) & 0xFFFF;
+					int offset = strings + ( buf.getShort( entry + 10 ) & 0xFFFF );
+					
+					if( platform == WINDOWS_PLATFORM ) {
+						return new String( font, offset, length,
+								StandardCharsets.UTF_16BE );
+					}
+					if( platform == MAC_PLATFORM && mac == null ) {
+						mac = new String( font, offset, length,
+								StandardCharsets.ISO_8859_1 );
+					}
+				}
+				return mac;
+			}
+		} catch( IndexOutOfBoundsException ex ) {
+			// A truncated font has no readable name
+		}
+		return null;
+	}
+}
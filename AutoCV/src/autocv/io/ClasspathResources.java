@@ -0,0 +1,70 @@
+package autocv.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the read-only resources bundled with the
+ * program; each resource is streamed from the classpath
+ * the first time it is requested and served from memory
+ * afterwards, which behaves identically whether the
+ * program runs from a directory or from a jar
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class ClasspathResources {
+
+	/** Resource contents, keyed by classpath path */
+	private static final Map<String, byte[]> CACHE = new ConcurrentHashMap<>();
+
+	/** Utility class is not instantiable */
+	private ClasspathResources() {}
+
+	/**
+	 * Retrieves the contents of the given resource;
+	 * the returned array is shared and must not be
+	 * modified
+	 *
+	 * @param  path absolute classpath path
+	 * @return resource contents
+	 * @throws IOException if the resource does not exist
+	 * 		   or cannot be read
+	 */
+	public static byte[] bytes( String path ) throws IOException {
+		try {
+			return CACHE.computeIfAbsent( path, p -> {
+				try( InputStream in = ClasspathResources.class.
+						getResourceAsStream( p ) ) {
+					if( in == null ) {
+						throw new UncheckedIOException(
+								new FileNotFoundException( p ) );
+					}
+					return in.readAllBytes();
+				} catch( IOException ex ) {
+					throw new UncheckedIOException( ex );
+				}
+			});
+		} catch( UncheckedIOException ex ) {
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * Retrieves the contents of the given resource
+	 * as UTF-8 text
+	 *
+	 * @param  path absolute classpath path
+	 * @return resource text
+	 * @throws IOException if the resource does not exist
+	 * 		   or cannot be read
+	 */
+	public static String text( String path ) throws IOException {
+		return new String( bytes( path ), StandardCharsets.UTF_8 );
+	}
+}
@@ -0,0 +1,535 @@
+package autocv.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Cipher used for encrypting the applicant data stored
+ * by the program at rest; all data is encrypted with
+ * AES-GCM, so that any modification of the stored data
+ * is detected upon decryption
+ *
+ * The key is derived with PBKDF2 from the passphrase
+ * specified by the AUTOCV_PASSPHRASE environment
+ * variable, or otherwise from a random secret stored in
+ * the key file of the app data directory; a passphrase
+ * is deliberately stretched, while the random secret
+ * needs no stretching and derives in microseconds
+ *
+ * Derivation is performed once per session, after which
+ * the key is held in memory
+ *
+ * Encrypted files begin with a short header containing
+ * a format marker and the nonce. Data without the marker
+ * is accepted only during the migration of the session
+ * which first creates the key, so that data written
+ * before encryption was introduced may be read and
+ * encrypted once; afterwards it is rejected, so that
+ * stored data cannot be replaced without failing
+ * authentication
+ *
+ * A new key is written to a pending key file, synced
+ * before any data is encrypted with it, and is moved
+ * into place once the migration finishes; a migration
+ * interrupted by a crash resumes with the pending key,
+ * and a torn key file is never left in place
+ *
+ * A key check file beside the key file holds a known
+ * token encrypted with the key, and whether the key was
+ * derived from a passphrase; each open verifies the
+ * derived key against it, so that a changed, set, or
+ * unset passphrase fails with an explicit message rather
+ * than as unreadable data. The check file is written
+ * upon the first open, including that of a key created
+ * before the check was introduced
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class DataCipher {
+
+	/** Name of the key file within the app data directory */
+	public static final String KEY_FILE = "autocv.key";
+
+	/** Suffix of the key file until the migration finishes */
+	private static final String PENDING_SUFFIX = ".pending";
+
+	/** Suffix of the key check file, beside the key file */
+	private static final String CHECK_SUFFIX = ".check";
+
+	/** Known token encrypted within the key check file */
+	private static final byte[] CHECK_TOKEN =
+			"AutoCV key check".getBytes( StandardCharsets.US_ASCII );
+
+	/** Environment variable specifying a passphrase */
+	public static final String PASSPHRASE_ENV = "AUTOCV_PASSPHRASE";
+
+	/** Marker beginning every encrypted file */
+	private static final byte[] MAGIC = { 'A', 'C', 'V', 'E', 1 };
+
+	/** Prefix of every encrypted journal line */
+	private static final String LINE_PREFIX = "~";
+
+	/** Cipher transformation */
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	/** Length of the GCM nonce, in bytes */
+	private static final int NONCE_LENGTH = 12;
+
+	/** Length of the GCM authentication tag, in bits */
+	private static final int TAG_BITS = 128;
+
+	/** Length of the key file salt, in bytes */
+	private static final int SALT_LENGTH = 16;
+
+	/** Length of the key file secret, in bytes */
+	private static final int SECRET_LENGTH = 32;
+
+	/** PBKDF2 iteration count for a client passphrase */
+	private static final int PASSPHRASE_ITERATIONS = 210_000;
+
+	/**
+	 * PBKDF2 iteration count for the random key file
+	 * secret, which already carries a full key of entropy
+	 */
+	private static final int SECRET_ITERATIONS = 1;
+
+	/** Source of every salt, secret, and nonce */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/** Derived key, cached for the session */
+	private final SecretKey key;
+
+	/** Key file of the app data directory */
+	private final Path keyFile;
+
+	/** Pending key file, or null once migrated */
+	private volatile Path pendingFile;
+
+	/**
+	 * Default constructor, initializing the cipher
+	 * with an already derived key
+	 *
+	 * @param key		  AES key
+	 * @param keyFile	  key file
+	 * @param pendingFile pending key file of a migration,
+	 * 					  or null if the key is in place
+	 */
+	private DataCipher( SecretKey key, Path keyFile, Path pendingFile ) {
+		this.key = key;
+		this.keyFile = keyFile;
+		this.pendingFile = pendingFile;
+	}
+
+	/**
+	 * Derives the key for the given app data directory,
+	 * creating a pending key file if the key file does
+	 * not yet exist, in which case the cipher migrates
+	 * the data until finishMigration is called; this is
+	 * the only costly operation of the cipher, and the
+	 * returned cipher should be retained for the
+	 * remainder of the session
+	 *
+	 * @param  appDataDir app data directory
+	 * @return cipher holding the derived key
+	 * @throws IOException upon runtime I/O exception,
+	 * 		   the key cannot be derived, or the passphrase
+	 * 		   does not match the stored key
+	 */
+	public static DataCipher open( Path appDataDir ) throws IOException {
+		Path file = appDataDir.resolve( KEY_FILE );
+		Path pending = null;
+		byte[] keyFile;
+		if( Files.exists( file ) ) {
+			keyFile = Files.readAllBytes( file );
+			if( keyFile.length != SALT_LENGTH + SECRET_LENGTH ) {
+				throw new IOException( "Corrupt key file: " + file );
+			}
+		}
+		else {
+			pending = file.resolveSibling( KEY_FILE + PENDING_SUFFIX );
+			keyFile = readOrCreatePendingFile( pending );
+		}
+		byte[] salt = Arrays.copyOfRange( keyFile, 0, SALT_LENGTH );
+
+		String env = System.getenv( PASSPHRASE_ENV );
+		boolean usePassphrase = env != null && !env.isEmpty();
+		char[] passphrase = usePassphrase ? env.toCharArray() :
+			Base64.getEncoder().encodeToString( Arrays.copyOfRange(
+					keyFile, SALT_LENGTH, keyFile.length ) ).toCharArray();
+
+		PBEKeySpec spec = new PBEKeySpec( passphrase, salt, usePassphrase ?
+				PASSPHRASE_ITERATIONS : SECRET_ITERATIONS, 256 );
+		DataCipher cipher;
+		try {
+			byte[] raw = SecretKeyFactory.getInstance( "PBKDF2WithHmacSHA256" ).
+					generateSecret( spec ).getEncoded();
+			cipher = new DataCipher( new SecretKeySpec( raw, "AES" ), file, pending );
+		} catch( GeneralSecurityException ex ) {
+			throw new IOException( "Unable to derive data key", ex );
+		} finally {
+			spec.clearPassword();
+			Arrays.fill( passphrase, '\0' );
+		}
+		cipher.verifyKey( usePassphrase );
+		return cipher;
+	}
+
+	/**
+	 * Verifies the derived key against the key check
+	 * file, writing the check file if it does not yet
+	 * exist
+	 *
+	 * @param  usePassphrase whether the key was derived
+	 * 						 from AUTOCV_PASSPHRASE
+	 * @throws IOException if the passphrase does not match
+	 * 		   the stored key, or upon runtime I/O exception
+	 */
+	private void verifyKey( boolean usePassphrase ) throws IOException {
+		Path check = keyFile.resolveSibling( KEY_FILE + CHECK_SUFFIX );
+		if( !Files.exists( check ) ) {
+			byte[] token = encrypt( CHECK_TOKEN );
+			byte[] contents = new byte[ token.length + 1 ];
+			contents[ 0 ] = ( byte ) ( usePassphrase ? 1 : 0 );
+			System.arraycopy( token, 0, contents, 1, token.length );
+			writeSynced( check, contents );
+			return;
+		}
+
+		byte[] contents = Files.readAllBytes( check );
+		if( contents.length < 1 + MAGIC.length ) {
+			throw new IOException( "Corrupt key check file: " + check );
+		}
+		byte[] token = Arrays.copyOfRange( contents, 1, contents.length );
+		boolean matches;
+		try {
+			matches = isEncrypted( token ) && Arrays.equals( decrypt( token ), CHECK_TOKEN );
+		} catch( IOException ex ) {
+			matches = false;
+		}
+		if( matches ) {
+			return;
+		}
+
+		boolean storedPassphrase = contents[ 0 ] == 1;
+		String reason;
+		if( storedPassphrase && !usePassphrase ) {
+			reason = "the data was encrypted with " + PASSPHRASE_ENV
+					+ " set; set it to the same passphrase";
+		}
+		else if( !storedPassphrase && usePassphrase ) {
+			reason = "the data was encrypted without a passphrase; unset "
+					+ PASSPHRASE_ENV;
+		}
+		else if( usePassphrase ) {
+			reason = PASSPHRASE_ENV + " differs from the passphrase the data "
+					+ "was encrypted with";
+		}
+		else {
+			reason = "the key file " + keyFile + " was replaced";
+		}
+		throw new IOException( "Passphrase does not match the stored key: " + reason );
+	}
+
+	/**
+	 * Tells whether the cipher accepts plaintext data,
+	 * which is only the case before the migration of
+	 * the session creating the key finishes; plaintext
+	 * read meanwhile should be written again encrypted
+	 *
+	 * @return true if plaintext data is accepted
+	 */
+	public boolean isMigrating() {
+		return pendingFile != null;
+	}
+
+	/**
+	 * Finishes the migration, once every plaintext file
+	 * has been encrypted, by moving the pending key file
+	 * into place; plaintext data is rejected afterwards.
+	 * Does nothing if the key was already in place
+	 *
+	 * @throws IOException if the key file could not be
+	 * 		   moved
+	 */
+	public synchronized void finishMigration() throws IOException {
+		if( pendingFile != null ) {
+			Files.move( pendingFile, keyFile, StandardCopyOption.ATOMIC_MOVE );
+			pendingFile = null;
+		}
+	}
+
+	/**
+	 * Tells whether the given file contents are encrypted
+	 *
+	 * @param  contents file contents
+	 * @return true if the contents begin with the
+	 * 		   encrypted header
+	 */
+	public static boolean isEncrypted( byte[] contents ) {
+		return contents.length >= MAGIC.length && Arrays.equals(
+				contents, 0, MAGIC.length, MAGIC, 0, MAGIC.length );
+	}
+
+	/**
+	 * Tells whether the given line was produced by
+	 * sealLine
+	 *
+	 * @param  line journal line
+	 * @return true if the line is encrypted
+	 */
+	public static boolean isSealed( String line ) {
+		return line.startsWith( LINE_PREFIX );
+	}
+
+	/**
+	 * Wraps the given stream so that everything written
+	 * is encrypted; the header is written immediately,
+	 * and the authentication tag upon closing
+	 *
+	 * @param  out destination stream
+	 * @return encrypting stream
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public OutputStream encrypt( OutputStream out ) throws IOException {
+		byte[] nonce = new byte[ NONCE_LENGTH ];
+		RANDOM.nextBytes( nonce );
+
+		out.write( MAGIC );
+		out.write( nonce );
+		return new CipherOutputStream( out, cipher( Cipher.ENCRYPT_MODE, nonce ) );
+	}
+
+	/**
+	 * Wraps the given stream so that everything read is
+	 * decrypted; streams without the encrypted header
+	 * are passed through unchanged while migrating, and
+	 * rejected otherwise
+	 *
+	 * Decryption failures, including a failed
+	 * authentication tag, surface as an IOException
+	 * once the end of the stream is read
+	 *
+	 * @param  in source stream
+	 * @return decrypting stream
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public InputStream decrypt( InputStream in ) throws IOException {
+		PushbackInputStream pin = new PushbackInputStream( in, MAGIC.length );
+		byte[] head = new byte[ MAGIC.length ];
+		int read = pin.readNBytes( head, 0, head.length );
+
+		if( read < MAGIC.length || !Arrays.equals( head, MAGIC ) ) {
+			if( !isMigrating() ) {
+				throw new IOException( "Unencrypted data rejected" );
+			}
+			pin.unread( head, 0, read );
+			return pin;
+		}
+
+		byte[] nonce = new byte[ NONCE_LENGTH ];
+		try {
+			new DataInputStream( pin ).readFully( nonce );
+		} catch( EOFException ex ) {
+			throw new IOException( "Truncated encrypted header", ex );
+		}
+		return new CipherInputStream( pin, cipher( Cipher.DECRYPT_MODE, nonce ) );
+	}
+
+	/**
+	 * Encrypts the given contents as a complete
+	 * encrypted file
+	 *
+	 * @param  plain plaintext contents
+	 * @return encrypted file contents
+	 */
+	public byte[] encrypt( byte[] plain ) {
+		ByteArrayOutputStream buf = new ByteArrayOutputStream(
+				plain.length + MAGIC.length + NONCE_LENGTH + TAG_BITS / 8 );
+		try( OutputStream out = encrypt( buf ) ) {
+			out.write( plain );
+		} catch( IOException ex ) {
+			// In-memory streams do not fail
+			throw new IllegalStateException( ex );
+		}
+		return buf.toByteArray();
+	}
+
+	/**
+	 * Decrypts the given encrypted file contents;
+	 * plaintext contents are returned unchanged while
+	 * migrating
+	 *
+	 * @param  contents file contents
+	 * @return plaintext contents
+	 * @throws IOException if the contents fail
+	 * 		   authentication, or are plaintext outside
+	 * 		   of the migration
+	 */
+	public byte[] decrypt( byte[] contents ) throws IOException {
+		try( InputStream in = decrypt( new ByteArrayInputStream( contents ) ) ) {
+			return in.readAllBytes();
+		}
+	}
+
+	/**
+	 * Encrypts a single line of text, such as a record
+	 * of the application history, into a line of text
+	 * which may be appended to a file independently of
+	 * its neighbours
+	 *
+	 * @param  line plaintext line
+	 * @return encrypted line
+	 */
+	public String sealLine( String line ) {
+		return LINE_PREFIX + Base64.getEncoder().encodeToString(
+				encrypt( line.getBytes( StandardCharsets.UTF_8 ) ) );
+	}
+
+	/**
+	 * Decrypts a line produced by sealLine; lines
+	 * without the encrypted prefix are returned
+	 * unchanged while migrating
+	 *
+	 * @param  line encrypted line
+	 * @return plaintext line
+	 * @throws IOException if the line fails
+	 * 		   authentication, or is plaintext outside
+	 * 		   of the migration
+	 */
+	public String openLine( String line ) throws IOException {
+		if( !isSealed( line ) ) {
+			if( !isMigrating() ) {
+				throw new IOException( "Unencrypted line rejected" );
+			}
+			return line;
+		}
+		try {
+			return new String( decrypt( Base64.getDecoder().decode(
+					line.substring( LINE_PREFIX.length() ) ) ),
+					StandardCharsets.UTF_8 );
+		} catch( IllegalArgumentException ex ) {
+			throw new IOException( "Malformed encrypted line", ex );
+		}
+	}
+
+	/**
+	 * Initializes an AES-GCM cipher with the session
+	 * key and the given nonce
+	 *
+	 * @param  mode	 cipher mode
+	 * @param  nonce GCM nonce
+	 * @return initialized cipher
+	 * @throws IOException if the platform lacks AES-GCM
+	 */
+	private Cipher cipher( int mode, byte[] nonce ) throws IOException {
+		try {
+			Cipher c = Cipher.getInstance( TRANSFORMATION );
+			c.init( mode, key, new GCMParameterSpec( TAG_BITS, nonce ) );
+			return c;
+		} catch( GeneralSecurityException ex ) {
+			throw new IOException( "AES-GCM unavailable", ex );
+		}
+	}
+
+	/**
+	 * Reads the salt and secret from the pending key
+	 * file of an interrupted migration, or otherwise
+	 * creates it with a random salt and secret, readable
+	 * only by the owner where the platform supports it;
+	 * the file is synced before any data is encrypted
+	 * with its key, and a torn file is created again
+	 *
+	 * @param  file pending key file
+	 * @return salt followed by the secret
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static byte[] readOrCreatePendingFile( Path file ) throws IOException {
+		if( Files.exists( file ) ) {
+			byte[] keyFile = Files.readAllBytes( file );
+			if( keyFile.length == SALT_LENGTH + SECRET_LENGTH ) {
+				return keyFile;
+			}
+			Files.delete( file );
+		}
+
+		// A key check left by an earlier pending key would
+		// fail to verify the new key
+		Files.deleteIfExists( file.resolveSibling( KEY_FILE + CHECK_SUFFIX ) );
+		byte[] created = new byte[ SALT_LENGTH + SECRET_LENGTH ];
+		RANDOM.nextBytes( created );
+		Files.createDirectories( file.toAbsolutePath().getParent() );
+		if( file.getFileSystem().supportedFileAttributeViews().
+				contains( "posix" ) ) {
+			Files.createFile( file, PosixFilePermissions.asFileAttribute(
+					PosixFilePermissions.fromString( "rw-------" ) ) );
+		}
+		else {
+			Files.createFile( file );
+		}
+		try( FileChannel ch = FileChannel.open( file, StandardOpenOption.WRITE ) ) {
+			ByteBuffer buf = ByteBuffer.wrap( created );
+			while( buf.hasRemaining() ) {
+				ch.write( buf );
+			}
+			ch.force( true );
+		}
+		return created;
+	}
+
+	/**
+	 * Writes the given contents to a temporary sibling of
+	 * the given file, syncs it, and moves it into place,
+	 * so that the file is never left torn; the temporary
+	 * file is removed if the write fails
+	 *
+	 * @param  file		file to write
+	 * @param  contents contents of the file
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static void writeSynced( Path file, byte[] contents ) throws IOException {
+		Path temp = file.resolveSibling( file.getFileName() + ".tmp" );
+		try {
+			try( FileChannel ch = FileChannel.open( temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) ) {
+				ByteBuffer buf = ByteBuffer.wrap( contents );
+				while( buf.hasRemaining() ) {
+					ch.write( buf );
+				}
+				ch.force( true );
+			}
+			Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE );
+		} catch( IOException ex ) {
+			Files.deleteIfExists( temp );
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Locates the per-user data directory holding all of
+ * the mutable state of the program - the applicant
+ * profiles, the application history, the key file, and
+ * the generated HTML - so that the program itself may
+ * run from a read-only location such as a jar
+ *
+ * <li><b>Linux</b> - $XDG_DATA_HOME/autocv, defaulting
+ * to ~/.local/share/autocv</li>
+ * <li><b>Windows</b> - %APPDATA%\AutoCV</li>
+ * <li><b>macOS</b> - ~/Library/Application Support/AutoCV</li>
+ *
+ * The AUTOCV_DATA_HOME environment variable overrides
+ * the location on every platform
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class DataDirectory {
+
+	/** Environment variable overriding the data directory */
+	public static final String DATA_HOME_ENV = "AUTOCV_DATA_HOME";
+
+	/** Utility class is not instantiable */
+	private DataDirectory() {}
+
+	/**
+	 * Resolves the data directory for the current
+	 * user and platform; the directory is not created
+	 *
+	 * @return data directory
+	 */
+	public static Path resolve() {
+		String override = System.getenv( DATA_HOME_ENV );
+		if( isSet( override ) ) {
+			return Paths.get( override );
+		}
+
+		String os = System.getProperty( "os.name", "" ).
+				toLowerCase( Locale.ROOT );
+		Path home = Paths.get( System.getProperty( "user.home" ) );
+
+		if( os.startsWith( "windows" ) ) {
+			String appData = System.getenv( "APPDATA" );
+			return ( isSet( appData ) ? Paths.get( appData ) :
+				home.resolve( "AppData" ).resolve( "Roaming" ) ).
+				resolve( "AutoCV" );
+		}
+		if( os.startsWith( "mac" ) ) {
+			return home.resolve( "Library" ).resolve(
+					"Application Support" ).resolve( "AutoCV" );
+		}
+
+		String xdg = System.getenv( "XDG_DATA_HOME" );
+		return ( isSet( xdg ) ? Paths.get( xdg ) : home.resolve(
+				".local" ).resolve( "share" ) ).resolve( "autocv" );
+	}
+
+	/**
+	 * Copies the state stored by earlier versions within
+	 * the app data directory of the classpath into the
+	 * given data directory; nothing is copied if the data
+	 * directory already contains a config file, or the
+	 * classpath directory is not a writable directory
+	 * (i.e. the program runs from a jar)
+	 *
+	 * @param  legacyDir  classpath app data directory URL,
+	 * 					  possibly null
+	 * @param  dataDir	  data directory
+	 * @param  configName name of the config file
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public static void migrate( URL legacyDir, Path dataDir,
+			String configName ) throws IOException {
+
+		if( legacyDir == null || !"file".equals( legacyDir.getProtocol() ) ||
+				Files.exists( dataDir.resolve( configName ) ) ) {
+			return;
+		}
+
+		Path legacy;
+		try {
+			legacy = Paths.get( legacyDir.toURI() );
+		} catch( Exception ex ) {
+			return;
+		}
+		if( !Files.exists( legacy.resolve( configName ) ) ) {
+			return;
+		}
+
+		copyTree( legacy, dataDir );
+	}
+
+	/**
+	 * Recursively copies every file within the source
+	 * directory not already present in the target
+	 *
+	 * @param  source source directory
+	 * @param  target target directory
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static void copyTree( Path source, Path target )
+		throws IOException {
+
+		Files.createDirectories( target );
+		try( DirectoryStream<Path> dir = Files.newDirectoryStream( source ) ) {
+			for( Path file : dir ) {
+				Path dest = target.resolve( file.getFileName().toString() );
+				if( Files.isDirectory( file ) ) {
+					copyTree( file, dest );
+				}
+				else if( !Files.exists( dest ) ) {
+					Files.copy( file, dest );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines if an environment value is set
+	 *
+	 * @param  value environment value
+	 * @return true if non-null and non-empty
+	 */
+	private static boolean isSet( String value ) {
+		return value != null && !value.isEmpty();
+	}
+}
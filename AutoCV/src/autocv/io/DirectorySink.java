@@ -0,0 +1,100 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output sink writing each cover letter as a file of its
+ * own within a directory, such as the Downloads directory
+ * 
+ * No letter replaces an existing file; each file is
+ * created atomically, and a letter whose path is already
+ * taken, whether by an earlier letter or by a letter
+ * generated at the same time, is suffixed with a number
+ * instead, so that concurrent letters never contend for
+ * a single file
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class DirectorySink implements OutputSink {
+	
+	/** Directory receiving the letters */
+	private final Path dir;
+	
+	/**
+	 * Default constructor, initializing the directory
+	 * receiving the letters
+	 * 
+	 * @param dir directory receiving the letters,
+	 * 		  created if absent
+	 */
+	public DirectorySink( Path dir ) {
+		this.dir = dir;
+	}
+	
+	@Override
+	public String write( String name, byte[] pdf ) throws IOException {
+		Path file = create( name );
+		try( OutputStream out = Files.newOutputStream( file,
+				StandardOpenOption.TRUNCATE_EXISTING ) ) {
+			out.write( pdf );
+		} catch( IOException ex ) {
+			Files.deleteIfExists( file );
+			throw ex;
+		}
+		return file.toString();
+	}
+	
+	/**
+	 * Moves the rendered file onto the file created for
+	 * the letter, rather than copying its contents
+	 */
+	@Override
+	public String write( String name, Path pdfFile ) throws IOException {
+		Path file = create( name );
+		try {
+			Files.move( pdfFile, file, StandardCopyOption.REPLACE_EXISTING );
+		} catch( IOException ex ) {
+			Files.deleteIfExists( file );
+			throw ex;
+		}
+		return file.toString();
+	}
+	
+	/**
+	 * Atomically creates an empty file for the letter of
+	 * the given name, suffixing the name until a path not
+	 * yet taken is found
+	 * 
+	 * @param  name path of the letter within the directory
+	 * @return created file
+	 * @throws IOException if the file could not be created
+	 */
+	private Path create( String name ) throws IOException {
+		for( int n = 1; ; n++ ) {
+			Path file = dir.resolve( n == 1 ? name :
+					OutputPathTemplate.suffix( name, n ) );
+			Files.createDirectories( file.getParent() );
+			try {
+				return Files.createFile( file );
+			} catch( FileAlreadyExistsException ex ) {
+				// Taken by another letter; try the next suffix
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves the directory receiving the letters
+	 * 
+	 * @return output directory
+	 */
+	public Path getDirectory() {
+		return dir;
+	}
+}
@@ -0,0 +1,105 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the directory receiving the generated cover
+ * letters - the Downloads directory of the current user
+ * 
+ * <li><b>Linux</b> - $XDG_DOWNLOAD_DIR, or as configured
+ * within $XDG_CONFIG_HOME/user-dirs.dirs, defaulting to
+ * ~/Downloads</li>
+ * <li><b>Windows</b> and <b>macOS</b> - ~/Downloads</li>
+ * 
+ * The AUTOCV_OUTPUT_DIR environment variable overrides
+ * the location on every platform
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class DownloadDirectory {
+	
+	/** Environment variable overriding the directory */
+	public static final String OUTPUT_DIR_ENV = "AUTOCV_OUTPUT_DIR";
+	
+	/** Key of the Downloads directory within user-dirs.dirs */
+	private static final String XDG_KEY = "XDG_DOWNLOAD_DIR";
+	
+	/** Utility class is not instantiable */
+	private DownloadDirectory() {}
+	
+	/**
+	 * Resolves the Downloads directory for the current
+	 * user and platform; the directory is not created
+	 * 
+	 * @return Downloads directory
+	 */
+	public static Path resolve() {
+		String override = System.getenv( OUTPUT_DIR_ENV );
+		if( isSet( override ) ) {
+			return Paths.get( override );
+		}
+		
+		Path home = Paths.get( System.getProperty( "user.home" ) );
+		String xdg = System.getenv( XDG_KEY );
+		if( isSet( xdg ) ) {
+			return Paths.get( xdg );
+		}
+		
+		String config = System.getenv( "XDG_CONFIG_HOME" );
+		Path userDirs = ( isSet( config ) ? Paths.get( config ) :
+			home.resolve( ".config" ) ).resolve( "user-dirs.dirs" );
+		String configured = readUserDirs( userDirs, home );
+		return configured != null ? Paths.get( configured ) :
+			home.resolve( "Downloads" );
+	}
+	
+	/**
+	 * Reads the Downloads directory from the given
+	 * user-dirs.dirs file, whose lines take the form
+	 * XDG_DOWNLOAD_DIR="$HOME/Downloads"
+	 * 
+	 * @param  userDirs user-dirs.dirs file
+	 * @param  home		home directory of the user
+	 * @return configured directory, or null if the
+	 * 		   file or the entry does not exist
+	 */
+	private static String readUserDirs( Path userDirs, Path home ) {
+		if( !Files.isRegularFile( userDirs ) ) {
+			return null;
+		}
+		try {
+			for( String line : Files.readAllLines( userDirs,
+					StandardCharsets.UTF_8 ) ) {
+				line = line.trim();
+				if( !line.startsWith( XDG_KEY + "=" ) ) {
+					continue;
+				}
+				String value = line.substring( XDG_KEY.length() + 1 );
+				if( value.length() >= 2 && value.startsWith( "\"" ) &&
+						value.endsWith( "\"" ) ) {
+					value = value.substring( 1, value.length() - 1 );
+				}
+				value = value.replace( "$HOME", home.toString() );
+				return value.isEmpty() ? null : value;
+			}
+		} catch( IOException ex ) {
+			// An unreadable file falls back to the default
+		}
+		return null;
+	}
+	
+	/**
+	 * Determines if an environment value is set
+	 * 
+	 * @param  value environment value
+	 * @return true if non-null and non-empty
+	 */
+	private static boolean isSet( String value ) {
+		return value != null && !value.isEmpty();
+	}
+}
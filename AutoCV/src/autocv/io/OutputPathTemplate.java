@@ -0,0 +1,317 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import autocv.data.Applicant;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+
+/**
+ * Template of the path of each generated cover letter
+ * within its output sink, such as
+ *
+ * <pre>
+ * {company}/{first}_{last}_{season}_{year}_Cover_Letter
+ * </pre>
+ *
+ * <li><b>{first}</b>, <b>{mi}</b>, <b>{last}</b> - name
+ * of the applicant</li>
+ * <li><b>{company}</b> - name of the company</li>
+ * <li><b>{title}</b> - job title of the letter</li>
+ * <li><b>{type}</b>, <b>{season}</b>, <b>{year}</b> -
+ * job credentials of the letter</li>
+ * <li><b>{date}</b> - date of generation, as
+ * yyyy-MM-dd</li>
+ *
+ * Each value is reduced to letters, digits, and single
+ * underscores, so that no value introduces a directory
+ * or a character invalid on any platform; a value left
+ * empty, such as an absent middle initial, collapses
+ * together with its neighbouring underscores. Slashes
+ * of the template itself separate subdirectories, and
+ * the extension of the output format is appended to
+ * every path not already ending with it
+ *
+ * The template is read from the output file within the
+ * data directory, under the template key; the default
+ * template names letters as every earlier version did
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class OutputPathTemplate {
+	
+	/** Template naming letters as in earlier versions */
+	public static final String DEFAULT_TEMPLATE =
+			"{first}_{mi}_{last}_{company}_Cover_Letter";
+	
+	/** Key of the template within the output file */
+	public static final String TEMPLATE_KEY = "template";
+	
+	/**
+	 * Letters of a batch per subdirectory; a batch of
+	 * more letters is sharded into numbered directories,
+	 * so that no directory grows too large to browse
+	 */
+	public static final int SHARD_LETTERS = 500;
+	
+	/** Tokens of the template */
+	private enum Token {
+		FIRST, MI, LAST, COMPANY, TITLE, TYPE, SEASON, YEAR, DATE
+	}
+	
+	/** Template, as configured */
+	private final String template;
+	
+	/**
+	 * Parts of the template in order, each either a
+	 * literal String or a Token
+	 */
+	private final List<Object> parts;
+	
+	/**
+	 * Default constructor, parsing the given template
+	 *
+	 * @param  template output path template
+	 * @throws IllegalArgumentException if the template
+	 * 		   holds an unknown or unclosed token, or a
+	 * 		   path leaving the output directory
+	 */
+	public OutputPathTemplate( String template ) {
+		this.template = template;
+		parts = new ArrayList<>();
+		
+		int i = 0;
+		while( i < template.length() ) {
+			int open = template.indexOf( '{', i );
+			if( open < 0 ) {
+				parts.add( literal( template.substring( i ) ) );
+				break;
+			}
+			int close = template.indexOf( '}', open );
+			if( close < 0 ) {
+				throw new IllegalArgumentException( "Unclosed token: " + template );
+			}
+			if( open > i ) {
+				parts.add( literal( template.substring( i, open ) ) );
+			}
+			String name = template.substring( open + 1, close );
+			try {
+				parts.add( Token.valueOf( name.toUpperCase( Locale.ROOT ) ) );
+			} catch( IllegalArgumentException ex ) {
+				throw new IllegalArgumentException( "Unknown token {" + name + "}" );
+			}
+			i = close + 1;
+		}
+		if( template.startsWith( "/" ) ) {
+			throw new IllegalArgumentException( "Absolute template: " + template );
+		}
+	}
+	
+	/**
+	 * Reads the template from the given output file; the
+	 * default template is used if the file is absent
+	 *
+	 * @param  file output file
+	 * @return output path template
+	 * @throws IOException if the file could not be read
+	 * @throws IllegalArgumentException if the configured
+	 * 		   template is invalid
+	 */
+	public static OutputPathTemplate load( Path file ) throws IOException {
+		if( !Files.exists( file ) ) {
+			return new OutputPathTemplate( DEFAULT_TEMPLATE );
+		}
+		Properties props = new Properties();
+		props.load( new StringReader( new String( Files.readAllBytes( file ),
+				StandardCharsets.UTF_8 ) ) );
+		return new OutputPathTemplate( props.getProperty( TEMPLATE_KEY,
+				DEFAULT_TEMPLATE ).trim() );
+	}
+	
+	/**
+	 * Expands the template for a single letter
+	 *
+	 * @param  applicant applicant of the letter
+	 * @param  company	 company of the letter
+	 * @param  jobCred	 job credentials of the letter
+	 * @param  jobTitle	 job title of the letter
+	 * @param  date		 date of generation
+	 * @param  extension extension of the output format,
+	 * 					 including its dot
+	 * @return path of the letter relative to its sink,
+	 * 		   with slashes separating subdirectories
+	 */
+	public String expand( Applicant applicant, Company company,
+			JobCredentials jobCred, String jobTitle, LocalDate date,
+			String extension ) {
+		
+		StringBuilder path = new StringBuilder();
+		for( Object part : parts ) {
+			if( part instanceof String ) {
+				path.append( ( String ) part );
+				continue;
+			}
+			switch( ( Token ) part ) {
+			case FIRST:
+				path.append( sanitize( applicant.getFirstName() ) );
+				break;
+			case MI:
+				path.append( sanitize( applicant.getMiddleInitial() ) );
+				break;
+			case LAST:
+				path.append( sanitize( applicant.getLastName() ) );
+				break;
+			case COMPANY:
+				path.append( sanitize( company.getName() ) );
+				break;
+			case TITLE:
+				path.append( sanitize( jobTitle ) );
+				break;
+			case TYPE:
+				path.append( sanitize( capitalize( jobCred.getJobType() ) ) );
+				break;
+			case SEASON:
+				path.append( sanitize( capitalize( jobCred.getJobSeason() ) ) );
+				break;
+			case YEAR:
+				path.append( sanitize( jobCred.getYear() ) );
+				break;
+			case DATE:
+				path.append( date );
+				break;
+			}
+		}
+		
+		// Collapse the underscores left around empty values
+		// within each directory and the file name; a segment
+		// left only of dots, as ".{mi}." is for an empty
+		// middle initial, is dropped, so that no letter is
+		// written above its output directory
+		StringBuilder result = new StringBuilder( path.length() + extension.length() );
+		for( String segment : path.toString().split( "/" ) ) {
+			segment = segment.replaceAll( "_{2,}", "_" ).replaceAll( "^_|_$", "" );
+			if( segment.isEmpty() || segment.matches( "\\.+" ) ) {
+				continue;
+			}
+			if( result.length() > 0 ) {
+				result.append( '/' );
+			}
+			result.append( segment );
+		}
+		if( result.length() == 0 ) {
+			result.append( "Cover_Letter" );
+		}
+		if( !result.toString().toLowerCase( Locale.ROOT ).endsWith( extension ) ) {
+			result.append( extension );
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * Places the path of a letter of a batch within its
+	 * shard, if the batch holds more than SHARD_LETTERS
+	 * letters
+	 *
+	 * @param  path	   path of the letter
+	 * @param  index   index of the letter within the batch
+	 * @param  letters letters of the batch
+	 * @return path of the letter within its shard
+	 */
+	public static String shard( String path, int index, int letters ) {
+		if( letters <= SHARD_LETTERS ) {
+			return path;
+		}
+		return String.format( Locale.ROOT, "Part_%03d/%s",
+				index / SHARD_LETTERS + 1, path );
+	}
+	
+	/**
+	 * Suffixes the given path with a number before the
+	 * extension of its file name, as "Name (2).pdf", for
+	 * a letter whose path is already taken
+	 *
+	 * @param  path	  path of the letter
+	 * @param  number suffix number, from 2
+	 * @return suffixed path
+	 */
+	public static String suffix( String path, int number ) {
+		int dot = path.lastIndexOf( '.' );
+		if( dot <= path.lastIndexOf( '/' ) ) {
+			dot = path.length();
+		}
+		return path.substring( 0, dot ) + " (" + number + ")" + path.substring( dot );
+	}
+	
+	/**
+	 * Validates a literal part of the template; no literal
+	 * may name a parent directory
+	 *
+	 * @param  text literal text of the template
+	 * @return the literal text
+	 * @throws IllegalArgumentException if the text names
+	 * 		   a parent directory or holds a backslash
+	 */
+	private static String literal( String text ) {
+		for( String segment : text.split( "/" ) ) {
+			if( segment.equals( ".." ) || segment.indexOf( '\\' ) >= 0 ) {
+				throw new IllegalArgumentException( "Template leaves the output "
+						+ "directory: " + text );
+			}
+		}
+		return text;
+	}
+	
+	/**
+	 * Reduces a value of the template to letters, digits,
+	 * and single underscores
+	 *
+	 * @param  value value of a token, or null
+	 * @return sanitized value, empty if null
+	 */
+	private static String sanitize( String value ) {
+		if( value == null ) {
+			return "";
+		}
+		return value.replaceAll( "[^A-Za-z0-9]+", "_" ).replaceAll( "^_|_$", "" );
+	}
+	
+	/**
+	 * Capitalizes the name of the given constant, as
+	 * "Summer" for SUMMER
+	 *
+	 * @param  constant enum constant, or null
+	 * @return capitalized name, or null
+	 */
+	private static String capitalize( Enum<?> constant ) {
+		if( constant == null ) {
+			return null;
+		}
+		String name = constant.name();
+		return name.charAt( 0 ) + name.substring( 1 ).toLowerCase( Locale.ROOT );
+	}
+	
+	/**
+	 * Determines if the template names letters by their
+	 * date of generation
+	 *
+	 * @return true if the template holds the date token
+	 */
+	public boolean isDated() {
+		return parts.contains( Token.DATE );
+	}
+	
+	@Override
+	public String toString() {
+		return template;
+	}
+}
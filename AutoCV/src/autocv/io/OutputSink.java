@@ -0,0 +1,85 @@
+package autocv.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Destination of the generated cover letters, receiving
+ * the contents of each letter once generated, whether
+ * PDF or text; implementations
+ * must be safe for use by several generation threads at
+ * once
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public interface OutputSink extends Closeable {
+	
+	/**
+	 * Writes a single letter under the given name; may
+	 * block while the sink is full
+	 * 
+	 * @param  name file name of the letter
+	 * @param  pdf	contents of the letter
+	 * @return location of the written letter
+	 * @throws IOException if the letter could not be
+	 * 		   written, or the sink has failed
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting on a full sink
+	 */
+	String write( String name, byte[] pdf )
+		throws IOException, InterruptedException;
+	
+	/**
+	 * Writes the PDF file of a single letter under the
+	 * given name, taking ownership of the file; by
+	 * default the file is read and removed, and its
+	 * contents written
+	 * 
+	 * @param  name	   file name of the letter
+	 * @param  pdfFile rendered PDF file
+	 * @return location of the written letter
+	 * @throws IOException if the letter could not be
+	 * 		   written, or the sink has failed
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting on a full sink
+	 */
+	default String write( String name, Path pdfFile )
+		throws IOException, InterruptedException {
+		
+		byte[] pdf = Files.readAllBytes( pdfFile );
+		Files.delete( pdfFile );
+		return write( name, pdf );
+	}
+	
+	/**
+	 * Finishes every letter written to the sink; the
+	 * sink accepts no letter afterwards
+	 * 
+	 * @throws IOException if a written letter could
+	 * 		   not be finished
+	 */
+	@Override
+	default void close() throws IOException {}
+	
+	/**
+	 * Computes the digest of the contents of a letter,
+	 * by which a letter written to a sink is verified
+	 * 
+	 * @param  contents contents of the letter
+	 * @return SHA-256 digest, as lower case hex
+	 */
+	static String digest( byte[] contents ) {
+		try {
+			return HexFormat.of().formatHex( MessageDigest.getInstance(
+					"SHA-256" ).digest( contents ) );
+		} catch( NoSuchAlgorithmException ex ) {
+			throw new IllegalStateException( "SHA-256 unavailable", ex );
+		}
+	}
+}
@@ -0,0 +1,384 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import autocv.log.Logger;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Dedicated writer for the persistent files of the
+ * program; save requests are accepted from any Thread
+ * and written off of the JavaFX Application Thread
+ *
+ * Requests for the same file arriving within the
+ * coalescing window are merged, so that only the most
+ * recent contents are written; each write replaces the
+ * file atomically, and is synced to disk according to
+ * the fsync policy of the writer
+ *
+ * Each write goes through a temporary sibling of its
+ * file, removed if the write fails; upon the first
+ * write into a directory, any temporary file within it
+ * older than the writer, as left by a crash of an
+ * earlier session, is removed
+ *
+ * The outcome of every write is reported through the
+ * state and error properties, which are only updated
+ * on the JavaFX Application Thread
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class PersistenceWriter implements AutoCloseable {
+	
+	/**
+	 * Policy determining how much of each write is
+	 * synced to disk before it is reported as saved
+	 */
+	public enum FsyncPolicy {
+		
+		/** Leave syncing to the operating system */
+		NONE,
+		
+		/** Sync the contents of the written file */
+		FILE,
+		
+		/**
+		 * Sync the contents of the written file and
+		 * the directory entry created by the atomic
+		 * replace, where the platform supports it
+		 */
+		FILE_AND_DIRECTORY
+	}
+	
+	/** State of the most recent save request */
+	public enum SaveState {
+		
+		/** No save has been requested */
+		IDLE,
+		
+		/** A save is waiting to be written */
+		PENDING,
+		
+		/** Every requested save has been written */
+		SAVED,
+		
+		/** The most recent write failed */
+		FAILED
+	}
+	
+	/** Logger of failed writes */
+	private static final Logger LOG = Logger.get( PersistenceWriter.class );
+	
+	/** Window within which save requests are merged */
+	private static final long COALESCE_MILLIS = 50;
+	
+	/** Suffix of the temporary sibling of a written file */
+	private static final String TEMP_SUFFIX = ".tmp";
+	
+	/** Policy for syncing each write to disk */
+	private final FsyncPolicy fsyncPolicy;
+	
+	/** Thread performing every write */
+	private final ScheduledExecutorService executor;
+	
+	/**
+	 * Requests awaiting the writer, keyed by file; a
+	 * newer request for a file replaces the older one
+	 */
+	private final Map<Path, Request> pending;
+	
+	/** Determines if a flush of the pending requests is scheduled */
+	private boolean flushScheduled;
+	
+	/** State of the most recent save request */
+	private final ReadOnlyObjectWrapper<SaveState> state;
+	
+	/** Message of the most recent failed write */
+	private final ReadOnlyStringWrapper lastError;
+	
+	/** Time the writer was started */
+	private final FileTime started;
+	
+	/**
+	 * Directories already swept of stale temporary files;
+	 * only accessed by the writer Thread
+	 */
+	private final Set<Path> swept;
+	
+	/**
+	 * Default constructor, initializing the fsync
+	 * policy and starting the writer Thread
+	 *
+	 * @param fsyncPolicy policy for syncing writes
+	 */
+	public PersistenceWriter( FsyncPolicy fsyncPolicy ) {
+		this.fsyncPolicy = fsyncPolicy;
+		
+		executor = Executors.newSingleThreadScheduledExecutor( r -> {
+			Thread t = new Thread( r, "autocv-persistence-writer" );
+			t.setDaemon( true );
+			return t;
+		});
+		pending = new LinkedHashMap<>();
+		state = new ReadOnlyObjectWrapper<>( this, "state", SaveState.IDLE );
+		lastError = new ReadOnlyStringWrapper( this, "lastError" );
+		started = FileTime.fromMillis( System.currentTimeMillis() );
+		swept = new HashSet<>();
+	}
+	
+	/**
+	 * Requests the given contents be written to the
+	 * given file; returns immediately
+	 *
+	 * @param  file		target file
+	 * @param  contents contents to write
+	 * @return future completed once the contents, or
+	 * 		   any newer contents for the same file,
+	 * 		   have been written
+	 */
+	public CompletableFuture<Void> submit( Path file, byte[] contents ) {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		
+		synchronized( pending ) {
+			Request older = pending.put( file, new Request( contents, done ) );
+			
+			// The older request is superseded; it completes
+			// along with the request replacing it
+			if( older != null ) {
+				done.whenComplete( ( v, ex ) -> {
+					if( ex == null ) {
+						older.done.complete( null );
+					}
+					else {
+						older.done.completeExceptionally( ex );
+					}
+				});
+			}
+			
+			if( !flushScheduled ) {
+				flushScheduled = true;
+				executor.schedule( this::flush, COALESCE_MILLIS,
+						TimeUnit.MILLISECONDS );
+			}
+		}
+		
+		publish( SaveState.PENDING, null );
+		return done;
+	}
+	
+	/**
+	 * Retrieves the state of the most recent save
+	 *
+	 * @return save state property
+	 */
+	public ReadOnlyObjectProperty<SaveState> stateProperty() {
+		return state.getReadOnlyProperty();
+	}
+	
+	/**
+	 * Retrieves the message of the most recent
+	 * failed write
+	 *
+	 * @return error message property
+	 */
+	public ReadOnlyStringProperty lastErrorProperty() {
+		return lastError.getReadOnlyProperty();
+	}
+	
+	/**
+	 * Writes any pending requests and stops the
+	 * writer Thread; if interrupted while waiting on
+	 * the writer Thread, the interrupt is restored
+	 */
+	@Override
+	public void close() {
+		executor.execute( this::flush );
+		executor.shutdown();
+		try {
+			executor.awaitTermination( 10, TimeUnit.SECONDS );
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Writes every pending request; runs on the
+	 * writer Thread
+	 */
+	private void flush() {
+		Map<Path, Request> batch;
+		synchronized( pending ) {
+			batch = new LinkedHashMap<>( pending );
+			pending.clear();
+			flushScheduled = false;
+		}
+		
+		String failure = null;
+		for( Map.Entry<Path, Request> entry : batch.entrySet() ) {
+			Request request = entry.getValue();
+			try {
+				write( entry.getKey(), request.contents );
+				request.done.complete( null );
+			} catch( IOException ex ) {
+				LOG.error( "Unable to save file", ex, "file", entry.getKey() );
+				failure = entry.getKey() + ": " + ex.getMessage();
+				request.done.completeExceptionally( ex );
+			}
+		}
+		
+		boolean idle;
+		synchronized( pending ) {
+			idle = pending.isEmpty();
+		}
+		if( failure != null ) {
+			publish( SaveState.FAILED, failure );
+		}
+		else if( idle && !batch.isEmpty() ) {
+			publish( SaveState.SAVED, null );
+		}
+	}
+	
+	/**
+	 * Writes the contents to a temporary sibling of the
+	 * file, syncs according to the policy, and moves the
+	 * temporary file over the target; the temporary file
+	 * is removed if the write fails
+	 *
+	 * @param  file		target file
+	 * @param  contents contents to write
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void write( Path file, byte[] contents ) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories( dir );
+		if( swept.add( dir ) ) {
+			sweep( dir );
+		}
+		Path temp = file.resolveSibling( file.getFileName() + TEMP_SUFFIX );
+		
+		try {
+			try( FileChannel ch = FileChannel.open( temp, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+				ByteBuffer buf = ByteBuffer.wrap( contents );
+				while( buf.hasRemaining() ) {
+					ch.write( buf );
+				}
+				if( fsyncPolicy != FsyncPolicy.NONE ) {
+					ch.force( true );
+				}
+			}
+			
+			try {
+				Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE );
+			} catch( AtomicMoveNotSupportedException ex ) {
+				Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING );
+			}
+		} catch( IOException ex ) {
+			Files.deleteIfExists( temp );
+			throw ex;
+		}
+		
+		if( fsyncPolicy == FsyncPolicy.FILE_AND_DIRECTORY ) {
+			// Directories cannot be opened for syncing
+			// on every platform (i.e. Windows)
+			try( FileChannel ch = FileChannel.open( dir, StandardOpenOption.READ ) ) {
+				ch.force( true );
+			} catch( IOException ex ) {
+				// The file contents are already synced;
+				// the directory sync is best effort
+			}
+		}
+	}
+	
+	/**
+	 * Removes every temporary file within the given
+	 * directory last modified before the writer was
+	 * started, as left by a crash of an earlier session;
+	 * a file which cannot be removed is left in place
+	 *
+	 * @param dir directory to sweep
+	 */
+	private void sweep( Path dir ) {
+		try( DirectoryStream<Path> files = Files.newDirectoryStream(
+				dir, "*" + TEMP_SUFFIX ) ) {
+			for( Path temp : files ) {
+				if( Files.getLastModifiedTime( temp ).compareTo( started ) < 0 ) {
+					LOG.info( "Removing stale temporary file", "file", temp );
+					Files.deleteIfExists( temp );
+				}
+			}
+		} catch( IOException ex ) {
+			LOG.warn( "Unable to sweep temporary files", ex, "dir", dir );
+		}
+	}
+	
+	/**
+	 * Publishes the given state and error message on
+	 * the JavaFX Application Thread
+	 *
+	 * @param newState new save state
+	 * @param error	   error message, or null to retain
+	 * 				   the previous message
+	 */
+	private void publish( SaveState newState, String error ) {
+		// The message is set first, as listeners of the
+		// state read it upon the state changing
+		Runnable update = () -> {
+			if( error != null ) {
+				lastError.set( error );
+			}
+			state.set( newState );
+		};
+		if( Platform.isFxApplicationThread() ) {
+			update.run();
+		}
+		else {
+			Platform.runLater( update );
+		}
+	}
+	
+	/** Pending save request for a single file */
+	private static final class Request {
+		
+		/** Contents to write */
+		private final byte[] contents;
+		
+		/** Future completed once the contents are written */
+		private final CompletableFuture<Void> done;
+		
+		/**
+		 * Default constructor, initializing the
+		 * contents and completion future
+		 *
+		 * @param contents contents to write
+		 * @param done	   completion future
+		 */
+		private Request( byte[] contents, CompletableFuture<Void> done ) {
+			this.contents = contents;
+			this.done = done;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package autocv.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Manifest listing the resources bundled with the
+ * program by kind; the manifest is generated from the
+ * source folder by the ResourceManifestGenerator and
+ * checked in beside the resources it lists
+ *
+ * Each line of the manifest names the kind of a
+ * resource followed by its absolute classpath path;
+ * blank lines and lines beginning with '#' are ignored
+ *
+ * <pre>
+ * font       /fonts/exo_regular.otf
+ * stylesheet /css/main.css
+ * layout     /fxml/MainPanel.fxml
+ * </pre>
+ *
+ * Reading the manifest replaces listing the resource
+ * directories at startup, which requires the program
+ * to run from an unpacked directory
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class ResourceManifest {
+
+	/** Kinds of resources listed by the manifest */
+	public enum Kind {
+		FONT,
+		STYLESHEET,
+		LAYOUT;
+
+		/**
+		 * Name of the kind as written in the manifest
+		 *
+		 * @return lowercase name
+		 */
+		public String token() {
+			return name().toLowerCase( Locale.ROOT );
+		}
+	}
+
+	/** Resource paths by kind, in manifest order */
+	private final Map<Kind, List<String>> entries;
+
+	/**
+	 * Default constructor, initializing the manifest
+	 * with the given entries
+	 *
+	 * @param entries resource paths by kind
+	 */
+	private ResourceManifest( Map<Kind, List<String>> entries ) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Reads the manifest at the given classpath path
+	 *
+	 * @param  path absolute classpath path of the manifest
+	 * @return parsed manifest
+	 * @throws IOException if the manifest is missing
+	 * 		   or contains a malformed line
+	 */
+	public static ResourceManifest load( String path ) throws IOException {
+		return parse( ClasspathResources.text( path ) );
+	}
+
+	/**
+	 * Parses the given manifest text
+	 *
+	 * @param  text manifest text
+	 * @return parsed manifest
+	 * @throws IOException if the text contains a
+	 * 		   malformed line
+	 */
+	public static ResourceManifest parse( String text ) throws IOException {
+		Map<Kind, List<String>> entries = new EnumMap<>( Kind.class );
+		for( Kind kind : Kind.values() ) {
+			entries.put( kind, new ArrayList<>() );
+		}
+
+		String[] lines = text.split( "\\r?\\n" );
+		for( int i = 0; i < lines.length; i++ ) {
+			String line = lines[ i ].trim();
+			if( line.isEmpty() || line.startsWith( "#" ) ) {
+				continue;
+			}
+
+			String[] parts = line.split( "\\s+", 2 );
+			Kind kind = null;
+			for( Kind k : Kind.values() ) {
+				if( k.token().equals( parts[ 0 ] ) ) {
+					kind = k;
+				}
+			}
+			if( kind == null || parts.length < 2 ||
+					!parts[ 1 ].startsWith( "/" ) ) {
+				throw new IOException( "Malformed manifest line " +
+						( i + 1 ) + ": " + line );
+			}
+			entries.get( kind ).add( parts[ 1 ] );
+		}
+
+		for( Kind kind : Kind.values() ) {
+			entries.put( kind, Collections.unmodifiableList(
+					entries.get( kind ) ) );
+		}
+		return new ResourceManifest( entries );
+	}
+
+	/**
+	 * Retrieves the paths of every resource of the
+	 * given kind
+	 *
+	 * @param  kind resource kind
+	 * @return unmodifiable list of absolute classpath
+	 * 		   paths, in manifest order
+	 */
+	public List<String> get( Kind kind ) {
+		return entries.get( kind );
+	}
+
+	/**
+	 * Formats the given entries as manifest text
+	 *
+	 * @param  entries resource paths by kind
+	 * @return manifest text, one resource per line
+	 */
+	public static String format( Map<Kind, List<String>> entries ) {
+		StringBuilder text = new StringBuilder();
+		text.append( "# Generated by autocv.tools.ResourceManifestGenerator;" ).
+			append( System.lineSeparator() ).
+			append( "# regenerate after adding or removing a resource" ).
+			append( System.lineSeparator() );
+
+		for( Kind kind : Kind.values() ) {
+			for( String path : entries.getOrDefault( kind,
+					Collections.emptyList() ) ) {
+				text.append( String.format( "%-10s %s", kind.token(), path ) ).
+					append( System.lineSeparator() );
+			}
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,363 @@
+package autocv.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Output sink streaming every cover letter into a single
+ * ZIP archive as each is generated; letters written by any
+ * number of generation threads are queued to a single
+ * writer thread, the only thread touching the archive
+ * 
+ * The queued letters are bounded by BUFFERED_BYTES, so that
+ * a batch generating faster than the archive is written
+ * holds a bounded amount of memory, each generation thread
+ * waiting for room within the queue
+ * 
+ * The archive is written beside its final location with a
+ * .part suffix, and moved into place once closed, so that
+ * an archive at the final location is always complete;
+ * letters of the same name are suffixed with a number
+ * 
+ * An archive left incomplete by an interrupted batch, or
+ * finished with some letters missing, may be resumed: the
+ * letters of the earlier archive whose digests are still
+ * known are salvaged into the new archive, up to the point
+ * at which an incomplete archive was cut off
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class ZipSink implements OutputSink {
+	
+	/** Bytes of letters queued for the writer at most */
+	public static final int BUFFERED_BYTES = 16 << 20;
+	
+	/** Entry marking the end of the queue */
+	private static final Entry END = new Entry( null, null, 0 );
+	
+	/** Final location of the archive */
+	private final Path zipFile;
+	
+	/** Location of the archive while being written */
+	private final Path partFile;
+	
+	/** Letters queued for the writer */
+	private final BlockingQueue<Entry> entries;
+	
+	/** Bytes of the queue not yet taken by letters */
+	private final Semaphore room;
+	
+	/** Names of every queued entry; guards closed */
+	private final Set<String> names;
+	
+	/** Names of the entries salvaged from an earlier archive */
+	private final Set<String> salvaged;
+	
+	/** Thread writing the queued letters */
+	private final Thread writer;
+	
+	/** Whether the sink has been closed */
+	private boolean closed;
+	
+	/** First failure of the writer, or null */
+	private volatile IOException failure;
+	
+	/**
+	 * Default constructor, creating the archive and
+	 * starting its writer thread
+	 * 
+	 * @param  zipFile final location of the archive
+	 * @throws IOException if the archive could not be
+	 * 		   created
+	 */
+	public ZipSink( Path zipFile ) throws IOException {
+		this( zipFile, Collections.emptyMap() );
+	}
+	
+	/**
+	 * Resume constructor, creating the archive and
+	 * salvaging into it the given letters of the archive
+	 * left by an earlier run, if any; the incomplete
+	 * archive of an interrupted run is preferred over a
+	 * finished archive, and each letter is salvaged only
+	 * if its contents still match its digest
+	 * 
+	 * @param  zipFile final location of the archive
+	 * @param  salvage digest of each letter to salvage,
+	 * 				   by entry name
+	 * @throws IOException if the archive could not be
+	 * 		   created
+	 */
+	public ZipSink( Path zipFile, Map<String, String> salvage ) throws IOException {
+		this.zipFile = zipFile;
+		this.partFile = zipFile.resolveSibling( zipFile.getFileName() + ".part" );
+		entries = new LinkedBlockingQueue<>();
+		room = new Semaphore( BUFFERED_BYTES );
+		names = new HashSet<>();
+		salvaged = new HashSet<>();
+		
+		// An incomplete archive is set aside, as the new
+		// archive takes its place; a finished archive is
+		// only replaced once the new archive is closed
+		Path earlier = null;
+		Path setAside = null;
+		if( !salvage.isEmpty() && Files.exists( partFile ) ) {
+			setAside = zipFile.resolveSibling( zipFile.getFileName() + ".part.old" );
+			earlier = Files.move( partFile, setAside, StandardCopyOption.REPLACE_EXISTING );
+		}
+		else if( !salvage.isEmpty() && Files.exists( zipFile ) ) {
+			earlier = zipFile;
+		}
+		
+		// The letters are already compressed PDFs, so the
+		// fastest level loses little
+		ZipOutputStream zip = new ZipOutputStream( new BufferedOutputStream(
+				Files.newOutputStream( partFile ) ) );
+		zip.setLevel( Deflater.BEST_SPEED );
+		if( earlier != null ) {
+			try {
+				salvage( earlier, salvage, zip );
+			} catch( IOException ex ) {
+				zip.close();
+				Files.deleteIfExists( partFile );
+				throw ex;
+			}
+			if( setAside != null ) {
+				Files.delete( setAside );
+			}
+		}
+		writer = new Thread( () -> drain( zip ), "autocv-zip-writer" );
+		writer.setDaemon( true );
+		writer.start();
+	}
+	
+	@Override
+	public String write( String name, byte[] pdf )
+		throws IOException, InterruptedException {
+		
+		if( failure != null ) {
+			throw new IOException( "Archive failed: " + zipFile, failure );
+		}
+		
+		// A letter larger than the whole queue waits
+		// for the queue to empty
+		int size = Math.min( pdf.length, BUFFERED_BYTES );
+		room.acquire( size );
+		String entry;
+		synchronized( names ) {
+			if( closed ) {
+				room.release( size );
+				throw new IOException( "Archive closed: " + zipFile );
+			}
+			entry = unique( name );
+			entries.add( new Entry( entry, pdf, size ) );
+		}
+		return zipFile + "!/" + entry;
+	}
+	
+	/**
+	 * Waits for every queued letter to be written, and
+	 * moves the finished archive into place
+	 * 
+	 * @throws IOException if a letter could not be
+	 * 		   written, in which case the incomplete
+	 * 		   archive is removed
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized( names ) {
+			if( closed ) {
+				return;
+			}
+			closed = true;
+			entries.add( END );
+		}
+		
+		try {
+			writer.join();
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException( "Interrupted while closing " + zipFile );
+		}
+		if( failure != null ) {
+			Files.deleteIfExists( partFile );
+			throw new IOException( "Archive failed: " + zipFile, failure );
+		}
+		Files.move( partFile, zipFile, StandardCopyOption.REPLACE_EXISTING );
+	}
+	
+	/**
+	 * Writes the queued letters until the end of the
+	 * queue; after a failure the remaining letters are
+	 * discarded, so that no generation thread waits on
+	 * a failed archive
+	 * 
+	 * @param zip archive stream
+	 */
+	private void drain( ZipOutputStream zip ) {
+		try {
+			for( Entry entry = entries.take(); entry != END; entry = entries.take() ) {
+				try {
+					if( failure == null ) {
+						zip.putNextEntry( new ZipEntry( entry.name ) );
+						zip.write( entry.pdf );
+						zip.closeEntry();
+					}
+				} catch( IOException ex ) {
+					failure = ex;
+				} finally {
+					room.release( entry.size );
+				}
+			}
+		} catch( InterruptedException ex ) {
+			failure = new InterruptedIOException( "Archive writer interrupted" );
+		} finally {
+			try {
+				zip.close();
+			} catch( IOException ex ) {
+				if( failure == null ) {
+					failure = ex;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Copies the letters to salvage from the earlier
+	 * archive into the new archive; the earlier archive
+	 * is read up to its first incomplete entry, as it
+	 * lacks the directory written upon closing
+	 * 
+	 * @param  earlier earlier archive
+	 * @param  salvage digest of each letter to salvage,
+	 * 				   by entry name
+	 * @param  zip	   new archive stream
+	 * @throws IOException if the new archive could not
+	 * 		   be written
+	 */
+	private void salvage( Path earlier, Map<String, String> salvage,
+			ZipOutputStream zip ) throws IOException {
+		
+		try( ZipInputStream in = new ZipInputStream( new BufferedInputStream(
+				Files.newInputStream( earlier ) ) ) ) {
+			while( true ) {
+				ZipEntry entry;
+				byte[] contents;
+				try {
+					entry = in.getNextEntry();
+					if( entry == null ) {
+						break;
+					}
+					contents = in.readAllBytes();
+				} catch( IOException ex ) {
+					
+					// Cut off by the interruption of the earlier run
+					break;
+				}
+				
+				String name = entry.getName();
+				if( !OutputSink.digest( contents ).equals( salvage.get( name ) )
+						|| !names.add( name ) ) {
+					continue;
+				}
+				zip.putNextEntry( new ZipEntry( name ) );
+				zip.write( contents );
+				zip.closeEntry();
+				salvaged.add( name );
+			}
+		}
+	}
+	
+	/**
+	 * Derives an entry name not yet queued from the
+	 * given name, suffixing a number before the
+	 * extension; must hold the names lock
+	 * 
+	 * @param  name file name of a letter
+	 * @return unique entry name
+	 */
+	private String unique( String name ) {
+		String candidate = name;
+		for( int n = 2; !names.add( candidate ); n++ ) {
+			candidate = OutputPathTemplate.suffix( name, n );
+		}
+		return candidate;
+	}
+	
+	/**
+	 * Retrieves the final location of the archive
+	 * 
+	 * @return archive file
+	 */
+	public Path getFile() {
+		return zipFile;
+	}
+	
+	/**
+	 * Retrieves the names of the letters salvaged from
+	 * the archive of an earlier run
+	 * 
+	 * @return salvaged entry names
+	 */
+	public Set<String> getSalvaged() {
+		return Collections.unmodifiableSet( salvaged );
+	}
+	
+	/**
+	 * Retrieves the entry name of a letter written to
+	 * an archive, from the location reported by write
+	 * 
+	 * @param  location location of a letter
+	 * @return entry name within the archive
+	 */
+	public static String entryName( String location ) {
+		return location.substring( location.indexOf( "!/" ) + 2 );
+	}
+	
+	/**
+	 * A letter queued for the writer
+	 * 
+	 * @since 1.1
+	 */
+	private static final class Entry {
+		
+		/** Entry name within the archive */
+		private final String name;
+		
+		/** Contents of the PDF */
+		private final byte[] pdf;
+		
+		/** Bytes of the queue taken by the letter */
+		private final int size;
+		
+		/**
+		 * Default constructor, initializing the entry
+		 * 
+		 * @param name entry name
+		 * @param pdf  contents of the PDF
+		 * @param size bytes of the queue taken
+		 */
+		Entry( String name, byte[] pdf, int size ) {
+			this.name = name;
+			this.pdf = pdf;
+			this.size = size;
+		}
+	}
+}
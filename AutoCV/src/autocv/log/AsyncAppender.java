@@ -0,0 +1,312 @@
+package autocv.log;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender formatting and writing every logged event
+ * on its own thread; logging threads only place the
+ * event in a lock-free ring buffer, so that logging
+ * never blocks them on formatting or I/O
+ * 
+ * Events logged while the buffer is full are dropped,
+ * and the number dropped is logged once the buffer
+ * drains. Until a log file is opened, events are
+ * written to the standard error stream
+ * 
+ * Each event is written as a single line of key=value
+ * pairs, followed by the stack trace of its failure
+ * (wrapped here for width):
+ * 
+ * <pre>
+ * 2021-06-01T14:02:11.482Z INFO  [autocv-generator] autocv.render.GenerationQueue
+ *     cid=job-7 msg="Letter generated" build_us=61 write_us=240 render_us=1834000
+ * </pre>
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class AsyncAppender {
+	
+	/** Number of events the buffer holds */
+	private static final int CAPACITY = 8192;
+	
+	/** Longest the appender thread sleeps while idle */
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos( 200 );
+	
+	/** Events awaiting the appender thread */
+	private final LogRingBuffer buffer;
+	
+	/** Number of events dropped since the last drain */
+	private final AtomicLong dropped;
+	
+	/** Thread formatting and writing every event */
+	private final Thread thread;
+	
+	/** Line being formatted; appender thread only */
+	private final StringBuilder line;
+	
+	/** Whether the appender thread is, or is about to be, parked */
+	private volatile boolean idle;
+	
+	/** Whether the appender accepts further events */
+	private volatile boolean running;
+	
+	/** Log file, or null to write the standard error stream */
+	private volatile RollingLogFile file;
+	
+	/**
+	 * Default constructor, starting the appender
+	 * thread
+	 */
+	AsyncAppender() {
+		buffer = new LogRingBuffer( CAPACITY );
+		dropped = new AtomicLong();
+		line = new StringBuilder( 256 );
+		running = true;
+		
+		thread = new Thread( this::run, "autocv-log" );
+		thread.setDaemon( true );
+		thread.start();
+	}
+	
+	/**
+	 * Queues the given event for writing; never blocks
+	 * 
+	 * @param event logged event
+	 */
+	void append( LogEvent event ) {
+		if( !running || !buffer.offer( event ) ) {
+			dropped.incrementAndGet();
+			return;
+		}
+		if( idle ) {
+			LockSupport.unpark( thread );
+		}
+	}
+	
+	/**
+	 * Directs every subsequent event to the given log
+	 * file; may only be called once
+	 * 
+	 * @param logFile log file
+	 */
+	void open( RollingLogFile logFile ) {
+		if( file != null ) {
+			throw new IllegalStateException( "Log file already open" );
+		}
+		file = logFile;
+	}
+	
+	/**
+	 * Waits for the events already queued to be written
+	 * and flushed, while still accepting further events
+	 * 
+	 * @param timeoutMillis longest to wait
+	 */
+	void flush( long timeoutMillis ) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+		
+		// The thread only announces itself idle once
+		// every event it polled has been flushed
+		while( !( buffer.isEmpty() && idle ) && thread.isAlive()
+				&& System.nanoTime() - deadline < 0 ) {
+			LockSupport.unpark( thread );
+			LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+		}
+	}
+	
+	/**
+	 * Stops accepting events, and waits for the events
+	 * already queued to be written
+	 * 
+	 * @param timeoutMillis longest to wait
+	 */
+	void close( long timeoutMillis ) {
+		running = false;
+		LockSupport.unpark( thread );
+		try {
+			thread.join( timeoutMillis );
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Appender thread routine; writes every queued
+	 * event, then parks until woken by a logging
+	 * thread, until closed
+	 */
+	private void run() {
+		while( true ) {
+			boolean stopping = !running;
+			drain();
+			if( stopping ) {
+				break;
+			}
+			
+			// Re-check after announcing the park, so that
+			// an event queued in between is not left waiting
+			idle = true;
+			if( buffer.isEmpty() && running ) {
+				LockSupport.parkNanos( this, IDLE_NANOS );
+			}
+			idle = false;
+		}
+		
+		RollingLogFile logFile = file;
+		if( logFile != null ) {
+			try {
+				logFile.close();
+			} catch( IOException ex ) {
+				System.err.println( "Unable to close log file: " + ex );
+			}
+		}
+	}
+	
+	/**
+	 * Writes every queued event, followed by a notice
+	 * of any dropped events, and flushes the output
+	 */
+	private void drain() {
+		RollingLogFile logFile = file;
+		boolean wrote = false;
+		
+		LogEvent event;
+		while( ( event = buffer.poll() ) != null ) {
+			write( logFile, format( event ) );
+			wrote = true;
+		}
+		
+		long lost = dropped.getAndSet( 0 );
+		if( lost > 0 ) {
+			write( logFile, format( new LogEvent( System.currentTimeMillis(),
+					Level.WARN, AsyncAppender.class.getName(), thread.getName(),
+					null, "Log events dropped", new Object[] { "count", lost },
+					null ) ) );
+			wrote = true;
+		}
+		
+		if( wrote ) {
+			if( logFile == null ) {
+				System.err.flush();
+				return;
+			}
+			try {
+				logFile.flush();
+			} catch( IOException ex ) {
+				System.err.println( "Unable to write log file: " + ex );
+			}
+		}
+	}
+	
+	/**
+	 * Writes the given formatted event to the log file,
+	 * or to the standard error stream if there is none
+	 * or the log file cannot be written
+	 * 
+	 * @param logFile log file, or null
+	 * @param text	  formatted event
+	 */
+	private static void write( RollingLogFile logFile, String text ) {
+		if( logFile != null ) {
+			try {
+				logFile.write( text );
+				return;
+			} catch( IOException ex ) {
+				System.err.println( "Unable to write log file: " + ex );
+			}
+		}
+		System.err.print( text );
+	}
+	
+	/**
+	 * Formats the given event as a line of key=value
+	 * pairs, followed by any stack trace
+	 * 
+	 * @param  event logged event
+	 * @return formatted event, ending with a line break
+	 */
+	private String format( LogEvent event ) {
+		line.setLength( 0 );
+		line.append( Instant.ofEpochMilli( event.time ) ).append( ' ' );
+		line.append( event.level );
+		for( int i = event.level.name().length(); i < 6; i++ ) {
+			line.append( ' ' );
+		}
+		line.append( '[' ).append( event.thread ).append( "] " );
+		line.append( event.logger );
+		
+		if( event.correlationId != null ) {
+			line.append( " cid=" ).append( event.correlationId );
+		}
+		line.append( " msg=" );
+		appendValue( event.message );
+		
+		Object[] fields = event.fields;
+		for( int i = 0; i + 1 < fields.length; i += 2 ) {
+			line.append( ' ' ).append( fields[ i ] ).append( '=' );
+			appendValue( fields[ i + 1 ] );
+		}
+		if( event.error != null ) {
+			line.append( " error=" );
+			appendValue( event.error.toString() );
+		}
+		line.append( System.lineSeparator() );
+		
+		if( event.error != null ) {
+			StringWriter trace = new StringWriter();
+			event.error.printStackTrace( new PrintWriter( trace ) );
+			line.append( trace );
+		}
+		return line.toString();
+	}
+	
+	/**
+	 * Appends a field value, quoting it if it contains
+	 * whitespace, quotes, or equals signs, so that each
+	 * event remains a single parsable line
+	 * 
+	 * @param value field value
+	 */
+	private void appendValue( Object value ) {
+		String text = String.valueOf( value );
+		boolean quote = text.isEmpty();
+		for( int i = 0; i < text.length() && !quote; i++ ) {
+			char c = text.charAt( i );
+			quote = c <= ' ' || c == '"' || c == '=';
+		}
+		if( !quote ) {
+			line.append( text );
+			return;
+		}
+		
+		line.append( '"' );
+		for( int i = 0; i < text.length(); i++ ) {
+			char c = text.charAt( i );
+			switch( c ) {
+			case '"':
+			case '\\':
+				line.append( '\\' ).append( c );
+				break;
+			case '\n':
+				line.append( "\\n" );
+				break;
+			case '\r':
+				line.append( "\\r" );
+				break;
+			case '\t':
+				line.append( "\\t" );
+				break;
+			default:
+				line.append( c );
+			}
+		}
+		line.append( '"' );
+	}
+}
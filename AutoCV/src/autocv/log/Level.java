@@ -0,0 +1,22 @@
+package autocv.log;
+
+/**
+ * Severity of a logged event, in increasing order
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public enum Level {
+	
+	/** Detail useful only when diagnosing a problem */
+	DEBUG,
+	
+	/** Normal operation of the program */
+	INFO,
+	
+	/** Recoverable failure, such as a failed letter */
+	WARN,
+	
+	/** Failure the client is likely to notice */
+	ERROR
+}
@@ -0,0 +1,67 @@
+package autocv.log;
+
+/**
+ * A single logged event; events are created on the
+ * logging thread and formatted later by the appender
+ * thread, so that the logging thread pays only for
+ * capturing the arguments
+ * 
+ * The fields are key-value pairs, alternating keys
+ * and values, describing the event in a form which
+ * may be searched without parsing the message
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class LogEvent {
+	
+	/** Time of the event, in epoch milliseconds */
+	final long time;
+	
+	/** Severity of the event */
+	final Level level;
+	
+	/** Name of the logger */
+	final String logger;
+	
+	/** Name of the logging thread */
+	final String thread;
+	
+	/** Correlation id of the logging thread, or null */
+	final String correlationId;
+	
+	/** Description of the event */
+	final String message;
+	
+	/** Alternating keys and values */
+	final Object[] fields;
+	
+	/** Failure described by the event, or null */
+	final Throwable error;
+	
+	/**
+	 * Default constructor, initializing every
+	 * attribute of the event
+	 * 
+	 * @param time			time of the event
+	 * @param level			severity of the event
+	 * @param logger		name of the logger
+	 * @param thread		name of the logging thread
+	 * @param correlationId correlation id, or null
+	 * @param message		description of the event
+	 * @param fields		alternating keys and values
+	 * @param error			failure, or null
+	 */
+	LogEvent( long time, Level level, String logger, String thread,
+			String correlationId, String message, Object[] fields,
+			Throwable error ) {
+		this.time = time;
+		this.level = level;
+		this.logger = logger;
+		this.thread = thread;
+		this.correlationId = correlationId;
+		this.message = message;
+		this.fields = fields;
+		this.error = error;
+	}
+}
@@ -0,0 +1,116 @@
+package autocv.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue of events between any
+ * number of logging threads and the single appender
+ * thread; a full buffer rejects the event rather than
+ * blocking the logging thread
+ * 
+ * Each slot carries a sequence number: a slot whose
+ * sequence equals the claimed position is free for
+ * that position, and one whose sequence is one past
+ * the position holds its event. Producers claim a
+ * position with a single compare-and-set
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class LogRingBuffer {
+	
+	/** Events, indexed by position modulo the capacity */
+	private final LogEvent[] slots;
+	
+	/** Sequence number of each slot */
+	private final AtomicLongArray sequences;
+	
+	/** Mask reducing a position to its slot */
+	private final int mask;
+	
+	/** Next position claimed by a producer */
+	private final AtomicLong tail;
+	
+	/** Next position read by the consumer */
+	private long head;
+	
+	/**
+	 * Default constructor, initializing an empty
+	 * buffer of the given capacity
+	 * 
+	 * @param capacity number of events held; must
+	 * 		  be a power of two
+	 */
+	LogRingBuffer( int capacity ) {
+		if( Integer.bitCount( capacity ) != 1 ) {
+			throw new IllegalArgumentException(
+					"Capacity must be a power of two: " + capacity );
+		}
+		slots = new LogEvent[ capacity ];
+		sequences = new AtomicLongArray( capacity );
+		for( int i = 0; i < capacity; i++ ) {
+			sequences.set( i, i );
+		}
+		mask = capacity - 1;
+		tail = new AtomicLong();
+	}
+	
+	/**
+	 * Adds the given event; may be called by any
+	 * thread, and never blocks
+	 * 
+	 * @param  event logged event
+	 * @return false if the buffer is full
+	 */
+	boolean offer( LogEvent event ) {
+		long pos = tail.get();
+		while( true ) {
+			int slot = (int) pos & mask;
+			long diff = sequences.get( slot ) - pos;
+			if( diff == 0 ) {
+				if( tail.compareAndSet( pos, pos + 1 ) ) {
+					slots[ slot ] = event;
+					sequences.set( slot, pos + 1 );
+					return true;
+				}
+				pos = tail.get();
+			}
+			else if( diff < 0 ) {
+				return false;
+			}
+			else {
+				pos = tail.get();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the oldest event; must only be called
+	 * by the appender thread
+	 * 
+	 * @return oldest event, or null if none has been
+	 * 		   published
+	 */
+	LogEvent poll() {
+		int slot = (int) head & mask;
+		if( sequences.get( slot ) != head + 1 ) {
+			return null;
+		}
+		LogEvent event = slots[ slot ];
+		slots[ slot ] = null;
+		sequences.set( slot, head + slots.length );
+		head++;
+		return event;
+	}
+	
+	/**
+	 * Determines if no event is waiting; must only
+	 * be called by the appender thread
+	 * 
+	 * @return true if empty
+	 */
+	boolean isEmpty() {
+		return sequences.get( (int) head & mask ) != head + 1;
+	}
+}
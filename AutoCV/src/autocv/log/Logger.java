@@ -0,0 +1,227 @@
+package autocv.log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Structured logger of the program; each event holds
+ * a message and key-value fields, and is written
+ * asynchronously by a single appender thread to the
+ * rotating log files within the logs directory of the
+ * data directory
+ * 
+ * Logging never blocks the calling thread: the event
+ * is placed in a lock-free ring buffer, and dropped if
+ * the buffer is full, so that logging is safe within
+ * the render threads
+ * 
+ * Events carry the correlation id of the logging
+ * thread, set for the duration of a unit of work such
+ * as the generation of a single letter, so that every
+ * event of that unit may be found together
+ * 
+ * The AUTOCV_LOG_LEVEL environment variable sets the
+ * lowest level logged, defaulting to INFO
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class Logger {
+	
+	/** Environment variable setting the lowest level logged */
+	public static final String LEVEL_ENV = "AUTOCV_LOG_LEVEL";
+	
+	/** Name of the log files, without extension */
+	private static final String LOG_NAME = "autocv";
+	
+	/** Size at which the active log file rolls over */
+	private static final long MAX_FILE_BYTES = 1L << 20;
+	
+	/** Number of previous log files retained */
+	private static final int RETAINED_FILES = 5;
+	
+	/** Longest to wait for queued events upon shutdown */
+	private static final long SHUTDOWN_MILLIS = 2000;
+	
+	/** Appender shared by every logger */
+	private static final AsyncAppender APPENDER = new AsyncAppender();
+	
+	/** Correlation id of each thread */
+	private static final ThreadLocal<String> CORRELATION_ID = new ThreadLocal<>();
+	
+	/** Empty field list */
+	private static final Object[] NO_FIELDS = {};
+	
+	/** Lowest level logged */
+	private static volatile Level threshold = initialThreshold();
+	
+	// The events queued upon exit are flushed, without
+	// refusing the events still logged by the shutdown
+	// hooks of the program, which call shutdown last
+	static {
+		Runtime.getRuntime().addShutdownHook( new Thread(
+				() -> APPENDER.flush( SHUTDOWN_MILLIS ), "autocv-log-shutdown" ) );
+	}
+	
+	/** Name of the logger, that of its class */
+	private final String name;
+	
+	/**
+	 * Default constructor, initializing the name of
+	 * the logger
+	 * 
+	 * @param name logger name
+	 */
+	private Logger( String name ) {
+		this.name = name;
+	}
+	
+	/**
+	 * Creates the logger of the given class
+	 * 
+	 * @param  type logging class
+	 * @return logger
+	 */
+	public static Logger get( Class<?> type ) {
+		return new Logger( type.getName() );
+	}
+	
+	/**
+	 * Directs every subsequent event to the rotating
+	 * log files within the given directory; events
+	 * logged beforehand are written to the standard
+	 * error stream
+	 * 
+	 * @param  logDir log directory, created if needed
+	 * @throws IOException if the log file cannot be
+	 * 		   opened
+	 */
+	public static void configure( Path logDir ) throws IOException {
+		APPENDER.open( new RollingLogFile( logDir, LOG_NAME,
+				MAX_FILE_BYTES, RETAINED_FILES ) );
+	}
+	
+	/**
+	 * Writes every queued event and closes the log
+	 * file; events logged afterwards are discarded
+	 */
+	public static void shutdown() {
+		APPENDER.close( SHUTDOWN_MILLIS );
+	}
+	
+	/**
+	 * Sets the correlation id of the current thread
+	 * until the returned scope is closed, upon which
+	 * the previous id is restored
+	 * 
+	 * @param  id correlation id
+	 * @return scope of the correlation id
+	 */
+	public static Scope correlate( String id ) {
+		Scope scope = new Scope( CORRELATION_ID.get() );
+		CORRELATION_ID.set( id );
+		return scope;
+	}
+	
+	/**
+	 * Determines if events of the given level are
+	 * logged, so that costly fields need only be
+	 * computed when they are
+	 * 
+	 * @param  level event level
+	 * @return true if logged
+	 */
+	public boolean isEnabled( Level level ) {
+		return level.compareTo( threshold ) >= 0;
+	}
+	
+	public void debug( String message, Object... fields ) {
+		log( Level.DEBUG, message, null, fields );
+	}
+	
+	public void info( String message, Object... fields ) {
+		log( Level.INFO, message, null, fields );
+	}
+	
+	public void warn( String message, Object... fields ) {
+		log( Level.WARN, message, null, fields );
+	}
+	
+	public void warn( String message, Throwable error, Object... fields ) {
+		log( Level.WARN, message, error, fields );
+	}
+	
+	public void error( String message, Throwable error, Object... fields ) {
+		log( Level.ERROR, message, error, fields );
+	}
+	
+	/**
+	 * Logs an event, if its level is enabled
+	 * 
+	 * @param level	  event level
+	 * @param message description of the event
+	 * @param error	  failure described by the event,
+	 * 				  or null
+	 * @param fields  alternating keys and values
+	 */
+	public void log( Level level, String message, Throwable error,
+			Object... fields ) {
+		if( !isEnabled( level ) ) {
+			return;
+		}
+		APPENDER.append( new LogEvent( System.currentTimeMillis(), level, name,
+				Thread.currentThread().getName(), CORRELATION_ID.get(), message,
+				fields == null ? NO_FIELDS : fields, error ) );
+	}
+	
+	/**
+	 * Reads the lowest level logged from the
+	 * environment
+	 * 
+	 * @return lowest level logged
+	 */
+	private static Level initialThreshold() {
+		String env = System.getenv( LEVEL_ENV );
+		if( env != null ) {
+			try {
+				return Level.valueOf( env.trim().toUpperCase( Locale.ROOT ) );
+			} catch( IllegalArgumentException ex ) {
+				System.err.println( "Ignoring invalid " + LEVEL_ENV + ": " + env );
+			}
+		}
+		return Level.INFO;
+	}
+	
+	/**
+	 * Scope of a correlation id, restoring the
+	 * previous id of the thread when closed
+	 * 
+	 * @since 1.1
+	 */
+	public static final class Scope implements AutoCloseable {
+		
+		/** Previous correlation id of the thread, or null */
+		private final String previous;
+		
+		/**
+		 * Default constructor, initializing the
+		 * correlation id to restore
+		 * 
+		 * @param previous previous correlation id
+		 */
+		private Scope( String previous ) {
+			this.previous = previous;
+		}
+		
+		@Override
+		public void close() {
+			if( previous == null ) {
+				CORRELATION_ID.remove();
+			}
+			else {
+				CORRELATION_ID.set( previous );
+			}
+		}
+	}
+}
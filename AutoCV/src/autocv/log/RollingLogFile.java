@@ -0,0 +1,138 @@
+package autocv.log;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log file which rolls over once it reaches a size
+ * limit; the active file is named base.log, and the
+ * previous files base.1.log through base.N.log, the
+ * oldest of which is removed on each roll over
+ * 
+ * Only the appender thread writes to the file
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class RollingLogFile implements AutoCloseable {
+	
+	/** Directory containing the log files */
+	private final Path dir;
+	
+	/** Name of the log files, without extension */
+	private final String baseName;
+	
+	/** Size at which the active file rolls over */
+	private final long maxBytes;
+	
+	/** Number of previous files retained */
+	private final int retained;
+	
+	/** Stream writing the active file */
+	private OutputStream out;
+	
+	/** Size of the active file */
+	private long size;
+	
+	/**
+	 * Default constructor, opening the active file for
+	 * appending, creating the directory if needed
+	 * 
+	 * @param  dir		log directory
+	 * @param  baseName name of the log files, without
+	 * 					extension
+	 * @param  maxBytes size at which the active file
+	 * 					rolls over
+	 * @param  retained number of previous files retained
+	 * @throws IOException upon runtime I/O exception
+	 */
+	RollingLogFile( Path dir, String baseName, long maxBytes, int retained )
+		throws IOException {
+		
+		this.dir = dir;
+		this.baseName = baseName;
+		this.maxBytes = maxBytes;
+		this.retained = retained;
+		Files.createDirectories( dir );
+		open();
+	}
+	
+	/**
+	 * Appends the given text, rolling over first if
+	 * the active file is full
+	 * 
+	 * @param  text formatted events
+	 * @throws IOException upon runtime I/O exception
+	 */
+	void write( String text ) throws IOException {
+		byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+		if( size > 0 && size + bytes.length > maxBytes ) {
+			rollOver();
+		}
+		out.write( bytes );
+		size += bytes.length;
+	}
+	
+	/**
+	 * Flushes the written events to the active file
+	 * 
+	 * @throws IOException upon runtime I/O exception
+	 */
+	void flush() throws IOException {
+		out.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+	
+	/**
+	 * Shifts every previous file up by one, removing
+	 * the oldest, and starts a new active file
+	 * 
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void rollOver() throws IOException {
+		out.close();
+		Files.deleteIfExists( file( retained ) );
+		for( int i = retained - 1; i >= 0; i-- ) {
+			Path from = file( i );
+			if( Files.exists( from ) ) {
+				Files.move( from, file( i + 1 ),
+						StandardCopyOption.REPLACE_EXISTING );
+			}
+		}
+		open();
+	}
+	
+	/**
+	 * Opens the active file for appending
+	 * 
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private void open() throws IOException {
+		Path active = file( 0 );
+		out = new BufferedOutputStream( Files.newOutputStream( active,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND ) );
+		size = Files.size( active );
+	}
+	
+	/**
+	 * Resolves the given log file
+	 * 
+	 * @param  index 0 for the active file, otherwise
+	 * 				 the age of a previous file
+	 * @return log file
+	 */
+	private Path file( int index ) {
+		return dir.resolve( index == 0 ? baseName + ".log" :
+			baseName + "." + index + ".log" );
+	}
+}
@@ -0,0 +1,150 @@
+package autocv.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import autocv.data.Address;
+import autocv.data.Applicant;
+import autocv.data.SchoolYear;
+
+/**
+ * Parser class for the applicant info file format;
+ * each applicant is stored as a fixed sequence of
+ * lines, in the order the data is declared within
+ * the Applicant class, followed by the present and
+ * permanent addresses
+ *
+ * The config file and every applicant profile file
+ * share this format
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class ApplicantInfoParser {
+
+	/** Number of lines occupied by a single applicant */
+	public static final int LINE_COUNT = 14;
+
+	/** Parser class is not instantiable */
+	private ApplicantInfoParser() {}
+
+	/**
+	 * Reads and parses the applicant stored within
+	 * the given file
+	 *
+	 * @param  file applicant info file
+	 * @return Applicant containing the file data
+	 * @throws IOException upon runtime I/O exception,
+	 * 		   or the file is truncated
+	 */
+	public static Applicant read( Path file ) throws IOException {
+		return parse( Files.readAllLines( file, StandardCharsets.UTF_8 ) );
+	}
+
+	/**
+	 * Reads and parses the applicant from the given
+	 * stream; the stream is not closed
+	 *
+	 * @param  in stream of an applicant info file
+	 * @return Applicant containing the stream data
+	 * @throws IOException upon runtime I/O exception,
+	 * 		   or the file is truncated
+	 */
+	public static Applicant read( InputStream in ) throws IOException {
+		BufferedReader reader = new BufferedReader( new InputStreamReader(
+				in, StandardCharsets.UTF_8 ) );
+		List<String> lines = new ArrayList<>( LINE_COUNT );
+
+		String line;
+		while( lines.size() < LINE_COUNT &&
+				( line = reader.readLine() ) != null ) {
+			lines.add( line );
+		}
+		return parse( lines );
+	}
+
+	/**
+	 * Parses the applicant from the given lines
+	 *
+	 * @param  lines lines of an applicant info file
+	 * @return Applicant containing the line data
+	 * @throws IOException if fewer lines are provided
+	 * 		   than an applicant occupies
+	 */
+	public static Applicant parse( List<String> lines ) throws IOException {
+
+		if( lines.size() < LINE_COUNT ) {
+			throw new IOException( "Truncated applicant info: expected "
+					+ LINE_COUNT + " lines, found " + lines.size() );
+		}
+
+		// Reads in the name, middle initial,
+		// email, GitHub link, LinkedIn link,
+		// phone number, school year, and
+		// is rising data
+		String name = lines.get( 0 );
+		String mi = lines.get( 1 );
+		String email = lines.get( 2 );
+		String git = lines.get( 3 );
+		String lin = lines.get( 4 );
+		String phone = lines.get( 5 );
+		SchoolYear year = SchoolYear.valueOf( lines.get( 6 ) );
+		boolean rise = Boolean.parseBoolean( lines.get( 7 ) );
+
+		// Present address parsing
+		Address add1 = new Address( lines.get( 8 ),
+				lines.get( 9 ), lines.get( 10 ) );
+
+		// Permanent address parsing
+		Address add2 = new Address( lines.get( 11 ),
+				lines.get( 12 ), lines.get( 13 ) );
+
+		return new Applicant( name, mi, email, git, lin,
+			phone, year, rise, add1, add2 );
+	}
+
+	/**
+	 * Formats the given applicant into the lines
+	 * of an applicant info file
+	 *
+	 * @param  app applicant to format
+	 * @return lines of the applicant info file
+	 */
+	public static List<String> format( Applicant app ) {
+		Address add1 = app.getPresentAddress();
+		Address add2 = app.getPermanentAddress();
+
+		return Arrays.asList( app.getName(),
+				Objects.toString( app.getMiddleInitial(), "" ), app.getEmail(),
+				app.getGitHubLink(), app.getLinkedInLink(),
+				app.getPhone(), String.valueOf( app.getSchoolYear() ),
+				String.valueOf( app.isRising() ),
+				add1.getStreetAddress(), add1.getCityStateZip(),
+				add1.getPOBoxRoom(), add2.getStreetAddress(),
+				add2.getCityStateZip(), add2.getPOBoxRoom() );
+	}
+
+	/**
+	 * Encodes the given applicant as the contents of
+	 * an applicant info file
+	 *
+	 * @param  app applicant to encode
+	 * @return UTF-8 file contents
+	 */
+	public static byte[] encode( Applicant app ) {
+		StringBuilder sb = new StringBuilder();
+		for( String line : format( app ) ) {
+			sb.append( line ).append( System.lineSeparator() );
+		}
+		return sb.toString().getBytes( StandardCharsets.UTF_8 );
+	}
+}
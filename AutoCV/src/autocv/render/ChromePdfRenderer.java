@@ -0,0 +1,132 @@
+package autocv.render;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders cover letters to PDF with the print to PDF
+ * functionality of Headless Chrome; each render runs
+ * its own Chrome process, so that several letters may
+ * render at once
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class ChromePdfRenderer implements PdfRenderer {
+	
+	/**
+	 * Virtual time, in milliseconds, Chrome waits for
+	 * the document to finish loading before printing
+	 */
+	private static final int VIRTUAL_TIME_BUDGET = 50;
+	
+	/**
+	 * Seconds a single launch of Chrome may take to
+	 * print, covering a whole batch group, before it is
+	 * considered hung and destroyed
+	 */
+	private static final long RENDER_TIMEOUT_SECONDS = 60;
+	
+	/** Chrome or Chromium executable */
+	private final Path executable;
+	
+	/**
+	 * Default constructor, initializing the Chrome
+	 * executable
+	 * 
+	 * @param executable Chrome or Chromium executable,
+	 * 		  as located by the RendererLocator
+	 */
+	public ChromePdfRenderer( Path executable ) {
+		this.executable = executable;
+	}
+	
+	/**
+	 * Runs the Chrome executable with the --headless
+	 * flag, specifying to run the print to PDF
+	 * functionality with the given PDF file and the
+	 * reference HTML file, and waits for the process
+	 * to terminate
+	 * 
+	 * The executable is launched directly rather than
+	 * through a shell, so that each letter spawns a
+	 * single process, and no argument is reinterpreted
+	 * by the shell
+	 * 
+	 * A launch exceeding RENDER_TIMEOUT_SECONDS, or
+	 * interrupted while waiting, is destroyed along with
+	 * its child processes, so that a hung Chrome never
+	 * holds a generation thread; the partial PDF of a
+	 * failed render is deleted
+	 */
+	@Override
+	public void render( Path htmlFile, Path pdfFile )
+		throws IOException, InterruptedException {
+		
+		ProcessBuilder gen = new ProcessBuilder( executable.toString(),
+				"--headless", "--virtual-time-budget=" + VIRTUAL_TIME_BUDGET,
+				"--disable-gpu", "--run-all-compositor-stages-before-draw",
+				"--print-to-pdf=" + pdfFile.toAbsolutePath(),
+				htmlFile.toAbsolutePath().toUri().toString() );
+		
+		// The output of the process is discarded so
+		// that it never blocks on a full pipe, and its
+		// input is never opened, so that no pipe
+		// outlives the process
+		gen.redirectErrorStream( true );
+		gen.redirectOutput( ProcessBuilder.Redirect.DISCARD );
+		gen.redirectInput( ProcessBuilder.Redirect.INHERIT );
+		
+		Files.deleteIfExists( pdfFile );
+		Process process = gen.start();
+		boolean rendered = false;
+		try {
+			if( !process.waitFor( RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS ) ) {
+				throw new IOException( "Chrome timed out after " +
+						RENDER_TIMEOUT_SECONDS + " s printing " + pdfFile );
+			}
+			int exit = process.exitValue();
+			if( exit != 0 || !Files.exists( pdfFile ) ) {
+				throw new IOException( "Chrome exited with code " + exit +
+						" without writing " + pdfFile );
+			}
+			rendered = true;
+		} finally {
+			if( !rendered ) {
+				destroy( process );
+				Files.deleteIfExists( pdfFile );
+			}
+		}
+	}
+	
+	/**
+	 * Forcibly destroys the given Chrome process along
+	 * with every process it started
+	 * 
+	 * @param process Chrome process
+	 */
+	private static void destroy( Process process ) {
+		process.descendants().forEach( ProcessHandle::destroyForcibly );
+		process.destroyForcibly();
+	}
+	
+	/**
+	 * Each render launches Chrome, so that the letters
+	 * of a batch are printed by a single launch
+	 */
+	@Override
+	public boolean isProcessBased() {
+		return true;
+	}
+	
+	/**
+	 * Retrieves the Chrome executable
+	 * 
+	 * @return Chrome or Chromium executable
+	 */
+	public Path getExecutable() {
+		return executable;
+	}
+}
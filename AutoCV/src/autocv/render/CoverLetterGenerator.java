@@ -0,0 +1,471 @@
+package autocv.render;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.multipdf.Splitter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import autocv.data.Address;
+import autocv.data.Applicant;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.html.BatchDocument;
+import autocv.html.CoverLetterFieldResolver;
+import autocv.html.CoverLetterHTMLBuilder;
+import autocv.html.CoverLetterTextTemplate;
+import autocv.io.OutputSink;
+import autocv.log.Level;
+import autocv.log.Logger;
+import autocv.render.GenerationJob.Stage;
+
+/**
+ * Generates a single cover letter: builds the HTML of
+ * the letter, writes it beside the cover letter style
+ * sheet, and renders it to PDF, recording the duration
+ * of each stage within the job
+ * 
+ * Given a cache of form templates, a letter is instead
+ * filled into the master PDF shared by every letter with
+ * the same applicant, job, and date, falling back to
+ * rendering the whole letter whenever no master can be
+ * made, or the company of the letter does not fit it
+ * 
+ * A batch of letters given a process-based renderer is
+ * rendered as a single document of one page per letter,
+ * split afterwards into the PDF of each letter
+ * 
+ * A letter in plain text or Markdown is produced from
+ * the text form of the base cover letter alone, and is
+ * never rendered
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class CoverLetterGenerator {
+	
+	/** Logger of the completion of each stage */
+	private static final Logger LOG = Logger.get( CoverLetterGenerator.class );
+	
+	/** Renderer converting the HTML to PDF */
+	private final PdfRenderer renderer;
+	
+	/** Masters from which letters are filled, or null */
+	private final FormTemplateCache forms;
+	
+	/** Whether letters are filled from the masters */
+	private volatile boolean formsEnabled;
+	
+	/**
+	 * Default constructor, initializing the PDF
+	 * renderer; every letter is rendered in whole
+	 * 
+	 * @param renderer renderer converting the HTML
+	 * 		  to PDF
+	 */
+	public CoverLetterGenerator( PdfRenderer renderer ) {
+		this( renderer, null );
+	}
+	
+	/**
+	 * Constructor initializing the PDF renderer and
+	 * the cache of form templates from which letters
+	 * are filled
+	 * 
+	 * @param renderer renderer converting the HTML
+	 * 		  to PDF
+	 * @param forms	   masters from which letters are
+	 * 		  filled, or null to render every letter
+	 * 		  in whole
+	 */
+	public CoverLetterGenerator( PdfRenderer renderer,
+			FormTemplateCache forms ) {
+		this.renderer = renderer;
+		this.forms = forms;
+		this.formsEnabled = forms != null;
+	}
+	
+	/**
+	 * Generates the letter of the given job; the HTML
+	 * file of the job is removed afterwards, as is the
+	 * PDF of a letter which failed
+	 * 
+	 * @param  job generation job
+	 * @throws Exception upon a failure of any stage
+	 */
+	public void generate( GenerationJob job ) throws Exception {
+		if( job.getFormat() != OutputFormat.PDF ) {
+			writeText( job );
+			return;
+		}
+		if( formsEnabled && fill( job ) ) {
+			return;
+		}
+		
+		boolean complete = false;
+		try {
+			long start = System.nanoTime();
+			CoverLetterHTMLBuilder htmlBuilder = new CoverLetterHTMLBuilder(
+					job.getApplicant(), job.getCompany(),
+					job.getJobCredentials(), job.getJobTitle() );
+			htmlBuilder.build();
+			long built = System.nanoTime();
+			job.setTiming( Stage.BUILD, built - start );
+			stageComplete( Stage.BUILD, built - start );
+			
+			Files.write( job.getHtmlFile(), htmlBuilder );
+			long written = System.nanoTime();
+			job.setTiming( Stage.WRITE, written - built );
+			stageComplete( Stage.WRITE, written - built );
+			
+			renderer.render( job.getHtmlFile(), job.getPdfFile() );
+			long rendered = System.nanoTime();
+			job.setTiming( Stage.RENDER, rendered - written );
+			stageComplete( Stage.RENDER, rendered - written );
+			
+			OutputSink sink = job.getSink();
+			if( sink != null ) {
+				job.setOutputDigest( OutputSink.digest(
+						Files.readAllBytes( job.getPdfFile() ) ) );
+				job.setOutput( sink.write( job.getOutputName(), job.getPdfFile() ) );
+			}
+			complete = true;
+		} finally {
+			Files.deleteIfExists( job.getHtmlFile() );
+			if( !complete ) {
+				Files.deleteIfExists( job.getPdfFile() );
+			}
+		}
+	}
+	
+	/**
+	 * Produces the plain text or Markdown letter of the
+	 * given job; the text is timed as the build, and
+	 * the letter is neither written as HTML nor rendered
+	 * 
+	 * @param  job generation job
+	 * @throws IOException upon a failure writing the
+	 * 		   letter
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting for the sink
+	 */
+	private static void writeText( GenerationJob job )
+			throws IOException, InterruptedException {
+		
+		long start = System.nanoTime();
+		CoverLetterTextTemplate template = job.getFormat() ==
+				OutputFormat.MARKDOWN ? CoverLetterTextTemplate.markdown() :
+				CoverLetterTextTemplate.plainText();
+		String text = template.render( new CoverLetterFieldResolver(
+				job.getApplicant(), job.getCompany(),
+				job.getJobCredentials(), job.getJobTitle() ) );
+		long built = System.nanoTime();
+		
+		output( job, text.getBytes( StandardCharsets.UTF_8 ) );
+		long written = System.nanoTime();
+		job.setTiming( Stage.BUILD, built - start );
+		job.setTiming( Stage.WRITE, written - built );
+		job.setTiming( Stage.RENDER, 0 );
+		stageComplete( Stage.BUILD, built - start );
+		stageComplete( Stage.WRITE, written - built );
+	}
+	
+	/**
+	 * Writes the generated letter of the given job to
+	 * its sink, or to its PDF file without a sink
+	 * 
+	 * @param  job job of the letter
+	 * @param  pdf contents of the letter
+	 * @throws IOException upon a failure writing the
+	 * 		   letter
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting for the sink
+	 */
+	private static void output( GenerationJob job, byte[] pdf )
+			throws IOException, InterruptedException {
+		
+		OutputSink sink = job.getSink();
+		if( sink == null ) {
+			Files.write( job.getPdfFile(), pdf );
+		} else {
+			job.setOutputDigest( OutputSink.digest( pdf ) );
+			job.setOutput( sink.write( job.getOutputName(), pdf ) );
+		}
+	}
+	
+	/**
+	 * Generates the letters of the given jobs together;
+	 * text letters and letters filled from their masters
+	 * are generated first, after which the remaining
+	 * letters are
+	 * combined into a single document, rendered by a
+	 * single call to the renderer, and split into the
+	 * PDF of each letter
+	 * 
+	 * The remaining letters are returned ungenerated if
+	 * the renderer is not process-based, the document
+	 * could not be rendered, or the document does not
+	 * render exactly one page per letter, as when a
+	 * letter runs onto a second page; a letter already
+	 * written to its sink before a failure is never
+	 * returned, so that it is not written twice
+	 * 
+	 * A letter failing before the batch render, as by an
+	 * unexpected exception filling its master, is returned
+	 * so that it fails on its own without failing the
+	 * others; if interrupted, the interrupt is restored
+	 * and every letter not yet written is returned
+	 * 
+	 * @param  jobs generation jobs
+	 * @return jobs not generated, each of which must be
+	 * 		   generated on its own
+	 */
+	public List<GenerationJob> generateBatch( List<GenerationJob> jobs ) {
+		List<GenerationJob> pending = new ArrayList<>();
+		List<GenerationJob> render = new ArrayList<>( jobs.size() );
+		for( int i = 0; i < jobs.size(); i++ ) {
+			GenerationJob job = jobs.get( i );
+			try {
+				if( job.getFormat() != OutputFormat.PDF ) {
+					writeText( job );
+				} else if( !formsEnabled || !fill( job ) ) {
+					render.add( job );
+				}
+			} catch( InterruptedException ex ) {
+				Thread.currentThread().interrupt();
+				pending.addAll( render );
+				pending.addAll( jobs.subList( i, jobs.size() ) );
+				return pending;
+			} catch( Exception ex ) {
+				pending.add( job );
+			}
+		}
+		if( render.size() < 2 || !renderer.isProcessBased() ) {
+			pending.addAll( render );
+			return pending;
+		}
+		
+		List<GenerationJob> delivered = new ArrayList<>( render.size() );
+		try {
+			if( renderTogether( render, delivered ) ) {
+				return pending;
+			}
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+		} catch( Exception ex ) {
+			LOG.warn( "Batch render failed", ex, "letters", render.size(),
+					"delivered", delivered.size() );
+		}
+		render.removeAll( delivered );
+		pending.addAll( render );
+		return pending;
+	}
+	
+	/**
+	 * Renders the letters of the given jobs as a single
+	 * document, splitting the document into the PDF of
+	 * each letter; the build of each letter is timed on
+	 * its own, while the write and render of the batch
+	 * are shared evenly by its letters
+	 * 
+	 * @param  jobs		 generation jobs
+	 * @param  delivered receives each job once its letter
+	 * 					 has been written to its sink
+	 * @return true if the letters were generated, or
+	 * 		   false if the document did not render one
+	 * 		   page per letter
+	 * @throws Exception upon a failure of any stage
+	 */
+	private boolean renderTogether( List<GenerationJob> jobs,
+			List<GenerationJob> delivered ) throws Exception {
+		
+		List<String> letters = new ArrayList<>( jobs.size() );
+		for( GenerationJob job : jobs ) {
+			long start = System.nanoTime();
+			CoverLetterHTMLBuilder htmlBuilder = new CoverLetterHTMLBuilder(
+					job.getApplicant(), job.getCompany(),
+					job.getJobCredentials(), job.getJobTitle() );
+			htmlBuilder.build();
+			letters.add( String.join( "\n", htmlBuilder ) );
+			job.setTiming( Stage.BUILD, System.nanoTime() - start );
+		}
+		
+		GenerationJob first = jobs.get( 0 );
+		Path htmlFile = first.getHtmlFile().resolveSibling(
+				"auto_gen_batch_" + first.getId() + ".html" );
+		Path pdfFile = htmlFile.resolveSibling(
+				"auto_gen_batch_" + first.getId() + ".pdf" );
+		try {
+			long start = System.nanoTime();
+			Files.writeString( htmlFile, BatchDocument.combine( letters ) );
+			long written = System.nanoTime();
+			
+			renderer.render( htmlFile, pdfFile );
+			if( !split( pdfFile, jobs, delivered ) ) {
+				return false;
+			}
+			long rendered = System.nanoTime();
+			
+			for( GenerationJob job : jobs ) {
+				job.setTiming( Stage.WRITE, ( written - start ) / jobs.size() );
+				job.setTiming( Stage.RENDER, ( rendered - written ) / jobs.size() );
+			}
+			LOG.debug( "Batch rendered", "letters", jobs.size(),
+					"us", ( rendered - start ) / 1000 );
+			return true;
+		} finally {
+			Files.deleteIfExists( htmlFile );
+			Files.deleteIfExists( pdfFile );
+		}
+	}
+	
+	/**
+	 * Splits the rendered document of a batch into the
+	 * PDF of each letter, one page per letter
+	 * 
+	 * @param  pdfFile	 rendered document
+	 * @param  jobs		 generation jobs, in document order
+	 * @param  delivered receives each job once its letter
+	 * 					 has been written to its sink
+	 * @return true if split, or false if the document
+	 * 		   does not hold one page per letter
+	 * @throws IOException upon a failure reading the
+	 * 		   document or writing a letter
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting for the sink of a letter
+	 */
+	private static boolean split( Path pdfFile, List<GenerationJob> jobs,
+			List<GenerationJob> delivered ) throws IOException, InterruptedException {
+		
+		try( PDDocument doc = PDDocument.load( pdfFile.toFile() ) ) {
+			if( doc.getNumberOfPages() != jobs.size() ) {
+				LOG.info( "Batch not split", "letters", jobs.size(),
+						"pages", doc.getNumberOfPages() );
+				return false;
+			}
+			
+			List<PDDocument> pages = new Splitter().split( doc );
+			try {
+				for( int i = 0; i < pages.size(); i++ ) {
+					ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+					pages.get( i ).save( pdf );
+					output( jobs.get( i ), pdf.toByteArray() );
+					delivered.add( jobs.get( i ) );
+				}
+			} finally {
+				for( PDDocument page : pages ) {
+					page.close();
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Fills the letter of the given job into its master;
+	 * the letter is neither built nor written as HTML,
+	 * the lookup of the master being timed as the build
+	 * 
+	 * @param  job generation job
+	 * @return true if the letter was filled, or false if
+	 * 		   it must be rendered in whole
+	 * @throws IOException upon a failure writing the PDF
+	 * @throws InterruptedException if interrupted while
+	 * 		   rendering the master
+	 */
+	private boolean fill( GenerationJob job )
+			throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		CoverLetterFieldResolver resolver = new CoverLetterFieldResolver(
+				job.getApplicant(), job.getCompany(),
+				job.getJobCredentials(), job.getJobTitle() );
+		FormTemplate form;
+		try {
+			form = forms.get( resolver );
+		} catch( IOException ex ) {
+			LOG.warn( "Form template unavailable", ex );
+			return false;
+		}
+		if( form == null ) {
+			return false;
+		}
+		long built = System.nanoTime();
+		
+		byte[] pdf = form.fill( resolver::resolve );
+		if( pdf == null ) {
+			LOG.debug( "Form template does not fit", "form", form.getKey() );
+			return false;
+		}
+		output( job, pdf );
+		long filled = System.nanoTime();
+		job.setTiming( Stage.BUILD, built - start );
+		job.setTiming( Stage.WRITE, 0 );
+		job.setTiming( Stage.RENDER, filled - built );
+		stageComplete( Stage.BUILD, built - start );
+		stageComplete( Stage.RENDER, filled - built );
+		return true;
+	}
+	
+	/**
+	 * Renders the master of the letters of the given
+	 * applicant, job credentials, and job title, unless
+	 * already rendered; the company, being filled into
+	 * the master, is left blank. Has no effect while
+	 * letters are not filled from their masters
+	 * 
+	 * @param  applicant applicant of the letters
+	 * @param  jobCred	 job credentials of the letters
+	 * @param  jobTitle	 job title of the letters
+	 * @throws IOException if the master could not be
+	 * 		   rendered
+	 * @throws InterruptedException if interrupted while
+	 * 		   rendering the master
+	 */
+	public void prewarm( Applicant applicant, JobCredentials jobCred,
+			String jobTitle ) throws IOException, InterruptedException {
+		if( formsEnabled ) {
+			forms.get( new CoverLetterFieldResolver( applicant,
+					new Company( "", new Address( "", "" ) ), jobCred, jobTitle ) );
+		}
+	}
+	
+	/**
+	 * Enables or disables filling letters from their
+	 * masters; has no effect without a cache of form
+	 * templates
+	 * 
+	 * @param enabled whether letters are filled from
+	 * 		  the masters
+	 */
+	public void setFormsEnabled( boolean enabled ) {
+		formsEnabled = enabled && forms != null;
+	}
+	
+	/**
+	 * Logs the completion of a stage; the event carries
+	 * the correlation id of the job being generated
+	 * 
+	 * @param stage completed stage
+	 * @param nanos duration of the stage
+	 */
+	private static void stageComplete( Stage stage, long nanos ) {
+		if( LOG.isEnabled( Level.DEBUG ) ) {
+			LOG.debug( "Stage complete", "stage", stage, "us", nanos / 1000 );
+		}
+	}
+	
+	/**
+	 * Retrieves the renderer converting the HTML
+	 * to PDF
+	 * 
+	 * @return PDF renderer
+	 */
+	public PdfRenderer getRenderer() {
+		return renderer;
+	}
+}
@@ -0,0 +1,268 @@
+package autocv.render;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceDictionary;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+
+import autocv.parser.CoverLetterField;
+
+/**
+ * Master PDF of the cover letter, rendered once by the
+ * PDF renderer with every field varying between letters
+ * left blank, and holding a form field in place of each;
+ * a letter is generated by filling and flattening the
+ * form fields of the master in-process, rather than by
+ * rendering the whole letter again
+ *
+ * The default value of each form field holds the text of
+ * the field, with the parse name of every cover letter
+ * field in place of its value; a field spanning several
+ * lines is justified, as are the paragraphs of the letter,
+ * and holds the leading and line count of the paragraph
+ * as rendered within the document information
+ *
+ * The text of each form field is shown in Helvetica, which
+ * is metrically identical to the NimbusSanL typeface in
+ * which the master is rendered, so that the filled text
+ * breaks and aligns exactly as the renderer would break
+ * and align it
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class FormTemplate {
+	
+	/** Document information key of the master key */
+	static final String KEY_INFO = "AutoCV-Key";
+	
+	/** Document information key prefix of the leading of a field */
+	static final String LEADING_INFO = "AutoCV-Leading-";
+	
+	/** Document information key prefix of the line count of a field */
+	static final String LINES_INFO = "AutoCV-Lines-";
+	
+	/** Key of the master, derived from its rendered HTML */
+	private final String key;
+	
+	/** Contents of the master PDF */
+	private final byte[] master;
+	
+	/**
+	 * Default constructor, initializing the key and the
+	 * contents of the master
+	 *
+	 * @param key	 key of the master
+	 * @param master contents of the master PDF
+	 */
+	FormTemplate( String key, byte[] master ) {
+		this.key = key;
+		this.master = master;
+	}
+	
+	/**
+	 * Retrieves the key of the master
+	 *
+	 * @return master key
+	 */
+	public String getKey() {
+		return key;
+	}
+	
+	/**
+	 * Fills every form field of the master with the given
+	 * values, flattens the fields into the page, and returns
+	 * the contents of the letter, so that the letter may be
+	 * written wherever the job sends its output
+	 *
+	 * Nothing is produced if the text of any field would not
+	 * occupy exactly as many lines as the field does within
+	 * the master, or contains a character Helvetica cannot
+	 * show; such a letter must be rendered in whole
+	 *
+	 * @param  values value of each cover letter field
+	 * @return contents of the letter PDF, or null if its
+	 * 		   values do not fit the master
+	 * @throws IOException if the master could not be read
+	 * 		   or the letter written
+	 */
+	public byte[] fill( Function<CoverLetterField, String> values )
+			throws IOException {
+		
+		try( PDDocument doc = PDDocument.load( master ) ) {
+			PDAcroForm form = doc.getDocumentCatalog().getAcroForm();
+			List<PDField> fields = new ArrayList<>( form.getFields() );
+			for( PDField field : fields ) {
+				if( !fill( doc, form, ( PDTextField ) field, values ) ) {
+					return null;
+				}
+			}
+			
+			form.flatten( fields, false );
+			doc.getDocumentCatalog().setAcroForm( null );
+			ByteArrayOutputStream pdf = new ByteArrayOutputStream( master.length );
+			doc.save( pdf );
+			return pdf.toByteArray();
+		}
+	}
+	
+	/**
+	 * Fills a single form field, generating its appearance
+	 * with the text of the field broken into lines
+	 *
+	 * @param  doc	  master document
+	 * @param  form	  form of the master
+	 * @param  field  form field to fill
+	 * @param  values value of each cover letter field
+	 * @return true if the text of the field fits the field
+	 * @throws IOException upon an error writing the
+	 * 		   appearance of the field
+	 */
+	private static boolean fill( PDDocument doc, PDAcroForm form,
+			PDTextField field, Function<CoverLetterField, String> values )
+			throws IOException {
+		
+		String text = field.getDefaultValue();
+		for( CoverLetterField clf : CoverLetterField.values() ) {
+			if( text.contains( clf.toString() ) ) {
+				text = text.replace( clf.toString(), values.apply( clf ) );
+			}
+		}
+		text = text.replaceAll( "\\s+", " " ).trim();
+		
+		// The default appearance is of the form "/Helv 11 Tf 0 g"
+		String[] appearance = field.getDefaultAppearance().trim().split( "\\s+" );
+		COSName fontName = COSName.getPDFName( appearance[ 0 ].substring( 1 ) );
+		PDFont font = form.getDefaultResources().getFont( fontName );
+		float size = Float.parseFloat( appearance[ 1 ] );
+		
+		PDAnnotationWidget widget = field.getWidgets().get( 0 );
+		PDRectangle rect = widget.getRectangle();
+		String name = field.getPartialName();
+		int masterLines = 1;
+		float leading = size;
+		if( field.isMultiline() ) {
+			masterLines = Integer.parseInt( doc.getDocumentInformation().
+					getCustomMetadataValue( LINES_INFO + name ) );
+			leading = Float.parseFloat( doc.getDocumentInformation().
+					getCustomMetadataValue( LEADING_INFO + name ) );
+		}
+		
+		List<String> lines;
+		try {
+			lines = breakLines( text, font, size, rect.getWidth() );
+		} catch( IllegalArgumentException ex ) {
+			// A character without a glyph in the encoding
+			// of the font
+			return false;
+		}
+		if( lines == null || lines.size() != masterLines ) {
+			return false;
+		}
+		
+		PDAppearanceStream stream = new PDAppearanceStream( doc );
+		stream.setBBox( new PDRectangle( rect.getWidth(), rect.getHeight() ) );
+		PDResources resources = new PDResources();
+		resources.put( fontName, font );
+		stream.setResources( resources );
+		
+		try( PDPageContentStream content = new PDPageContentStream( doc, stream ) ) {
+			content.beginText();
+			content.setFont( font, size );
+			content.newLineAtOffset( 0, rect.getHeight() - size );
+			for( int i = 0; i < lines.size(); i++ ) {
+				String line = lines.get( i );
+				
+				// Every line of a paragraph but the last is
+				// justified by widening its word spaces
+				float spacing = 0;
+				int spaces = line.length() - line.replace( " ", "" ).length();
+				if( field.isMultiline() && i < lines.size() - 1 && spaces > 0 ) {
+					spacing = ( rect.getWidth() - width( line, font, size ) ) / spaces;
+				}
+				content.setWordSpacing( spacing );
+				content.showText( line );
+				content.newLineAtOffset( 0, -leading );
+			}
+			content.endText();
+		}
+		
+		PDAppearanceDictionary appearances = new PDAppearanceDictionary();
+		appearances.setNormalAppearance( stream );
+		widget.setAppearance( appearances );
+		field.getCOSObject().setString( COSName.V, text );
+		return true;
+	}
+	
+	/**
+	 * Breaks the given text into lines no wider than the
+	 * given width, placing as many words upon each line as
+	 * fit, in the manner of the renderer
+	 *
+	 * @param  text	 text of a field, with single spaces
+	 * @param  font	 font of the field
+	 * @param  size	 font size of the field
+	 * @param  width width of the field
+	 * @return lines of the text, or null if a single word
+	 * 		   is wider than the field
+	 * @throws IOException upon an error reading the font
+	 * @throws IllegalArgumentException if the text holds a
+	 * 		   character the font cannot show
+	 */
+	static List<String> breakLines( String text, PDFont font, float size,
+			float width ) throws IOException {
+		
+		List<String> lines = new ArrayList<>();
+		StringBuilder line = new StringBuilder();
+		for( String word : text.split( " " ) ) {
+			int mark = line.length();
+			if( mark > 0 ) {
+				line.append( ' ' );
+			}
+			line.append( word );
+			if( mark > 0 && width( line.toString(), font, size ) > width ) {
+				lines.add( line.substring( 0, mark ) );
+				line.setLength( 0 );
+				line.append( word );
+			}
+		}
+		lines.add( line.toString() );
+		
+		// A single word wider than the field would
+		// overflow it
+		for( String l : lines ) {
+			if( l.indexOf( ' ' ) < 0 && width( l, font, size ) > width ) {
+				return null;
+			}
+		}
+		return lines;
+	}
+	
+	/**
+	 * Measures the width of the given text
+	 *
+	 * @param  text text to measure
+	 * @param  font font of the text
+	 * @param  size font size of the text
+	 * @return width in points
+	 * @throws IOException upon an error reading the font
+	 */
+	private static float width( String text, PDFont font, float size )
+			throws IOException {
+		return font.getStringWidth( text ) / 1000 * size;
+	}
+}
@@ -0,0 +1,598 @@
+package autocv.render;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import autocv.html.CoverLetterFieldResolver;
+import autocv.html.CoverLetterTemplate;
+import autocv.log.Logger;
+import autocv.parser.CoverLetterField;
+
+/**
+ * Cache of the master PDFs from which letters are filled;
+ * every letter sharing the values of the fields baked into
+ * the master, which are all but the fields of the company,
+ * shares a single master, so that a run of letters to
+ * different companies renders the letter only once
+ *
+ * A master is rendered in two passes: the first renders
+ * each paragraph holding a company field with a marker in
+ * place of the field, locating the paragraph by its text
+ * within the rendered PDF, and the second renders the same
+ * layout with those paragraphs hidden, upon which a form
+ * field is placed over each paragraph
+ *
+ * Masters are kept within the given directory, named by a
+ * digest of the HTML rendered for the master, so that a
+ * master is rendered again only once the template, the
+ * style sheet, or a baked field changes; the most recently
+ * used masters are also held in memory
+ *
+ * No master is made for a letter whose company paragraphs
+ * are not rendered in NimbusSanL, as the filled text could
+ * not then match the renderer, or are not rendered upon a
+ * single page
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class FormTemplateCache {
+	
+	/** Fields filled into the master for each letter */
+	public static final Set<CoverLetterField> FILLED_FIELDS = EnumSet.of(
+			CoverLetterField.INITIAL_COMPANY_NAME,
+			CoverLetterField.LAST_COMPANY_NAME,
+			CoverLetterField.COMPANY_ADDRESS_1,
+			CoverLetterField.COMPANY_ADDRESS_2 );
+	
+	/** Number of masters held in memory */
+	private static final int MEMORY_MASTERS = 8;
+	
+	/** Number of masters kept within the directory */
+	private static final int DISK_MASTERS = 16;
+	
+	/** Attribute marking each paragraph holding a form field */
+	private static final String FIELD_ATTRIBUTE = "data-autocv-field";
+	
+	/** Style hiding each paragraph holding a form field */
+	private static final String HIDE_STYLE = "<style>[" + FIELD_ATTRIBUTE +
+			"] { visibility: hidden; }</style>";
+	
+	/** Typeface of the renderer matched by the form fields */
+	private static final String MATCHED_TYPEFACE = "NimbusSan";
+	
+	/** Resource name of the regular form field font */
+	private static final COSName REGULAR_FONT = COSName.getPDFName( "Helv" );
+	
+	/** Resource name of the bold form field font */
+	private static final COSName BOLD_FONT = COSName.getPDFName( "HeBo" );
+	
+	/** Matches the class of each element of a paragraph */
+	private static final Pattern CLASS = Pattern.compile( "class=\"([^\"]*)\"" );
+	
+	/** Logger of the rendered masters */
+	private static final Logger LOG = Logger.get( FormTemplateCache.class );
+	
+	/** Renderer of each master */
+	private final PdfRenderer renderer;
+	
+	/** Directory holding the masters */
+	private final Path dir;
+	
+	/**
+	 * Most recently used masters, by the values of the
+	 * fields baked into each; a master which could not
+	 * be made is held as null
+	 */
+	private final Map<List<String>, CompletableFuture<FormTemplate>> masters;
+	
+	/**
+	 * Default constructor, initializing the renderer and
+	 * the directory holding the masters
+	 *
+	 * @param renderer renderer of each master
+	 * @param dir	   directory holding the masters
+	 */
+	public FormTemplateCache( PdfRenderer renderer, Path dir ) {
+		this.renderer = renderer;
+		this.dir = dir;
+		this.masters = new LinkedHashMap<List<String>,
+				CompletableFuture<FormTemplate>>( 16, 0.75f, true ) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<List<String>,
+					CompletableFuture<FormTemplate>> eldest ) {
+				return size() > MEMORY_MASTERS;
+			}
+		};
+	}
+	
+	/**
+	 * Retrieves the master of the letter with the given
+	 * field values, rendering the master if neither held
+	 * in memory nor within the directory; a master being
+	 * rendered by another thread is awaited
+	 *
+	 * @param  resolver field resolver of the letter
+	 * @return master of the letter, or null if no master
+	 * 		   can be made of the letter
+	 * @throws IOException if the master could not be
+	 * 		   rendered or read
+	 * @throws InterruptedException if interrupted while
+	 * 		   rendering the master
+	 */
+	public FormTemplate get( CoverLetterFieldResolver resolver )
+			throws IOException, InterruptedException {
+		
+		CoverLetterTemplate template = CoverLetterTemplate.base();
+		List<String> baked = new ArrayList<>( template.slotCount() );
+		for( int i = 0; i < template.slotCount(); i++ ) {
+			CoverLetterField field = template.slot( i );
+			baked.add( FILLED_FIELDS.contains( field ) ? null :
+				resolver.resolve( field ) );
+		}
+		
+		CompletableFuture<FormTemplate> master;
+		boolean owner = false;
+		synchronized( masters ) {
+			master = masters.get( baked );
+			if( master == null ) {
+				master = new CompletableFuture<>();
+				masters.put( baked, master );
+				owner = true;
+			}
+		}
+		
+		if( owner ) {
+			try {
+				master.complete( load( template, resolver ) );
+			} catch( IOException | InterruptedException | RuntimeException ex ) {
+				// A failed render is retried by the next letter
+				synchronized( masters ) {
+					masters.remove( baked, master );
+				}
+				master.completeExceptionally( ex );
+				throw ex;
+			}
+		}
+		
+		try {
+			return master.join();
+		} catch( CompletionException ex ) {
+			throw new IOException( "Master could not be rendered", ex.getCause() );
+		}
+	}
+	
+	/**
+	 * Reads the master of the letter from the directory,
+	 * or renders the master if absent
+	 *
+	 * @param  template compiled cover letter template
+	 * @param  resolver field resolver of the letter
+	 * @return master of the letter, or null if no master
+	 * 		   can be made of the letter
+	 * @throws IOException if the master could not be
+	 * 		   rendered or read
+	 * @throws InterruptedException if interrupted while
+	 * 		   rendering the master
+	 */
+	private FormTemplate load( CoverLetterTemplate template,
+			CoverLetterFieldResolver resolver )
+			throws IOException, InterruptedException {
+		
+		String html = template.render( field -> FILLED_FIELDS.contains( field ) ?
+				marker( field ) : resolver.resolve( field ) );
+		List<Paragraph> paragraphs = paragraphs( html );
+		if( paragraphs == null ) {
+			LOG.info( "Form template unsupported", "reason", "mixed paragraph styles" );
+			return null;
+		}
+		
+		// Each field paragraph is marked, and hidden within
+		// the master alone, so that both passes share a
+		// single layout
+		StringBuilder marked = new StringBuilder( html );
+		for( int i = paragraphs.size() - 1; i >= 0; i-- ) {
+			marked.insert( paragraphs.get( i ).start + 2, " " + FIELD_ATTRIBUTE );
+		}
+		String measure = marked.toString();
+		String hidden = measure.replaceFirst( "</head>", HIDE_STYLE + "</head>" );
+		
+		String key = digest( hidden );
+		Path master = dir.resolve( key + ".pdf" );
+		if( Files.exists( master ) ) {
+			return new FormTemplate( key, Files.readAllBytes( master ) );
+		}
+		
+		Files.createDirectories( dir );
+		Path measureHtml = dir.resolve( key + "-measure.html" );
+		Path measurePdf = dir.resolve( key + "-measure.pdf" );
+		Path hiddenHtml = dir.resolve( key + "-hidden.html" );
+		Path hiddenPdf = dir.resolve( key + "-hidden.pdf" );
+		try {
+			long start = System.nanoTime();
+			Files.writeString( measureHtml, measure );
+			Files.writeString( hiddenHtml, hidden );
+			renderer.render( measureHtml, measurePdf );
+			renderer.render( hiddenHtml, hiddenPdf );
+			
+			try( PDDocument measured = PDDocument.load( measurePdf.toFile() );
+					PDDocument doc = PDDocument.load( hiddenPdf.toFile() ) ) {
+				
+				if( measured.getNumberOfPages() != 1 || doc.getNumberOfPages() != 1 ) {
+					LOG.info( "Form template unsupported", "reason", "multiple pages" );
+					return null;
+				}
+				for( Paragraph paragraph : paragraphs ) {
+					String reason = paragraph.locate( glyphs( measured ) );
+					if( reason != null ) {
+						LOG.info( "Form template unsupported", "field",
+								paragraph.name, "reason", reason );
+						return null;
+					}
+				}
+				
+				byte[] bytes = addForm( doc, key, paragraphs );
+				Files.write( master, bytes );
+				prune();
+				LOG.info( "Form template rendered", "key", key,
+						"fields", paragraphs.size(),
+						"us", ( System.nanoTime() - start ) / 1000 );
+				return new FormTemplate( key, bytes );
+			}
+		} finally {
+			Files.deleteIfExists( measureHtml );
+			Files.deleteIfExists( measurePdf );
+			Files.deleteIfExists( hiddenHtml );
+			Files.deleteIfExists( hiddenPdf );
+		}
+	}
+	
+	/**
+	 * Places a form field over each located paragraph of
+	 * the given master
+	 *
+	 * @param  doc		  master rendered with the field
+	 * 					  paragraphs hidden
+	 * @param  key		  key of the master
+	 * @param  paragraphs located field paragraphs
+	 * @return contents of the master PDF
+	 * @throws IOException upon an error writing the form
+	 */
+	private static byte[] addForm( PDDocument doc, String key,
+			List<Paragraph> paragraphs ) throws IOException {
+		
+		PDPage page = doc.getPage( 0 );
+		PDAcroForm form = new PDAcroForm( doc );
+		PDResources resources = new PDResources();
+		resources.put( REGULAR_FONT, PDType1Font.HELVETICA );
+		resources.put( BOLD_FONT, PDType1Font.HELVETICA_BOLD );
+		form.setDefaultResources( resources );
+		form.setDefaultAppearance( "/" + REGULAR_FONT.getName() + " 11 Tf 0 g" );
+		doc.getDocumentCatalog().setAcroForm( form );
+		
+		PDDocumentInformation info = doc.getDocumentInformation();
+		info.setCustomMetadataValue( FormTemplate.KEY_INFO, key );
+		
+		float pageWidth = page.getMediaBox().getWidth();
+		float pageHeight = page.getMediaBox().getHeight();
+		for( Paragraph paragraph : paragraphs ) {
+			PDTextField field = new PDTextField( form );
+			field.setPartialName( paragraph.name );
+			field.setDefaultAppearance( "/" + ( paragraph.bold ? BOLD_FONT :
+				REGULAR_FONT ).getName() + " " + paragraph.size + " Tf 0 g" );
+			field.setDefaultValue( paragraph.text );
+			field.setMultiline( paragraph.lines > 1 );
+			if( paragraph.lines > 1 ) {
+				info.setCustomMetadataValue( FormTemplate.LINES_INFO +
+						paragraph.name, Integer.toString( paragraph.lines ) );
+				info.setCustomMetadataValue( FormTemplate.LEADING_INFO +
+						paragraph.name, Float.toString( paragraph.leading ) );
+			}
+			
+			// The first baseline lies one font size below the
+			// top of the field, and the last baseline leaves
+			// room beneath for descenders
+			float top = pageHeight - paragraph.baseline + paragraph.size;
+			float height = paragraph.size + ( paragraph.lines - 1 ) *
+					paragraph.leading + paragraph.size * 0.3f;
+			PDAnnotationWidget widget = field.getWidgets().get( 0 );
+			widget.setRectangle( new PDRectangle( paragraph.left, top - height,
+					pageWidth - 2 * paragraph.left, height ) );
+			widget.setPage( page );
+			widget.setPrinted( true );
+			page.getAnnotations().add( widget );
+			form.getFields().add( field );
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		doc.save( out );
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Locates each paragraph of the given HTML holding a
+	 * company field, in order
+	 *
+	 * @param  html letter rendered with a marker in place
+	 * 		   of each company field
+	 * @return field paragraphs, or null if a paragraph
+	 * 		   mixes several styles
+	 */
+	private static List<Paragraph> paragraphs( String html ) {
+		List<Paragraph> paragraphs = new ArrayList<>();
+		for( CoverLetterField field : CoverLetterField.values() ) {
+			if( !FILLED_FIELDS.contains( field ) ) {
+				continue;
+			}
+			int at = html.indexOf( marker( field ) );
+			if( at < 0 ) {
+				continue;
+			}
+			int start = paragraphStart( html, at );
+			int end = html.indexOf( "</p>", at );
+			if( paragraphs.stream().anyMatch( p -> p.start == start ) ) {
+				continue;
+			}
+			
+			String inner = html.substring( html.indexOf( '>', start ) + 1, end );
+			Set<String> classes = new HashSet<>();
+			Matcher m = CLASS.matcher( inner );
+			while( m.find() ) {
+				classes.add( m.group( 1 ) );
+			}
+			if( classes.size() > 1 ) {
+				return null;
+			}
+			
+			String text = inner.replaceAll( "<[^>]*>", " " ).
+					replaceAll( "\\s+", " " ).trim();
+			paragraphs.add( new Paragraph( field.name(), start, text,
+					classes.stream().anyMatch( c -> c.contains( "bold" ) ) ) );
+		}
+		paragraphs.sort( Comparator.comparingInt( p -> p.start ) );
+		return paragraphs;
+	}
+	
+	/**
+	 * Locates the start tag of the paragraph enclosing
+	 * the given offset
+	 *
+	 * @param  html cover letter HTML
+	 * @param  at	offset within the paragraph
+	 * @return offset of the start tag
+	 */
+	private static int paragraphStart( String html, int at ) {
+		int start = html.lastIndexOf( "<p", at );
+		while( start >= 0 && " >".indexOf( html.charAt( start + 2 ) ) < 0 ) {
+			start = html.lastIndexOf( "<p", start - 1 );
+		}
+		return start;
+	}
+	
+	/**
+	 * Collects every glyph shown upon the first page of
+	 * the given document, in the order shown
+	 *
+	 * @param  doc rendered letter
+	 * @return shown glyphs
+	 * @throws IOException upon an error reading the page
+	 */
+	private static List<TextPosition> glyphs( PDDocument doc ) throws IOException {
+		List<TextPosition> glyphs = new ArrayList<>();
+		PDFTextStripper stripper = new PDFTextStripper() {
+			@Override
+			protected void processTextPosition( TextPosition text ) {
+				glyphs.add( text );
+			}
+		};
+		stripper.setStartPage( 1 );
+		stripper.setEndPage( 1 );
+		stripper.writeText( doc, new StringWriter() );
+		return glyphs;
+	}
+	
+	/**
+	 * Removes the least recently written masters beyond
+	 * DISK_MASTERS from the directory
+	 *
+	 * @throws IOException upon an error listing the
+	 * 		   directory
+	 */
+	private void prune() throws IOException {
+		List<Path> kept;
+		try( Stream<Path> files = Files.list( dir ) ) {
+			kept = files.filter( f -> f.toString().endsWith( ".pdf" ) ).
+					collect( Collectors.toList() );
+		}
+		if( kept.size() <= DISK_MASTERS ) {
+			return;
+		}
+		kept.sort( Comparator.comparing( f -> f.toFile().lastModified(),
+				Comparator.reverseOrder() ) );
+		for( Path stale : kept.subList( DISK_MASTERS, kept.size() ) ) {
+			Files.deleteIfExists( stale );
+		}
+	}
+	
+	/**
+	 * Retrieves the marker rendered in place of the
+	 * given company field within the first pass
+	 *
+	 * @param  field company field
+	 * @return marker text
+	 */
+	private static String marker( CoverLetterField field ) {
+		return "AUTOCVFIELD" + field.ordinal() + "X";
+	}
+	
+	/**
+	 * Digests the given HTML into the key of its master
+	 *
+	 * @param  html HTML rendered for the master
+	 * @return hexadecimal key
+	 */
+	private static String digest( String html ) {
+		try {
+			byte[] hash = MessageDigest.getInstance( "SHA-256" ).digest(
+					html.getBytes( StandardCharsets.UTF_8 ) );
+			StringBuilder key = new StringBuilder();
+			for( int i = 0; i < 16; i++ ) {
+				key.append( String.format( "%02x", hash[ i ] ) );
+			}
+			return key.toString();
+		} catch( NoSuchAlgorithmException ex ) {
+			throw new IllegalStateException( ex );
+		}
+	}
+	
+	/**
+	 * A paragraph of the letter holding one or more
+	 * company fields, along with its layout as rendered
+	 * within the first pass
+	 *
+	 * @since 1.1
+	 */
+	private static class Paragraph {
+		
+		/** Name of the form field, after its first company field */
+		private final String name;
+		
+		/** Offset of the paragraph within the HTML */
+		private final int start;
+		
+		/** Text of the paragraph, holding parse names */
+		private final String text;
+		
+		/** Whether the paragraph is set in bold */
+		private final boolean bold;
+		
+		/** Text of the paragraph as rendered in the first pass */
+		private final String rendered;
+		
+		/** Font size, in points */
+		private float size;
+		
+		/** Distance between baselines, in points */
+		private float leading;
+		
+		/** Number of rendered lines */
+		private int lines;
+		
+		/** Left edge of the paragraph, in points */
+		private float left;
+		
+		/** First baseline, in points from the top of the page */
+		private float baseline;
+		
+		/**
+		 * Default constructor, initializing the paragraph
+		 * as located within the HTML
+		 *
+		 * @param name	   name of the form field
+		 * @param start	   offset of the paragraph
+		 * @param rendered text of the paragraph, holding
+		 * 				   the marker of each company field
+		 * @param bold	   whether the paragraph is bold
+		 */
+		Paragraph( String name, int start, String rendered, boolean bold ) {
+			this.name = name;
+			this.start = start;
+			this.rendered = rendered;
+			this.bold = bold;
+			
+			String text = rendered;
+			for( CoverLetterField field : FILLED_FIELDS ) {
+				text = text.replace( marker( field ), field.toString() );
+			}
+			this.text = text;
+		}
+		
+		/**
+		 * Locates the glyphs of the paragraph among the
+		 * given glyphs, whitespace aside, recording the
+		 * layout of the paragraph
+		 *
+		 * @param  glyphs glyphs of the first pass
+		 * @return null if located, or the reason the
+		 * 		   paragraph cannot hold a form field
+		 */
+		String locate( List<TextPosition> glyphs ) {
+			StringBuilder shown = new StringBuilder();
+			List<TextPosition> index = new ArrayList<>();
+			for( TextPosition glyph : glyphs ) {
+				String unicode = glyph.getUnicode().replaceAll( "\\s", "" );
+				for( int i = 0; i < unicode.length(); i++ ) {
+					shown.append( unicode.charAt( i ) );
+					index.add( glyph );
+				}
+			}
+			
+			String wanted = rendered.replaceAll( "\\s", "" );
+			int at = shown.indexOf( wanted );
+			if( at < 0 ) {
+				return "paragraph not found";
+			}
+			List<TextPosition> own = index.subList( at, at + wanted.length() );
+			
+			Function<TextPosition, String> font = g -> g.getFont().getName();
+			if( own.stream().map( font ).anyMatch( f -> f == null ||
+					!f.contains( MATCHED_TYPEFACE ) ) ) {
+				return "rendered in " + font.apply( own.get( 0 ) );
+			}
+			
+			size = Math.round( own.get( 0 ).getFontSizeInPt() * 100 ) / 100f;
+			left = Float.MAX_VALUE;
+			List<Float> baselines = new ArrayList<>();
+			for( TextPosition glyph : own ) {
+				left = Math.min( left, glyph.getXDirAdj() );
+				float y = glyph.getYDirAdj();
+				if( baselines.stream().noneMatch( b -> Math.abs( b - y ) < 1 ) ) {
+					baselines.add( y );
+				}
+			}
+			baselines.sort( null );
+			lines = baselines.size();
+			baseline = baselines.get( 0 );
+			leading = lines > 1 ? ( baselines.get( lines - 1 ) - baseline ) /
+					( lines - 1 ) : size;
+			return null;
+		}
+	}
+}
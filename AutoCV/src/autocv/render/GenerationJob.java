@@ -0,0 +1,320 @@
+package autocv.render;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import autocv.data.Applicant;
+import autocv.data.Company;
+import autocv.data.JobCredentials;
+import autocv.io.OutputSink;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * A single cover letter queued for generation, holding
+ * a snapshot of the data of the letter taken when the
+ * letter was queued, so that the client may continue
+ * editing while the letter renders
+ * 
+ * The state of the job is only updated on the JavaFX
+ * Application Thread
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class GenerationJob {
+	
+	/** Progress of a job through the generation queue */
+	public enum State {
+		
+		/** Waiting for a generation thread */
+		QUEUED,
+		
+		/** Building and rendering the letter */
+		RENDERING,
+		
+		/** PDF written successfully */
+		DONE,
+		
+		/** Generation failed; see the error */
+		FAILED
+	}
+	
+	/** Stages of generating a single letter */
+	public enum Stage {
+		
+		/** Rendering the cover letter HTML */
+		BUILD,
+		
+		/** Writing the HTML file */
+		WRITE,
+		
+		/** Converting the HTML file to PDF */
+		RENDER
+	}
+	
+	/** Source of the job ids */
+	private static final AtomicInteger NEXT_ID = new AtomicInteger( 1 );
+	
+	/** Id of the job, unique for the session */
+	private final int id;
+	
+	/** Applicant of the letter */
+	private final Applicant applicant;
+	
+	/** Company of the letter */
+	private final Company company;
+	
+	/** Job credentials of the letter */
+	private final JobCredentials jobCred;
+	
+	/** Job title of the letter */
+	private final String jobTitle;
+	
+	/** HTML file written for the letter */
+	private final Path htmlFile;
+	
+	/** PDF file generated for the letter */
+	private final Path pdfFile;
+	
+	/** Sink receiving the letter, or null to keep the PDF file */
+	private final OutputSink sink;
+	
+	/** File name of the letter within the sink */
+	private final String outputName;
+	
+	/** Location of the letter within the sink, once written */
+	private volatile String output;
+	
+	/** Digest of the letter written to the sink, or null */
+	private volatile String outputDigest;
+	
+	/** Format in which the letter is generated */
+	private final OutputFormat format;
+	
+	/** Current state of the job */
+	private final ReadOnlyObjectWrapper<State> state;
+	
+	/** Duration of each completed stage, in nanoseconds */
+	private final Map<Stage, Long> timings;
+	
+	/** Failure of the job, or null */
+	private volatile Throwable error;
+	
+	/**
+	 * Default constructor, initializing a queued job
+	 * for the given letter
+	 * 
+	 * @param applicant applicant of the letter
+	 * @param company	company of the letter
+	 * @param jobCred	job credentials of the letter
+	 * @param jobTitle	job title of the letter
+	 * @param workDir	directory in which to write the
+	 * 					HTML file of the letter
+	 * @param pdfFile	PDF file to generate
+	 */
+	public GenerationJob( Applicant applicant, Company company,
+			JobCredentials jobCred, String jobTitle, Path workDir,
+			Path pdfFile ) {
+		
+		this.id = NEXT_ID.getAndIncrement();
+		this.applicant = applicant;
+		this.company = company;
+		this.jobCred = jobCred;
+		this.jobTitle = jobTitle;
+		this.htmlFile = workDir.resolve( "auto_gen_cover_letter_" + id + ".html" );
+		this.pdfFile = pdfFile;
+		this.sink = null;
+		this.outputName = pdfFile.getFileName().toString();
+		this.format = OutputFormat.PDF;
+		
+		state = new ReadOnlyObjectWrapper<>( this, "state", State.QUEUED );
+		timings = new EnumMap<>( Stage.class );
+	}
+	
+	/**
+	 * Sink constructor, initializing a queued job whose
+	 * letter is written to the given sink; any PDF file
+	 * rendered for the letter is written in the work
+	 * directory, and moved into the sink afterwards
+	 * 
+	 * @param applicant	 applicant of the letter
+	 * @param company	 company of the letter
+	 * @param jobCred	 job credentials of the letter
+	 * @param jobTitle	 job title of the letter
+	 * @param workDir	 directory in which to write the
+	 * 					 HTML and PDF files of the letter
+	 * @param sink		 sink receiving the letter
+	 * @param outputName file name of the letter within
+	 * 					 the sink
+	 */
+	public GenerationJob( Applicant applicant, Company company,
+			JobCredentials jobCred, String jobTitle, Path workDir,
+			OutputSink sink, String outputName ) {
+		this( applicant, company, jobCred, jobTitle, workDir, sink,
+				outputName, OutputFormat.PDF );
+	}
+	
+	/**
+	 * Format constructor, initializing a queued job whose
+	 * letter is generated in the given format and written
+	 * to the given sink
+	 * 
+	 * @param applicant	 applicant of the letter
+	 * @param company	 company of the letter
+	 * @param jobCred	 job credentials of the letter
+	 * @param jobTitle	 job title of the letter
+	 * @param workDir	 directory in which to write the
+	 * 					 HTML and PDF files of the letter
+	 * @param sink		 sink receiving the letter
+	 * @param outputName file name of the letter within
+	 * 					 the sink
+	 * @param format	 format of the letter
+	 */
+	public GenerationJob( Applicant applicant, Company company,
+			JobCredentials jobCred, String jobTitle, Path workDir,
+			OutputSink sink, String outputName, OutputFormat format ) {
+		
+		this.id = NEXT_ID.getAndIncrement();
+		this.applicant = applicant;
+		this.company = company;
+		this.jobCred = jobCred;
+		this.jobTitle = jobTitle;
+		this.htmlFile = workDir.resolve( "auto_gen_cover_letter_" + id + ".html" );
+		this.pdfFile = workDir.resolve( "auto_gen_cover_letter_" + id + ".pdf" );
+		this.sink = sink;
+		this.outputName = outputName;
+		this.format = format;
+		
+		state = new ReadOnlyObjectWrapper<>( this, "state", State.QUEUED );
+		timings = new EnumMap<>( Stage.class );
+	}
+	
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Retrieves the correlation id logged with every
+	 * event of the job
+	 * 
+	 * @return correlation id
+	 */
+	public String getCorrelationId() {
+		return "job-" + id;
+	}
+	
+	public Applicant getApplicant() {
+		return applicant;
+	}
+	
+	public Company getCompany() {
+		return company;
+	}
+	
+	public JobCredentials getJobCredentials() {
+		return jobCred;
+	}
+	
+	public String getJobTitle() {
+		return jobTitle;
+	}
+	
+	public Path getHtmlFile() {
+		return htmlFile;
+	}
+	
+	public Path getPdfFile() {
+		return pdfFile;
+	}
+	
+	public OutputSink getSink() {
+		return sink;
+	}
+	
+	public String getOutputName() {
+		return outputName;
+	}
+	
+	public OutputFormat getFormat() {
+		return format;
+	}
+	
+	/**
+	 * Retrieves the location of the generated letter,
+	 * as reported by its sink
+	 * 
+	 * @return location within the sink, or the PDF file
+	 * 		   of a job without a sink
+	 */
+	public String getOutput() {
+		return output != null ? output : pdfFile.toString();
+	}
+	
+	void setOutput( String output ) {
+		this.output = output;
+	}
+	
+	/**
+	 * Retrieves the digest of the letter written to the
+	 * sink, as by OutputSink.digest
+	 * 
+	 * @return digest of the letter, or null if no letter
+	 * 		   has been written to a sink
+	 */
+	public String getOutputDigest() {
+		return outputDigest;
+	}
+	
+	void setOutputDigest( String outputDigest ) {
+		this.outputDigest = outputDigest;
+	}
+	
+	public Throwable getError() {
+		return error;
+	}
+	
+	void setError( Throwable error ) {
+		this.error = error;
+	}
+	
+	/**
+	 * Property holding the current state of the job
+	 * 
+	 * @return read-only state property
+	 */
+	public ReadOnlyObjectProperty<State> stateProperty() {
+		return state.getReadOnlyProperty();
+	}
+	
+	public State getState() {
+		return state.get();
+	}
+	
+	void setState( State newState ) {
+		state.set( newState );
+	}
+	
+	/**
+	 * Retrieves the duration of the given stage
+	 * 
+	 * @param  stage generation stage
+	 * @return duration in nanoseconds, or -1 if the
+	 * 		   stage has not completed
+	 */
+	public synchronized long getTiming( Stage stage ) {
+		Long nanos = timings.get( stage );
+		return nanos == null ? -1 : nanos;
+	}
+	
+	synchronized void setTiming( Stage stage, long nanos ) {
+		timings.put( stage, nanos );
+	}
+	
+	@Override
+	public String toString() {
+		return company.getName() + " - " + jobTitle;
+	}
+}
@@ -0,0 +1,405 @@
+package autocv.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import autocv.data.Applicant;
+import autocv.data.JobCredentials;
+import autocv.log.Logger;
+import autocv.render.GenerationJob.Stage;
+import autocv.render.GenerationJob.State;
+import autocv.render.GenerationScheduler.Priority;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Queue of cover letters awaiting generation; jobs are
+ * generated by a fixed pool of threads, so that queuing
+ * a letter never blocks the client, and any number of
+ * letters may be queued back to back
+ * 
+ * Jobs submitted together as a batch are generated in
+ * groups of BATCH_LETTERS, each group rendered by a single
+ * call to the renderer where the renderer allows it
+ * 
+ * Jobs are run by the priority of their class: a single
+ * letter is interactive, the groups of a batch are batch
+ * work, and the rendering of masters ahead of the letters
+ * needing them is pre-warming; batch work and
+ * pre-warming never take every generation thread, so
+ * that a single letter is never queued behind the groups
+ * of a large batch. A pre-warming of the same letters as
+ * one still queued is dropped
+ * 
+ * The job list and the state of each job are only
+ * updated on the JavaFX Application Thread
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class GenerationQueue implements AutoCloseable {
+	
+	/**
+	 * Number of jobs retained in the job list; the
+	 * oldest finished jobs are dropped beyond it, so
+	 * that a long session holds a bounded number
+	 */
+	public static final int RETAINED_JOBS = 100;
+	
+	/**
+	 * Number of letters of a batch rendered together;
+	 * bounds both the size of the combined document and
+	 * the letters lost to a single failed render
+	 */
+	public static final int BATCH_LETTERS = 20;
+	
+	/** Logger of the generated and failed letters */
+	private static final Logger LOG = Logger.get( GenerationQueue.class );
+	
+	/** Generator of each queued letter */
+	private final CoverLetterGenerator generator;
+	
+	/** Threads generating the queued letters, by priority */
+	private final GenerationScheduler scheduler;
+	
+	/** Every job queued during the session */
+	private final ObservableList<GenerationJob> jobs;
+	
+	/** Runs each update of the state of a job */
+	private final Executor publisher;
+	
+	/**
+	 * Applicant, job credentials, and job title of each
+	 * pre-warming queued but not yet started
+	 */
+	private final List<List<Object>> prewarming;
+	
+	/**
+	 * Default constructor, initializing the generator
+	 * and the generation threads; the state of each job
+	 * is updated on the JavaFX Application Thread
+	 * 
+	 * @param generator generator of each queued letter
+	 * @param threads	number of letters generated at once
+	 */
+	public GenerationQueue( CoverLetterGenerator generator, int threads ) {
+		this( generator, threads, Platform::runLater );
+	}
+	
+	/**
+	 * Constructor initializing the generator, the
+	 * generation threads, and the executor running
+	 * each update of the state of a job; used for
+	 * driving the queue without the JavaFX toolkit
+	 * 
+	 * @param generator generator of each queued letter
+	 * @param threads	number of letters generated at once
+	 * @param publisher runs each update of the state
+	 * 					of a job
+	 */
+	public GenerationQueue( CoverLetterGenerator generator, int threads,
+			Executor publisher ) {
+		this.generator = generator;
+		this.publisher = publisher;
+		jobs = FXCollections.observableArrayList();
+		scheduler = new GenerationScheduler( threads );
+		prewarming = new ArrayList<>();
+	}
+	
+	/**
+	 * Retrieves the generator of each queued letter
+	 * 
+	 * @return cover letter generator
+	 */
+	public CoverLetterGenerator getGenerator() {
+		return generator;
+	}
+	
+	/**
+	 * List of the jobs queued during the session, in
+	 * queued order; every unfinished job is listed,
+	 * along with the most recent finished jobs
+	 * 
+	 * @return observable job list
+	 */
+	public ObservableList<GenerationJob> getJobs() {
+		return jobs;
+	}
+	
+	/**
+	 * Queues the given job as interactive; must be called
+	 * on the thread of the publisher
+	 * 
+	 * @param  job generation job
+	 * @return future completed with the job once
+	 * 		   generated, or exceptionally with the
+	 * 		   failure of the job
+	 */
+	public CompletableFuture<GenerationJob> submit( GenerationJob job ) {
+		return submit( job, Priority.INTERACTIVE );
+	}
+	
+	/**
+	 * Queues the given job under the given class; must be
+	 * called on the thread of the publisher
+	 * 
+	 * @param  job		generation job
+	 * @param  priority class of the job
+	 * @return future completed with the job once
+	 * 		   generated, or exceptionally with the
+	 * 		   failure of the job
+	 */
+	public CompletableFuture<GenerationJob> submit( GenerationJob job,
+			Priority priority ) {
+		
+		jobs.add( job );
+		pruneFinished();
+		Logger.Scope queued = Logger.correlate( job.getCorrelationId() );
+		try {
+			LOG.debug( "Letter queued", "queued", jobs.size(), "priority", priority );
+		} finally {
+			queued.close();
+		}
+		
+		CompletableFuture<GenerationJob> done = new CompletableFuture<>();
+		scheduler.execute( priority, () -> {
+			Logger.Scope scope = Logger.correlate( job.getCorrelationId() );
+			try {
+				publisher.execute( () -> job.setState( State.RENDERING ) );
+				generate( job, done );
+			} finally {
+				scope.close();
+			}
+		});
+		return done;
+	}
+	
+	/**
+	 * Queues the given jobs as a batch; must be called
+	 * on the thread of the publisher
+	 * 
+	 * Each group of BATCH_LETTERS jobs is generated by a
+	 * single generation thread, so that the group may be
+	 * rendered together; every job of a group left
+	 * ungenerated by the batch render is generated on
+	 * its own, failing independently of the others
+	 * 
+	 * @param  batch generation jobs
+	 * @return future of each job, in the given order,
+	 * 		   completed as by submit
+	 */
+	public List<CompletableFuture<GenerationJob>> submitBatch(
+			List<GenerationJob> batch ) {
+		
+		jobs.addAll( batch );
+		pruneFinished();
+		
+		List<CompletableFuture<GenerationJob>> futures = new ArrayList<>( batch.size() );
+		for( int from = 0; from < batch.size(); from += BATCH_LETTERS ) {
+			List<GenerationJob> group = new ArrayList<>( batch.subList( from,
+					Math.min( batch.size(), from + BATCH_LETTERS ) ) );
+			List<CompletableFuture<GenerationJob>> done = new ArrayList<>( group.size() );
+			for( int i = 0; i < group.size(); i++ ) {
+				done.add( new CompletableFuture<>() );
+			}
+			futures.addAll( done );
+			
+			String correlationId = "batch-" + group.get( 0 ).getId();
+			Logger.Scope scope = Logger.correlate( correlationId );
+			try {
+				LOG.debug( "Batch queued", "letters", group.size(), "queued", jobs.size() );
+			} finally {
+				scope.close();
+			}
+			scheduler.execute( Priority.BATCH, () ->
+					generateGroup( group, done, correlationId ) );
+		}
+		return futures;
+	}
+	
+	/**
+	 * Queues the rendering of the master of the letters
+	 * of the given applicant, job credentials, and job
+	 * title, as pre-warming; the master is then ready once
+	 * the first such letter is generated. Has no effect
+	 * while the same pre-warming is still queued, as when
+	 * the client leaves the same job title repeatedly
+	 * 
+	 * @param applicant applicant of the letters
+	 * @param jobCred	job credentials of the letters
+	 * @param jobTitle	job title of the letters
+	 */
+	public void prewarm( Applicant applicant, JobCredentials jobCred,
+			String jobTitle ) {
+		List<Object> key = Arrays.asList( applicant, jobCred, jobTitle );
+		synchronized( prewarming ) {
+			if( prewarming.contains( key ) ) {
+				LOG.debug( "Prewarm coalesced", "title", jobTitle );
+				return;
+			}
+			prewarming.add( key );
+		}
+		scheduler.execute( Priority.PREWARM, () -> {
+			synchronized( prewarming ) {
+				prewarming.remove( key );
+			}
+			try {
+				generator.prewarm( applicant, jobCred, jobTitle );
+			} catch( InterruptedException ex ) {
+				Thread.currentThread().interrupt();
+			} catch( Exception ex ) {
+				LOG.warn( "Prewarm failed", ex );
+			}
+		});
+	}
+	
+	/**
+	 * Generates a group of jobs of a batch together,
+	 * generating on its own each job left ungenerated;
+	 * an unexpected failure fails every job of the group
+	 * not yet completed, so that no future is left
+	 * pending
+	 * 
+	 * @param group			jobs of the group
+	 * @param done			future of each job
+	 * @param correlationId correlation id of the group
+	 */
+	private void generateGroup( List<GenerationJob> group,
+			List<CompletableFuture<GenerationJob>> done, String correlationId ) {
+		
+		try {
+			generateEach( group, done, correlationId );
+		} catch( Throwable ex ) {
+			Logger.Scope batch = Logger.correlate( correlationId );
+			try {
+				LOG.error( "Batch failed", ex, "letters", group.size() );
+			} finally {
+				batch.close();
+			}
+			for( int i = 0; i < group.size(); i++ ) {
+				GenerationJob job = group.get( i );
+				if( done.get( i ).completeExceptionally( ex ) ) {
+					job.setError( ex );
+					publisher.execute( () -> job.setState( State.FAILED ) );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Generates a group of jobs of a batch together,
+	 * then generates on its own each job left
+	 * ungenerated, completing the future of each job
+	 * 
+	 * @param group			jobs of the group
+	 * @param done			future of each job
+	 * @param correlationId correlation id of the group
+	 */
+	private void generateEach( List<GenerationJob> group,
+			List<CompletableFuture<GenerationJob>> done, String correlationId ) {
+		
+		publisher.execute( () -> group.forEach( job -> job.setState( State.RENDERING ) ) );
+		List<GenerationJob> pending;
+		Logger.Scope batch = Logger.correlate( correlationId );
+		try {
+			pending = generator.generateBatch( group );
+		} finally {
+			batch.close();
+		}
+		
+		for( int i = 0; i < group.size(); i++ ) {
+			GenerationJob job = group.get( i );
+			Logger.Scope scope = Logger.correlate( job.getCorrelationId() );
+			try {
+				if( pending.contains( job ) ) {
+					generate( job, done.get( i ) );
+				}
+				else {
+					generated( job, done.get( i ) );
+				}
+			} finally {
+				scope.close();
+			}
+		}
+	}
+	
+	/**
+	 * Generates the letter of the given job, publishing
+	 * its final state and completing its future
+	 * 
+	 * @param job  generation job
+	 * @param done future of the job
+	 */
+	private void generate( GenerationJob job, CompletableFuture<GenerationJob> done ) {
+		try {
+			generator.generate( job );
+			generated( job, done );
+		} catch( Throwable ex ) {
+			LOG.warn( "Letter failed", ex );
+			job.setError( ex );
+			publisher.execute( () -> job.setState( State.FAILED ) );
+			done.completeExceptionally( ex );
+		}
+	}
+	
+	/**
+	 * Publishes the completion of the given generated
+	 * job, and completes its future
+	 * 
+	 * @param job  generated job
+	 * @param done future of the job
+	 */
+	private void generated( GenerationJob job, CompletableFuture<GenerationJob> done ) {
+		LOG.info( "Letter generated",
+				"build_us", job.getTiming( Stage.BUILD ) / 1000,
+				"write_us", job.getTiming( Stage.WRITE ) / 1000,
+				"render_us", job.getTiming( Stage.RENDER ) / 1000 );
+		publisher.execute( () -> job.setState( State.DONE ) );
+		done.complete( job );
+	}
+	
+	/**
+	 * Removes the oldest finished jobs from the job
+	 * list while it holds more than RETAINED_JOBS;
+	 * removal stops at the oldest unfinished job, so
+	 * that a burst of queued letters is not rescanned
+	 * upon every submission
+	 */
+	private void pruneFinished() {
+		Iterator<GenerationJob> it = jobs.iterator();
+		int excess = jobs.size() - RETAINED_JOBS;
+		while( excess-- > 0 ) {
+			State state = it.next().getState();
+			if( state != State.DONE && state != State.FAILED ) {
+				return;
+			}
+			it.remove();
+		}
+	}
+	
+	/**
+	 * Stops accepting jobs, drops every job not yet
+	 * started, and waits briefly for the letters currently
+	 * rendering to finish; the futures of the dropped jobs
+	 * are left incomplete. If interrupted while waiting,
+	 * the interrupt is restored
+	 */
+	@Override
+	public void close() {
+		int dropped = scheduler.shutdown();
+		if( dropped > 0 ) {
+			LOG.info( "Queued work dropped", "tasks", dropped );
+		}
+		try {
+			scheduler.awaitTermination( 10, TimeUnit.SECONDS );
+		} catch( InterruptedException ex ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
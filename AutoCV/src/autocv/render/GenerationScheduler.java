@@ -0,0 +1,356 @@
+package autocv.render;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import autocv.log.Logger;
+
+/**
+ * Scheduler of the generation threads, running each
+ * task by the priority of its class rather than in the
+ * order submitted, so that a letter requested by the
+ * client is never queued behind the letters of a batch
+ *
+ * <li><b>INTERACTIVE</b> - letters requested by the
+ * client, who is waiting on them</li>
+ * <li><b>BATCH</b> - letters of a batch file</li>
+ * <li><b>PREWARM</b> - background work preparing for
+ * later letters, such as rendering a master</li>
+ *
+ * Each class is limited to a number of threads running
+ * at once, and the classes below INTERACTIVE together
+ * leave one thread free for the client, so that a letter
+ * of the client starts as soon as it is queued, even
+ * while a batch and pre-warming are both running; by
+ * default pre-warming takes a single thread. With a
+ * single thread there is none to leave free: background
+ * work may then take that thread, and a letter of the
+ * client queued meanwhile starts once the running task
+ * finishes, still ahead of every other waiting task
+ *
+ * A waiting task below INTERACTIVE rises by one class
+ * for every AGING_MILLIS it has waited, up to BATCH, so
+ * that a steady stream of batch letters cannot starve
+ * pre-warming; no task ever rises above a letter of the
+ * client. Tasks of equal standing run in the order
+ * submitted
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public class GenerationScheduler {
+	
+	/** Class of a scheduled task, highest priority first */
+	public enum Priority {
+		
+		/** Letters the client is waiting on */
+		INTERACTIVE,
+		
+		/** Letters of a batch */
+		BATCH,
+		
+		/** Background work preparing for later letters */
+		PREWARM
+	}
+	
+	/** Milliseconds of waiting raising a task by one class */
+	public static final long AGING_MILLIS = 5000;
+	
+	/** Logger of the tasks failing outside of a letter */
+	private static final Logger LOG = Logger.get( GenerationScheduler.class );
+	
+	/** Guards the queues and the running counts */
+	private final ReentrantLock lock;
+	
+	/** Signalled upon a task being queued or finishing */
+	private final Condition changed;
+	
+	/** Queued tasks of each class, in submitted order */
+	private final Map<Priority, ArrayDeque<Task>> queues;
+	
+	/** Threads each class may take at once */
+	private final Map<Priority, Integer> limits;
+	
+	/** Threads each class is currently running on */
+	private final Map<Priority, Integer> running;
+	
+	/**
+	 * Threads the classes below INTERACTIVE may take at
+	 * once, together
+	 */
+	private final int background;
+	
+	/** Generation threads */
+	private final Thread[] workers;
+	
+	/** Whether the scheduler accepts no further task */
+	private boolean shutdown;
+	
+	/**
+	 * Default constructor, starting the given number of
+	 * threads with the default limit of each class
+	 *
+	 * @param  threads number of generation threads
+	 * @throws IllegalArgumentException if threads is less
+	 * 		   than 1
+	 */
+	public GenerationScheduler( int threads ) {
+		this( threads, defaultLimits( threads ) );
+	}
+	
+	/**
+	 * Constructor starting the given number of threads,
+	 * each class limited to the given number of them; the
+	 * classes below INTERACTIVE together leave one thread
+	 * free where there is more than one. Each thread is
+	 * numbered within its name, as "autocv-generator-1"
+	 *
+	 * @param  threads number of generation threads
+	 * @param  limits  threads each class may take at
+	 * 				   once; a class absent may take all
+	 * @throws IllegalArgumentException if threads is less
+	 * 		   than 1
+	 */
+	public GenerationScheduler( int threads, Map<Priority, Integer> limits ) {
+		if( threads < 1 ) {
+			throw new IllegalArgumentException( "At least one generation "
+					+ "thread is required: " + threads );
+		}
+		lock = new ReentrantLock();
+		changed = lock.newCondition();
+		queues = new EnumMap<>( Priority.class );
+		this.limits = new EnumMap<>( Priority.class );
+		running = new EnumMap<>( Priority.class );
+		for( Priority priority : Priority.values() ) {
+			queues.put( priority, new ArrayDeque<>() );
+			this.limits.put( priority, Math.max( 1, Math.min( threads,
+					limits.getOrDefault( priority, threads ) ) ) );
+			running.put( priority, 0 );
+		}
+		background = Math.max( 1, threads - 1 );
+		
+		workers = new Thread[ threads ];
+		for( int i = 0; i < threads; i++ ) {
+			workers[ i ] = new Thread( this::work, "autocv-generator-" + ( i + 1 ) );
+			workers[ i ].setDaemon( true );
+			workers[ i ].start();
+		}
+	}
+	
+	/**
+	 * Derives the default limit of each class: batch work
+	 * may take every thread not left free for the client,
+	 * and pre-warming takes a single thread
+	 *
+	 * @param  threads number of generation threads
+	 * @return threads each class may take at once
+	 */
+	private static Map<Priority, Integer> defaultLimits( int threads ) {
+		Map<Priority, Integer> limits = new EnumMap<>( Priority.class );
+		limits.put( Priority.INTERACTIVE, threads );
+		limits.put( Priority.BATCH, Math.max( 1, threads - 1 ) );
+		limits.put( Priority.PREWARM, 1 );
+		return limits;
+	}
+	
+	/**
+	 * Queues the given task under the given class
+	 *
+	 * @param  priority class of the task
+	 * @param  task		task to run
+	 * @throws RejectedExecutionException if the scheduler
+	 * 		   has been shut down
+	 */
+	public void execute( Priority priority, Runnable task ) {
+		lock.lock();
+		try {
+			if( shutdown ) {
+				throw new RejectedExecutionException( "Scheduler shut down" );
+			}
+			queues.get( priority ).addLast( new Task( priority, task, System.nanoTime() ) );
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the number of tasks of the given class
+	 * waiting for a thread
+	 *
+	 * @param  priority class of the tasks
+	 * @return number of queued tasks
+	 */
+	public int getQueued( Priority priority ) {
+		lock.lock();
+		try {
+			return queues.get( priority ).size();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Runs the queued tasks of a single generation thread,
+	 * until the scheduler has been shut down
+	 */
+	private void work() {
+		while( true ) {
+			Task task;
+			lock.lock();
+			try {
+				while( ( task = next() ) == null ) {
+					if( shutdown ) {
+						return;
+					}
+					changed.awaitUninterruptibly();
+				}
+				running.merge( task.priority, 1, Integer::sum );
+			} finally {
+				lock.unlock();
+			}
+			
+			try {
+				task.runnable.run();
+			} catch( Throwable ex ) {
+				LOG.error( "Scheduled task failed", ex, "priority", task.priority );
+			} finally {
+				lock.lock();
+				try {
+					running.merge( task.priority, -1, Integer::sum );
+					changed.signalAll();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes the next task to run: the head of the class
+	 * of the highest standing, after aging, among the
+	 * classes below their limit; must hold the lock
+	 *
+	 * @return next task, or null if no task may run
+	 */
+	private Task next() {
+		if( shutdown ) {
+			return null;
+		}
+		long now = System.nanoTime();
+		long aging = TimeUnit.MILLISECONDS.toNanos( AGING_MILLIS );
+		int busy = running.get( Priority.BATCH ) + running.get( Priority.PREWARM );
+		Task best = null;
+		long bestRank = 0;
+		for( Priority priority : Priority.values() ) {
+			Task head = queues.get( priority ).peekFirst();
+			if( head == null || running.get( priority ) >= limits.get( priority ) ) {
+				continue;
+			}
+			
+			// Only a letter of the client takes the thread
+			// left free, and only a letter of the client
+			// holds the highest standing
+			int floor = 0;
+			if( priority != Priority.INTERACTIVE ) {
+				if( busy >= background ) {
+					continue;
+				}
+				floor = Priority.BATCH.ordinal();
+			}
+			long rank = Math.max( floor, priority.ordinal() - ( now - head.queued ) / aging );
+			if( best == null || rank < bestRank
+					|| ( rank == bestRank && head.queued - best.queued < 0 ) ) {
+				best = head;
+				bestRank = rank;
+			}
+		}
+		if( best != null ) {
+			queues.get( best.priority ).removeFirst();
+		}
+		return best;
+	}
+	
+	/**
+	 * Stops accepting tasks, and drops every task still
+	 * queued; the tasks already running are left to finish
+	 *
+	 * @return number of tasks dropped
+	 */
+	public int shutdown() {
+		lock.lock();
+		try {
+			shutdown = true;
+			int dropped = 0;
+			for( ArrayDeque<Task> queue : queues.values() ) {
+				dropped += queue.size();
+				queue.clear();
+			}
+			changed.signalAll();
+			return dropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Waits for the tasks running to finish, once the
+	 * scheduler has been shut down
+	 *
+	 * @param  timeout longest time to wait
+	 * @param  unit	   unit of the timeout
+	 * @return true if every thread has finished
+	 * @throws InterruptedException if interrupted while
+	 * 		   waiting
+	 */
+	public boolean awaitTermination( long timeout, TimeUnit unit )
+			throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos( timeout );
+		for( Thread worker : workers ) {
+			long remaining = deadline - System.nanoTime();
+			if( remaining <= 0 ) {
+				return false;
+			}
+			TimeUnit.NANOSECONDS.timedJoin( worker, remaining );
+			if( worker.isAlive() ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * A task queued under its class
+	 *
+	 * @since 1.1
+	 */
+	private static final class Task {
+		
+		/** Class of the task */
+		private final Priority priority;
+		
+		/** Work of the task */
+		private final Runnable runnable;
+		
+		/** Time the task was queued, in nanoseconds */
+		private final long queued;
+		
+		/**
+		 * Default constructor, initializing the task
+		 *
+		 * @param priority class of the task
+		 * @param runnable work of the task
+		 * @param queued   time queued, in nanoseconds
+		 */
+		Task( Priority priority, Runnable runnable, long queued ) {
+			this.priority = priority;
+			this.runnable = runnable;
+			this.queued = queued;
+		}
+	}
+}
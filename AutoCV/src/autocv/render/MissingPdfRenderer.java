@@ -0,0 +1,44 @@
+package autocv.render;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Stands in for the PDF renderer when no Chrome or
+ * Chromium executable could be located; every render
+ * fails with the reason the executable was not found,
+ * so that only PDF letters fail, while text and
+ * Markdown letters, which need no renderer, are still
+ * generated
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class MissingPdfRenderer implements PdfRenderer {
+	
+	/** Reason no renderer was located */
+	private final String reason;
+	
+	/**
+	 * Default constructor, initializing the reason no
+	 * renderer was located
+	 * 
+	 * @param reason reason no renderer was located, as
+	 * 				 reported by RendererLocator
+	 */
+	public MissingPdfRenderer( String reason ) {
+		this.reason = reason;
+	}
+	
+	/**
+	 * Fails, as no renderer was located
+	 * 
+	 * @throws IOException always, naming the reason no
+	 * 		   renderer was located
+	 */
+	@Override
+	public void render( Path htmlFile, Path pdfFile ) throws IOException {
+		throw new IOException( "No renderer found; PDF letters cannot be "
+				+ "generated. " + reason );
+	}
+}
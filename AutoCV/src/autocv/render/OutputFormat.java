@@ -0,0 +1,48 @@
+package autocv.render;
+
+/**
+ * Format in which a cover letter is generated; the text
+ * formats are produced directly from the field slots of
+ * the base cover letter, without the PDF renderer, for
+ * pasting into the cover letter field of an application
+ * portal
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public enum OutputFormat {
+	
+	/** Rendered PDF document */
+	PDF( "PDF", ".pdf" ),
+	
+	/** Plain text, as typed into a text field */
+	TEXT( "Plain Text", ".txt" ),
+	
+	/** Markdown, as accepted by some portals */
+	MARKDOWN( "Markdown", ".md" );
+	
+	/** Name of the format displayed to the client */
+	private final String label;
+	
+	/** File extension of the format */
+	private final String extension;
+	
+	OutputFormat( String label, String extension ) {
+		this.label = label;
+		this.extension = extension;
+	}
+	
+	/**
+	 * Retrieves the file extension of the format
+	 * 
+	 * @return extension, including its dot
+	 */
+	public String getExtension() {
+		return extension;
+	}
+	
+	@Override
+	public String toString() {
+		return label;
+	}
+}
@@ -0,0 +1,42 @@
+package autocv.render;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts a rendered cover letter HTML file to PDF;
+ * implementations must be safe for use by several
+ * generation threads at once
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public interface PdfRenderer {
+	
+	/**
+	 * Renders the given HTML file to the given PDF
+	 * file, replacing any existing file
+	 * 
+	 * @param  htmlFile rendered cover letter HTML
+	 * @param  pdfFile	PDF file to write
+	 * @throws IOException if the PDF could not be
+	 * 		   rendered
+	 * @throws InterruptedException if interrupted
+	 * 		   while waiting on the renderer
+	 */
+	void render( Path htmlFile, Path pdfFile )
+		throws IOException, InterruptedException;
+	
+	/**
+	 * Whether each render starts a process of its own;
+	 * the letters of a batch are then combined into a
+	 * single document, so that the start of the process
+	 * is paid once for the batch rather than for every
+	 * letter
+	 * 
+	 * @return true if each render starts a process
+	 */
+	default boolean isProcessBased() {
+		return false;
+	}
+}
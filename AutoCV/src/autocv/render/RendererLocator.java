@@ -0,0 +1,378 @@
+package autocv.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locates the Chrome or Chromium executable used to
+ * render cover letters, on any platform; candidates
+ * are searched in order:
+ * 
+ * <li>The AUTOCV_CHROME environment variable, naming
+ * either an executable or a command on the PATH</li>
+ * <li>Each Chrome and Chromium command name on the
+ * PATH</li>
+ * <li>The default install locations of the platform</li>
+ * 
+ * The first executable candidate is probed for its
+ * version, and the result is cached within the data
+ * directory; later launches reuse the cached executable
+ * without probing so long as the override is unchanged
+ * and the executable is unmodified
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class RendererLocator {
+	
+	/** Environment variable overriding the executable */
+	public static final String CHROME_ENV = "AUTOCV_CHROME";
+	
+	/** Name of the cache file within the data directory */
+	public static final String CACHE_FILE = "renderer.properties";
+	
+	/** Command names searched on the PATH, in order */
+	private static final String[] COMMANDS = { "google-chrome",
+			"google-chrome-stable", "chromium", "chromium-browser", "chrome" };
+	
+	/**
+	 * Default Windows install directories; Chrome 85.0
+	 * and higher installs to the first, and earlier
+	 * 64-bit editions to the second
+	 */
+	private static final String[] WINDOWS_DIRS = {
+			"C:/Program Files/Google/Chrome/Application",
+			"C:/Program Files (x86)/Google/Chrome/Application" };
+	
+	/** Default macOS executables */
+	private static final String[] MAC_EXECUTABLES = {
+			"/Applications/Google Chrome.app/Contents/MacOS/Google Chrome",
+			"/Applications/Chromium.app/Contents/MacOS/Chromium" };
+	
+	/** Default Linux executables, beyond the PATH */
+	private static final String[] LINUX_EXECUTABLES = {
+			"/opt/google/chrome/chrome", "/snap/bin/chromium",
+			"/usr/lib/chromium/chromium", "/usr/lib/chromium-browser/chromium-browser" };
+	
+	/** Longest to wait for the version probe */
+	private static final long PROBE_SECONDS = 10;
+	
+	/** Utility class is not instantiable */
+	private RendererLocator() {}
+	
+	/**
+	 * Locates the renderer executable, reusing the
+	 * executable cached within the given data directory
+	 * if it remains valid
+	 * 
+	 * @param  dataDir data directory holding the cache
+	 * @return located executable and its version
+	 * @throws IOException if no candidate is a working
+	 * 		   Chrome or Chromium executable
+	 * @throws InterruptedException if interrupted while
+	 * 		   probing
+	 */
+	public static Renderer locate( Path dataDir )
+		throws IOException, InterruptedException {
+		
+		Path cache = dataDir.resolve( CACHE_FILE );
+		String override = System.getenv( CHROME_ENV );
+		Renderer cached = readCache( cache, override );
+		if( cached != null ) {
+			return cached;
+		}
+		
+		List<Path> candidates = candidates( override );
+		List<String> rejected = new ArrayList<>();
+		for( Path candidate : candidates ) {
+			if( !Files.isRegularFile( candidate ) ||
+					!Files.isExecutable( candidate ) ) {
+				continue;
+			}
+			try {
+				Renderer found = new Renderer( candidate, probeVersion( candidate ) );
+				writeCache( cache, override, found );
+				return found;
+			} catch( IOException ex ) {
+				rejected.add( candidate + " (" + ex.getMessage() + ")" );
+			}
+		}
+		
+		StringBuilder msg = new StringBuilder( "No Chrome or Chromium "
+				+ "executable found; install either, or set " + CHROME_ENV
+				+ " to its path. Searched:" );
+		for( Path candidate : candidates ) {
+			msg.append( "\n" ).append( candidate );
+		}
+		for( String reject : rejected ) {
+			msg.append( "\nRejected " ).append( reject );
+		}
+		throw new IOException( msg.toString() );
+	}
+	
+	/**
+	 * Lists every candidate executable, in search order
+	 * 
+	 * @param  override value of the override variable,
+	 * 		   or null
+	 * @return candidate executables
+	 */
+	static List<Path> candidates( String override ) {
+		Set<Path> candidates = new LinkedHashSet<>();
+		boolean windows = isWindows();
+		
+		if( override != null && !override.isEmpty() ) {
+			if( override.indexOf( '/' ) >= 0 || override.indexOf( '\\' ) >= 0 ) {
+				candidates.add( Paths.get( override ) );
+			}
+			else {
+				candidates.addAll( onPath( override, windows ) );
+			}
+		}
+		for( String command : COMMANDS ) {
+			candidates.addAll( onPath( command, windows ) );
+		}
+		
+		String os = System.getProperty( "os.name", "" ).toLowerCase( Locale.ROOT );
+		if( windows ) {
+			String local = System.getenv( "LOCALAPPDATA" );
+			if( local != null ) {
+				candidates.add( Paths.get( local, "Google", "Chrome",
+						"Application", "chrome.exe" ) );
+			}
+			for( String dir : WINDOWS_DIRS ) {
+				candidates.add( Paths.get( dir, "chrome.exe" ) );
+			}
+		}
+		else if( os.startsWith( "mac" ) ) {
+			for( String exe : MAC_EXECUTABLES ) {
+				candidates.add( Paths.get( exe ) );
+			}
+		}
+		else {
+			for( String exe : LINUX_EXECUTABLES ) {
+				candidates.add( Paths.get( exe ) );
+			}
+		}
+		return new ArrayList<>( candidates );
+	}
+	
+	/**
+	 * Resolves the given command against each directory
+	 * of the PATH
+	 * 
+	 * @param  command command name
+	 * @param  windows whether to append the executable
+	 * 				   extension
+	 * @return possible locations of the command
+	 */
+	private static List<Path> onPath( String command, boolean windows ) {
+		List<Path> found = new ArrayList<>();
+		String path = System.getenv( "PATH" );
+		if( path == null ) {
+			return found;
+		}
+		String name = windows && !command.endsWith( ".exe" ) ?
+				command + ".exe" : command;
+		for( String dir : path.split( File.pathSeparator ) ) {
+			if( !dir.isEmpty() ) {
+				Path exe = Paths.get( dir, name );
+				if( Files.exists( exe ) ) {
+					found.add( exe );
+				}
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Determines the version of the given executable
+	 * 
+	 * On Windows, Chrome opens a browser window rather
+	 * than printing its version, so the version is read
+	 * from the versioned directory installed beside the
+	 * executable instead
+	 * 
+	 * @param  exe candidate executable
+	 * @return version string
+	 * @throws IOException if the executable does not
+	 * 		   report a Chrome or Chromium version
+	 * @throws InterruptedException if interrupted while
+	 * 		   probing
+	 */
+	private static String probeVersion( Path exe )
+		throws IOException, InterruptedException {
+		
+		if( isWindows() ) {
+			Path dir = exe.toAbsolutePath().getParent();
+			try( DirectoryStream<Path> entries = Files.newDirectoryStream(
+					dir, "[0-9]*.[0-9]*" ) ) {
+				for( Path entry : entries ) {
+					if( Files.isDirectory( entry ) ) {
+						return "Chrome " + entry.getFileName();
+					}
+				}
+			}
+			return "Chrome (unknown version)";
+		}
+		
+		// The output is captured in a file rather than a
+		// pipe, so that a hung executable cannot block
+		// the probe beyond its timeout
+		Path captured = Files.createTempFile( "autocv-probe", ".txt" );
+		String output;
+		try {
+			Process probe = new ProcessBuilder( exe.toString(), "--version" ).
+					redirectInput( ProcessBuilder.Redirect.INHERIT ).
+					redirectErrorStream( true ).redirectOutput(
+					captured.toFile() ).start();
+			if( !probe.waitFor( PROBE_SECONDS, TimeUnit.SECONDS ) ) {
+				probe.destroyForcibly();
+				throw new IOException( "version probe timed out" );
+			}
+			output = new String( Files.readAllBytes( captured ),
+					StandardCharsets.UTF_8 ).trim();
+			if( probe.exitValue() != 0 ) {
+				throw new IOException( "version probe exited with code " +
+						probe.exitValue() );
+			}
+		} finally {
+			Files.deleteIfExists( captured );
+		}
+		if( !output.matches( "(?s).*(Chrome|Chromium).*\\d+\\.\\d+.*" ) ) {
+			throw new IOException( "not Chrome or Chromium: " + output );
+		}
+		return output.lines().findFirst().orElse( output );
+	}
+	
+	/**
+	 * Reads the cached executable, if it was located
+	 * with the same override and remains unmodified
+	 * 
+	 * @param  cache	cache file
+	 * @param  override value of the override variable,
+	 * 		   or null
+	 * @return cached executable, or null if the cache
+	 * 		   is absent or stale
+	 */
+	private static Renderer readCache( Path cache, String override ) {
+		try {
+			if( !Files.exists( cache ) ) {
+				return null;
+			}
+			Properties props = new Properties();
+			props.load( new StringReader( new String( Files.readAllBytes( cache ),
+					StandardCharsets.UTF_8 ) ) );
+			
+			Path exe = Paths.get( props.getProperty( "path", "" ) );
+			if( !props.getProperty( "override", "" ).equals(
+					override == null ? "" : override ) ||
+					!Files.isExecutable( exe ) ||
+					!stamp( exe ).equals( props.getProperty( "stamp" ) ) ) {
+				return null;
+			}
+			return new Renderer( exe, props.getProperty( "version", "" ) );
+		} catch( IOException | RuntimeException ex ) {
+			// A corrupt cache is located afresh
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the located executable to the cache file
+	 * 
+	 * @param  cache	cache file
+	 * @param  override value of the override variable,
+	 * 		   or null
+	 * @param  renderer located executable
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static void writeCache( Path cache, String override,
+			Renderer renderer ) throws IOException {
+		
+		Properties props = new Properties();
+		props.setProperty( "path", renderer.getExecutable().toString() );
+		props.setProperty( "version", renderer.getVersion() );
+		props.setProperty( "stamp", stamp( renderer.getExecutable() ) );
+		props.setProperty( "override", override == null ? "" : override );
+		
+		StringWriter out = new StringWriter();
+		props.store( out, "Located renderer executable" );
+		Path temp = cache.resolveSibling( CACHE_FILE + ".tmp" );
+		Files.write( temp, out.toString().getBytes( StandardCharsets.UTF_8 ) );
+		Files.move( temp, cache, StandardCopyOption.REPLACE_EXISTING );
+	}
+	
+	/**
+	 * Describes the size and modification time of the
+	 * given executable, which change whenever it is
+	 * updated
+	 * 
+	 * @param  exe executable
+	 * @return modification stamp
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static String stamp( Path exe ) throws IOException {
+		Path real = exe.toRealPath();
+		return Files.size( real ) + "@" + Files.getLastModifiedTime( real ).toMillis();
+	}
+	
+	/**
+	 * Determines if the program runs on Windows
+	 * 
+	 * @return true on Windows
+	 */
+	private static boolean isWindows() {
+		return System.getProperty( "os.name", "" ).toLowerCase(
+				Locale.ROOT ).startsWith( "windows" );
+	}
+	
+	/**
+	 * Located renderer executable and its version
+	 * 
+	 * @since 1.1
+	 */
+	public static final class Renderer {
+		
+		/** Path to the executable */
+		private final Path executable;
+		
+		/** Version reported by the executable */
+		private final String version;
+		
+		/**
+		 * Default constructor, initializing the
+		 * executable and its version
+		 * 
+		 * @param executable path to the executable
+		 * @param version	 version of the executable
+		 */
+		Renderer( Path executable, String version ) {
+			this.executable = executable;
+			this.version = version;
+		}
+		
+		public Path getExecutable() {
+			return executable;
+		}
+		
+		public String getVersion() {
+			return version;
+		}
+	}
+}
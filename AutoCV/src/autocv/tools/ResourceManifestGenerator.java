@@ -0,0 +1,84 @@
+package autocv.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import autocv.io.ResourceManifest;
+import autocv.io.ResourceManifest.Kind;
+import autocv.ui.AutoCVPaths;
+
+/**
+ * Generates the resource manifest from the resource
+ * directories of the source folder; run after adding or
+ * removing a font, style sheet, or layout, and check in
+ * the regenerated manifest
+ *
+ * <pre>
+ * java autocv.tools.ResourceManifestGenerator [source folder]
+ * </pre>
+ *
+ * The source folder defaults to "src" within the
+ * working directory
+ *
+ * @author Weston Greene
+ * @since  1.1
+ */
+public final class ResourceManifestGenerator {
+
+	/** Utility class is not instantiable */
+	private ResourceManifestGenerator() {}
+
+	/**
+	 * Writes the resource manifest into the given
+	 * source folder
+	 *
+	 * @param  args optional path to the source folder
+	 * @throws IOException upon runtime I/O exception
+	 */
+	public static void main( String[] args ) throws IOException {
+		Path srcDir = Paths.get( args.length > 0 ? args[ 0 ] : "src" );
+
+		Map<Kind, List<String>> entries = new EnumMap<>( Kind.class );
+		entries.put( Kind.FONT, list( srcDir, AutoCVPaths.FONTS_PATH ) );
+		entries.put( Kind.STYLESHEET, list( srcDir, AutoCVPaths.CSS_PATH ) );
+		entries.put( Kind.LAYOUT, list( srcDir, AutoCVPaths.LAYOUTS_PATH ) );
+
+		Path manifest = srcDir.resolve( AutoCVPaths.
+				RESOURCE_MANIFEST_PATH.substring( 1 ) );
+		Files.write( manifest, ResourceManifest.format( entries ).
+				getBytes( StandardCharsets.UTF_8 ) );
+
+		System.out.println( "Wrote " + manifest );
+	}
+
+	/**
+	 * Lists the classpath paths of every file within
+	 * the given resource directory, in name order
+	 *
+	 * @param  srcDir  source folder
+	 * @param  dirPath absolute classpath path of the
+	 * 		   resource directory
+	 * @return absolute classpath paths
+	 * @throws IOException upon runtime I/O exception
+	 */
+	private static List<String> list( Path srcDir, String dirPath )
+		throws IOException {
+
+		String dir = dirPath.replaceAll( "^/|/$", "" );
+		List<String> paths = new ArrayList<>();
+		try( Stream<Path> files = Files.list( srcDir.resolve( dir ) ) ) {
+			files.filter( Files::isRegularFile ).
+				map( f -> f.getFileName().toString() ).sorted().
+				forEach( name -> paths.add( "/" + dir + "/" + name ) );
+		}
+		return paths;
+	}
+}
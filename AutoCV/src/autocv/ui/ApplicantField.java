@@ -0,0 +1,62 @@
+package autocv.ui;
+
+import java.util.function.Function;
+
+import autocv.data.Applicant;
+
+/**
+ * Enumeration of the editable fields of an applicant,
+ * in the order displayed by the applicant info panels;
+ * each field extracts its value from an Applicant, so
+ * that a panel may compare a single edited field against
+ * a stored Applicant without compiling a new one
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+enum ApplicantField {
+	
+	NAME( Applicant::getName ),
+	MIDDLE_INITIAL( Applicant::getMiddleInitial ),
+	EMAIL( Applicant::getEmail ),
+	GITHUB_LINK( Applicant::getGitHubLink ),
+	LINKEDIN_LINK( Applicant::getLinkedInLink ),
+	PHONE( Applicant::getPhone ),
+	SCHOOL_YEAR( Applicant::getSchoolYear ),
+	RISING( Applicant::isRising ),
+	PRESENT_STREET_ADDRESS( a -> a.getPresentAddress().getStreetAddress() ),
+	PRESENT_CITY_STATE_ZIP( a -> a.getPresentAddress().getCityStateZip() ),
+	PRESENT_ROOM( a -> a.getPresentAddress().getPOBoxRoom() ),
+	PERMANENT_STREET_ADDRESS( a -> a.getPermanentAddress().getStreetAddress() ),
+	PERMANENT_CITY_STATE_ZIP( a -> a.getPermanentAddress().getCityStateZip() ),
+	PERMANENT_PO_BOX( a -> a.getPermanentAddress().getPOBoxRoom() );
+	
+	/** Number of applicant fields */
+	static final int COUNT = values().length;
+	
+	/** Extracts the value of the field */
+	private final Function<Applicant, Object> getter;
+	
+	/**
+	 * Default constructor, initializing the value
+	 * extractor of the field
+	 * 
+	 * @param getter extracts the value of the field
+	 */
+	private ApplicantField( Function<Applicant, Object> getter ) {
+		this.getter = getter;
+	}
+	
+	/**
+	 * Retrieves the value of the field from the given
+	 * Applicant; text values are never null, matching
+	 * the text of an empty text field
+	 * 
+	 * @param  app Applicant
+	 * @return value of the field
+	 */
+	Object valueOf( Applicant app ) {
+		Object value = getter.apply( app );
+		return value == null && this != SCHOOL_YEAR ? "" : value;
+	}
+}
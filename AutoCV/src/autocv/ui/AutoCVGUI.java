@@ -2,27 +2,76 @@ package autocv.ui;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
+import autocv.batch.BatchCheckpoint;
+import autocv.batch.BatchFile;
+import autocv.batch.InboxDaemon;
+import autocv.batch.BatchRow;
 import autocv.data.Address;
 import autocv.data.Applicant;
+import autocv.data.ApplicantProfileStore;
 import autocv.data.Company;
 import autocv.data.JobCredentials;
 import autocv.data.JobSeason;
 import autocv.data.JobType;
 import autocv.data.SchoolYear;
-import autocv.html.CoverLetterHTMLBuilder;
+import autocv.history.ApplicationJournal;
+import autocv.history.ApplicationRecord;
+import autocv.html.CoverLetterFieldResolver;
+import autocv.html.CoverLetterTemplate;
+import autocv.io.DataCipher;
+import autocv.io.DataDirectory;
+import autocv.io.DirectorySink;
+import autocv.io.DownloadDirectory;
+import autocv.io.OutputPathTemplate;
+import autocv.io.OutputSink;
+import autocv.io.PersistenceWriter;
+import autocv.io.PersistenceWriter.FsyncPolicy;
+import autocv.io.PersistenceWriter.SaveState;
+import autocv.io.ResourceManifest;
+import autocv.io.ResourceManifest.Kind;
+import autocv.io.ZipSink;
+import autocv.log.Logger;
+import autocv.parser.CoverLetterField;
+import autocv.render.ChromePdfRenderer;
+import autocv.render.CoverLetterGenerator;
+import autocv.render.FormTemplateCache;
+import autocv.render.GenerationJob;
+import autocv.render.GenerationQueue;
+import autocv.render.MissingPdfRenderer;
+import autocv.render.OutputFormat;
+import autocv.render.PdfRenderer;
+import autocv.render.RendererLocator;
+import autocv.render.RendererLocator.Renderer;
 import javafx.application.Application;
+import javafx.application.HostServices;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.StringProperty;
@@ -37,16 +86,25 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
 import javafx.scene.control.TextFormatter.Change;
+import javafx.scene.control.ToggleGroup;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 
 /**
@@ -70,6 +128,34 @@ import javafx.stage.Stage;
  */
 public class AutoCVGUI extends Application {
 	
+	/** Logger of the startup tasks and UI failures */
+	private static final Logger LOG = Logger.get( AutoCVGUI.class );
+	
+	/** Number of threads running the startup tasks */
+	private static final int STARTUP_THREADS = 4;
+	
+	/**
+	 * Thread reading each batch chosen by the client,
+	 * and opening its checkpoint and archive, one batch
+	 * after another
+	 */
+	private static final ExecutorService BATCH_PREPARER =
+			Executors.newSingleThreadExecutor( r -> {
+				Thread t = new Thread( r, "autocv-batch" );
+				t.setDaemon( true );
+				return t;
+			});
+	
+	/**
+	 * Number of cover letters rendered at once; batch
+	 * work takes all but one, which is kept for the
+	 * letters requested by the client
+	 */
+	private static final int GENERATION_THREADS = 3;
+	
+	/** Argument running the program as an inbox daemon */
+	private static final String DAEMON_OPTION = "--daemon";
+	
 	/**
 	 * Collection containing all available style
 	 * sheets within the CSS directory attached
@@ -108,6 +194,42 @@ public class AutoCVGUI extends Application {
 	 */
 	private static Applicant saveAppInfo;
 	
+	/**
+	 * Store containing every applicant profile; the
+	 * disk and save Applicants mirror the disk and
+	 * saved Applicants of the active profile within
+	 * this store
+	 */
+	private static ApplicantProfileStore profileStore;
+	
+	/**
+	 * Per-user data directory containing all mutable
+	 * state of the program; the classpath resources
+	 * are never written
+	 */
+	private static Path appDataDir;
+	
+	/**
+	 * Journal recording every generated cover letter;
+	 * used for warning the client upon generating a
+	 * second letter for the same company and season
+	 */
+	private static ApplicationJournal journal;
+	
+	/**
+	 * Writer committing the applicant profiles to disk
+	 * off of the JavaFX Application Thread; bursts of
+	 * saves to the same profile are merged into a
+	 * single write
+	 */
+	private static PersistenceWriter profileWriter;
+	
+	/**
+	 * Queue generating the cover letters requested by
+	 * the client off of the JavaFX Application Thread
+	 */
+	private static GenerationQueue generationQueue;
+	
 	/**
 	 * Job credentials associated with the job used
 	 * with the cover letter; these credentials are
@@ -117,49 +239,183 @@ public class AutoCVGUI extends Application {
 	private static JobCredentials saveJobCred;
 	
 	/**
-	 * Current applicant info stage, displaying either
-	 * the main or config applicant info panels;
-	 * this reference is used for closing the stage
-	 * after the client presses the save button
+	 * Current set up stage, displaying the config
+	 * applicant info panel in set up mode; this
+	 * reference is used for closing the stage after
+	 * the client presses the save button
 	 */
 	private static Stage appInfoStage;
 	
 	/**
-	 * Specifies which path to the Chrome executable
-	 * to use internally for the given system
-	 * 
-	 * Systems utilizing an older version of 64-bit
-	 * Google Chrome will store their executable
-	 * within the x86 Program Files directory, while
-	 * recent versions ( Chrome v85.0, August 2020 )
-	 * include their executable within the standard
-	 * Program Files directory
-	 * 
-	 * This flag determines which directory the
-	 * conversion process for Headless Chrome should
-	 * use; failure to locate either of the two possible
-	 * Chrome directories during UI initialization will
-	 * result in an error dialog message
+	 * Directory receiving the generated cover letters;
+	 * the Downloads directory of the client
 	 */
-	private static boolean usex86Path;
+	private static Path outputDir;
+	
+	/**
+	 * Sink writing each cover letter generated on its
+	 * own into the output directory
+	 */
+	private static DirectorySink outputSink;
+	
+	/**
+	 * Template of the path of each generated cover
+	 * letter, as configured within the data directory
+	 */
+	private static OutputPathTemplate outputTemplate;
+	
+	/**
+	 * Services of the hosting platform, used to open
+	 * each generated cover letter with the default
+	 * PDF viewer of the client
+	 */
+	private static HostServices hostServices;
 	
 	/**
 	 * Runs the UI program with the specified arguments;
 	 * no arguments are expected to be run with this
-	 * UI class, and any provided will be ignored
+	 * UI class, and any provided will be ignored, unless
+	 * the daemon argument is given
+	 * 
+	 * <pre>
+	 * --daemon [--watch &lt;dir&gt;] [--format pdf|text|markdown]
+	 * </pre>
+	 * 
+	 * runs the program without the UI instead, as a
+	 * daemon generating every batch file dropped into
+	 * the inbox of the watched directory until stopped
 	 * 
 	 * @param args program arguments
 	 */
 	public static void main( String[] args ) {
+		if( Arrays.asList( args ).contains( DAEMON_OPTION ) ) {
+			try {
+				runDaemon( args );
+			} catch( Exception ex ) {
+				LOG.error( "Daemon failed", ex );
+				Logger.shutdown();
+				System.exit( 1 );
+			}
+			return;
+		}
 		launch( args );
 	}
 	
+	/**
+	 * Runs the program as an inbox daemon; the data
+	 * directory, active profile, history, and renderer
+	 * are opened as for the UI, after which every batch
+	 * file dropped into the inbox is generated for the
+	 * active applicant and the default job credentials,
+	 * until the process is stopped
+	 * 
+	 * @param  args program arguments
+	 * @throws Exception if the daemon could not be
+	 * 		   started, or the inbox could not be watched
+	 */
+	private static void runDaemon( String[] args ) throws Exception {
+		Thread.setDefaultUncaughtExceptionHandler( ( t, ex ) ->
+				LOG.error( "Uncaught exception", ex ) );
+		
+		Path watchDir = null;
+		OutputFormat format = OutputFormat.PDF;
+		for( int i = 0; i < args.length; i++ ) {
+			if( args[ i ].equals( "--watch" ) && i + 1 < args.length ) {
+				watchDir = Paths.get( args[ ++i ] );
+			}
+			else if( args[ i ].equals( "--format" ) && i + 1 < args.length ) {
+				format = OutputFormat.valueOf( args[ ++i ].toUpperCase( Locale.ROOT ) );
+			}
+		}
+		
+		DataCipher cipher = openDataDirectory();
+		if( watchDir == null ) {
+			watchDir = appDataDir.resolve( AutoCVPaths.DAEMON_DIR );
+		}
+		
+		// The daemon generates every letter for the active
+		// profile, which must have been set up in the UI
+		profileStore = new ApplicantProfileStore( appDataDir.
+				resolve( AutoCVPaths.CONFIG_FILE ), appDataDir.
+				resolve( AutoCVPaths.PROFILES_DIR ), cipher );
+		Applicant applicant = loadApplicantInfo();
+		if( applicant == null ) {
+			throw new IllegalStateException( "No applicant profile; "
+					+ "run AutoCV once to set one up" );
+		}
+		saveJobCred = defaultJobCredentials();
+		journal = new ApplicationJournal( appDataDir.
+				resolve( AutoCVPaths.HISTORY_DIR ), cipher );
+		journal.open();
+		cipher.finishMigration();
+		
+		// Without the JavaFX toolkit, the state of each
+		// job is published on the generation threads
+		PdfRenderer pdf = openRenderer();
+		generationQueue = new GenerationQueue( new CoverLetterGenerator( pdf,
+				new FormTemplateCache( pdf, appDataDir.resolve(
+				AutoCVPaths.FORMS_DIR ) ) ), GENERATION_THREADS, Runnable::run );
+		
+		// Each letter of a batch is named and sharded
+		// as for a batch generated within the UI
+		OutputFormat jobFormat = format;
+		JobCredentials jobCred = saveJobCred;
+		Path workDir = appDataDir.resolve( AutoCVPaths.GENERATED_DIR );
+		InboxDaemon daemon = new InboxDaemon( watchDir, generationQueue,
+				( row, index, rows, sink ) -> {
+					Company company = row.getCompany();
+					String jobTitle = row.getJobTitle( "" );
+					String name = OutputPathTemplate.shard( outputTemplate.expand(
+							applicant, company, jobCred, jobTitle, LocalDate.now(),
+							jobFormat.getExtension() ), index, rows );
+					return new GenerationJob( applicant, company, jobCred,
+							jobTitle, workDir, sink, name, jobFormat );
+				}, () -> BatchCheckpoint.inputs( applicant, jobCred, "", jobFormat,
+						outputTemplate, LocalDate.now() ), AutoCVGUI::record );
+		
+		// Stopping the process stops watching the inbox,
+		// then waits briefly for the letters rendering,
+		// and syncs the checkpoints of the unfinished
+		// batches for the next run
+		Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+			daemon.close();
+			generationQueue.close();
+			daemon.sync();
+			journal.close();
+			Logger.shutdown();
+		}, "autocv-daemon-shutdown" ) );
+		
+		daemon.run();
+	}
+	
+	/**
+	 * Opens the PDF renderer, locating the Chrome or
+	 * Chromium executable; without one, a renderer failing
+	 * every PDF letter with the reason is opened instead,
+	 * so that text and Markdown letters are still
+	 * generated
+	 * 
+	 * @return PDF renderer
+	 * @throws InterruptedException if interrupted while
+	 * 		   probing the executable
+	 */
+	private static PdfRenderer openRenderer() throws InterruptedException {
+		try {
+			Renderer chrome = RendererLocator.locate( appDataDir );
+			LOG.info( "Renderer located", "path", chrome.
+					getExecutable(), "version", chrome.getVersion() );
+			return new ChromePdfRenderer( chrome.getExecutable() );
+		} catch( IOException ex ) {
+			LOG.warn( "Renderer not found; PDF letters will fail", ex );
+			return new MissingPdfRenderer( ex.getMessage() );
+		}
+	}
+	
 	/**
 	 * Initialization routine for the UI
 	 * 
-	 * <li>Sets the x86 flag boolean if necessary and
-	 * accesses one of the two valid Chrome directories,
-	 * or displays the error dialog message</li>
+	 * <li>Locates the Chrome or Chromium executable,
+	 * without which only PDF letters fail</li>
 	 * <li>Loads all typefaces and stylesheets</li>
 	 * <li>Instantiates and displays the Main Panel</li>
 	 * 
@@ -169,51 +425,181 @@ public class AutoCVGUI extends Application {
 	@Override
 	public void start( Stage mainStage ) throws Exception {
 		
-		if( !new File( AutoCVPaths.CHROME_DEFAULT_PATH ).exists() ) {
-			if( !( usex86Path = new File( AutoCVPaths.CHROME_X86_PATH ).
-					exists() ) ) {
-				
-				Alert noChrome = new Alert( AlertType.NONE,
-						"This application failed to detect a valid Google"
-						+ " Chrome installation on the current system, or "
-						+ "cannot access one of the given directories:\n\n"
-						+ AutoCVPaths.CHROME_DEFAULT_PATH + "\n"
-						+ AutoCVPaths.CHROME_X86_PATH + "\n"
-						+ "\nPlease download any version of Chrome, check "
-						+ "your program directories, or update your "
-						+ "system privileges.",
-						ButtonType.OK );
-				noChrome.setTitle( "Google Chrome Not Found" );
-				noChrome.show();
-				return;
-			}
-		}
+		// Failures escaping any thread, including the
+		// JavaFX Application Thread, are logged
+		Thread.setDefaultUncaughtExceptionHandler( ( t, ex ) ->
+				LOG.error( "Uncaught exception", ex ) );
 		
-		// Register the typefaces within the FONTS
-		// directory, and pre-load the stylesheets
-		// from the CSS directory
-		loadTypeFaces();
-		stylesheets = loadStylesheets();
+		hostServices = getHostServices();
 		
-		// File containing the Path to the config file
-		File configFile = new File( AutoCVGUI.class.getClass().
-				getResource( AutoCVPaths.APP_DATA_PATH ).
-				toURI() );
+		// Default job credentials, assuming the
+		// associated job is scheduled as an
+		// internship for the upcoming summer of
+		// the current year; assigned before the
+		// Main Panel is constructed, which checks
+		// the history against these credentials
+		//
+		// TODO: If the summer season of the
+		// current year has passed, should
+		// default to summer of next application
+		// year? Next season of current year if
+		// applicable?
+		saveJobCred = defaultJobCredentials();
+		
+		// Start the profile writer, and report any
+		// failed write to the client; the listener
+		// is registered on the JavaFX Application Thread
+		profileWriter = new PersistenceWriter( FsyncPolicy.FILE );
+		profileWriter.stateProperty().addListener( ( t, old, n ) -> {
+			if( n == SaveState.FAILED ) {
+				Alert saveFailed = new Alert( AlertType.ERROR,
+						"The applicant info could not be saved:\n\n"
+						+ profileWriter.lastErrorProperty().get(),
+						ButtonType.OK );
+				saveFailed.setTitle( "Save Failed" );
+				saveFailed.show();
+			}
+		});
+		
+		// Each independent step of the initialization
+		// runs as its own task, so that the first window
+		// is shown after the slowest step rather than
+		// after the sum of every step
+		long launched = System.nanoTime();
+		ExecutorService startup = Executors.newFixedThreadPool(
+				STARTUP_THREADS, r -> {
+					Thread t = new Thread( r, "autocv-startup" );
+					t.setDaemon( true );
+					return t;
+				});
 		
-		// If the config file already exists,
-		// instantiate and display the Main Panel;
-		// otherwise, display the config applicant
-		// info panel
-		if( configFile.exists() ) {
+		// Read the resource manifest, then register only
+		// the typefaces used by the first scene, and
+		// pre-load the stylesheets as listed
+		CompletableFuture<ResourceManifest> manifest = startTask(
+				"resource manifest", () -> ResourceManifest.load(
+				AutoCVPaths.RESOURCE_MANIFEST_PATH ), startup );
+		CompletableFuture<Void> fonts = manifest.thenCompose( m ->
+				startTask( "primary fonts", () -> {
+					loadTypeFaces( m, true );
+					return null;
+				}, startup ) );
+		CompletableFuture<List<String>> sheets = manifest.thenCompose( m ->
+				startTask( "stylesheets", () -> loadStylesheets( m ),
+				startup ) );
+		
+		// Prepare the data directory and derive the key,
+		// after which the profiles and the history are
+		// read independently of one another
+		CompletableFuture<DataCipher> data = startTask( "data directory",
+				AutoCVGUI::openDataDirectory, startup );
+		CompletableFuture<Applicant> config = data.thenCompose( cipher ->
+				startTask( "applicant profiles", () -> {
+					profileStore = new ApplicantProfileStore( appDataDir.
+							resolve( AutoCVPaths.CONFIG_FILE ), appDataDir.
+							resolve( AutoCVPaths.PROFILES_DIR ), cipher );
+					return loadApplicantInfo();
+				}, startup ) );
+		CompletableFuture<Void> history = data.thenCompose( cipher ->
+				startTask( "application history", () -> {
+					journal = new ApplicationJournal( appDataDir.
+							resolve( AutoCVPaths.HISTORY_DIR ), cipher );
+					journal.open();
+					return null;
+				}, startup ) );
+		
+		// Locate the renderer executable, probed on the
+		// first launch and cached within the data
+		// directory, and start the generation queue
+		CompletableFuture<Void> renderer = data.thenCompose( cipher ->
+				startTask( "renderer", () -> {
+					PdfRenderer pdf = openRenderer();
+					generationQueue = new GenerationQueue( new CoverLetterGenerator( pdf,
+							new FormTemplateCache( pdf, appDataDir.resolve(
+							AutoCVPaths.FORMS_DIR ) ) ), GENERATION_THREADS );
+					return null;
+				}, startup ) );
+		
+		// Once the profiles and the history have both been
+		// read, any plaintext data has been encrypted, and
+		// plaintext is rejected from then on
+		CompletableFuture<Applicant> migrated = config.thenCombine(
+				history, ( app, v ) -> app ).thenCompose( app ->
+				startTask( "data migration", () -> {
+					data.join().finishMigration();
+					return app;
+				}, startup ) );
+		
+		// The Main Panel FXML is loaded off of the JavaFX
+		// Application Thread, as no node is attached to
+		// a showing scene until the panel is displayed;
+		// its initialization reads both the profiles and
+		// the history
+		CompletableFuture<MainPanel> mainPanel = migrated.thenCombine( renderer,
+				( app, v ) -> app ).thenCompose( app -> app == null ?
+				CompletableFuture.completedFuture( null ) :
+				startTask( "main panel layout", MainPanel::new, startup ) );
+		
+		CompletableFuture.allOf( fonts, sheets, mainPanel ).whenComplete(
+				( v, ex ) -> Platform.runLater( () -> {
+			if( ex != null ) {
+				startup.shutdown();
+				failStartup( ex instanceof CompletionException ?
+						ex.getCause() : ex );
+				return;
+			}
 			
 			// Load in the applicant info from disk
 			// and initialize both the disk and save
 			// Applicants with the data
-			diskAppInfo = loadApplicantInfo();
+			stylesheets = sheets.join();
+			diskAppInfo = config.join();
 			saveAppInfo = diskAppInfo;
 			
+			showFirstStage( mainStage, mainPanel.join() );
+			LOG.info( "First window shown", "ms",
+					( System.nanoTime() - launched ) / 1_000_000 );
+			
+			// The typefaces not used by the first
+			// scene are registered in the background
+			startTask( "remaining fonts", () -> {
+				loadTypeFaces( manifest.join(), false );
+				return null;
+			}, startup ).whenComplete( ( f, fex ) -> startup.shutdown() );
+		}));
+	}
+	
+	/**
+	 * Creates the default job credentials, assuming the
+	 * job is an internship for the summer of the current
+	 * year
+	 * 
+	 * @return default job credentials
+	 */
+	private static JobCredentials defaultJobCredentials() {
+		return new JobCredentials( JobType.INTERNSHIP,
+				JobSeason.SUMMER, new SimpleDateFormat( "YYYY" ).
+				format( new Date() ) );
+	}
+	
+	/**
+	 * Displays the first Stage of the program; if at
+	 * least one profile already exists, the Main Panel
+	 * is displayed, and otherwise the config applicant
+	 * info panel is displayed for setting up the first
+	 * profile
+	 * 
+	 * @param mainStage main Stage used to display Main Panel
+	 * @param mainPanel pre-loaded Main Panel, or null
+	 * 		  if no profile has been configured
+	 */
+	private static void showFirstStage( Stage mainStage,
+			MainPanel mainPanel ) {
+		
+		if( mainPanel != null ) {
+			
 			// Display the Main Panel
-			Scene mainScene = new Scene( new MainPanel() );
+			Scene mainScene = new Scene( mainPanel );
 			mainScene.getStylesheets().setAll( stylesheets );
 			mainStage.setScene( mainScene );
 			mainStage.show();
@@ -233,13 +619,10 @@ public class AutoCVGUI extends Application {
 				@Override
 				public void clickSaveButton() {
 					
-					// Saves the data to the config file
+					// Saves the data to the config file,
+					// activating the new profile
 					super.clickSaveButton();
 					
-					// Initializes the save Applicant with
-					// the new contents of the disk Applicant
-					saveAppInfo = diskAppInfo;
-					
 					// Display the Main Panel
 					Scene mainScene = new Scene( new MainPanel() );
 					mainScene.getStylesheets().setAll( stylesheets );
@@ -253,139 +636,476 @@ public class AutoCVGUI extends Application {
 			
 			appInfoStage.show();
 		}
+	}
+	
+	/**
+	 * Records the letter of the given generated job
+	 * within the application history
+	 * 
+	 * @param job generated job
+	 */
+	private static void record( GenerationJob job ) {
+		Company company = job.getCompany();
+		JobCredentials jobCred = job.getJobCredentials();
+		journal.append( new ApplicationRecord(
+				System.currentTimeMillis(),
+				job.getApplicant().getName(), company.getName(),
+				company.getAddress().getStreetAddress(),
+				company.getAddress().getCityStateZip(),
+				job.getJobTitle(), jobCred.getJobType(),
+				jobCred.getJobSeason(), jobCred.getYear(),
+				job.getOutput() ) );
+	}
+	
+	/**
+	 * Reports a failed initialization to the client
+	 * and exits the program
+	 * 
+	 * @param cause failure of the initialization task
+	 */
+	private static void failStartup( Throwable cause ) {
+		LOG.error( "Startup failed", cause );
+		
+		Alert failed = new Alert( AlertType.ERROR,
+				"AutoCV could not be started:\n\n" + cause,
+				ButtonType.OK );
+		failed.setTitle( "Startup Failed" );
+		failed.showAndWait();
+		Platform.exit();
+	}
+	
+	/**
+	 * Runs a single initialization task on the given
+	 * executor, logging the duration of the task
+	 * 
+	 * @param  <T>		return type of the task
+	 * @param  name		name of the task, as logged
+	 * @param  task		initialization task
+	 * @param  executor startup executor
+	 * @return future completed with the result of the
+	 * 		   task
+	 */
+	private static <T> CompletableFuture<T> startTask( String name,
+			Callable<T> task, Executor executor ) {
 		
-		// Default job credentials, assuming the
-		// associated job is scheduled as an
-		// internship for the upcoming summer of
-		// the current year
-		//
-		// TODO: If the summer season of the
-		// current year has passed, should
-		// default to summer of next application
-		// year? Next season of current year if
-		// applicable?
-		saveJobCred = new JobCredentials( JobType.INTERNSHIP,
-				JobSeason.SUMMER, new SimpleDateFormat( "YYYY" ).
-				format( new Date() ) );
+		return CompletableFuture.supplyAsync( () -> {
+			long start = System.nanoTime();
+			try {
+				return task.call();
+			} catch( Exception ex ) {
+				throw new CompletionException( ex );
+			} finally {
+				LOG.info( "Startup task complete", "task", name,
+						"ms", ( System.nanoTime() - start ) / 1_000_000 );
+			}
+		}, executor );
+	}
+	
+	/**
+	 * Prepares the per-user data directory, containing
+	 * the config file and the profiles directory; any
+	 * data stored by earlier versions within the
+	 * classpath is copied over on first launch
+	 * 
+	 * @return cipher holding the key which encrypts
+	 * 		   the applicant data
+	 * @throws Exception upon runtime I/O exception
+	 */
+	private static DataCipher openDataDirectory() throws Exception {
+		appDataDir = DataDirectory.resolve();
+		Files.createDirectories( appDataDir );
+		Logger.configure( appDataDir.resolve( AutoCVPaths.LOGS_DIR ) );
+		outputDir = DownloadDirectory.resolve();
+		Files.createDirectories( outputDir );
+		outputSink = new DirectorySink( outputDir );
+		try {
+			outputTemplate = OutputPathTemplate.load(
+					appDataDir.resolve( AutoCVPaths.OUTPUT_FILE ) );
+		} catch( IllegalArgumentException ex ) {
+			LOG.warn( "Output template invalid", ex );
+			outputTemplate = new OutputPathTemplate(
+					OutputPathTemplate.DEFAULT_TEMPLATE );
+		}
+		DataDirectory.migrate( AutoCVGUI.class.getResource(
+				AutoCVPaths.APP_DATA_DIR ), appDataDir,
+				AutoCVPaths.CONFIG_FILE );
+		
+		// The custom HTML is self-contained, so the
+		// generated directory holds nothing else
+		Files.createDirectories( appDataDir.resolve( AutoCVPaths.GENERATED_DIR ) );
+		
+		// Derive the key encrypting the applicant data;
+		// the key is held for the remainder of the session
+		return DataCipher.open( appDataDir );
+	}
+	
+	/**
+	 * Shutdown routine for the UI; writes any
+	 * profile saves and application history
+	 * records still pending
+	 * 
+	 * @throws Exception upon runtime exception
+	 */
+	@Override
+	public void stop() throws Exception {
+		if( generationQueue != null ) {
+			generationQueue.close();
+		}
+		if( profileWriter != null ) {
+			profileWriter.close();
+		}
+		if( journal != null ) {
+			journal.close();
+		}
+		Logger.shutdown();
 	}
 	
 	/**
 	 * Loads in the typefaces and fonts as listed
-	 * within the FONTS directory; all registered
+	 * within the resource manifest; all registered
 	 * fonts are removed from the system font
 	 * registry after exiting the program
 	 * 
+	 * The fonts used by the first scene are loaded
+	 * during UI initialization, and all others after
+	 * the first scene is displayed
+	 * 
+	 * @param  manifest resource manifest
+	 * @param  primary  true to load only the fonts used
+	 * 		   			by the first scene, false to load
+	 * 		   			only the remaining fonts
 	 * @throws Exception upon runtime I/O exception,
-	 * 		   or a font within the FONTS directory
-	 * 		   is not a supported type
+	 * 		   or a listed font is missing or is not
+	 * 		   a supported type
 	 */
-	private static final void loadTypeFaces()
-		throws Exception {
+	private static final void loadTypeFaces( ResourceManifest manifest,
+			boolean primary ) throws Exception {
 		
-		// File containing Path to FONTS directory
-		File fontsDir = new File( AutoCVGUI.class.
-				getClass().getResource( AutoCVPaths.
-				FONTS_PATH ).toURI() );
+		List<String> primaryFonts = Arrays.asList(
+				AutoCVPaths.PRIMARY_FONTS );
 		
-		// For all fonts within the directory,
+		// For all fonts within the manifest,
 		// register each font with the system
-		// graphics environment
-		for( File fontFile : fontsDir.listFiles() ) {
-			
-			// If the retrieved font file is not a supported
-			// font type, throw an exception
-			if( Font.loadFont( AutoCVGUI.class.getClass().
-				getResourceAsStream( AutoCVPaths.FONTS_PATH.
-						concat( fontFile.getName() ) ), 1.0f ) == null ) {
-				throw new FileNotFoundException( "Invalid font format" );
+		// graphics environment, streaming the
+		// font directly from the classpath
+		for( String fontPath : manifest.get( Kind.FONT ) ) {
+			String name = fontPath.substring( fontPath.lastIndexOf( '/' ) + 1 );
+			if( primaryFonts.contains( name ) != primary ) {
+				continue;
+			}
+			
+			try( InputStream in = AutoCVGUI.class.
+					getResourceAsStream( fontPath ) ) {
+				
+				// If the retrieved font file is missing or
+				// not a supported font type, throw an exception
+				if( in == null || Font.loadFont( in, 1.0f ) == null ) {
+					throw new FileNotFoundException( "Invalid font format: "
+							+ fontPath );
+				}
 			}
 		}
 	}
 	
 	/**
 	 * Loads in the style sheets as listed in the
-	 * CSS directory; this routine serves as a
+	 * resource manifest; this routine serves as a
 	 * pre-loader during UI initialization, and
 	 * loads all of the sheets rather than only
 	 * the sheets requested by each individual
 	 * Stage
 	 * 
+	 * @param  manifest resource manifest
 	 * @return list of URL paths to each style sheet
-	 * @throws Exception upon runtime I/O exception
+	 * @throws Exception if a listed style sheet
+	 * 		   is missing
 	 */
-	private static final List<String> loadStylesheets()
-		throws Exception {
+	private static final List<String> loadStylesheets(
+			ResourceManifest manifest ) throws Exception {
 		
 		List<String> sheets = new LinkedList<>();
 		
-		File sheetsDir = new File( AutoCVGUI.class.
-				getClass().getResource( AutoCVPaths.
-				CSS_PATH ).toURI() );
-		
-		for( File sheetFile : sheetsDir.listFiles() ) {
-			sheets.add( sheetFile.toURI().
-					toURL().toExternalForm() );
+		for( String sheetPath : manifest.get( Kind.STYLESHEET ) ) {
+			URL sheet = AutoCVGUI.class.getResource( sheetPath );
+			if( sheet == null ) {
+				throw new FileNotFoundException( sheetPath );
+			}
+			sheets.add( sheet.toExternalForm() );
 		}
 		return sheets;
 	}
 	
 	/**
-	 * Loads the applicant info from the config file
-	 * during UI initialization
+	 * Loads the applicant info of every profile from
+	 * disk during UI initialization
 	 * 
 	 * @return Applicant containing data from the
-	 * 		   config file
+	 * 		   active profile, or null if no profile
+	 * 		   has been configured
 	 * @throws Exception upon runtime I/O exception
 	 */
 	private static final Applicant loadApplicantInfo()
 		throws Exception {
 		
+		profileStore.load();
+		
+		return profileStore.isEmpty() ? null :
+			profileStore.getDiskApplicant(
+			profileStore.getActiveFile() );
+	}
+	
+	/**
+	 * Switches the active profile, replacing the disk
+	 * and save Applicants with the Applicants of the
+	 * given profile
+	 * 
+	 * Only the state derived from the applicant is
+	 * invalidated; the job credentials and saved
+	 * companies are shared between all profiles
+	 * 
+	 * @param file profile file to activate
+	 */
+	private static void activateProfile( Path file ) {
+		profileStore.setActiveFile( file );
+		diskAppInfo = profileStore.getDiskApplicant( file );
+		saveAppInfo = profileStore.getSavedApplicant( file );
+		
+		// The set up panel has stored its profile
+		if( appInfoStage != null ) {
+			appInfoStage.close();
+		}
+	}
+	
+	/**
+	 * Stage displaying a single panel, which is built
+	 * once and cached; each subsequent display refreshes
+	 * the cached panel with the current program state
+	 * rather than loading its FXML and styling a new
+	 * Scene again
+	 * 
+	 * @param <P> type of the displayed panel
+	 * @since 1.1
+	 */
+	private static final class PanelStage<P extends Pane> {
+		
+		/** Builds the panel upon first use */
+		private final Supplier<P> factory;
+		
 		/**
-		 * Scanner wrapping a File containing
-		 * the Path to the config file, used
-		 * for reading in applicant data
-		 */
-		Scanner appScan = new Scanner( new File( AutoCVGUI.
-				class.getClass().getResource( AutoCVPaths.
-				APP_DATA_PATH ).toURI() ) );
-		
-		// Reads in the name, middle initial,
-		// email, GitHub link, LinkedIn link,
-		// phone number, school year, and
-		// is rising data
-		String name = appScan.nextLine();
-		String mi = appScan.nextLine();
-		String email = appScan.nextLine();
-		String git = appScan.nextLine();
-		String lin = appScan.nextLine();
-		String phone = appScan.nextLine();
-		SchoolYear year = SchoolYear.valueOf( appScan.nextLine() );
-		boolean rise = Boolean.parseBoolean( appScan.nextLine() );
-		
-		// Present address parsing
-		String sa1 = appScan.nextLine();
-		String csz1 = appScan.nextLine();
-		String rn1 = appScan.nextLine();
-		Address add1 = new Address( sa1, csz1, rn1 );
-		
-		// Permanent address parsing
-		String sa2 = appScan.nextLine();
-		String csz2 = appScan.nextLine();
-		String rn2 = appScan.nextLine();
-		Address add2 = new Address( sa2, csz2, rn2 );
-		
-		// Closes and returns the resources utilized
-		// by the Scanner
-		appScan.close();
-		
-		// Return the Applicant with the parsed data
-		return new Applicant( name, mi, email, git, lin,
-			phone, year, rise, add1, add2  );
+		 * Updates the cached panel with the current
+		 * program state
+		 */
+		private final Consumer<P> refresher;
+		
+		/** Cached panel, or null if not yet built */
+		private P panel;
+		
+		/** Cached Stage, or null if not yet built */
+		private Stage stage;
+		
+		/**
+		 * Default constructor, initializing the panel
+		 * factory and refresh routine; no panel is
+		 * built until first requested
+		 * 
+		 * @param factory	builds the panel
+		 * @param refresher refreshes the cached panel
+		 */
+		PanelStage( Supplier<P> factory, Consumer<P> refresher ) {
+			this.factory = factory;
+			this.refresher = refresher;
+		}
+		
+		/**
+		 * Builds the panel and its Stage if not yet
+		 * built; used for building the panel ahead of
+		 * its first display
+		 * 
+		 * @return cached Stage
+		 */
+		Stage preload() {
+			if( stage == null ) {
+				panel = factory.get();
+				Scene scene = new Scene( panel );
+				scene.getStylesheets().setAll( stylesheets );
+				stage = new Stage();
+				stage.setScene( scene );
+			}
+			return stage;
+		}
+		
+		/**
+		 * Displays the panel, refreshing a previously
+		 * built panel with the current program state
+		 * 
+		 * @return displayed Stage
+		 */
+		Stage show() {
+			if( stage == null ) {
+				preload();
+			}
+			else {
+				refresher.accept( panel );
+			}
+			stage.show();
+			stage.toFront();
+			return stage;
+		}
+		
+		/**
+		 * Refreshes the panel with the current program
+		 * state, if the panel has been built
+		 */
+		void refresh() {
+			if( panel != null ) {
+				refresher.accept( panel );
+			}
+		}
+	}
+	
+	/**
+	 * Opens the given generated cover letter with the
+	 * system default PDF viewer, through the services
+	 * of the hosting platform, which launch the viewer
+	 * on every supported platform
+	 * 
+	 * A letter written within a ZIP archive opens the
+	 * archive itself
+	 * 
+	 * @param output location of the generated cover
+	 * 		  letter, as reported by its sink
+	 */
+	private static void openPDF( String output ) {
+		int entry = output.indexOf( "!/" );
+		Path file = Paths.get( entry < 0 ? output : output.substring( 0, entry ) );
+		hostServices.showDocument( file.toUri().toString() );
+	}
+	
+	/**
+	 * Batch chosen by the client, whose checkpoint and
+	 * archive are open, and whose remaining rows are
+	 * ready to be queued
+	 * 
+	 * @since 1.1
+	 */
+	private static final class PreparedBatch {
+		
+		/** Batch file */
+		private final Path file;
+		
+		/** ZIP archive receiving the letters */
+		private final Path archive;
+		
+		/** Checkpoint of the batch */
+		private final BatchCheckpoint checkpoint;
+		
+		/** Sink writing the letters into the archive */
+		private final ZipSink sink;
+		
+		/** Number of rows of the batch file */
+		private final int rows;
+		
+		/** Job of each remaining row */
+		private final List<GenerationJob> jobs;
+		
+		/** Number of the row of each job */
+		private final List<Integer> jobRows;
+		
+		/**
+		 * Default constructor, initializing the batch
+		 * without any job
+		 * 
+		 * @param file		 batch file
+		 * @param archive	 ZIP archive receiving the letters
+		 * @param checkpoint checkpoint of the batch
+		 * @param sink		 sink writing into the archive
+		 * @param rows		 number of rows of the batch file
+		 */
+		PreparedBatch( Path file, Path archive, BatchCheckpoint checkpoint,
+				ZipSink sink, int rows ) {
+			this.file = file;
+			this.archive = archive;
+			this.checkpoint = checkpoint;
+			this.sink = sink;
+			this.rows = rows;
+			jobs = new ArrayList<>( rows );
+			jobRows = new ArrayList<>( rows );
+		}
+	}
+	
+	/**
+	 * List cell displaying a single queued cover letter,
+	 * its progress, and, once generated, a button opening
+	 * the generated letter, labeled by its format; a
+	 * failed letter displays the reason it failed
+	 * 
+	 * @since 1.1
+	 */
+	private static final class GenerationJobCell extends ListCell<GenerationJob> {
+		
+		/** Opens the generated letter of the job */
+		private final Button openBtn;
+		
+		/** Updates the cell as the state of its job changes */
+		private final ChangeListener<GenerationJob.State> stateListener;
+		
+		/**
+		 * Default constructor, initializing the
+		 * open button and the state listener
+		 */
+		GenerationJobCell() {
+			openBtn = new Button();
+			openBtn.setOnAction( e -> openPDF( getItem().getOutput() ) );
+			stateListener = ( t, old, n ) -> display( getItem() );
+		}
+		
+		@Override
+		protected void updateItem( GenerationJob job, boolean empty ) {
+			GenerationJob previous = getItem();
+			if( previous != null ) {
+				previous.stateProperty().removeListener( stateListener );
+			}
+			super.updateItem( job, empty );
+			
+			if( empty || job == null ) {
+				setText( null );
+				setGraphic( null );
+				return;
+			}
+			job.stateProperty().addListener( stateListener );
+			display( job );
+		}
+		
+		/**
+		 * Displays the progress of the given job
+		 * 
+		 * @param job displayed job
+		 */
+		private void display( GenerationJob job ) {
+			if( job.getState() == GenerationJob.State.FAILED && job.getError() != null ) {
+				setText( job + "  [" + job.getState() + ": "
+						+ job.getError().getMessage() + "]" );
+			}
+			else {
+				setText( job + "  [" + job.getState() + "]" );
+			}
+			openBtn.setText( "Open " + job.getFormat() );
+			setGraphic( job.getState() == GenerationJob.State.DONE ?
+					openBtn : null );
+		}
 	}
 	
 	private static class MainPanel extends VBox {
 		
-		private static final int VIRTUAL_TIME_BUDGET = 50;
+		/**
+		 * Cached panel Stages opened from the menu of
+		 * the Main Panel; each is built upon first use,
+		 * or pre-loaded after the Main Panel is displayed
+		 */
+		private final PanelStage<MainApplicantInfoPanel> mainAppInfoStage;
+		private final PanelStage<JobCredentialsPanel> jobCredStage;
+		private final PanelStage<ConfigApplicantInfoPanel> configAppInfoStage;
+		private final PanelStage<ConfigApplicantInfoPanel> newProfileStage;
 		
 		/**
 		 * Menu item storing the contents of the company
@@ -410,6 +1130,24 @@ public class AutoCVGUI extends Application {
 		@FXML
 		private Menu loadCompany;
 		
+		/**
+		 * Menu listing every applicant profile; selecting
+		 * a profile activates it for all subsequently
+		 * generated cover letters
+		 */
+		@FXML
+		private Menu switchProfile;
+		
+		/**
+		 * Menu item filling each cover letter into the
+		 * master PDF shared by its applicant and job,
+		 * rather than rendering the whole letter; letters
+		 * which do not fit the master are still rendered
+		 * in whole
+		 */
+		@FXML
+		private CheckMenuItem fillForms;
+		
 		/**
 		 * Text field used for storing the name of
 		 * the company associated with the job on
@@ -471,6 +1209,14 @@ public class AutoCVGUI extends Application {
 		@FXML
 		private CheckBox openPDFBox;
 		
+		/**
+		 * Choice box used for specifying the format in
+		 * which cover letters are generated, whether as
+		 * a single letter or as a batch; by default, PDF
+		 */
+		@FXML
+		private ChoiceBox<OutputFormat> formatBox;
+		
 		/**
 		 * Main menu bar present at the top left of
 		 * the main panel; contains options for editing
@@ -480,6 +1226,29 @@ public class AutoCVGUI extends Application {
 		@FXML
 		private MenuBar mainMenu;
 		
+		/**
+		 * Notice displayed if a cover letter has already
+		 * been generated for the current company with the
+		 * saved job credentials
+		 */
+		@FXML
+		private Text appliedNotice;
+		
+		/**
+		 * Pane beside the fields containing the live
+		 * preview of the cover letter
+		 */
+		@FXML
+		private StackPane previewPane;
+		
+		/**
+		 * Live preview of the cover letter; attached upon
+		 * the first pulse after the Main Panel is loaded,
+		 * as the preview may only be created on the
+		 * JavaFX Application Thread
+		 */
+		private LetterPreview preview;
+		
 		/**
 		 * List containing the names of all
 		 * saved companies
@@ -497,12 +1266,11 @@ public class AutoCVGUI extends Application {
 		private BooleanProperty isDuplicateCompany;
 		
 		/**
-		 * Determines if the main panel is currently
-		 * generating a cover letter; disables all fields,
-		 * menu navigation, and reset functionality while
-		 * generating
+		 * List of every cover letter queued for generation
+		 * during the session, with the progress of each
 		 */
-		private BooleanProperty isGenerating;
+		@FXML
+		private ListView<GenerationJob> jobList;
 		
 		/**
 		 * Default constructor, initializing the
@@ -515,7 +1283,52 @@ public class AutoCVGUI extends Application {
 			
 			companies = new LinkedList<>();
 			isDuplicateCompany = new SimpleBooleanProperty();
-			isGenerating = new SimpleBooleanProperty();
+			
+			// Saving the applicant or the job credentials
+			// changes the contents of the letter
+			mainAppInfoStage = new PanelStage<>( () ->
+				new MainApplicantInfoPanel() {
+					
+					@Override
+					public void clickSaveButton() {
+						super.clickSaveButton();
+						refreshPreview();
+					}
+				}, MainApplicantInfoPanel::refresh );
+			jobCredStage = new PanelStage<>( () ->
+				new JobCredentialsPanel() {
+					
+					@Override
+					public void clickSave() {
+						super.clickSave();
+						updateAppliedNotice();
+						refreshPreview();
+					}
+				}, JobCredentialsPanel::refresh );
+			
+			// The config panels refresh the profile menu
+			// after saving, as the profile name may have
+			// changed or a profile may have been added
+			configAppInfoStage = new PanelStage<>( () ->
+				new ConfigApplicantInfoPanel( false ) {
+					
+					@Override
+					public void clickSaveButton() {
+						super.clickSaveButton();
+						refreshProfileMenu();
+					}
+				}, ConfigApplicantInfoPanel::refresh );
+			newProfileStage = new PanelStage<>( () ->
+				new ConfigApplicantInfoPanel( true ) {
+					
+					@Override
+					public void clickSaveButton() {
+						super.clickSaveButton();
+						refreshProfileMenu();
+						refreshDialogs();
+						refreshPreview();
+					}
+				}, ConfigApplicantInfoPanel::refresh );
 			
 			FXMLLoader mp = new FXMLLoader( AutoCVGUI.
 					class.getClass().getResource( AutoCVPaths.
@@ -526,8 +1339,8 @@ public class AutoCVGUI extends Application {
 			try {
 				mp.load();
 			} catch( Exception ex ) {
-				// TODO: Change to print to log file
-				ex.printStackTrace();
+				throw new IllegalStateException( "Unable to load " +
+						AutoCVPaths.MAIN_LAYOUT_PATH, ex );
 			}
 		}
 		
@@ -551,168 +1364,463 @@ public class AutoCVGUI extends Application {
 					isDuplicateCompany.set( companies.
 						contains( name ) );
 				}
+				updateAppliedNotice();
+			});
+			
+			// The save company menu item is disabled
+			// if any of the fields, barring the job
+			// title field, are empty or the current
+			// company is a duplicate of one already
+			// saved
+			saveCompany.disableProperty().
+				bind( companyNameField.textProperty().
+				isEmpty().or( companySAField.textProperty().
+				isEmpty().or( companyCSZField.textProperty().
+				isEmpty() ) ).or( isDuplicateCompany ) );
+			
+			// The refresh button is disabled if all
+			// of the fields are already empty
+			refreshBtn.disableProperty().bind( companyNameField.
+				textProperty().isEmpty().and( companySAField.
+				textProperty().isEmpty().and( companyCSZField.
+				textProperty().isEmpty().and( jobTitleField.
+				textProperty().isEmpty() ) ) ) );
+			
+			// The generate button is disabled if any
+			// of the fields are empty; letters already
+			// queued do not disable any component
+			generateBtn.disableProperty().bind( companyNameField.
+				textProperty().isEmpty().or( companySAField.
+				textProperty().isEmpty().or( companyCSZField.
+				textProperty().isEmpty().or( jobTitleField.
+				textProperty().isEmpty() ) ) ) );
+			
+			// Display every queued letter, offering to
+			// open the PDF of each generated letter
+			jobList.setItems( generationQueue.getJobs() );
+			jobList.setCellFactory( l -> new GenerationJobCell() );
+			
+			// Default check the open PDF checkbox
+			openPDFBox.setSelected( true );
+			formatBox.setItems( FXCollections.observableArrayList(
+					OutputFormat.values() ) );
+			formatBox.setValue( OutputFormat.PDF );
+			
+			refreshProfileMenu();
+			updateAppliedNotice();
+			
+			// Each company and job title field updates
+			// only the slots of the preview it fills
+			previewField( companyNameField, CoverLetterField.INITIAL_COMPANY_NAME,
+					CoverLetterField.LAST_COMPANY_NAME );
+			previewField( companySAField, CoverLetterField.COMPANY_ADDRESS_1 );
+			previewField( companyCSZField, CoverLetterField.COMPANY_ADDRESS_2 );
+			previewField( jobTitleField, CoverLetterField.JOB_TITLE );
+			Platform.runLater( this::attachPreview );
+			
+			// Render the master of the letter in the
+			// background once a job title is entered, so
+			// that the letter generated next is filled
+			// rather than rendered in whole
+			jobTitleField.focusedProperty().addListener( ( o, was, focused ) -> {
+				if( !focused && !jobTitleField.getText().isEmpty() ) {
+					generationQueue.prewarm( saveAppInfo, saveJobCred,
+							jobTitleField.getText() );
+				}
+			});
+			
+			// Build the dialogs once the Main Panel is
+			// displayed, one per pulse, so that the first
+			// click of each menu item displays immediately
+			Platform.runLater( mainAppInfoStage::preload );
+			Platform.runLater( jobCredStage::preload );
+			Platform.runLater( configAppInfoStage::preload );
+			Platform.runLater( newProfileStage::preload );
+		}
+		
+		/**
+		 * Creates the live preview of the cover letter
+		 * and renders the current letter
+		 */
+		private void attachPreview() {
+			try {
+				preview = new LetterPreview( CoverLetterTemplate.base() );
+			} catch( IOException ex ) {
+				LOG.error( "Unable to load letter preview", ex );
+				return;
+			}
+			previewPane.getChildren().add( preview.getView() );
+			refreshPreview();
+		}
+		
+		/**
+		 * Registers the given field with the preview;
+		 * each edit of the field updates the given slots
+		 * upon the next frame
+		 * 
+		 * @param textField company or job title field
+		 * @param slots		cover letter fields filled by
+		 * 					the text field
+		 */
+		private void previewField( TextField textField,
+				CoverLetterField... slots ) {
+			
+			textField.textProperty().addListener( ( t, old, n ) -> {
+				if( preview != null ) {
+					for( CoverLetterField slot : slots ) {
+						preview.set( slot, n );
+					}
+				}
 			});
+		}
+		
+		/**
+		 * Renders the entire preview; used when the
+		 * applicant or the job credentials change
+		 */
+		private void refreshPreview() {
+			if( preview == null ) {
+				return;
+			}
 			
-			// The save company menu item is disabled
-			// if any of the fields, barring the job
-			// title field, are empty or the current
-			// company is a duplicate of one already
-			// saved
-			saveCompany.disableProperty().
-				bind( companyNameField.textProperty().
-				isEmpty().or( companySAField.textProperty().
-				isEmpty().or( companyCSZField.textProperty().
-				isEmpty() ) ).or( isDuplicateCompany ) );
-			
-			// The refresh button is disabled if all
-			// of the fields are already empty, or the
-			// panel is generating a cover letter
-			refreshBtn.disableProperty().bind( companyNameField.
-				textProperty().isEmpty().and( companySAField.
-				textProperty().isEmpty().and( companyCSZField.
-				textProperty().isEmpty().and( jobTitleField.
-				textProperty().isEmpty() ) ) ).or( isGenerating ) );
-			
-			// The generate button is disabled if any
-			// of the fields are empty, or the panel
-			// is generating
-			generateBtn.disableProperty().bind( companyNameField.
-				textProperty().isEmpty().or( companySAField.
-				textProperty().isEmpty().or( companyCSZField.
-				textProperty().isEmpty().or( jobTitleField.
-				textProperty().isEmpty() ) ) ).or( isGenerating ) );
+			CoverLetterFieldResolver resolver = new CoverLetterFieldResolver(
+					saveAppInfo, new Company( companyNameField.getText(),
+					new Address( companySAField.getText(), companyCSZField.
+					getText() ) ), saveJobCred, jobTitleField.getText() );
+			preview.render( resolver::resolve );
+		}
+		
+		/**
+		 * Refreshes every built applicant info panel
+		 * with the data of the active profile
+		 */
+		private void refreshDialogs() {
+			mainAppInfoStage.refresh();
+			configAppInfoStage.refresh();
+		}
+		
+		/**
+		 * Displays the applied notice if the application
+		 * history contains a letter for the current company
+		 * with the saved job credentials
+		 */
+		private void updateAppliedNotice() {
+			String name = companyNameField.getText();
+			appliedNotice.setVisible( !name.isEmpty() &&
+					journal.hasApplied( new Company( name ), saveJobCred ) );
+		}
+		
+		/**
+		 * Rebuilds the switch profile menu with an item
+		 * for every stored profile, selecting the item
+		 * of the active profile
+		 */
+		private void refreshProfileMenu() {
+			ToggleGroup profileGroup = new ToggleGroup();
+			Path active = profileStore.getActiveFile();
 			
-			// If currently generating, disable all panel
-			// components; otherwise, enable all panel
-			// components
-			isGenerating.addListener( ( t, old, n ) -> {
-				
-				boolean gen = isGenerating.get();
+			switchProfile.getItems().clear();
+			for( Path file : profileStore.getProfileFiles() ) {
+				RadioMenuItem item = new RadioMenuItem( profileStore.
+						getDiskApplicant( file ).getName() );
+				item.setToggleGroup( profileGroup );
+				item.setSelected( file.equals( active ) );
+				item.setOnAction( e -> {
+					activateProfile( file );
+					refreshDialogs();
+					refreshPreview();
+				});
 				
-				companyNameField.setDisable( gen );
-				companySAField.setDisable( gen );
-				companyCSZField.setDisable( gen );
-				jobTitleField.setDisable( gen );
-				mainMenu.setDisable( gen );
-				openPDFBox.setDisable( gen );
-			});
-			
-			// Default check the open PDF checkbox
-			openPDFBox.setSelected( true );
+				switchProfile.getItems().add( item );
+			}
 		}
 		
 		/**
-		 * Generates the cover letter using the preferences
-		 * specified throughout the program; while generating,
-		 * all other panel functionality is disabled
+		 * Queues the cover letter using the preferences
+		 * specified throughout the program; the letter is
+		 * generated from a snapshot of the current data,
+		 * and every panel remains editable while the letter
+		 * renders
 		 */
 		@FXML
 		private void generateCoverLetter() {
 			
-			// Enable generating
-			isGenerating.set( true );
-			
 			// Compile the company data on the panel
 			String sa = companySAField.getText();
 			String csz = companyCSZField.getText();
 			
 			Address address = new Address( sa, csz );
 			String name = companyNameField.getText();
+			String jobTitle = jobTitleField.getText();
 			
 			Company company = new Company( name, address );
 			
-			// Instantiate a new builder for constructing
-			// the reference HTML file, providing the saved
-			// applicant info, the compiled company, the
-			// saved job credentials, and the job title
-			//
-			// TODO: For efficiency, do not instantiate
-			// a new builder if none of the fields have
-			// been modified
-			CoverLetterHTMLBuilder htmlBuilder =
-					new CoverLetterHTMLBuilder( saveAppInfo, company,
-					saveJobCred, jobTitleField.getText() );
+			// Snapshot the applicant and job credentials,
+			// which may be replaced before the job renders
+			Applicant applicant = saveAppInfo;
+			JobCredentials jobCred = saveJobCred;
+			boolean openPDF = openPDFBox.isSelected();
+			OutputFormat format = formatBox.getValue();
 			
-			try {
-				// Build the HTML, replacing the internal
-				// fields with the provided data
-				htmlBuilder.build();
-				
-				// Store the path to the Chrome executable,
-				// accounting for the x86 flag
-				final String chromeAppPath = usex86Path ?
-						AutoCVPaths.CHROME_X86_PATH :
-							AutoCVPaths.CHROME_DEFAULT_PATH;
-				
-				// Store the path to the reference HTML file
-				// which to write the contents of the builder
-				String cvHTMLPath = AutoCVGUI.class.getClass().
-						getResource( AutoCVPaths.AUTO_GEN_HTML_PATH ).
-						toExternalForm().substring( 6 );
-				
-				// Write the contents of the builder to the
-				// HTML file
-				Files.write( Paths.get( cvHTMLPath ), htmlBuilder );
-				
-				// Store the directory which to save the
-				// generated cover letter PDF
-				String saveDir = "C:/Users/" + System.getenv( "USERNAME" ) + "/Downloads/" +
-					saveAppInfo.getFirstName() + "_" + saveAppInfo.getMiddleInitial() +
-					"_" + saveAppInfo.getLastName() + "_Cover_Letter.pdf";
-				
-				// Run the Chrome executable with the --headless
-				// flag, specifying to run the print to PDF
-				// functionality with the given PDF save directory
-				// and the reference HTML file
-				ProcessBuilder gen = new ProcessBuilder( "cmd", "/c", "chrome", "--headless",
-						"-virtual-time-budget=" + VIRTUAL_TIME_BUDGET, "--disable-gpu",
-						"--run-all-compositor-stages-before-draw",
-						"--print-to-pdf=\"" + saveDir + "\"",
-						cvHTMLPath );
+			// Write the generated cover letter into the
+			// output directory
+			GenerationJob job = new GenerationJob( applicant, company,
+					jobCred, jobTitle, appDataDir.resolve( AutoCVPaths.
+					GENERATED_DIR ), outputSink, outputTemplate.expand( applicant,
+					company, jobCred, jobTitle, LocalDate.now(),
+					format.getExtension() ), format );
+			
+			generationQueue.submit( job ).whenComplete( ( done, ex ) -> {
+				// The failure itself is logged by the queue,
+				// with the correlation id of the job
+				if( ex != null ) {
+					return;
+				}
 				
-				// Provide the process with the path of the
-				// Chrome executable
-				gen.directory( new File( chromeAppPath ) );
+				// Record the letter within the
+				// application history
+				record( job );
 				
-				// Thread used for generating the cover
-				// letter off of the JavaFX Application
-				// Thread
-				Thread genOpen = new Thread() {
-					
-					@Override
-					public void run() {
-						try {
-							// Starts Chrome executable process,
-							// and waits for the process to
-							// terminate
-							gen.start().waitFor();
-							
-							// After generation, if the client specifies
-							// to open the PDF, use the Chrome executable
-							// to display the file
-							//
-							// TODO: Use the system default PDF viewer
-							if( openPDFBox.isSelected() ) {
-								ProcessBuilder open = new ProcessBuilder( "cmd", "/c", saveDir );
-								// open.directory( new File( chromeAppPath ) );
-								open.start();
-							}
-						} catch( Exception ex ) {}
-						
-						// Disable generating
-						isGenerating.set( false );
+				// Re-check the history for the
+				// current company, and open the PDF
+				// if requested when queued
+				Platform.runLater( () -> {
+					updateAppliedNotice();
+					if( openPDF ) {
+						openPDF( job.getOutput() );
 					}
-				};
-				genOpen.setDaemon( true );
-				genOpen.start();
-				
-			} catch( Exception ex ) {
-				
-				// TODO: Set up logger
+				});
+			});
+		}
+		
+		/**
+		 * Queues a cover letter for every row of a batch
+		 * file chosen by the client; every letter of the
+		 * batch is generated for the current applicant and
+		 * job credentials, and each row without a job title
+		 * takes the job title on the panel
+		 * 
+		 * The letters of the batch are streamed into a
+		 * single ZIP archive chosen by the client as each
+		 * is generated, the archive being finished once
+		 * the whole batch has finished
+		 * 
+		 * Each generated letter is recorded within a
+		 * checkpoint beside the archive; choosing the same
+		 * batch file and archive again after an interrupted
+		 * or partly failed batch salvages the recorded
+		 * letters, and generates only the remaining rows,
+		 * provided the letters are again generated for the
+		 * same applicant, job credentials, job title, output
+		 * format, and name template
+		 */
+		@FXML
+		private void generateBatch() {
+			FileChooser chooser = new FileChooser();
+			chooser.setTitle( "Generate Batch" );
+			chooser.getExtensionFilters().add(
+					new ExtensionFilter( "Batch Files", "*.csv", "*.json" ) );
+			File file = chooser.showOpenDialog( getScene().getWindow() );
+			if( file == null ) {
+				return;
+			}
+			
+			FileChooser archiveChooser = new FileChooser();
+			archiveChooser.setTitle( "Save Batch" );
+			archiveChooser.setInitialDirectory( outputDir.toFile() );
+			archiveChooser.setInitialFileName( file.getName().
+					replaceFirst( "\\.[^.]*$", "" ) + "_Cover_Letters.zip" );
+			archiveChooser.getExtensionFilters().add(
+					new ExtensionFilter( "ZIP Archives", "*.zip" ) );
+			File archive = archiveChooser.showSaveDialog( getScene().getWindow() );
+			if( archive == null ) {
+				return;
+			}
+			
+			// Snapshot the applicant, job credentials, and
+			// job title, as for a single letter
+			Applicant applicant = saveAppInfo;
+			JobCredentials jobCred = saveJobCred;
+			String jobTitle = jobTitleField.getText();
+			OutputFormat format = formatBox.getValue();
+			OutputPathTemplate template = outputTemplate;
+			LocalDate today = LocalDate.now();
+			
+			// Reading the batch file, and opening its
+			// checkpoint and archive, grows with the batch,
+			// and so runs off of the JavaFX Application
+			// Thread; the letters are queued back on it
+			BATCH_PREPARER.execute( () -> {
+				List<BatchRow> rows;
+				String batchDigest;
+				try {
+					rows = BatchFile.read( file.toPath() );
+					batchDigest = OutputSink.digest( Files.readAllBytes( file.toPath() ) );
+				} catch( IOException ex ) {
+					LOG.warn( "Batch file unreadable", ex, "file", file );
+					Platform.runLater( () -> batchFailed(
+							"The batch file could not be read", ex ) );
+					return;
+				}
 				
-				ex.printStackTrace();
-				isGenerating.set( false );
+				PreparedBatch batch;
+				try {
+					batch = prepareBatch( file.toPath(), archive.toPath(), rows,
+							BatchCheckpoint.open( archive.toPath().resolveSibling(
+							archive.getName() + BatchCheckpoint.SUFFIX ), batchDigest,
+							BatchCheckpoint.inputs( applicant, jobCred, jobTitle,
+							format, template, today ) ), applicant, jobCred,
+							jobTitle, format, template, today );
+				} catch( IOException ex ) {
+					LOG.warn( "Batch archive unwritable", ex, "file", archive );
+					Platform.runLater( () -> batchFailed(
+							"The batch archive could not be created", ex ) );
+					return;
+				}
+				Platform.runLater( () -> queueBatch( batch ) );
+			});
+		}
+		
+		/**
+		 * Salvages the letters of an earlier run of a batch
+		 * recorded within its checkpoint, and creates the
+		 * job of every remaining row; runs off of the
+		 * JavaFX Application Thread
+		 * 
+		 * @param  file		  batch file
+		 * @param  archive	  ZIP archive receiving the letters
+		 * @param  rows		  rows of the batch file
+		 * @param  checkpoint open checkpoint of the batch,
+		 * 					  closed if the archive could
+		 * 					  not be created
+		 * @param  applicant  applicant of the letters
+		 * @param  jobCred	  job credentials of the letters
+		 * @param  jobTitle	  job title of the rows without one
+		 * @param  format	  output format of the letters
+		 * @param  template	  template naming the letters
+		 * @param  today	  date of generation
+		 * @return batch ready to be queued
+		 * @throws IOException if the archive could not be
+		 * 		   created
+		 */
+		private static PreparedBatch prepareBatch( Path file, Path archive,
+				List<BatchRow> rows, BatchCheckpoint checkpoint, Applicant applicant,
+				JobCredentials jobCred, String jobTitle, OutputFormat format,
+				OutputPathTemplate template, LocalDate today ) throws IOException {
+			
+			ZipSink sink;
+			try {
+				Map<String, String> salvage = new HashMap<>();
+				for( BatchCheckpoint.Record record : checkpoint.getRecords().values() ) {
+					salvage.put( record.getLocation(), record.getDigest() );
+				}
+				sink = new ZipSink( archive, salvage );
+				Set<String> salvaged = sink.getSalvaged();
+				if( checkpoint.retain( record -> salvaged.contains(
+						record.getLocation() ) ) > 0 ) {
+					LOG.info( "Batch resumed", "file", file, "salvaged", salvaged.size() );
+				}
+			} catch( IOException ex ) {
+				checkpoint.close();
+				throw ex;
+			}
+			
+			// A large batch is sharded into subdirectories
+			// of the archive
+			PreparedBatch batch = new PreparedBatch( file, archive,
+					checkpoint, sink, rows.size() );
+			for( int i = 0; i < rows.size(); i++ ) {
+				BatchRow row = rows.get( i );
+				if( checkpoint.isComplete( row.getRow() ) ) {
+					continue;
+				}
+				Company company = row.getCompany();
+				String rowTitle = row.getJobTitle( jobTitle );
+				String name = OutputPathTemplate.shard( template.expand(
+						applicant, company, jobCred, rowTitle, today,
+						format.getExtension() ), i, rows.size() );
+				batch.jobs.add( new GenerationJob( applicant, company, jobCred,
+						rowTitle, appDataDir.resolve( AutoCVPaths.GENERATED_DIR ),
+						sink, name, format ) );
+				batch.jobRows.add( row.getRow() );
+			}
+			return batch;
+		}
+		
+		/**
+		 * Queues the letters of a prepared batch
+		 * 
+		 * @param batch prepared batch
+		 */
+		private void queueBatch( PreparedBatch batch ) {
+			BatchCheckpoint checkpoint = batch.checkpoint;
+			
+			// Record each letter as it is generated, and
+			// finish the archive and re-check the history
+			// for the current company once every letter has
+			// been recorded; the checkpoint is kept while any
+			// letter of the batch remains ungenerated
+			List<CompletableFuture<GenerationJob>> futures =
+					generationQueue.submitBatch( batch.jobs );
+			CompletableFuture<?>[] recorded = new CompletableFuture<?>[ futures.size() ];
+			for( int i = 0; i < futures.size(); i++ ) {
+				int row = batch.jobRows.get( i );
+				recorded[ i ] = futures.get( i ).thenAccept( job -> {
+					record( job );
+					try {
+						checkpoint.complete( row, job.getOutputDigest(),
+								ZipSink.entryName( job.getOutput() ) );
+					} catch( IOException ex ) {
+						LOG.warn( "Checkpoint not written", ex, "row", row );
+					}
+				});
 			}
+			CompletableFuture.allOf( recorded ).whenComplete( ( v, ex ) -> {
+				boolean archived = false;
+				try {
+					batch.sink.close();
+					archived = true;
+					LOG.info( "Batch archived", "file", batch.archive );
+				} catch( IOException closeEx ) {
+					LOG.error( "Batch archive failed", closeEx, "file", batch.archive );
+				}
+				try {
+					if( archived && ex == null ) {
+						checkpoint.finish();
+					}
+					else {
+						checkpoint.close();
+					}
+				} catch( IOException checkpointEx ) {
+					LOG.warn( "Checkpoint not written", checkpointEx, "file", batch.archive );
+				}
+				Platform.runLater( this::updateAppliedNotice );
+			});
+			LOG.info( "Batch queued", "file", batch.file, "letters", batch.jobs.size(),
+					"skipped", batch.rows - batch.jobs.size() );
+		}
+		
+		/**
+		 * Displays the failure of a batch to the client
+		 * 
+		 * @param message description of the failure
+		 * @param ex	  cause of the failure
+		 */
+		private static void batchFailed( String message, IOException ex ) {
+			Alert failed = new Alert( AlertType.ERROR, message + ":\n\n"
+					+ ex.getMessage(), ButtonType.OK );
+			failed.setTitle( "Batch Failed" );
+			failed.show();
+		}
+		
+		/**
+		 * Enables or disables filling the subsequently
+		 * generated cover letters from their masters
+		 */
+		@FXML
+		private void toggleFillForms() {
+			generationQueue.getGenerator().setFormsEnabled(
+					fillForms.isSelected() );
 		}
 		
 		/**
@@ -766,48 +1874,42 @@ public class AutoCVGUI extends Application {
 		}
 		
 		/**
-		 * Instantiates and displays the main applicant
-		 * info panel; all components of this panel are
-		 * mutable barring the name field, which is
-		 * set by the contents of the config file
+		 * Displays the main applicant info panel; all
+		 * components of this panel are mutable barring
+		 * the name field, which is set by the contents
+		 * of the config file
 		 */
 		@FXML
 		private void editMainAppInfo() {
-			Scene appScene = new Scene( new MainApplicantInfoPanel() );
-			appScene.getStylesheets().setAll( stylesheets );
-			appInfoStage = new Stage();
-			appInfoStage.setScene( appScene );
-			
-			appInfoStage.show();
+			mainAppInfoStage.show();
 		}
 		
 		/**
-		 * Instantiates and displays the job
-		 * credentials panel
+		 * Displays the job credentials panel
 		 */
 		@FXML
 		private void editJobCredentials() {
-			Scene jcScene = new Scene( new JobCredentialsPanel() );
-			jcScene.getStylesheets().setAll( stylesheets );
-			Stage jcStage = new Stage();
-			jcStage.setScene( jcScene );
-			
-			jcStage.show();
+			jobCredStage.show();
 		}
 		
 		/**
-		 * Instantiates the config applicant info
-		 * panel; all components of this panel are
-		 * mutable, including the name field
+		 * Displays the config applicant info panel;
+		 * all components of this panel are mutable,
+		 * including the name field
 		 */
 		@FXML
 		private void editConfigAppInfo() {
-			Scene appScene = new Scene( new ConfigApplicantInfoPanel( false ) );
-			appScene.getStylesheets().setAll( stylesheets );
-			appInfoStage = new Stage();
-			appInfoStage.setScene( appScene );
-			
-			appInfoStage.show();
+			configAppInfoStage.show();
+		}
+		
+		/**
+		 * Displays the config applicant info panel in
+		 * set up mode; saving the panel stores the data
+		 * as a new profile and activates it
+		 */
+		@FXML
+		private void newProfile() {
+			appInfoStage = newProfileStage.show();
 		}
 	}
 	
@@ -930,13 +2032,119 @@ public class AutoCVGUI extends Application {
 		@FXML
 		public abstract void clickSaveButton();
 		
+		/**
+		 * Abstract routine for refreshing the fields
+		 * and controls of a cached panel with the
+		 * current applicant data before it is displayed
+		 * again
+		 */
+		public abstract void refresh();
+		
+		/**
+		 * Displays the given Applicant within the fields
+		 * and controls of the panel
+		 * 
+		 * @param app Applicant to display, or null to
+		 * 		  clear every field
+		 */
+		protected void displayApplicant( Applicant app ) {
+			if( app == null ) {
+				for( TextField field : Arrays.asList( nameField,
+						middleInitialField, emailField, gitHubField,
+						linkedInField, phoneField, presentSAField,
+						presentCSZField, presentRNField, permanentSAField,
+						permanentCSZField, permanentPOBField ) ) {
+					field.setText( "" );
+				}
+				schoolYearBox.setValue( null );
+				isRisingBox.setSelected( false );
+				return;
+			}
+			
+			nameField.setText( app.getName() );
+			middleInitialField.setText( app.getMiddleInitial() );
+			emailField.setText( app.getEmail() );
+			gitHubField.setText( app.getGitHubLink() );
+			linkedInField.setText( app.getLinkedInLink() );
+			phoneField.setText( app.getPhone() );
+			
+			schoolYearBox.setValue( app.getSchoolYear() );
+			
+			isRisingBox.setSelected( app.isRising() );
+			
+			Address add1 = app.getPresentAddress();
+			presentSAField.setText( add1.getStreetAddress() );
+			presentCSZField.setText( add1.getCityStateZip() );
+			presentRNField.setText( add1.getPOBoxRoom() );
+			
+			Address add2 = app.getPermanentAddress();
+			permanentSAField.setText( add2.getStreetAddress() );
+			permanentCSZField.setText( add2.getCityStateZip() );
+			permanentPOBField.setText( add2.getPOBoxRoom() );
+		}
+		
+		/**
+		 * Retrieves the value of the control editing
+		 * the given applicant field
+		 * 
+		 * @param  field applicant field
+		 * @return observable value of the control
+		 */
+		protected ObservableValue<?> control( ApplicantField field ) {
+			switch( field ) {
+				case NAME: return nameField.textProperty();
+				case MIDDLE_INITIAL: return middleInitialField.textProperty();
+				case EMAIL: return emailField.textProperty();
+				case GITHUB_LINK: return gitHubField.textProperty();
+				case LINKEDIN_LINK: return linkedInField.textProperty();
+				case PHONE: return phoneField.textProperty();
+				case SCHOOL_YEAR: return schoolYearBox.valueProperty();
+				case RISING: return isRisingBox.selectedProperty();
+				case PRESENT_STREET_ADDRESS: return presentSAField.textProperty();
+				case PRESENT_CITY_STATE_ZIP: return presentCSZField.textProperty();
+				case PRESENT_ROOM: return presentRNField.textProperty();
+				case PERMANENT_STREET_ADDRESS: return permanentSAField.textProperty();
+				case PERMANENT_CITY_STATE_ZIP: return permanentCSZField.textProperty();
+				default: return permanentPOBField.textProperty();
+			}
+		}
+		
+		/**
+		 * Registers the given trackers with every control
+		 * of the panel; each edit updates only the bit of
+		 * the edited field within each tracker
+		 * 
+		 * @param trackers dirty trackers of the panel
+		 */
+		protected void track( DirtyTracker... trackers ) {
+			for( ApplicantField field : ApplicantField.values() ) {
+				control( field ).addListener( ( t, old, n ) -> {
+					for( DirtyTracker tracker : trackers ) {
+						tracker.update( field, n );
+					}
+				});
+			}
+		}
+		
+		/**
+		 * Replaces the snapshot of the given tracker, and
+		 * compares every control against the new snapshot
+		 * 
+		 * @param tracker dirty tracker
+		 * @param app	  snapshot Applicant
+		 */
+		protected void snapshot( DirtyTracker tracker, Applicant app ) {
+			tracker.reset( app );
+			for( ApplicantField field : ApplicantField.values() ) {
+				tracker.update( field, control( field ).getValue() );
+			}
+		}
+		
 		/**
 		 * Converts the data specified in the fields and
 		 * controls to an Applicant; this routine is used
-		 * for determining when to activate and disable the
-		 * save button ( and refresh button in the main panel
-		 * subclass ), and for setting the Applicant fields
-		 * internally
+		 * for setting the Applicant fields internally
+		 * upon saving
 		 * 
 		 * @return Applicant containing all field and
 		 * 		   control data
@@ -969,7 +2177,7 @@ public class AutoCVGUI extends Application {
 	 * 
 	 * @since 1.0
 	 */
-	public static final class MainApplicantInfoPanel
+	public static class MainApplicantInfoPanel
 		extends ApplicantInfoPanel {
 		
 		/**
@@ -979,6 +2187,18 @@ public class AutoCVGUI extends Application {
 		@FXML
 		private Button refreshBtn;
 		
+		/**
+		 * Fields differing from the saved applicant;
+		 * the save button is active while any differ
+		 */
+		private final DirtyTracker savedTracker = new DirtyTracker();
+		
+		/**
+		 * Fields differing from the disk applicant;
+		 * the refresh button is active while any differ
+		 */
+		private final DirtyTracker diskTracker = new DirtyTracker();
+		
 		/**
 		 * Default constructor, initializing the
 		 * panel layout with the internal FXML
@@ -995,8 +2215,8 @@ public class AutoCVGUI extends Application {
 			try {
 				maip.load();
 			} catch( Exception ex ) {
-				// TODO: Implement Logger
-				ex.printStackTrace();
+				throw new IllegalStateException( "Unable to load " +
+						AutoCVPaths.MAIN_APP_INFO_PATH, ex );
 			}
 		}
 		
@@ -1007,81 +2227,24 @@ public class AutoCVGUI extends Application {
 		 */
 		@FXML
 		private void initialize() {
-			nameField.setText( saveAppInfo.getName() );
-			middleInitialField.setText( saveAppInfo.getMiddleInitial() );
-			emailField.setText( saveAppInfo.getEmail() );
-			gitHubField.setText( saveAppInfo.getGitHubLink() );
-			linkedInField.setText( saveAppInfo.getLinkedInLink() );
-			phoneField.setText( saveAppInfo.getPhone() );
-			
 			schoolYearBox.setItems( FXCollections.
 					observableArrayList( SchoolYear.
 					values() ) );
-			schoolYearBox.setValue( saveAppInfo.getSchoolYear() );
-			
-			isRisingBox.setSelected( saveAppInfo.isRising() );
-			
-			Address add1 = saveAppInfo.getPresentAddress();
-			presentSAField.setText( add1.getStreetAddress() );
-			presentCSZField.setText( add1.getCityStateZip() );
-			presentRNField.setText( add1.getPOBoxRoom() );
-			
-			Address add2 = saveAppInfo.getPermanentAddress();
-			permanentSAField.setText( add2.getStreetAddress() );
-			permanentCSZField.setText( add2.getCityStateZip() );
-			permanentPOBField.setText( add2.getPOBoxRoom() );
+			displayApplicant( saveAppInfo );
 			
 			// For a change in each field in the panel,
-			// determine if the save and refresh buttons
-			// are activated or disabled
-			ChangeListener<String> chs = new ChangeListener<String>() {
-
-				@Override
-				public void changed( ObservableValue<? extends String> str,
-					String o, String n ) {
-					
-					// Compile the Applicant specified by the
-					// field data of the panel
-					Applicant app = convertToApplicant();
-					
-					// If the Applicant is equivalent to
-					// the saved Applicant, disable the save
-					// button; otherwise, activate it
-					saveBtn.setDisable( app.equals( saveAppInfo ) );
-					
-					// If the Applicant is equivalent to
-					// the disk Applicant, disable the
-					// refresh button; otherwise, activate
-					// it
-					refreshBtn.setDisable( app.equals( diskAppInfo ) );
-				}
-			};
-			
-			nameField.textProperty().addListener( chs );
-			middleInitialField.textProperty().addListener( chs );
-			emailField.textProperty().addListener( chs );
-			gitHubField.textProperty().addListener( chs );
-			linkedInField.textProperty().addListener( chs );
-			phoneField.textProperty().addListener( chs );
-			
-			schoolYearBox.valueProperty().addListener( ( t, old, n ) -> {
-				Applicant app = convertToApplicant();
-				saveBtn.setDisable( app.equals( saveAppInfo ) );
-				refreshBtn.setDisable( app.equals( diskAppInfo ) );
-			});
-			
-			isRisingBox.selectedProperty().addListener( ( t, old, n ) -> {
-				Applicant app = convertToApplicant();
-				saveBtn.setDisable( app.equals( saveAppInfo ) );
-				refreshBtn.setDisable( app.equals( diskAppInfo ) );
-			});
+			// track whether the field differs from the
+			// saved and disk applicants; the save and
+			// refresh buttons are active while any
+			// field differs
+			track( savedTracker, diskTracker );
+			snapshot( savedTracker, saveAppInfo );
+			snapshot( diskTracker, diskAppInfo );
 			
-			presentSAField.textProperty().addListener( chs );
-			presentCSZField.textProperty().addListener( chs );
-			presentRNField.textProperty().addListener( chs );
-			permanentSAField.textProperty().addListener( chs );
-			permanentCSZField.textProperty().addListener( chs );
-			permanentPOBField.textProperty().addListener( chs );
+			saveBtn.disableProperty().bind( savedTracker.
+					dirtyProperty().not() );
+			refreshBtn.disableProperty().bind( diskTracker.
+					dirtyProperty().not() );
 		}
 		
 		/**
@@ -1092,9 +2255,11 @@ public class AutoCVGUI extends Application {
 		@Override
 		public void clickSaveButton() {
 			// Replace the current saved applicant,
-			// and disable the save button
+			// which disables the save button
 			saveAppInfo = convertToApplicant();
-			saveBtn.setDisable( true );
+			profileStore.setSavedApplicant( profileStore.
+					getActiveFile(), saveAppInfo );
+			snapshot( savedTracker, saveAppInfo );
 			
 			// Remove the focus from any of the
 			// components in the panel
@@ -1110,34 +2275,26 @@ public class AutoCVGUI extends Application {
 		 */
 		@FXML
 		public void clickRefreshButton() {
-			nameField.setText( diskAppInfo.getName() );
-			middleInitialField.setText( diskAppInfo.getMiddleInitial() );
-			emailField.setText( diskAppInfo.getEmail() );
-			gitHubField.setText( diskAppInfo.getGitHubLink() );
-			linkedInField.setText( diskAppInfo.getLinkedInLink() );
-			phoneField.setText( diskAppInfo.getPhone() );
-			
-			schoolYearBox.setValue( diskAppInfo.getSchoolYear() );
-			
-			isRisingBox.setSelected( diskAppInfo.isRising() );
-			
-			Address add1 = diskAppInfo.getPresentAddress();
-			presentSAField.setText( add1.getStreetAddress() );
-			presentCSZField.setText( add1.getCityStateZip() );
-			presentRNField.setText( add1.getPOBoxRoom() );
-			
-			Address add2 = diskAppInfo.getPermanentAddress();
-			permanentSAField.setText( add2.getStreetAddress() );
-			permanentCSZField.setText( add2.getCityStateZip() );
-			permanentPOBField.setText( add2.getPOBoxRoom() );
-			
-			// Disable the refresh button
-			refreshBtn.setDisable( true );
+			// Displaying the disk applicant disables
+			// the refresh button
+			displayApplicant( diskAppInfo );
 			
 			// Remove the focus from any of the
 			// components on the current panel
 			this.requestFocus();
 		}
+		
+		/**
+		 * Displays the saved applicant of the active
+		 * profile, discarding any unsaved edits
+		 */
+		@Override
+		public void refresh() {
+			displayApplicant( saveAppInfo );
+			snapshot( savedTracker, saveAppInfo );
+			snapshot( diskTracker, diskAppInfo );
+			this.requestFocus();
+		}
 	}
 	
 	/**
@@ -1158,6 +2315,13 @@ public class AutoCVGUI extends Application {
 		 */
 		private boolean setUpMode;
 		
+		/**
+		 * Fields differing from the disk applicant;
+		 * when not in set up mode, the save button is
+		 * active while any differ
+		 */
+		private final DirtyTracker diskTracker = new DirtyTracker();
+		
 		/**
 		 * Default constructor, initializing the
 		 * set up mode of the panel and instantating
@@ -1179,7 +2343,8 @@ public class AutoCVGUI extends Application {
 			try {
 				caip.load();
 			} catch( Exception ex ) {
-				ex.printStackTrace();
+				throw new IllegalStateException( "Unable to load " +
+						AutoCVPaths.CONFIG_APP_INFO_PATH, ex );
 			}
 		}
 		
@@ -1195,109 +2360,72 @@ public class AutoCVGUI extends Application {
 					values() ) );
 			
 			if( !setUpMode ) {
-				nameField.setText( diskAppInfo.getName() );
-				middleInitialField.setText( diskAppInfo.getMiddleInitial() );
-				emailField.setText( diskAppInfo.getEmail() );
-				gitHubField.setText( diskAppInfo.getGitHubLink() );
-				linkedInField.setText( diskAppInfo.getLinkedInLink() );
-				phoneField.setText( diskAppInfo.getPhone() );
-				
-				schoolYearBox.setValue( diskAppInfo.getSchoolYear() );
-				
-				isRisingBox.setSelected( diskAppInfo.isRising() );
-				
-				Address add1 = diskAppInfo.getPresentAddress();
-				presentSAField.setText( add1.getStreetAddress() );
-				presentCSZField.setText( add1.getCityStateZip() );
-				presentRNField.setText( add1.getPOBoxRoom() );
+				displayApplicant( diskAppInfo );
 				
-				Address add2 = diskAppInfo.getPermanentAddress();
-				permanentSAField.setText( add2.getStreetAddress() );
-				permanentCSZField.setText( add2.getCityStateZip() );
-				permanentPOBField.setText( add2.getPOBoxRoom() );
+				track( diskTracker );
+				snapshot( diskTracker, diskAppInfo );
 				
-				ChangeListener<String> chs = new ChangeListener<String>() {
-
-					@Override
-					public void changed( ObservableValue<? extends String> str,
-						String o, String n ) {
-						
-						saveBtn.setDisable( convertToApplicant().equals( diskAppInfo ) );
-					}
-				};
-				
-				nameField.textProperty().addListener( chs );
-				middleInitialField.textProperty().addListener( chs );
-				emailField.textProperty().addListener( chs );
-				gitHubField.textProperty().addListener( chs );
-				linkedInField.textProperty().addListener( chs );
-				phoneField.textProperty().addListener( chs );
-				
-				schoolYearBox.valueProperty().addListener( ( t, old, n ) -> {
-					saveBtn.setDisable( convertToApplicant().equals( diskAppInfo ) );
-				});
-				
-				isRisingBox.selectedProperty().addListener( ( t, old, n ) -> {
-					saveBtn.setDisable( convertToApplicant().equals( diskAppInfo ) );
-				});
-				
-				presentSAField.textProperty().addListener( chs );
-				presentCSZField.textProperty().addListener( chs );
-				presentRNField.textProperty().addListener( chs );
-				permanentSAField.textProperty().addListener( chs );
-				permanentCSZField.textProperty().addListener( chs );
-				permanentPOBField.textProperty().addListener( chs );
+				saveBtn.disableProperty().bind( diskTracker.
+						dirtyProperty().not() );
 			}
 		}
 		
 		/**
-		 * Overwrites the contents of the config file
-		 * with the data stored in the fields of the
-		 * applicant panel
+		 * Overwrites the contents of the active profile
+		 * file with the data stored in the fields of the
+		 * applicant panel; in set up mode, the data is
+		 * instead stored as a new profile, which becomes
+		 * the active profile
 		 */
 		@Override
 		public void clickSaveButton() {
-			// Constructs list of data from the fields
-			// and controls of the panel
-			List<String> appInfo = Arrays.asList( nameField.getText(),
-					middleInitialField.getText(), emailField.getText(),
-					gitHubField.getText(), linkedInField.getText(),
-					phoneField.getText(), String.valueOf( schoolYearBox.
-					getValue() ), String.valueOf( isRisingBox.isSelected() ),
-					presentSAField.getText(), presentCSZField.getText(),
-					presentRNField.getText(), permanentSAField.getText(),
-					permanentCSZField.getText(), permanentPOBField.getText() );
+			// Compile the Applicant from the field data,
+			// and resolve the profile file to write
+			Applicant app = convertToApplicant();
+			Path file = setUpMode ? profileStore.newProfileFile( app ) :
+				profileStore.getActiveFile();
 			
-			try {
-				// Write app info contents to config file
-				Files.write( Paths.get( AutoCVGUI.class.getClass().
-						getResource( AutoCVPaths.APP_DATA_PATH ).
-						toExternalForm() ), appInfo,
-						StandardCharsets.UTF_8,
-						StandardOpenOption.CREATE );
-			} catch( Exception ex ) {
-				// TODO: Initialize Logger
-			}
+			// Queue the app info contents for writing
+			// to the profile file; failures are reported
+			// by the profile writer
+			profileWriter.submit( file, profileStore.encode( app ) );
 			
 			// Replace disk applicant with Applicant
 			// compiled from field data
-			diskAppInfo = convertToApplicant();
+			profileStore.setDiskApplicant( file, app );
+			diskAppInfo = app;
 			
-			// If in set up mode, close the applicant
-			// panel - this is used in the UI initialization
-			// for displaying the Main Panel afterwards;
-			// otherwise, disable the save button
+			// If in set up mode, activate the new profile
+			// and close the applicant panel - this is used
+			// in the UI initialization for displaying the
+			// Main Panel afterwards; otherwise, disable the
+			// save button
 			if( setUpMode ) {
-				appInfoStage.close();
+				activateProfile( file );
 			}
 			else {
-				saveBtn.setDisable( true );
+				// Disables the save button
+				snapshot( diskTracker, app );
 				
 				// Remove the focus from all components
 				// within the applicant panel
 				this.requestFocus();
 			}
 		}
+		
+		/**
+		 * Displays the disk applicant of the active
+		 * profile, or clears every field in set up mode,
+		 * discarding any unsaved edits
+		 */
+		@Override
+		public void refresh() {
+			displayApplicant( setUpMode ? null : diskAppInfo );
+			if( !setUpMode ) {
+				snapshot( diskTracker, diskAppInfo );
+			}
+			this.requestFocus();
+		}
 	}
 	
 	/**
@@ -1358,8 +2486,8 @@ public class AutoCVGUI extends Application {
 			try {
 				jcp.load();
 			} catch( Exception ex ) {
-				// TODO: Initialize Logger
-				System.out.println( ex.getMessage() );
+				throw new IllegalStateException( "Unable to load " +
+						AutoCVPaths.JOB_CRED_PATH, ex );
 			}
 		}
 		
@@ -1384,7 +2512,7 @@ public class AutoCVGUI extends Application {
 			// accepts valid years for the year field
 			// (i.e. maximum of four digits)
 			final UnaryOperator<Change> op = new UnaryOperator<Change>() {
-
+				
 				private static final int MAX_LENGTH = 4;
 				
 				@Override
@@ -1433,12 +2561,23 @@ public class AutoCVGUI extends Application {
 			});
 		}
 		
+		/**
+		 * Displays the saved job credentials,
+		 * discarding any unsaved edits
+		 */
+		public void refresh() {
+			jobSeasonBox.setValue( saveJobCred.getJobSeason() );
+			jobTypeBox.setValue( saveJobCred.getJobType() );
+			yearField.setText( saveJobCred.getYear() );
+			saveBtn.setDisable( true );
+		}
+		
 		/**
 		 * Replaces the current saved job
 		 * credentials
 		 */
 		@FXML
-		private void clickSave() {
+		public void clickSave() {
 			saveJobCred = convertToJobCredentials();
 			saveBtn.setDisable( true );
 		}
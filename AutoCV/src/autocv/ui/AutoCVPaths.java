@@ -10,6 +10,10 @@ package autocv.ui;
  * modifying the config file, loading the FXML for the
  * internal Stages, etc;
  * 
+ * Paths beginning with a slash are read-only classpath
+ * resources; all mutable state is instead stored by
+ * name within the per-user data directory
+ * 
  * The HTML Builder class utilizes the base HTML path
  * for referencing the fields to replace with the
  * custom applicant data, and the final HTML path for
@@ -28,6 +32,15 @@ public interface AutoCVPaths {
 	 */
 	public static final String FONTS_PATH = "/fonts/";
 	
+	/**
+	 * Names of the fonts within the FONTS directory
+	 * used by the first scene; these are registered
+	 * before the first Stage is displayed, and every
+	 * other font afterwards
+	 */
+	public static final String[] PRIMARY_FONTS = {
+			"exo_regular.otf", "nimbus-sans-regular.otf" };
+	
 	/**
 	 * Main Panel path to the FXML layout file
 	 * located in the FXML directory
@@ -54,38 +67,97 @@ public interface AutoCVPaths {
 	public static final String JOB_CRED_PATH = "/fxml/JobCredentialsPanel.fxml";
 	
 	/**
-	 * Path to the internal config file, storing the
-	 * applicant data preferences of the client
+	 * Name of the program FXML directory, storing the
+	 * layouts of every Stage within the UI class
 	 */
-	public static final String APP_DATA_PATH = "/app_data/config.info";
+	public static final String LAYOUTS_PATH = "/fxml/";
 	
 	/**
-	 * Name of the program CSS directory, storing all
-	 * of the style sheets associated with the Stages
-	 * within the UI class
+	 * Path to the resource manifest, listing every font,
+	 * style sheet, and layout bundled with the program;
+	 * the resources are located through this manifest
+	 * rather than by listing their directories, which
+	 * is not possible from a jar
 	 */
-	public static final String CSS_PATH = "/css";
+	public static final String RESOURCE_MANIFEST_PATH = "/resources.manifest";
+	
+	/**
+	 * Name of the config file within the data directory,
+	 * storing the applicant data preferences of the client
+	 */
+	public static final String CONFIG_FILE = "config.info";
+	
+	/**
+	 * Path to the internal app data directory, in which
+	 * earlier versions stored the config file; its contents
+	 * are migrated into the data directory on first launch
+	 */
+	public static final String APP_DATA_DIR = "/app_data/";
+	
+	/**
+	 * Name of the profiles directory within the data
+	 * directory; each applicant profile beyond the one
+	 * stored in the config file is stored here as its
+	 * own file
+	 */
+	public static final String PROFILES_DIR = "profiles";
+	
+	/**
+	 * Name of the history directory within the data
+	 * directory, containing the segments of the journal
+	 * of every generated cover letter
+	 */
+	public static final String HISTORY_DIR = "history";
+	
+	/**
+	 * Name of the logs directory within the data
+	 * directory, containing the rotating log files
+	 */
+	public static final String LOGS_DIR = "logs";
+	
+	/**
+	 * Name of the forms directory within the data
+	 * directory, containing the master PDFs from which
+	 * cover letters are filled
+	 */
+	public static final String FORMS_DIR = "forms";
+	
+	/**
+	 * Name of the output file within the data directory,
+	 * storing the template of the path of each generated
+	 * cover letter
+	 */
+	public static final String OUTPUT_FILE = "output.properties";
 	
 	/**
-	 * Default Windows system path to the Chrome executable;
-	 * for 64-bit editions of Chrome version 85.0 and higher,
-	 * the executable will be located in this directory
+	 * Name of the directory within the data directory
+	 * watched by the daemon mode, unless the daemon is
+	 * given another; holds the inbox, outbox, and
+	 * dead-letter directories
 	 */
-	public static final String CHROME_DEFAULT_PATH = "C:/Program Files/Google/Chrome/Application";
+	public static final String DAEMON_DIR = "daemon";
 	
 	/**
-	 * Secondary Windows system path to the Chrome executable;
-	 * for 64-bit editions of Chrome prior to version 85.0,
-	 * the executable will be located in this directory
+	 * Name of the program CSS directory, storing all
+	 * of the style sheets associated with the Stages
+	 * within the UI class
 	 */
-	public static final String CHROME_X86_PATH = "C:/Program Files (x86)/Google/Chrome/Application";
+	public static final String CSS_PATH = "/css";
 	
 	/** Path to the base cover letter HTML file */
 	public static String HTML_BASE_PATH = "/cover_letter_data/cvbase.html";
 	
 	/**
-	 * Path which to write the custom HTML and convert
+	 * Path to the style sheet linked by the base cover
+	 * letter HTML file
+	 */
+	public static String HTML_STYLE_PATH = "/cover_letter_data/cvstyle.css";
+	
+	/**
+	 * Name of the directory within the data directory
+	 * which to write the self-contained custom HTML of
+	 * each letter, under the id of its job, and convert
 	 * the document to PDF
 	 */
-	public static String AUTO_GEN_HTML_PATH = "/cover_letter_data/auto_gen_cover_letter.html";
+	public static final String GENERATED_DIR = "generated";
 }
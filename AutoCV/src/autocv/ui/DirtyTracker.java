@@ -0,0 +1,79 @@
+package autocv.ui;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+import autocv.data.Applicant;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+/**
+ * Tracks which fields of an applicant info panel differ
+ * from a stored snapshot Applicant, such as the saved or
+ * disk applicant
+ * 
+ * Each edit compares only the edited field against the
+ * snapshot and updates a single bit, so that an edit
+ * costs constant time and allocates nothing; the panel
+ * is dirty while any bit is set
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class DirtyTracker {
+	
+	/** Snapshot values, indexed by field ordinal */
+	private final Object[] snapshot;
+	
+	/** Fields differing from the snapshot */
+	private final BitSet dirty;
+	
+	/** True while any field differs from the snapshot */
+	private final ReadOnlyBooleanWrapper isDirty;
+	
+	/**
+	 * Default constructor, initializing a clean
+	 * tracker with an empty snapshot
+	 */
+	DirtyTracker() {
+		snapshot = new Object[ ApplicantField.COUNT ];
+		dirty = new BitSet( ApplicantField.COUNT );
+		isDirty = new ReadOnlyBooleanWrapper();
+	}
+	
+	/**
+	 * Replaces the snapshot with the fields of the given
+	 * Applicant; the dirty fields are not recomputed, and
+	 * the panel must update every field afterwards
+	 * 
+	 * @param app snapshot Applicant
+	 */
+	void reset( Applicant app ) {
+		for( ApplicantField field : ApplicantField.values() ) {
+			snapshot[ field.ordinal() ] = field.valueOf( app );
+		}
+	}
+	
+	/**
+	 * Compares the edited value of a field against
+	 * the snapshot
+	 * 
+	 * @param field edited field
+	 * @param value current value of the field
+	 */
+	void update( ApplicantField field, Object value ) {
+		dirty.set( field.ordinal(), !Objects.equals(
+				snapshot[ field.ordinal() ], value ) );
+		isDirty.set( !dirty.isEmpty() );
+	}
+	
+	/**
+	 * Property which is true while any field differs
+	 * from the snapshot
+	 * 
+	 * @return read-only dirty property
+	 */
+	ReadOnlyBooleanProperty dirtyProperty() {
+		return isDirty.getReadOnlyProperty();
+	}
+}
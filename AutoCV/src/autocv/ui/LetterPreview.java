@@ -0,0 +1,210 @@
+package autocv.ui;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import autocv.html.CoverLetterTemplate;
+import autocv.parser.CoverLetterField;
+import javafx.animation.AnimationTimer;
+import javafx.concurrent.Worker;
+import javafx.scene.web.WebView;
+
+/**
+ * Live preview of the cover letter displayed beside the
+ * fields of the Main Panel
+ * 
+ * The preview is rendered in full once from the compiled
+ * cover letter template, with every slot wrapped in an
+ * element naming its field; each subsequent edit updates
+ * only the elements of the edited fields
+ * 
+ * Edits are collected until the next frame, so that any
+ * number of edits within a single frame cost a single
+ * script execution; no script executes on frames
+ * without edits
+ * 
+ * All methods must be called on the JavaFX Application
+ * Thread
+ * 
+ * @author Weston Greene
+ * @since  1.1
+ */
+final class LetterPreview {
+	
+	/** Scale of the letter within the preview */
+	private static final double ZOOM = 0.5;
+	
+	/**
+	 * End of the head of the base HTML, before which
+	 * the slot update script is inserted
+	 */
+	private static final String HEAD_END = "</head>";
+	
+	/** Script defining the slot update function */
+	private static final String SET_SCRIPT = "<script>function autocvSet(f,v){"
+			+ "var s=document.querySelectorAll('[data-slot=\"'+f+'\"]');"
+			+ "for(var i=0;i<s.length;i++){s[i].textContent=v;}}</script>";
+	
+	/** View displaying the letter */
+	private final WebView view;
+	
+	/** Compiled cover letter template */
+	private final CoverLetterTemplate template;
+	
+	/** Field values edited since the last frame */
+	private final Map<CoverLetterField, String> pending;
+	
+	/** Applies the pending edits upon the next frame */
+	private final AnimationTimer frame;
+	
+	/** True once the rendered letter has loaded */
+	private boolean loaded;
+	
+	/** True while the frame timer is running */
+	private boolean scheduled;
+	
+	/**
+	 * Default constructor, instantiating the view
+	 * for the given template; nothing is displayed
+	 * until the letter is first rendered
+	 * 
+	 * @param template compiled cover letter template
+	 */
+	LetterPreview( CoverLetterTemplate template ) {
+		this.template = template;
+		pending = new EnumMap<>( CoverLetterField.class );
+		
+		view = new WebView();
+		view.setZoom( ZOOM );
+		view.getEngine().getLoadWorker().stateProperty().addListener(
+				( t, old, n ) -> {
+			loaded = n == Worker.State.SUCCEEDED;
+			if( loaded ) {
+				schedule();
+			}
+		});
+		
+		frame = new AnimationTimer() {
+			
+			@Override
+			public void handle( long now ) {
+				flush();
+			}
+		};
+	}
+	
+	/**
+	 * Retrieves the view displaying the letter
+	 * 
+	 * @return preview view
+	 */
+	WebView getView() {
+		return view;
+	}
+	
+	/**
+	 * Renders the entire letter, replacing any
+	 * pending edits; used when the applicant or job
+	 * credentials of the letter change; the template
+	 * is self-contained, so the letter loads without
+	 * resolving any other file
+	 * 
+	 * @param values value of each field
+	 */
+	void render( Function<CoverLetterField, String> values ) {
+		
+		pending.clear();
+		loaded = false;
+		
+		String html = template.render( f -> "<span data-slot=\"" +
+				f.name() + "\">" + escapeHtml( values.apply( f ) ) + "</span>" );
+		html = html.replace( HEAD_END, SET_SCRIPT + HEAD_END );
+		view.getEngine().loadContent( html );
+	}
+	
+	/**
+	 * Updates the given field of the letter upon
+	 * the next frame
+	 * 
+	 * @param field edited field
+	 * @param value new value of the field
+	 */
+	void set( CoverLetterField field, String value ) {
+		pending.put( field, value );
+		schedule();
+	}
+	
+	/**
+	 * Starts the frame timer if edits are pending
+	 * and the letter has loaded
+	 */
+	private void schedule() {
+		if( loaded && !scheduled && !pending.isEmpty() ) {
+			scheduled = true;
+			frame.start();
+		}
+	}
+	
+	/**
+	 * Applies every pending edit with a single script,
+	 * and stops the frame timer
+	 */
+	private void flush() {
+		frame.stop();
+		scheduled = false;
+		if( !loaded || pending.isEmpty() ) {
+			return;
+		}
+		
+		StringBuilder script = new StringBuilder();
+		for( Map.Entry<CoverLetterField, String> edit : pending.entrySet() ) {
+			script.append( "autocvSet('" ).append( edit.getKey().name() ).
+				append( "','" ).append( escapeScript( edit.getValue() ) ).
+				append( "');" );
+		}
+		pending.clear();
+		view.getEngine().executeScript( script.toString() );
+	}
+	
+	/**
+	 * Escapes the given value for display as HTML text
+	 * 
+	 * @param  value field value, possibly null
+	 * @return escaped value
+	 */
+	private static String escapeHtml( String value ) {
+		if( value == null ) {
+			return "";
+		}
+		return value.replace( "&", "&amp;" ).replace( "<", "&lt;" ).
+				replace( ">", "&gt;" );
+	}
+	
+	/**
+	 * Escapes the given value for use within a single
+	 * quoted script string
+	 * 
+	 * @param  value field value, possibly null
+	 * @return escaped value
+	 */
+	private static String escapeScript( String value ) {
+		if( value == null ) {
+			return "";
+		}
+		StringBuilder out = new StringBuilder( value.length() + 8 );
+		for( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt( i );
+			switch( c ) {
+				case '\\': out.append( "\\\\" ); break;
+				case '\'': out.append( "\\'" ); break;
+				case '\n': out.append( "\\n" ); break;
+				case '\r': out.append( "\\r" ); break;
+				case '\u2028': out.append( "\\u2028" ); break;
+				case '\u2029': out.append( "\\u2029" ); break;
+				default: out.append( c );
+			}
+		}
+		return out.toString();
+	}
+}